@@ -0,0 +1,264 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.alert;
+
+import io.hops.hopsworks.alert.util.ConfigUtil;
+import io.hops.hopsworks.alert.util.Constants;
+import io.hops.hopsworks.alerting.config.ConfigUpdater;
+import io.hops.hopsworks.alerting.config.dto.AlertManagerConfig;
+import io.hops.hopsworks.alerting.config.dto.Global;
+import io.hops.hopsworks.alerting.config.dto.InhibitRule;
+import io.hops.hopsworks.alerting.config.dto.Receiver;
+import io.hops.hopsworks.alerting.config.dto.Route;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigReadException;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigUpdateException;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerDuplicateEntryException;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerNoSuchElementException;
+import io.hops.hopsworks.persistence.entity.project.Project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A set of Alertmanager configuration changes that are validated together and applied with a single write and
+ * reload.
+ * Changes are recorded as operations, not as a copy of the configuration, so they are replayed on top of the latest
+ * configuration in the database when committed. Transactions staged concurrently, on this or on other nodes, are
+ * merged this way instead of overwriting each other.
+ * A transaction can be committed only once.
+ */
+public class AMConfigTransaction {
+
+  @FunctionalInterface
+  interface Mutation {
+    void apply(AlertManagerConfig alertManagerConfig, List<ReceiverChange> receiverChanges)
+      throws AlertManagerDuplicateEntryException, AlertManagerNoSuchElementException;
+  }
+
+  /**
+   * A receiver to save to, or to remove from (receiver == null), the alert receiver table once the configuration is
+   * applied.
+   */
+  static class ReceiverChange {
+    private final String name;
+    private final Receiver receiver;
+
+    ReceiverChange(String name, Receiver receiver) {
+      this.name = name;
+      this.receiver = receiver;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Receiver getReceiver() {
+      return receiver;
+    }
+  }
+
+  private final List<Mutation> mutations = new ArrayList<>();
+  private boolean done;
+  private boolean changed;
+  private Exception failure;
+
+  public AMConfigTransaction() {
+  }
+
+  public AMConfigTransaction updateGlobal(Global global) {
+    mutations.add((config, receiverChanges) -> ConfigUpdater.updateGlobal(config, global));
+    return this;
+  }
+
+  public AMConfigTransaction updateTemplates(List<String> templates) {
+    mutations.add((config, receiverChanges) -> ConfigUpdater.updateTemplates(config, templates));
+    return this;
+  }
+
+  public AMConfigTransaction updateGlobalRoute(Route route) {
+    mutations.add((config, receiverChanges) -> ConfigUpdater.updateGlobalRoute(config, route));
+    return this;
+  }
+
+  public AMConfigTransaction updateInhibitRules(List<InhibitRule> inhibitRules) {
+    mutations.add((config, receiverChanges) -> ConfigUpdater.updateInhibitRules(config, inhibitRules));
+    return this;
+  }
+
+  public AMConfigTransaction addReceiver(Receiver receiver) {
+    mutations.add((config, receiverChanges) -> {
+      ConfigUpdater.addReceiver(config, receiver);
+      receiverChanges.add(new ReceiverChange(receiver.getName(), receiver));
+    });
+    return this;
+  }
+
+  public AMConfigTransaction updateReceiver(String name, Receiver receiver) {
+    mutations.add((config, receiverChanges) -> {
+      ConfigUpdater.updateReceiver(config, name, receiver);
+      receiverChanges.add(new ReceiverChange(name, receiver));
+    });
+    return this;
+  }
+
+  public AMConfigTransaction removeReceiver(String name, boolean cascade) {
+    mutations.add((config, receiverChanges) -> {
+      if (ConfigUpdater.removeReceiver(config, name, cascade) != null) {
+        receiverChanges.add(new ReceiverChange(name, null));
+      }
+    });
+    return this;
+  }
+
+  public AMConfigTransaction addRoute(Route route) {
+    mutations.add((config, receiverChanges) -> ConfigUpdater.addRoute(config, route));
+    return this;
+  }
+
+  /**
+   * Same as addRoute but does nothing if the route already exists.
+   */
+  public AMConfigTransaction addRouteIfNotExist(Route route) {
+    mutations.add((config, receiverChanges) -> {
+      try {
+        ConfigUpdater.addRoute(config, route);
+      } catch (AlertManagerDuplicateEntryException e) {
+        // route exists
+      }
+    });
+    return this;
+  }
+
+  public AMConfigTransaction updateRoute(Route routeToUpdate, Route route) {
+    mutations.add((config, receiverChanges) -> ConfigUpdater.updateRoute(config, routeToUpdate, route));
+    return this;
+  }
+
+  public AMConfigTransaction removeRoute(Route route) {
+    mutations.add((config, receiverChanges) -> ConfigUpdater.removeRoute(config, route));
+    return this;
+  }
+
+  /**
+   * Removes all receivers of the project and all routes that match the project or point to one of its receivers.
+   */
+  public AMConfigTransaction cleanProject(Project project) {
+    mutations.add((config, receiverChanges) -> {
+      String prefix = Constants.RECEIVER_NAME_PREFIX.replace(Constants.PROJECT_PLACE_HOLDER, project.getName());
+      List<Receiver> receiversToRemove = new ArrayList<>();
+      if (config.getReceivers() != null) {
+        for (Receiver receiver : config.getReceivers()) {
+          if (receiver.getName().startsWith(prefix)) {
+            receiversToRemove.add(receiver);
+          }
+        }
+        config.getReceivers().removeAll(receiversToRemove);
+      }
+      if (config.getRoute() != null && config.getRoute().getRoutes() != null) {
+        config.getRoute().getRoutes().removeIf(route -> ConfigUtil.isRouteInProject(route, project) ||
+          receiversToRemove.contains(new Receiver(route.getReceiver())));
+      }
+      for (Receiver receiver : receiversToRemove) {
+        receiverChanges.add(new ReceiverChange(receiver.getName(), null));
+      }
+    });
+    return this;
+  }
+
+  public boolean isEmpty() {
+    return mutations.isEmpty();
+  }
+
+  /**
+   * Applies the staged changes to alertManagerConfig and validates the result once.
+   * @return the receivers to save to the database
+   */
+  List<ReceiverChange> applyTo(AlertManagerConfig alertManagerConfig) throws AlertManagerDuplicateEntryException,
+    AlertManagerNoSuchElementException, AlertManagerConfigUpdateException {
+    Set<String> undefined = getUndefinedReceivers(alertManagerConfig);
+    List<ReceiverChange> receiverChanges = new ArrayList<>();
+    for (Mutation mutation : mutations) {
+      mutation.apply(alertManagerConfig, receiverChanges);
+    }
+    // Alertmanager refuses to load routes that point to undefined receivers. Checking it here saves a write, a failed
+    // reload and a rollback.
+    Set<String> undefinedAfter = getUndefinedReceivers(alertManagerConfig);
+    undefinedAfter.removeAll(undefined);
+    if (!undefinedAfter.isEmpty()) {
+      throw new AlertManagerConfigUpdateException("Routes refer to undefined receivers. Receivers=" + undefinedAfter);
+    }
+    return receiverChanges;
+  }
+
+  private Set<String> getUndefinedReceivers(AlertManagerConfig alertManagerConfig) {
+    Set<String> undefined = new HashSet<>();
+    Route root = alertManagerConfig.getRoute();
+    if (root == null) {
+      return undefined;
+    }
+    List<Route> routes = new ArrayList<>(root.getRoutes() != null ? root.getRoutes() : Collections.emptyList());
+    routes.add(root);
+    for (Route route : routes) {
+      if (route.getReceiver() != null) {
+        undefined.add(route.getReceiver());
+      }
+    }
+    if (alertManagerConfig.getReceivers() != null) {
+      for (Receiver receiver : alertManagerConfig.getReceivers()) {
+        undefined.remove(receiver.getName());
+      }
+    }
+    return undefined;
+  }
+
+  boolean isDone() {
+    return done;
+  }
+
+  void committed(boolean changed) {
+    this.done = true;
+    this.changed = changed;
+  }
+
+  void failed(Exception failure) {
+    this.done = true;
+    this.failure = failure;
+  }
+
+  /**
+   * @return true if the transaction changed the configuration
+   */
+  boolean getResult() throws AlertManagerDuplicateEntryException, AlertManagerNoSuchElementException,
+    AlertManagerConfigUpdateException, AlertManagerConfigReadException {
+    if (failure == null) {
+      return changed;
+    } else if (failure instanceof AlertManagerDuplicateEntryException) {
+      throw (AlertManagerDuplicateEntryException) failure;
+    } else if (failure instanceof AlertManagerNoSuchElementException) {
+      throw (AlertManagerNoSuchElementException) failure;
+    } else if (failure instanceof AlertManagerConfigUpdateException) {
+      throw (AlertManagerConfigUpdateException) failure;
+    } else if (failure instanceof AlertManagerConfigReadException) {
+      throw (AlertManagerConfigReadException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    throw new AlertManagerConfigUpdateException(failure.getMessage(), failure);
+  }
+}
@@ -21,30 +21,22 @@ import com.google.common.annotations.VisibleForTesting;
 import fish.payara.cluster.Clustered;
 import io.hops.hopsworks.alert.dao.AlertManagerConfigFacade;
 import io.hops.hopsworks.alert.dao.AlertReceiverFacade;
-import io.hops.hopsworks.alert.util.ConfigUtil;
-import io.hops.hopsworks.alert.util.Constants;
 import io.hops.hopsworks.alerting.api.AlertManagerClient;
 import io.hops.hopsworks.alerting.config.AlertManagerConfigController;
-import io.hops.hopsworks.alerting.config.ConfigUpdater;
 import io.hops.hopsworks.alerting.config.dto.AlertManagerConfig;
-import io.hops.hopsworks.alerting.config.dto.Global;
-import io.hops.hopsworks.alerting.config.dto.InhibitRule;
-import io.hops.hopsworks.alerting.config.dto.Receiver;
-import io.hops.hopsworks.alerting.config.dto.Route;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigReadException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigUpdateException;
-import io.hops.hopsworks.alerting.exceptions.AlertManagerDuplicateEntryException;
-import io.hops.hopsworks.alerting.exceptions.AlertManagerNoSuchElementException;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerServerException;
 import io.hops.hopsworks.persistence.entity.alertmanager.AlertManagerConfigEntity;
-import io.hops.hopsworks.persistence.entity.project.Project;
 import org.json.JSONObject;
 
 import javax.ejb.Singleton;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -104,37 +96,6 @@ public class AMConfigUpdater implements Serializable {
     }
   }
 
-  private void saveConfigAndReceiver(JSONObject alertManagerConfig, String oldName, String newName,
-      JSONObject alertReceiver, AlertManagerConfigFacade alertManagerConfigFacade,
-      AlertReceiverFacade alertReceiverFacade) {
-    alertManagerConfigFacade.saveToDatabase(alertManagerConfig);
-    if (alertReceiver != null) {
-      alertReceiverFacade.saveReceiverToDatabase(oldName, newName, alertReceiver);
-    } else {
-      alertReceiverFacade.removeReceiverFromDatabase(oldName);
-    }
-  }
-
-  private void saveToDatabase(AlertManagerConfig alertManagerConfig, String receiverName, Receiver receiver,
-      AlertManagerConfigFacade alertManagerConfigFacade, AlertReceiverFacade alertReceiverFacade)
-      throws AlertManagerConfigUpdateException {
-    try {
-      ObjectMapper objectMapper = new ObjectMapper();
-      JSONObject alertManagerConfigJson = new JSONObject(objectMapper.writeValueAsString(alertManagerConfig));
-      JSONObject receiverJson = null;
-      String newReceiverName = null;
-      if (receiver != null) {
-        receiverJson = new JSONObject(objectMapper.writeValueAsString(receiver));
-        newReceiverName = receiver.getName();
-      }
-      saveConfigAndReceiver(alertManagerConfigJson, receiverName, newReceiverName, receiverJson,
-        alertManagerConfigFacade, alertReceiverFacade);
-    } catch (JsonProcessingException e) {
-      throw new AlertManagerConfigUpdateException(
-        "Can not save config to database. Failed to parse config to json. " + e.getMessage(), e);
-    }
-  }
-
   public void writeAndReload(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
       AlertManagerConfig alertManagerConfig, AlertManagerConfigFacade alertManagerConfigFacade)
       throws AlertManagerConfigUpdateException,
@@ -150,21 +111,6 @@ public class AMConfigUpdater implements Serializable {
     }
   }
 
-  public void writeAndReload(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      AlertManagerConfig alertManagerConfig, String name, Receiver receiver,
-      AlertManagerConfigFacade alertManagerConfigFacade, AlertReceiverFacade alertReceiverFacade)
-      throws AlertManagerConfigUpdateException, AlertManagerConfigReadException {
-    if (alertManagerConfig != null) {
-      updateAlertManagerConfig(alertManagerConfigController, client, alertManagerConfig);
-      try {
-        saveToDatabase(alertManagerConfig, name, receiver, alertManagerConfigFacade, alertReceiverFacade);
-      } catch (Exception e) {
-        restoreFromDb(alertManagerConfigController, client, alertManagerConfigFacade);
-        throw e;
-      }
-    }
-  }
-
   private AlertManagerConfig read(AlertManagerConfigController alertManagerConfigController,
       AlertManagerConfigFacade alertManagerConfigFacade) throws AlertManagerConfigReadException {
     //First read from database
@@ -174,133 +120,68 @@ public class AMConfigUpdater implements Serializable {
     return alertManagerConfig.orElse(alertManagerConfigController.read());
   }
 
-  public void updateGlobal(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      Global global, AlertManagerConfigFacade alertManagerConfigFacade) throws AlertManagerConfigReadException,
-      AlertManagerConfigUpdateException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    ConfigUpdater.updateGlobal(alertManagerConfig, global);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, alertManagerConfigFacade);
-  }
-
-  public void updateTemplates(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      List<String> templates, AlertManagerConfigFacade alertManagerConfigFacade) throws AlertManagerConfigReadException,
-      AlertManagerConfigUpdateException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    ConfigUpdater.updateTemplates(alertManagerConfig, templates);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, alertManagerConfigFacade);
-  }
-
-  public void updateGlobalRoute(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      Route route, AlertManagerConfigFacade alertManagerConfigFacade) throws AlertManagerConfigReadException,
+  /**
+   * Replays the transactions, in order, on top of the latest configuration and applies the result with a single
+   * write and reload. A transaction that fails to apply or to validate is marked as failed and left out, without
+   * affecting the others in the batch.
+   * @return true if the configuration was changed
+   */
+  public boolean commit(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
+      List<AMConfigTransaction> transactions, AlertManagerConfigFacade alertManagerConfigFacade,
+      AlertReceiverFacade alertReceiverFacade) throws AlertManagerConfigReadException,
       AlertManagerConfigUpdateException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    ConfigUpdater.updateGlobalRoute(alertManagerConfig, route);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, alertManagerConfigFacade);
-  }
-
-  public void updateInhibitRules(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      List<InhibitRule> inhibitRules, AlertManagerConfigFacade alertManagerConfigFacade)
-      throws AlertManagerConfigReadException, AlertManagerConfigUpdateException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    ConfigUpdater.updateInhibitRules(alertManagerConfig, inhibitRules);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, alertManagerConfigFacade);
-  }
-
-  public void addReceiver(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      Receiver receiver, AlertManagerConfigFacade alertManagerConfigFacade, AlertReceiverFacade alertReceiverFacade)
-      throws AlertManagerDuplicateEntryException, AlertManagerConfigUpdateException,
-    AlertManagerConfigReadException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    ConfigUpdater.addReceiver(alertManagerConfig, receiver);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, receiver.getName(), receiver,
-      alertManagerConfigFacade, alertReceiverFacade);
-  }
-
-  public void updateReceiver(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      String name, Receiver receiver, AlertManagerConfigFacade alertManagerConfigFacade,
-      AlertReceiverFacade alertReceiverFacade) throws AlertManagerNoSuchElementException,
-      AlertManagerDuplicateEntryException, AlertManagerConfigUpdateException, AlertManagerConfigReadException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    ConfigUpdater.updateReceiver(alertManagerConfig, name, receiver);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, name, receiver, alertManagerConfigFacade,
-      alertReceiverFacade);
-  }
-
-  public boolean removeReceiver(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      String name, boolean cascade, AlertManagerConfigFacade alertManagerConfigFacade,
-      AlertReceiverFacade alertReceiverFacade) throws AlertManagerConfigUpdateException,
-      AlertManagerConfigReadException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    alertManagerConfig = ConfigUpdater.removeReceiver(alertManagerConfig, name, cascade);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, name, null, alertManagerConfigFacade,
-      alertReceiverFacade);
-    return alertManagerConfig != null;
-  }
-
-  public void addRoute(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      Route route, AlertManagerConfigFacade alertManagerConfigFacade) throws AlertManagerDuplicateEntryException,
-      AlertManagerConfigUpdateException,
-    AlertManagerConfigReadException, AlertManagerNoSuchElementException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    ConfigUpdater.addRoute(alertManagerConfig, route);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, alertManagerConfigFacade);
-  }
-
-  public void updateRoute(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      Route routeToUpdate, Route route, AlertManagerConfigFacade alertManagerConfigFacade)
-      throws AlertManagerNoSuchElementException, AlertManagerDuplicateEntryException, AlertManagerConfigUpdateException,
-      AlertManagerConfigReadException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    ConfigUpdater.updateRoute(alertManagerConfig, routeToUpdate, route);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, alertManagerConfigFacade);
-  }
-
-  public boolean removeRoute(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      Route route, AlertManagerConfigFacade alertManagerConfigFacade) throws AlertManagerConfigUpdateException,
-      AlertManagerConfigReadException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    alertManagerConfig = ConfigUpdater.removeRoute(alertManagerConfig, route);
-    writeAndReload(alertManagerConfigController, client, alertManagerConfig, alertManagerConfigFacade);
-    return alertManagerConfig != null;
-  }
-
-  public boolean cleanProject(AlertManagerConfigController alertManagerConfigController, AlertManagerClient client,
-      Project project, AlertManagerConfigFacade alertManagerConfigFacade, AlertReceiverFacade alertReceiverFacade)
-      throws AlertManagerConfigReadException, AlertManagerConfigUpdateException {
-    AlertManagerConfig alertManagerConfig = read(alertManagerConfigController, alertManagerConfigFacade);
-    List<Route> routes = alertManagerConfig.getRoute() == null || alertManagerConfig.getRoute().getRoutes() == null ?
-      Collections.emptyList() : alertManagerConfig.getRoute().getRoutes();
-    List<Receiver> receivers = alertManagerConfig.getReceivers() == null ? Collections.emptyList() :
-      alertManagerConfig.getReceivers();
-
-    List<Receiver> receiversToRemove = new ArrayList<>();
-    for (Receiver receiver : receivers) {
-      if (receiver.getName().startsWith(Constants.RECEIVER_NAME_PREFIX.replace(Constants.PROJECT_PLACE_HOLDER,
-        project.getName()))) {
-        receiversToRemove.add(receiver);
+    ObjectMapper objectMapper = new ObjectMapper();
+    String original = toJson(objectMapper, read(alertManagerConfigController, alertManagerConfigFacade));
+    String current = original;
+    Map<AMConfigTransaction, Boolean> applied = new LinkedHashMap<>();
+    List<AMConfigTransaction.ReceiverChange> receiverChanges = new ArrayList<>();
+    for (AMConfigTransaction transaction : transactions) {
+      AlertManagerConfig alertManagerConfig = fromJson(objectMapper, current);
+      try {
+        receiverChanges.addAll(transaction.applyTo(alertManagerConfig));
+      } catch (AlertManagerException | RuntimeException e) {
+        transaction.failed(e);
+        continue;
       }
+      String updated = toJson(objectMapper, alertManagerConfig);
+      applied.put(transaction, !updated.equals(current));
+      current = updated;
     }
-    List<Route> routesToRemove = new ArrayList<>();
-    for (Route route : routes) {
-      if (ConfigUtil.isRouteInProject(route, project) ||
-        receiversToRemove.contains(new Receiver(route.getReceiver()))) {
-        routesToRemove.add(route);
+    boolean changed = !current.equals(original);
+    if (changed) {
+      updateAlertManagerConfig(alertManagerConfigController, client, fromJson(objectMapper, current));
+      try {
+        alertManagerConfigFacade.saveToDatabase(new JSONObject(current));
+        for (AMConfigTransaction.ReceiverChange receiverChange : receiverChanges) {
+          if (receiverChange.getReceiver() != null) {
+            alertReceiverFacade.saveReceiverToDatabase(receiverChange.getName(), receiverChange.getReceiver().getName(),
+              new JSONObject(toJson(objectMapper, receiverChange.getReceiver())));
+          } else {
+            alertReceiverFacade.removeReceiverFromDatabase(receiverChange.getName());
+          }
+        }
+      } catch (Exception e) {
+        restoreFromDb(alertManagerConfigController, client, alertManagerConfigFacade);
+        throw e;
       }
     }
+    applied.forEach(AMConfigTransaction::committed);
+    return changed;
+  }
 
-    if (!routesToRemove.isEmpty() || !receiversToRemove.isEmpty()) {
-      if (!routesToRemove.isEmpty()) {
-        alertManagerConfig.getRoute().getRoutes().removeAll(routesToRemove);
-      }
-      if (!receiversToRemove.isEmpty()) {
-        alertManagerConfig.getReceivers().removeAll(receiversToRemove);
-        for (Receiver receiver : receiversToRemove) {
-          alertReceiverFacade.removeReceiverFromDatabase(receiver.getName());
-        }
-      }
-      writeAndReload(alertManagerConfigController, client, alertManagerConfig, alertManagerConfigFacade);
-      return true;
+  private String toJson(ObjectMapper objectMapper, Object value) throws AlertManagerConfigUpdateException {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new AlertManagerConfigUpdateException("Failed to parse config to json. " + e.getMessage(), e);
+    }
+  }
+
+  private AlertManagerConfig fromJson(ObjectMapper objectMapper, String json) throws AlertManagerConfigReadException {
+    try {
+      return objectMapper.readValue(json, AlertManagerConfig.class);
+    } catch (JsonProcessingException e) {
+      throw new AlertManagerConfigReadException("Failed to parse config from json. " + e.getMessage(), e);
     }
-    return false;
   }
 }
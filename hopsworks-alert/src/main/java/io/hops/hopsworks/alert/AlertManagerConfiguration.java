@@ -59,7 +59,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -72,6 +75,9 @@ public class AlertManagerConfiguration {
   private AlertManagerConfigController alertManagerConfigController;
   private Exception initException;
   private ITopic<String> configUpdatedTopic;
+  // Transactions waiting to be committed. Whoever holds commitLock commits all of them with a single reload.
+  private final Queue<AMConfigTransaction> pendingTransactions = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock commitLock = new ReentrantLock();
 
   @Inject
   private HazelcastInstance hazelcastInstance;
@@ -99,6 +105,15 @@ public class AlertManagerConfiguration {
     this.amConfigUpdater = amConfigUpdater;
   }
 
+  // For test
+  @VisibleForTesting
+  public AlertManagerConfiguration(AlertManagerConfigController alertManagerConfigController,
+      AlertManagerConfigFacade alertManagerConfigFacade, AMClient amClient, AMConfigUpdater amConfigUpdater,
+      AlertReceiverFacade alertReceiverFacade) {
+    this(alertManagerConfigController, alertManagerConfigFacade, amClient, amConfigUpdater);
+    this.alertReceiverFacade = alertReceiverFacade;
+  }
+
   @PostConstruct
   public void init() {
     tryBuildAlertManagerConfigCtrl();
@@ -160,18 +175,80 @@ public class AlertManagerConfiguration {
 
   @Lock(LockType.READ)
   public void restoreFromDb() throws AlertManagerConfigUpdateException {
-    Optional<AlertManagerConfigEntity> optionalAlertManagerConfigEntity = alertManagerConfigFacade.getLatest();
-    if (optionalAlertManagerConfigEntity.isPresent()) {
-      ObjectMapper objectMapper = new ObjectMapper();
-      JSONObject jsonAlertManagerConfigBackup = optionalAlertManagerConfigEntity.get().getContent();
-      try {
-        AlertManagerConfig alertManagerConfigBackup =
-          objectMapper.readValue(jsonAlertManagerConfigBackup.toString(), AlertManagerConfig.class);
-        updateAlertManagerConfig(alertManagerConfigBackup);
-      } catch (Exception e) {
-        throw new AlertManagerConfigUpdateException(
-          "Failed to revert alert manger config from database. " + e.getMessage(), e);
+    commitLock.lock();
+    try {
+      Optional<AlertManagerConfigEntity> optionalAlertManagerConfigEntity = alertManagerConfigFacade.getLatest();
+      if (optionalAlertManagerConfigEntity.isPresent()) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JSONObject jsonAlertManagerConfigBackup = optionalAlertManagerConfigEntity.get().getContent();
+        try {
+          AlertManagerConfig alertManagerConfigBackup =
+            objectMapper.readValue(jsonAlertManagerConfigBackup.toString(), AlertManagerConfig.class);
+          updateAlertManagerConfig(alertManagerConfigBackup);
+        } catch (Exception e) {
+          throw new AlertManagerConfigUpdateException(
+            "Failed to revert alert manger config from database. " + e.getMessage(), e);
+        }
+      }
+    } finally {
+      commitLock.unlock();
+    }
+  }
+
+  /**
+   * Commits all changes staged in transaction with a single write and reload of the Alertmanager configuration.
+   * Transactions committed concurrently are coalesced: the first caller to get the commit lock applies all pending
+   * transactions in one batch, and the others only collect their result.
+   * @return true if the transaction changed the configuration
+   */
+  @Lock(LockType.READ)
+  public boolean commit(AMConfigTransaction transaction) throws AlertManagerConfigCtrlCreateException,
+      AlertManagerDuplicateEntryException, AlertManagerNoSuchElementException, AlertManagerConfigUpdateException,
+      AlertManagerConfigReadException {
+    doSanityCheck();
+    if (transaction.isEmpty()) {
+      return false;
+    }
+    pendingTransactions.add(transaction);
+    commitLock.lock();
+    try {
+      if (!transaction.isDone()) {
+        List<AMConfigTransaction> batch = new ArrayList<>();
+        AMConfigTransaction pending;
+        while ((pending = pendingTransactions.poll()) != null) {
+          batch.add(pending);
+        }
+        commit(batch);
       }
+    } finally {
+      commitLock.unlock();
+    }
+    return transaction.getResult();
+  }
+
+  private void commit(List<AMConfigTransaction> batch) {
+    try {
+      boolean changed = amConfigUpdater.commit(alertManagerConfigController, amClient.getClient(), batch,
+        alertManagerConfigFacade, alertReceiverFacade);
+      if (changed) {
+        // broadcast to all nodes
+        broadcast("Alert Manager Config updated by " + batch.size() + " transaction(s)");
+      }
+    } catch (Exception e) {
+      for (AMConfigTransaction transaction : batch) {
+        if (!transaction.isDone()) {
+          transaction.failed(e);
+        }
+      }
+    }
+  }
+
+  private boolean commitOrWrap(AMConfigTransaction transaction) throws AlertManagerConfigCtrlCreateException,
+      AlertManagerConfigUpdateException, AlertManagerConfigReadException {
+    try {
+      return commit(transaction);
+    } catch (AlertManagerDuplicateEntryException | AlertManagerNoSuchElementException e) {
+      throw new AlertManagerConfigUpdateException(e.getMessage(), e);
     }
   }
 
@@ -218,12 +295,10 @@ public class AlertManagerConfiguration {
     return alertManagerConfig.map(AlertManagerConfig::getGlobal).orElse(null);
   }
 
+  @Lock(LockType.READ)
   public void updateGlobal(Global global) throws AlertManagerConfigCtrlCreateException,
       AlertManagerConfigReadException, AlertManagerConfigUpdateException {
-    doSanityCheck();
-    amConfigUpdater.updateGlobal(alertManagerConfigController, amClient.getClient(), global, alertManagerConfigFacade);
-    // broadcast to all nodes
-    broadcast("Alert Manager Config global updated");
+    commitOrWrap(new AMConfigTransaction().updateGlobal(global));
   }
 
   @Lock(LockType.READ)
@@ -232,13 +307,10 @@ public class AlertManagerConfiguration {
     return alertManagerConfig.map(AlertManagerConfig::getTemplates).orElse(null);
   }
 
+  @Lock(LockType.READ)
   public void updateTemplates(List<String> templates) throws AlertManagerConfigCtrlCreateException,
       AlertManagerConfigReadException, AlertManagerConfigUpdateException {
-    doSanityCheck();
-    amConfigUpdater.updateTemplates(alertManagerConfigController, amClient.getClient(), templates,
-      alertManagerConfigFacade);
-    // broadcast to all nodes
-    broadcast("Alert Manager Config templates updated");
+    commitOrWrap(new AMConfigTransaction().updateTemplates(templates));
   }
 
   @Lock(LockType.READ)
@@ -247,13 +319,10 @@ public class AlertManagerConfiguration {
     return alertManagerConfig.map(AlertManagerConfig::getRoute).orElse(null);
   }
 
+  @Lock(LockType.READ)
   public void updateRoute(Route route) throws AlertManagerConfigCtrlCreateException, AlertManagerConfigReadException,
       AlertManagerConfigUpdateException {
-    doSanityCheck();
-    amConfigUpdater.updateGlobalRoute(alertManagerConfigController, amClient.getClient(), route,
-      alertManagerConfigFacade);
-    // broadcast to all nodes
-    broadcast("Alert Manager Config route updated");
+    commitOrWrap(new AMConfigTransaction().updateGlobalRoute(route));
   }
 
   @Lock(LockType.READ)
@@ -262,13 +331,10 @@ public class AlertManagerConfiguration {
     return alertManagerConfig.map(AlertManagerConfig::getInhibitRules).orElse(null);
   }
 
+  @Lock(LockType.READ)
   public void updateInhibitRules(List<InhibitRule> inhibitRules) throws AlertManagerConfigCtrlCreateException,
       AlertManagerConfigReadException, AlertManagerConfigUpdateException {
-    doSanityCheck();
-    amConfigUpdater.updateInhibitRules(alertManagerConfigController, amClient.getClient(), inhibitRules,
-      alertManagerConfigFacade);
-    // broadcast to all nodes
-    broadcast("Alert Manager Config inhibitRules updated");
+    commitOrWrap(new AMConfigTransaction().updateInhibitRules(inhibitRules));
   }
 
   @Lock(LockType.READ)
@@ -288,19 +354,21 @@ public class AlertManagerConfiguration {
     return null;
   }
 
+  @Lock(LockType.READ)
   public void addReceiver(Receiver receiver, Project project) throws AlertManagerDuplicateEntryException,
       AlertManagerConfigUpdateException, AlertManagerConfigCtrlCreateException, AlertManagerConfigReadException {
     ConfigUtil.fixReceiverName(receiver, project);
     addReceiver(receiver);
   }
 
+  @Lock(LockType.READ)
   public void addReceiver(Receiver receiver) throws AlertManagerDuplicateEntryException,
       AlertManagerConfigUpdateException, AlertManagerConfigCtrlCreateException, AlertManagerConfigReadException {
-    doSanityCheck();
-    amConfigUpdater.addReceiver(alertManagerConfigController, amClient.getClient(), receiver,
-      alertManagerConfigFacade, alertReceiverFacade);
-    // broadcast to all nodes
-    broadcast("Alert Manager Config receiver added");
+    try {
+      commit(new AMConfigTransaction().addReceiver(receiver));
+    } catch (AlertManagerNoSuchElementException e) {
+      throw new AlertManagerConfigUpdateException(e.getMessage(), e);
+    }
   }
 
   private void checkPermission(String name, Project project, boolean includeGlobal)
@@ -313,6 +381,7 @@ public class AlertManagerConfiguration {
     }
   }
 
+  @Lock(LockType.READ)
   public void updateReceiver(String name, Receiver receiver, Project project) throws AlertManagerNoSuchElementException,
       AlertManagerDuplicateEntryException, AlertManagerConfigUpdateException, AlertManagerConfigCtrlCreateException,
       AlertManagerAccessControlException, AlertManagerConfigReadException {
@@ -321,31 +390,24 @@ public class AlertManagerConfiguration {
     updateReceiver(name, receiver);
   }
 
+  @Lock(LockType.READ)
   public void updateReceiver(String name, Receiver receiver) throws AlertManagerNoSuchElementException,
       AlertManagerDuplicateEntryException, AlertManagerConfigUpdateException, AlertManagerConfigCtrlCreateException,
       AlertManagerConfigReadException {
-    doSanityCheck();
-    amConfigUpdater.updateReceiver(alertManagerConfigController, amClient.getClient(), name, receiver,
-      alertManagerConfigFacade, alertReceiverFacade);
-    // broadcast to all nodes
-    broadcast("Alert Manager Config receiver updated");
+    commit(new AMConfigTransaction().updateReceiver(name, receiver));
   }
 
+  @Lock(LockType.READ)
   public void removeReceiver(String name, Project project, boolean cascade) throws AlertManagerConfigUpdateException,
       AlertManagerConfigCtrlCreateException, AlertManagerAccessControlException, AlertManagerConfigReadException {
     checkPermission(name, project, false);
     removeReceiver(name, cascade);
   }
 
+  @Lock(LockType.READ)
   public void removeReceiver(String name, boolean cascade) throws AlertManagerConfigUpdateException,
       AlertManagerConfigCtrlCreateException, AlertManagerConfigReadException {
-    doSanityCheck();
-    boolean remover = amConfigUpdater.removeReceiver(alertManagerConfigController, amClient.getClient(), name,
-      cascade, alertManagerConfigFacade, alertReceiverFacade);
-    if (remover) {
-      // broadcast to all nodes
-      broadcast("Alert Manager Config receiver removed");
-    }
+    commitOrWrap(new AMConfigTransaction().removeReceiver(name, cascade));
   }
 
   @Lock(LockType.READ)
@@ -408,25 +470,33 @@ public class AlertManagerConfiguration {
     return null;
   }
 
+  @Lock(LockType.READ)
   public void addRoute(Route route, Project project) throws AlertManagerDuplicateEntryException,
       AlertManagerConfigUpdateException, AlertManagerConfigCtrlCreateException, AlertManagerAccessControlException,
       AlertManagerConfigReadException, AlertManagerNoSuchElementException {
+    fixRoute(route, project);
+    addRoute(route);
+  }
+
+  /**
+   * Sets the project labels of a route and checks that it points to a receiver of the project. Use it before staging
+   * a project route in a transaction.
+   */
+  @Lock(LockType.READ)
+  public void fixRoute(Route route, Project project) throws AlertManagerAccessControlException {
     ConfigUtil.fixRoute(route, project);
     if (!Strings.isNullOrEmpty(route.getReceiver()) && !route.getReceiver()
         .startsWith(Constants.RECEIVER_NAME_PREFIX.replace(Constants.PROJECT_PLACE_HOLDER, project.getName()))) {
       throw new AlertManagerAccessControlException(
           "You do not have permission to add a route with receiver=" + route.getReceiver());
     }
-    addRoute(route);
   }
 
+  @Lock(LockType.READ)
   public void addRoute(Route route)
       throws AlertManagerDuplicateEntryException, AlertManagerConfigUpdateException, AlertManagerConfigReadException,
       AlertManagerConfigCtrlCreateException, AlertManagerNoSuchElementException {
-    doSanityCheck();
-    amConfigUpdater.addRoute(alertManagerConfigController, amClient.getClient(), route, alertManagerConfigFacade);
-    // broadcast to all nodes
-    broadcast("Alert Manager Config route added");
+    commit(new AMConfigTransaction().addRoute(route));
   }
 
   private void checkPermission(Route route, Project project) throws AlertManagerAccessControlException {
@@ -435,6 +505,7 @@ public class AlertManagerConfiguration {
     }
   }
 
+  @Lock(LockType.READ)
   public void updateRoute(Route routeToUpdate, Route route, Project project)
       throws AlertManagerNoSuchElementException, AlertManagerDuplicateEntryException,
       AlertManagerConfigUpdateException, AlertManagerConfigCtrlCreateException, AlertManagerAccessControlException,
@@ -448,16 +519,14 @@ public class AlertManagerConfiguration {
     updateRoute(routeToUpdate, route);
   }
 
+  @Lock(LockType.READ)
   public void updateRoute(Route routeToUpdate, Route route)
       throws AlertManagerNoSuchElementException, AlertManagerDuplicateEntryException, AlertManagerConfigUpdateException,
       AlertManagerConfigCtrlCreateException, AlertManagerConfigReadException {
-    doSanityCheck();
-    amConfigUpdater.updateRoute(alertManagerConfigController, amClient.getClient(), routeToUpdate, route,
-      alertManagerConfigFacade);
-    // broadcast to all nodes
-    broadcast("Alert Manager Config route updated");
+    commit(new AMConfigTransaction().updateRoute(routeToUpdate, route));
   }
 
+  @Lock(LockType.READ)
   public void removeRoute(Route route, Project project) throws AlertManagerConfigUpdateException,
       AlertManagerConfigCtrlCreateException, AlertManagerConfigReadException {
     List<Route> routes = getRoutes(project);
@@ -466,24 +535,16 @@ public class AlertManagerConfiguration {
     }
   }
 
+  @Lock(LockType.READ)
   public void removeRoute(Route route) throws AlertManagerConfigUpdateException, AlertManagerConfigCtrlCreateException,
       AlertManagerConfigReadException {
-    doSanityCheck();
-    boolean remover = amConfigUpdater.removeRoute(alertManagerConfigController, amClient.getClient(), route,
-      alertManagerConfigFacade);
-    if (remover) {
-      // broadcast to all nodes
-      broadcast("Alert Manager Config route removed");
-    }
+    commitOrWrap(new AMConfigTransaction().removeRoute(route));
   }
 
-  public void cleanProject(Project project) throws AlertManagerConfigReadException, AlertManagerConfigUpdateException {
-    boolean cleaned = amConfigUpdater.cleanProject(alertManagerConfigController, amClient.getClient(), project,
-      alertManagerConfigFacade, alertReceiverFacade);
-    if (cleaned) {
-      // broadcast to all nodes
-      broadcast("Alert Manager Config project cleanup for: " + project.getName());
-    }
+  @Lock(LockType.READ)
+  public void cleanProject(Project project) throws AlertManagerConfigCtrlCreateException,
+      AlertManagerConfigReadException, AlertManagerConfigUpdateException {
+    commitOrWrap(new AMConfigTransaction().cleanProject(project));
   }
 
 }
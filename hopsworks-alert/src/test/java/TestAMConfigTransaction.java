@@ -0,0 +1,308 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.sun.net.httpserver.HttpServer;
+import io.hops.hopsworks.alert.AMClient;
+import io.hops.hopsworks.alert.AMConfigTransaction;
+import io.hops.hopsworks.alert.AMConfigUpdater;
+import io.hops.hopsworks.alert.AlertManagerConfiguration;
+import io.hops.hopsworks.alert.dao.AlertManagerConfigFacade;
+import io.hops.hopsworks.alert.dao.AlertReceiverFacade;
+import io.hops.hopsworks.alerting.api.AlertManagerClient;
+import io.hops.hopsworks.alerting.config.AlertManagerConfigController;
+import io.hops.hopsworks.alerting.config.dto.AlertManagerConfig;
+import io.hops.hopsworks.alerting.config.dto.EmailConfig;
+import io.hops.hopsworks.alerting.config.dto.Receiver;
+import io.hops.hopsworks.alerting.config.dto.Route;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigReadException;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigUpdateException;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerDuplicateEntryException;
+import io.hops.hopsworks.persistence.entity.alertmanager.AlertManagerConfigEntity;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.ws.rs.client.ClientBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Commits Alertmanager config transactions against a local stub of the Alertmanager management API.
+ */
+public class TestAMConfigTransaction {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AtomicInteger reloads = new AtomicInteger();
+  private final AtomicReference<JSONObject> database = new AtomicReference<>();
+  private volatile CountDownLatch release = new CountDownLatch(0);
+  private volatile int reloadStatus = 200;
+
+  private HttpServer alertmanager;
+  private AlertManagerClient client;
+  private AlertManagerConfigController alertManagerConfigController;
+  private AlertManagerConfig alertManagerConfigBackup;
+  private AlertManagerConfigFacade alertManagerConfigFacade;
+  private AlertReceiverFacade alertReceiverFacade;
+  private AMConfigUpdater amConfigUpdater;
+  private AlertManagerConfiguration alertManagerConfiguration;
+
+  @Before
+  public void setUp() throws Exception {
+    alertmanager = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    alertmanager.setExecutor(Executors.newCachedThreadPool());
+    alertmanager.createContext("/-/reload", exchange -> {
+      reloads.incrementAndGet();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.sendResponseHeaders(reloadStatus, -1);
+      exchange.close();
+    });
+    alertmanager.start();
+    client = new AlertManagerClient(ClientBuilder.newClient(),
+      URI.create("http://127.0.0.1:" + alertmanager.getAddress().getPort()), Collections.emptyList());
+
+    String alertmanagerConfigPath = Objects.requireNonNull(
+      TestAMConfigTransaction.class.getResource("/alertmanager.yml")).getPath();
+    alertManagerConfigController = new AlertManagerConfigController.Builder()
+      .withConfigPath(alertmanagerConfigPath)
+      .build();
+    alertManagerConfigBackup = alertManagerConfigController.read();
+
+    String alertManagerConfigDBPath = Objects.requireNonNull(
+      TestAMConfigTransaction.class.getResource("/alertmanagerDB.yml")).getPath();
+    AlertManagerConfig alertManagerConfigDB =
+      new ObjectMapper(new YAMLFactory()).readValue(new File(alertManagerConfigDBPath), AlertManagerConfig.class);
+    database.set(new JSONObject(objectMapper.writeValueAsString(alertManagerConfigDB)));
+
+    alertManagerConfigFacade = Mockito.mock(AlertManagerConfigFacade.class);
+    Mockito.doAnswer(invocation -> Optional.of(readDatabase())).when(alertManagerConfigFacade).read(Mockito.any());
+    Mockito.doAnswer(invocation -> {
+      AlertManagerConfigEntity alertManagerConfigEntity = new AlertManagerConfigEntity();
+      alertManagerConfigEntity.setId(1);
+      alertManagerConfigEntity.setCreated(new Date());
+      alertManagerConfigEntity.setContent(database.get());
+      return Optional.of(alertManagerConfigEntity);
+    }).when(alertManagerConfigFacade).getLatest();
+    Mockito.doAnswer(invocation -> {
+      database.set(invocation.getArgument(0));
+      return null;
+    }).when(alertManagerConfigFacade).saveToDatabase(Mockito.any());
+    alertReceiverFacade = Mockito.mock(AlertReceiverFacade.class);
+
+    amConfigUpdater = new AMConfigUpdater();
+    alertManagerConfiguration = new AlertManagerConfiguration(alertManagerConfigController, alertManagerConfigFacade,
+      new AMClient(client), amConfigUpdater, alertReceiverFacade);
+  }
+
+  @After
+  public void tearDown() throws AlertManagerConfigUpdateException {
+    release.countDown();
+    client.close();
+    alertmanager.stop(0);
+    alertManagerConfigController.write(alertManagerConfigBackup);
+  }
+
+  private AlertManagerConfig readDatabase() throws IOException {
+    return objectMapper.readValue(database.get().toString(), AlertManagerConfig.class);
+  }
+
+  private Receiver receiver(String name) {
+    return new Receiver(name).withEmailConfigs(Collections.singletonList(new EmailConfig(name + "@hopsworks.ai")));
+  }
+
+  private Route route(String receiver, String job) {
+    return new Route(receiver).withMatch(Collections.singletonMap("job", job));
+  }
+
+  private int countRoutes(AlertManagerConfig alertManagerConfig, String receiver) {
+    int count = 0;
+    for (Route route : alertManagerConfig.getRoute().getRoutes()) {
+      if (receiver.equals(route.getReceiver())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testTransactionIsAppliedWithOneReload() throws Exception {
+    AMConfigTransaction transaction = new AMConfigTransaction();
+    for (int i = 0; i < 10; i++) {
+      transaction.addReceiver(receiver("project3__email" + i)).addRoute(route("project3__email" + i, "job" + i));
+    }
+    Assert.assertTrue(alertManagerConfiguration.commit(transaction));
+    Assert.assertEquals(1, reloads.get());
+    verify(alertManagerConfigFacade, times(1)).saveToDatabase(Mockito.any());
+    verify(alertReceiverFacade, times(10)).saveReceiverToDatabase(Mockito.any(), Mockito.any(), Mockito.any());
+
+    AlertManagerConfig written = alertManagerConfigController.read();
+    Assert.assertEquals(6 + 10, written.getReceivers().size());
+    Assert.assertEquals(13 + 10, written.getRoute().getRoutes().size());
+    Assert.assertEquals(written.getReceivers().size(), readDatabase().getReceivers().size());
+  }
+
+  @Test
+  public void testCleanProjectIsAppliedWithOneReload() throws Exception {
+    AMConfigTransaction setup = new AMConfigTransaction();
+    for (int i = 0; i < 5; i++) {
+      setup.addReceiver(receiver("project3__email" + i)).addRoute(route("project3__email" + i, "job" + i));
+    }
+    alertManagerConfiguration.commit(setup);
+    Assert.assertEquals(1, reloads.get());
+
+    alertManagerConfiguration.cleanProject(new Project("project3"));
+    Assert.assertEquals(2, reloads.get());
+    verify(alertReceiverFacade, times(5)).removeReceiverFromDatabase(Mockito.any());
+    AlertManagerConfig alertManagerConfig = readDatabase();
+    Assert.assertEquals(6, alertManagerConfig.getReceivers().size());
+    Assert.assertEquals(13, alertManagerConfig.getRoute().getRoutes().size());
+
+    // Nothing left to clean, so nothing is written
+    alertManagerConfiguration.cleanProject(new Project("project3"));
+    Assert.assertEquals(2, reloads.get());
+  }
+
+  @Test
+  public void testConcurrentCommitsAreCoalesced() throws Exception {
+    release = new CountDownLatch(1);
+    int committers = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(committers);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < committers; i++) {
+        AMConfigTransaction transaction = new AMConfigTransaction().addReceiver(receiver("project3__email" + i));
+        results.add(executor.submit(() -> alertManagerConfiguration.commit(transaction)));
+      }
+      long deadline = System.currentTimeMillis() + 5000;
+      while (reloads.get() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      // Give the other committers time to queue up behind the first reload
+      Thread.sleep(200);
+      release.countDown();
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    // The first commit may hold one or more transactions, everything queued behind it goes in a single second reload
+    Assert.assertTrue("Reloads: " + reloads.get(), reloads.get() <= 2);
+    Assert.assertEquals(6 + committers, readDatabase().getReceivers().size());
+    Assert.assertEquals(6 + committers, alertManagerConfigController.read().getReceivers().size());
+  }
+
+  @Test
+  public void testChangesFromOtherNodesAreMerged() throws Exception {
+    AMConfigTransaction transaction = new AMConfigTransaction()
+      .addReceiver(receiver("project3__email"))
+      .addRoute(route("project3__email", "job1"));
+    // Another node commits while the transaction is being staged
+    AlertManagerConfig other = readDatabase();
+    other.getReceivers().add(receiver("project4__email"));
+    database.set(new JSONObject(objectMapper.writeValueAsString(other)));
+
+    alertManagerConfiguration.commit(transaction);
+    AlertManagerConfig alertManagerConfig = readDatabase();
+    Assert.assertTrue(alertManagerConfig.getReceivers().contains(new Receiver("project3__email")));
+    Assert.assertTrue(alertManagerConfig.getReceivers().contains(new Receiver("project4__email")));
+    Assert.assertEquals(1, countRoutes(alertManagerConfig, "project3__email"));
+  }
+
+  @Test
+  public void testFailedTransactionDoesNotAffectBatch() throws Exception {
+    AMConfigTransaction duplicate = new AMConfigTransaction()
+      .addReceiver(receiver("project3__email"))
+      .addReceiver(receiver("project1__email"));
+    AMConfigTransaction valid = new AMConfigTransaction().addReceiver(receiver("project4__email"));
+    List<AMConfigTransaction> batch = new ArrayList<>();
+    batch.add(duplicate);
+    batch.add(valid);
+    Assert.assertTrue(amConfigUpdater.commit(alertManagerConfigController, client, batch, alertManagerConfigFacade,
+      alertReceiverFacade));
+    Assert.assertEquals(1, reloads.get());
+    AlertManagerConfig alertManagerConfig = readDatabase();
+    Assert.assertFalse(alertManagerConfig.getReceivers().contains(new Receiver("project3__email")));
+    Assert.assertTrue(alertManagerConfig.getReceivers().contains(new Receiver("project4__email")));
+
+    try {
+      alertManagerConfiguration.commit(new AMConfigTransaction().addReceiver(receiver("project1__email")));
+      Assert.fail("Expected a duplicate receiver to be rejected");
+    } catch (AlertManagerDuplicateEntryException e) {
+      // expected
+    }
+    Assert.assertEquals(1, reloads.get());
+  }
+
+  @Test
+  public void testDanglingRouteIsRejectedWithoutReload() throws Exception {
+    AMConfigTransaction transaction = new AMConfigTransaction().removeReceiver("project1__email", false);
+    try {
+      alertManagerConfiguration.commit(transaction);
+      Assert.fail("Expected a route to an undefined receiver to be rejected");
+    } catch (AlertManagerConfigUpdateException e) {
+      // expected
+    }
+    Assert.assertEquals(0, reloads.get());
+    verify(alertManagerConfigFacade, never()).saveToDatabase(Mockito.any());
+  }
+
+  @Test
+  public void testFailedReloadIsRolledBack() throws AlertManagerConfigReadException {
+    reloadStatus = 400;
+    JSONObject before = database.get();
+    try {
+      alertManagerConfiguration.commit(new AMConfigTransaction().addReceiver(receiver("project3__email")));
+      Assert.fail("Expected the reload to fail");
+    } catch (Exception e) {
+      Assert.assertTrue(e instanceof AlertManagerConfigUpdateException);
+    }
+    Assert.assertEquals(1, reloads.get());
+    Assert.assertSame(before, database.get());
+    verify(alertReceiverFacade, never()).saveReceiverToDatabase(Mockito.any(), Mockito.any(), Mockito.any());
+    AlertManagerConfig alertManagerConfig = alertManagerConfigController.read();
+    Assert.assertEquals(alertManagerConfigBackup.getReceivers(), alertManagerConfig.getReceivers());
+    Assert.assertEquals(alertManagerConfigBackup.getRoute().getRoutes(), alertManagerConfig.getRoute().getRoutes());
+  }
+}
@@ -41,7 +41,9 @@ public class Configuration {
 
   public enum AuthConfigurationKeys {
 
-    HOPSWORKS_REST_LOG_LEVEL("hopsworks_rest_log_level", RESTLogLevel.PROD.name());
+    HOPSWORKS_REST_LOG_LEVEL("hopsworks_rest_log_level", RESTLogLevel.PROD.name()),
+    API_KEY_CACHE_MAX_SIZE("api_key_cache_max_size", "10000"),
+    API_KEY_CACHE_EXPIRE_MINUTES("api_key_cache_expire_minutes", "10");
 
     private String key;
     private String defaultValue;
@@ -77,4 +79,12 @@ public class Configuration {
   public RESTLogLevel getLogLevel(AuthConfigurationKeys key) {
     return RESTLogLevel.valueOf(get(key));
   }
+
+  public long getLong(AuthConfigurationKeys key) {
+    try {
+      return Long.parseLong(get(key));
+    } catch (NumberFormatException ex) {
+      return Long.parseLong(key.defaultValue);
+    }
+  }
 }
@@ -0,0 +1,240 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.auth.key;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.api.auth.Configuration;
+import io.hops.hopsworks.api.auth.UserUtilities;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKeyScope;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per node cache of the api keys used to authenticate requests, keyed by the key prefix.
+ * A cache hit authenticates a request without going to the database for the key, its scopes and its owner.
+ * Entries are invalidated on all nodes, and in every deployment sharing a node, when a key is deleted or its scopes
+ * change and when the status or roles of the owner change. The expiry only bounds how long changes done outside
+ * Hopsworks, e.g. in the database, are missed.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ApiKeyCache {
+
+  private static final String KEY_INVALIDATED_TOPIC_NAME = "api_key_invalidated";
+  private static final String USER_INVALIDATED_TOPIC_NAME = "api_key_user_invalidated";
+
+  @EJB
+  private ApiKeyFacade apiKeyFacade;
+  @EJB
+  private UserUtilities userUtilities;
+  @EJB
+  private Configuration conf;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+  @Resource
+  private TransactionSynchronizationRegistry transactionRegistry;
+
+  private Cache<String, CachedApiKey> apiKeys;
+  // bumped on every invalidation, a key loaded while an invalidation happened is not cached
+  private final AtomicLong invalidations = new AtomicLong();
+  private ITopic<String> keyInvalidatedTopic;
+  private ITopic<Integer> userInvalidatedTopic;
+  private UUID keyListenerUUID;
+  private UUID userListenerUUID;
+
+  public ApiKeyCache() {
+  }
+
+  // For testing
+  ApiKeyCache(ApiKeyFacade apiKeyFacade, UserUtilities userUtilities, long maxSize, long expireMinutes) {
+    this(apiKeyFacade, userUtilities, maxSize, expireMinutes, null);
+  }
+
+  // For testing
+  ApiKeyCache(ApiKeyFacade apiKeyFacade, UserUtilities userUtilities, long maxSize, long expireMinutes,
+      HazelcastInstance hazelcastInstance) {
+    this.apiKeyFacade = apiKeyFacade;
+    this.userUtilities = userUtilities;
+    this.hazelcastInstance = hazelcastInstance;
+    this.apiKeys = build(maxSize, expireMinutes);
+    subscribe();
+  }
+
+  @PostConstruct
+  public void init() {
+    apiKeys = build(conf.getLong(Configuration.AuthConfigurationKeys.API_KEY_CACHE_MAX_SIZE),
+        conf.getLong(Configuration.AuthConfigurationKeys.API_KEY_CACHE_EXPIRE_MINUTES));
+    subscribe();
+  }
+
+  private void subscribe() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      keyInvalidatedTopic = hazelcastInstance.getTopic(KEY_INVALIDATED_TOPIC_NAME);
+      keyListenerUUID = keyInvalidatedTopic.addMessageListener(new KeyInvalidatedListener());
+      userInvalidatedTopic = hazelcastInstance.getTopic(USER_INVALIDATED_TOPIC_NAME);
+      userListenerUUID = userInvalidatedTopic.addMessageListener(new UserInvalidatedListener());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    //needed for redeploy to remove the listeners
+    if (keyInvalidatedTopic != null) {
+      keyInvalidatedTopic.removeMessageListener(keyListenerUUID);
+    }
+    if (userInvalidatedTopic != null) {
+      userInvalidatedTopic.removeMessageListener(userListenerUUID);
+    }
+  }
+
+  private Cache<String, CachedApiKey> build(long maxSize, long expireMinutes) {
+    return CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(expireMinutes, TimeUnit.MINUTES)
+        .build();
+  }
+
+  // Messages published by the local member are applied too: other deployments on this member, e.g. hopsworks-ca,
+  // have their own cache and only learn about the change from the topic. Invalidating twice is harmless.
+  public class KeyInvalidatedListener implements MessageListener<String> {
+    @Override
+    public void onMessage(Message<String> message) {
+      invalidateLocal(message.getMessageObject());
+    }
+  }
+
+  public class UserInvalidatedListener implements MessageListener<Integer> {
+    @Override
+    public void onMessage(Message<Integer> message) {
+      invalidateUserLocal(message.getMessageObject());
+    }
+  }
+
+  /**
+   * @param prefix the prefix of the api key
+   * @return the key with the given prefix or null if it does not exist
+   */
+  public CachedApiKey get(String prefix) {
+    CachedApiKey cachedApiKey = apiKeys.getIfPresent(prefix);
+    if (cachedApiKey != null) {
+      return cachedApiKey;
+    }
+    long version = invalidations.get();
+    ApiKey apiKey = apiKeyFacade.findByPrefix(prefix);
+    if (apiKey == null) {
+      // unknown prefixes are not cached, a key created on another node is found on the next request
+      return null;
+    }
+    cachedApiKey = new CachedApiKey(apiKey, userUtilities.getUserRoles(apiKey.getUser()), getScopes(apiKey));
+    synchronized (this) {
+      if (version == invalidations.get()) {
+        apiKeys.put(prefix, cachedApiKey);
+      }
+    }
+    return cachedApiKey;
+  }
+
+  /**
+   * Drop a key on all nodes, after it was deleted or its scopes changed.
+   */
+  public void invalidate(String prefix) {
+    afterTransaction(() -> {
+      invalidateLocal(prefix);
+      if (keyInvalidatedTopic != null) {
+        keyInvalidatedTopic.publish(prefix);
+      }
+    });
+  }
+
+  /**
+   * Drop all the keys of a user on all nodes, after the status or roles of the user changed.
+   */
+  public void invalidateUser(Integer userId) {
+    afterTransaction(() -> {
+      invalidateUserLocal(userId);
+      if (userInvalidatedTopic != null) {
+        userInvalidatedTopic.publish(userId);
+      }
+    });
+  }
+
+  // Invalidating before the change is committed would let a concurrent request cache the old state again
+  private void afterTransaction(Runnable invalidation) {
+    if (transactionRegistry == null || transactionRegistry.getTransactionKey() == null) {
+      invalidation.run();
+      return;
+    }
+    transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        invalidation.run();
+      }
+    });
+  }
+
+  private synchronized void invalidateLocal(String prefix) {
+    invalidations.incrementAndGet();
+    apiKeys.invalidate(prefix);
+  }
+
+  private synchronized void invalidateUserLocal(Integer userId) {
+    invalidations.incrementAndGet();
+    apiKeys.asMap().values().removeIf(cachedApiKey -> cachedApiKey.getUserId().equals(userId));
+  }
+
+  long size() {
+    return apiKeys.size();
+  }
+
+  private Set<ApiScope> getScopes(ApiKey apiKey) {
+    Set<ApiScope> scopes = new HashSet<>();
+    for (ApiKeyScope scope : apiKey.getApiKeyScopeCollection()) {
+      scopes.add(scope.getScope());
+    }
+    return scopes;
+  }
+}
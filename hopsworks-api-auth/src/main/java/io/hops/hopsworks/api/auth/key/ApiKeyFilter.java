@@ -20,9 +20,8 @@ import io.hops.hopsworks.api.auth.Subject;
 import io.hops.hopsworks.exceptions.ApiKeyException;
 import io.hops.hopsworks.exceptions.UserException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
-import io.hops.hopsworks.persistence.entity.user.Users;
-import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
 import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
+import io.hops.hopsworks.persistence.entity.user.security.ua.UserAccountStatus;
 import io.hops.hopsworks.restutils.JsonResponse;
 import io.hops.hopsworks.restutils.RESTApiJsonResponse;
 import io.hops.hopsworks.restutils.RESTCodes;
@@ -82,14 +81,12 @@ public abstract class ApiKeyFilter implements ContainerRequestFilter {
 
     String key = authorizationHeader.substring(API_KEY.length()).trim();
     try {
-      ApiKey apiKey = getApiKey(key);
-      Users user = apiKey.getUser();
-      validateUserStatus(user);
-      List<String> roles = getUserRoles(user);
-      Set<ApiScope> scopes = getApiScopes(apiKey);
+      CachedApiKey apiKey = getApiKey(key);
+      validateUserStatus(apiKey.getUserStatus());
+      List<String> roles = apiKey.getUserRoles();
       checkRole(roles);
-      checkScope(scopes);
-      Subject subject = new Subject(user.getUsername(), roles);
+      checkScope(apiKey.getScopes());
+      Subject subject = new Subject(apiKey.getUsername(), roles);
       String scheme = requestContext.getUriInfo().getRequestUri().getScheme();
       requestContext.setSecurityContext(new HopsworksSecurityContext(subject, scheme));
     } catch (ApiKeyException | UserException e) {
@@ -100,10 +97,8 @@ public abstract class ApiKeyFilter implements ContainerRequestFilter {
     }
   }
 
-  protected abstract void validateUserStatus(Users user) throws UserException;
-  protected abstract ApiKey getApiKey(String key) throws ApiKeyException;
-  protected abstract Set<ApiScope> getApiScopes(ApiKey key);
-  protected abstract List<String> getUserRoles(Users user);
+  protected abstract void validateUserStatus(UserAccountStatus status) throws UserException;
+  protected abstract CachedApiKey getApiKey(String key) throws ApiKeyException;
   protected abstract RESTLogLevel getRestLogLevel();
   protected abstract Class<?> getResourceClass();
   protected abstract Method getResourceMethod();
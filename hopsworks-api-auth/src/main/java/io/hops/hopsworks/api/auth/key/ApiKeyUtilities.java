@@ -35,6 +35,8 @@ import java.util.logging.Level;
 public class ApiKeyUtilities {
   @EJB
   private ApiKeyFacade apiKeyFacade;
+  @EJB
+  private ApiKeyCache apiKeyCache;
 
   public ApiKey getApiKey(String key) throws ApiKeyException {
     String[] parts = key.split(Secret.KEY_ID_SEPARATOR_REGEX);
@@ -53,6 +55,27 @@ public class ApiKeyUtilities {
     return apiKey;
   }
 
+  /**
+   * Verify a key against the api key cache, on a cache hit the database is not queried.
+   * @param key the prefix and secret of the key
+   * @return the cached key with the scopes and the owner status and roles
+   * @throws ApiKeyException if the key does not exist or the secret does not match
+   */
+  public CachedApiKey getVerifiedApiKey(String key) throws ApiKeyException {
+    String[] parts = key.split(Secret.KEY_ID_SEPARATOR_REGEX);
+    if (parts.length < 2) {
+      throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_INVALID, Level.FINE);
+    }
+    CachedApiKey apiKey = apiKeyCache.get(parts[0]);
+    if (apiKey == null) {
+      throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_NOT_FOUND_IN_DATABASE, Level.FINE);
+    }
+    if (!apiKey.matches(parts[1])) {
+      throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_INVALID, Level.FINE);
+    }
+    return apiKey;
+  }
+
   public Set<ApiScope> getScopes(ApiKey apiKey) {
     Set<ApiScope> scopes = new HashSet<>();
     for (ApiKeyScope scope : apiKey.getApiKeyScopeCollection()) {
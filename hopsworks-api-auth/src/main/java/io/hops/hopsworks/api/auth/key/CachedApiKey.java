@@ -0,0 +1,87 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.auth.key;
+
+import io.hops.hopsworks.api.auth.Secret;
+import io.hops.hopsworks.persistence.entity.user.Users;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
+import io.hops.hopsworks.persistence.entity.user.security.ua.UserAccountStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Detached snapshot of an api key with everything the api key filter needs to authenticate and authorize a request:
+ * the hashed secret, the scopes of the key and the status and roles of its owner.
+ * Only the digest of the secret is kept, the plain secret of a request is still hashed and compared on every call.
+ */
+public class CachedApiKey {
+
+  private final String prefix;
+  private final String secretDigest;
+  private final String salt;
+  private final Integer userId;
+  private final String username;
+  private final UserAccountStatus userStatus;
+  private final List<String> userRoles;
+  private final Set<ApiScope> scopes;
+
+  public CachedApiKey(ApiKey apiKey, List<String> userRoles, Set<ApiScope> scopes) {
+    Users user = apiKey.getUser();
+    this.prefix = apiKey.getPrefix();
+    this.secretDigest = apiKey.getSecret();
+    this.salt = apiKey.getSalt();
+    this.userId = user.getUid();
+    this.username = user.getUsername();
+    this.userStatus = user.getStatus();
+    this.userRoles = Collections.unmodifiableList(userRoles);
+    this.scopes = Collections.unmodifiableSet(scopes);
+  }
+
+  public boolean matches(String secret) {
+    String digest = new Secret(prefix, secret, salt).getSha256HexDigest();
+    return MessageDigest.isEqual(digest.getBytes(StandardCharsets.UTF_8),
+        secretDigest.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public String getPrefix() {
+    return prefix;
+  }
+
+  public Integer getUserId() {
+    return userId;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public UserAccountStatus getUserStatus() {
+    return userStatus;
+  }
+
+  public List<String> getUserRoles() {
+    return userRoles;
+  }
+
+  public Set<ApiScope> getScopes() {
+    return scopes;
+  }
+}
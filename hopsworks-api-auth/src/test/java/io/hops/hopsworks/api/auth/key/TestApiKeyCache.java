@@ -0,0 +1,221 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.auth.key;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import io.hops.hopsworks.api.auth.Secret;
+import io.hops.hopsworks.api.auth.UserUtilities;
+import io.hops.hopsworks.persistence.entity.user.BbcGroup;
+import io.hops.hopsworks.persistence.entity.user.Users;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKeyScope;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
+import io.hops.hopsworks.persistence.entity.user.security.ua.UserAccountStatus;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class TestApiKeyCache {
+
+  private static final Logger LOGGER = Logger.getLogger(TestApiKeyCache.class.getName());
+
+  private static final String PREFIX = "prefix";
+  private static final String SECRET = "secret";
+  private static final String SALT = "salt";
+
+  private CountingApiKeyFacade apiKeyFacade;
+  private ApiKeyCache apiKeyCache;
+  private Users user;
+
+  @Before
+  public void setup() {
+    user = new Users();
+    user.setUid(1);
+    user.setUsername("user");
+    user.setStatus(UserAccountStatus.ACTIVATED_ACCOUNT);
+    user.setBbcGroupCollection(new ArrayList<>(Collections.singletonList(new BbcGroup(1, "HOPS_USER"))));
+    apiKeyFacade = new CountingApiKeyFacade();
+    apiKeyFacade.keys.put(PREFIX, newApiKey(PREFIX, ApiScope.FEATURESTORE));
+    apiKeyCache = new ApiKeyCache(apiKeyFacade, new UserUtilities(), 100, 10);
+  }
+
+  @Test
+  public void testHitDoesNotQueryDatabase() {
+    for (int i = 0; i < 100; i++) {
+      CachedApiKey cachedApiKey = apiKeyCache.get(PREFIX);
+      Assert.assertTrue(cachedApiKey.matches(SECRET));
+      Assert.assertFalse(cachedApiKey.matches("wrong"));
+    }
+    Assert.assertEquals(1, apiKeyFacade.queries);
+  }
+
+  @Test
+  public void testUnknownKeyIsNotCached() {
+    Assert.assertNull(apiKeyCache.get("unknown"));
+    apiKeyFacade.keys.put("unknown", newApiKey("unknown", ApiScope.JOB));
+    Assert.assertNotNull(apiKeyCache.get("unknown"));
+    Assert.assertEquals(2, apiKeyFacade.queries);
+  }
+
+  @Test
+  public void testDeletedKeyIsRevoked() {
+    Assert.assertNotNull(apiKeyCache.get(PREFIX));
+    apiKeyFacade.keys.remove(PREFIX);
+    apiKeyCache.invalidate(PREFIX);
+    Assert.assertNull(apiKeyCache.get(PREFIX));
+  }
+
+  @Test
+  public void testScopeChangeIsVisible() {
+    Assert.assertEquals(Collections.singleton(ApiScope.FEATURESTORE), apiKeyCache.get(PREFIX).getScopes());
+    apiKeyFacade.keys.put(PREFIX, newApiKey(PREFIX, ApiScope.JOB));
+    apiKeyCache.invalidate(PREFIX);
+    Assert.assertEquals(Collections.singleton(ApiScope.JOB), apiKeyCache.get(PREFIX).getScopes());
+  }
+
+  @Test
+  public void testUserDeactivationIsVisible() {
+    apiKeyFacade.keys.put("other", newApiKey("other", ApiScope.JOB));
+    Assert.assertEquals(UserAccountStatus.ACTIVATED_ACCOUNT, apiKeyCache.get(PREFIX).getUserStatus());
+    Assert.assertEquals(UserAccountStatus.ACTIVATED_ACCOUNT, apiKeyCache.get("other").getUserStatus());
+    user.setStatus(UserAccountStatus.DEACTIVATED_ACCOUNT);
+    apiKeyCache.invalidateUser(user.getUid());
+    Assert.assertEquals(0, apiKeyCache.size());
+    Assert.assertEquals(UserAccountStatus.DEACTIVATED_ACCOUNT, apiKeyCache.get(PREFIX).getUserStatus());
+    Assert.assertEquals(UserAccountStatus.DEACTIVATED_ACCOUNT, apiKeyCache.get("other").getUserStatus());
+  }
+
+  @Test
+  public void testKeyLoadedDuringInvalidationIsNotCached() {
+    apiKeyFacade.duringQuery = () -> apiKeyCache.invalidate(PREFIX);
+    Assert.assertNotNull(apiKeyCache.get(PREFIX));
+    apiKeyFacade.duringQuery = null;
+    Assert.assertEquals(0, apiKeyCache.size());
+    apiKeyCache.get(PREFIX);
+    Assert.assertEquals(1, apiKeyCache.size());
+  }
+
+  /**
+   * hopsworks-ca has its own cache on the same Hazelcast member as the ear. It must drop keys invalidated by the ear.
+   */
+  @Test
+  public void testInvalidationReachesCachesOnSameMember() throws InterruptedException {
+    Config config = new Config();
+    config.setClusterName("api-key-cache-" + UUID.randomUUID());
+    config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+    config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+    HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+    ApiKeyCache ear = new ApiKeyCache(apiKeyFacade, new UserUtilities(), 100, 10, member);
+    ApiKeyCache ca = new ApiKeyCache(apiKeyFacade, new UserUtilities(), 100, 10, member);
+    try {
+      Assert.assertNotNull(ear.get(PREFIX));
+      Assert.assertNotNull(ca.get(PREFIX));
+      apiKeyFacade.keys.remove(PREFIX);
+      ear.invalidate(PREFIX);
+      Assert.assertEquals(0, ear.size());
+      awaitEmpty(ca);
+      Assert.assertNull(ca.get(PREFIX));
+
+      apiKeyFacade.keys.put(PREFIX, newApiKey(PREFIX, ApiScope.JOB));
+      Assert.assertEquals(UserAccountStatus.ACTIVATED_ACCOUNT, ca.get(PREFIX).getUserStatus());
+      user.setStatus(UserAccountStatus.DEACTIVATED_ACCOUNT);
+      ear.invalidateUser(user.getUid());
+      awaitEmpty(ca);
+      Assert.assertEquals(UserAccountStatus.DEACTIVATED_ACCOUNT, ca.get(PREFIX).getUserStatus());
+    } finally {
+      ear.destroy();
+      ca.destroy();
+      member.shutdown();
+    }
+  }
+
+  // topic messages are delivered asynchronously
+  private void awaitEmpty(ApiKeyCache cache) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (cache.size() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(0, cache.size());
+  }
+
+  /**
+   * Compares the time spent authenticating requests with the key without the cache, one query per request and the
+   * secret hashed every time as the filter did before, and with the cache.
+   */
+  @Test
+  public void testAuthOverhead() {
+    int requests = 10000;
+    // simulated database round trip for the key, its scopes and the user roles
+    apiKeyFacade.queryLatencyNanos = 50000;
+
+    long start = System.nanoTime();
+    for (int i = 0; i < requests; i++) {
+      ApiKey apiKey = apiKeyFacade.findByPrefix(PREFIX);
+      Assert.assertEquals(apiKey.getSecret(), new Secret(PREFIX, SECRET, apiKey.getSalt()).getSha256HexDigest());
+    }
+    long uncached = System.nanoTime() - start;
+
+    apiKeyFacade.queries = 0;
+    start = System.nanoTime();
+    for (int i = 0; i < requests; i++) {
+      Assert.assertTrue(apiKeyCache.get(PREFIX).matches(SECRET));
+    }
+    long cached = System.nanoTime() - start;
+
+    LOGGER.log(Level.INFO, "Api key auth overhead per request, without cache: {0} ns, with cache: {1} ns",
+        new Object[]{uncached / requests, cached / requests});
+    Assert.assertEquals(1, apiKeyFacade.queries);
+    Assert.assertTrue(cached < uncached);
+  }
+
+  private ApiKey newApiKey(String prefix, ApiScope scope) {
+    String digest = new Secret(prefix, SECRET, SALT).getSha256HexDigest();
+    ApiKey apiKey = new ApiKey(user, prefix, digest, SALT, new Date(), new Date(), prefix, false);
+    apiKey.setApiKeyScopeCollection(new ArrayList<>(Collections.singletonList(new ApiKeyScope(scope, apiKey))));
+    return apiKey;
+  }
+
+  private static class CountingApiKeyFacade extends ApiKeyFacade {
+    private final Map<String, ApiKey> keys = new HashMap<>();
+    private int queries = 0;
+    private long queryLatencyNanos = 0;
+    private Runnable duringQuery;
+
+    @Override
+    public ApiKey findByPrefix(String prefix) {
+      queries++;
+      if (duringQuery != null) {
+        duringQuery.run();
+      }
+      if (queryLatencyNanos > 0) {
+        LockSupport.parkNanos(queryLatencyNanos);
+      }
+      return keys.get(prefix);
+    }
+  }
+}
@@ -17,11 +17,10 @@
 package io.hops.hopsworks.api.admin.alert.receiver;
 
 import com.google.common.base.Strings;
+import io.hops.hopsworks.alert.AMConfigTransaction;
 import io.hops.hopsworks.alert.AlertManagerConfiguration;
-import io.hops.hopsworks.alert.exception.AlertManagerAccessControlException;
-import io.hops.hopsworks.alert.exception.AlertManagerUnreachableException;
+import io.hops.hopsworks.alert.util.ConfigUtil;
 import io.hops.hopsworks.alerting.config.dto.Receiver;
-import io.hops.hopsworks.alerting.exceptions.AlertManagerClientCreateException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigCtrlCreateException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigReadException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigUpdateException;
@@ -34,7 +33,6 @@ import io.hops.hopsworks.api.alert.receiver.ReceiverBuilder;
 import io.hops.hopsworks.api.alert.receiver.ReceiverDTO;
 import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.api.util.Pagination;
-import io.hops.hopsworks.common.alert.AlertController;
 import io.hops.hopsworks.common.api.ResourceRequest;
 import io.hops.hopsworks.exceptions.AlertException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
@@ -78,8 +76,6 @@ public class AdminReceiverResource {
   private ReceiverBuilder receiverBuilder;
   @EJB
   private AlertManagerConfiguration alertManagerConfiguration;
-  @EJB
-  private AlertController alertController;
 
   @GET
   @Produces(MediaType.APPLICATION_JSON)
@@ -138,25 +134,22 @@ public class AdminReceiverResource {
         postableReceiverDTO.setName(alertType.getReceiverName());
       }
       receiver = receiverBuilder.build(postableReceiverDTO, defaultTemplate, true);
-      alertManagerConfiguration.addReceiver(receiver);
+      AMConfigTransaction transaction = new AMConfigTransaction().addReceiver(receiver);
       if (alertType != null) {
-        alertController.createRoute(alertType); // to create a single route for global receivers
+        // to create a single route for global receivers
+        transaction.addRouteIfNotExist(ConfigUtil.getRoute(alertType));
       }
+      alertManagerConfiguration.commit(transaction);
       ResourceRequest resourceRequest = new ResourceRequest(ResourceRequest.Name.RECEIVERS);
       ReceiverDTO dto = receiverBuilder.build(uriInfo, resourceRequest, receiver.getName(), null);
       dto.setHref(uriInfo.getAbsolutePathBuilder().path(receiver.getName()).build());
       return Response.created(dto.getHref()).entity(dto).build();
-    } catch (AlertManagerConfigCtrlCreateException | AlertManagerUnreachableException |
-        AlertManagerConfigReadException e) {
+    } catch (AlertManagerConfigCtrlCreateException | AlertManagerConfigReadException e) {
       throw new AlertException(RESTCodes.AlertErrorCode.FAILED_TO_READ_CONFIGURATION, Level.FINE, e.getMessage());
     } catch (AlertManagerDuplicateEntryException e) {
       throw new AlertException(RESTCodes.AlertErrorCode.RECEIVER_EXIST, Level.FINE, e.getMessage());
     } catch (AlertManagerConfigUpdateException e) {
       throw new AlertException(RESTCodes.AlertErrorCode.FAILED_TO_UPDATE_AM_CONFIG, Level.FINE, e.getMessage());
-    } catch (AlertManagerClientCreateException e) {
-      throw new AlertException(RESTCodes.AlertErrorCode.FAILED_TO_CONNECT, Level.FINE, e.getMessage());
-    } catch (AlertManagerAccessControlException e) {
-      throw new AlertException(RESTCodes.AlertErrorCode.ACCESS_CONTROL_EXCEPTION, Level.FINE, e.getMessage());
     } catch (AlertManagerNoSuchElementException e) {
       throw new AlertException(RESTCodes.AlertErrorCode.RECEIVER_NOT_FOUND, Level.FINE, e.getMessage());
     }
@@ -82,6 +82,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -175,6 +176,7 @@ public class DatasetResource extends ProjectSubResource {
                             @QueryParam("type") DatasetType datasetType,
                             @QueryParam("action") DatasetActions.Get action,
                             @QueryParam("mode") FilePreviewMode mode,
+                            @QueryParam("column") List<String> columns,
                             @BeanParam Pagination pagination,
                             @BeanParam InodeBeanParam inodeBeanParam,
                             @BeanParam DatasetExpansionBeanParam datasetExpansionBeanParam,
@@ -190,7 +192,8 @@ public class DatasetResource extends ProjectSubResource {
     InodeDTO dto;
     switch (action == null? DatasetActions.Get.STAT : action) {
       case BLOB:
-        dto = inodeBuilder.buildBlob(uriInfo, resourceRequest, user, datasetPath, mode);
+        resourceRequest.setLimit(pagination.getLimit());
+        dto = inodeBuilder.buildBlob(uriInfo, resourceRequest, user, datasetPath, mode, columns);
         break;
       case LISTING:
         resourceRequest.setOffset(pagination.getOffset());
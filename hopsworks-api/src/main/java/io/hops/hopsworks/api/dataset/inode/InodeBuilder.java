@@ -152,6 +152,16 @@ public class InodeBuilder {
   public InodeDTO buildBlob(UriInfo uriInfo, ResourceRequest resourceRequest, Users user, DatasetPath datasetPath,
                             Inode inode, FilePreviewMode mode)
     throws DatasetException, FeatureStoreMetadataException, MetadataException {
+    return buildBlob(uriInfo, resourceRequest, user, datasetPath, inode, mode, null);
+  }
+  
+  /**
+   * @param columns columns to include if the file is previewed as a table. The limit of the resource request caps
+   *                the number of rows
+   */
+  public InodeDTO buildBlob(UriInfo uriInfo, ResourceRequest resourceRequest, Users user, DatasetPath datasetPath,
+                            Inode inode, FilePreviewMode mode, List<String> columns)
+    throws DatasetException, FeatureStoreMetadataException, MetadataException {
     InodeDTO dto = new InodeDTO();
     uri(dto, uriInfo);
     expand(dto, resourceRequest);
@@ -163,8 +173,8 @@ public class InodeBuilder {
     List<String> ext = Stream.of(FilePreviewImageTypes.values())
       .map(FilePreviewImageTypes::name)
       .collect(Collectors.toList());
-    dto.setPreview(
-      datasetController.filePreview(datasetPath.getAccessProject(), user, datasetPath.getFullPath(), mode, ext));
+    dto.setPreview(datasetController.filePreview(datasetPath.getAccessProject(), user, datasetPath.getFullPath(), mode,
+      ext, columns, resourceRequest.getLimit()));
     return dto;
   }
   
@@ -191,10 +201,11 @@ public class InodeBuilder {
    * @param user
    * @param datasetPath
    * @param mode
+   * @param columns
    * @return
    */
   public InodeDTO buildBlob(UriInfo uriInfo, ResourceRequest resourceRequest, Users user, DatasetPath datasetPath,
-                            FilePreviewMode mode)
+                            FilePreviewMode mode, List<String> columns)
     throws DatasetException, FeatureStoreMetadataException, MetadataException {
     Inode inode = datasetPath.getInode();
     if (inode == null) {
@@ -203,7 +214,7 @@ public class InodeBuilder {
     if (inode.isDir()) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.INVALID_PATH_FILE, Level.FINE);
     }
-    return buildBlob(uriInfo, resourceRequest, user, datasetPath, inode, mode);
+    return buildBlob(uriInfo, resourceRequest, user, datasetPath, inode, mode, columns);
   }
   
   /**
@@ -27,6 +27,7 @@ import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
 import io.hops.hopsworks.common.hdfs.Utils;
 import io.hops.hopsworks.common.hdfs.inode.InodeController;
+import io.hops.hopsworks.common.hdfs.xattrs.XAttrModification;
 import io.hops.hopsworks.common.hdfs.xattrs.XAttrsController;
 import io.hops.hopsworks.common.jobs.JobController;
 import io.hops.hopsworks.common.jupyter.JupyterController;
@@ -57,7 +58,10 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 @Stateless
@@ -103,24 +107,27 @@ public class ExperimentsController {
       }
     }
     
-    if(!Strings.isNullOrEmpty(experimentSummary.getAppId())) {
-      byte[] appIdBytes = experimentSummary.getAppId().getBytes(StandardCharsets.UTF_8);
-      xattrCtrl.upsertProvXAttr(project, user, experimentPath,
-        ExperimentsBuilder.EXPERIMENT_APP_ID_XATTR_NAME, appIdBytes);
-    }
-  
-    String hdfsUserName = hdfsUsersController.getHdfsUserName(project, user);
-    DistributedFileSystemOps udfso = dfs.getDfsOps(hdfsUserName);
-    try {
-      byte[] storedExpB = xattrCtrl.getProvXAttr(udfso, experimentPath,
-        ExperimentsBuilder.EXPERIMENT_SUMMARY_XATTR_NAME);
+    // App id and summary are written together, reading the attributes of the experiment once
+    XAttrModification<ExperimentsException> attach = current -> {
+      Map<String, byte[]> changes = new HashMap<>();
+      if(!Strings.isNullOrEmpty(experimentSummary.getAppId())) {
+        changes.put(ExperimentsBuilder.EXPERIMENT_APP_ID_XATTR_NAME,
+          experimentSummary.getAppId().getBytes(StandardCharsets.UTF_8));
+      }
+      byte[] storedExpB = current.get(ExperimentsBuilder.EXPERIMENT_SUMMARY_XATTR_NAME);
       ExperimentDTO storedExp = null;
       if(storedExpB != null) {
         storedExp = experimentConverter.unmarshal(new String(storedExpB, StandardCharsets.UTF_8), ExperimentDTO.class);
       }
       ExperimentDTO experiment = ExperimentDTO.mergeExperiment(experimentSummary, storedExp);
-      byte[] experimentB = experimentConverter.marshal(experiment);
-      xattrCtrl.upsertProvXAttr(udfso, experimentPath, ExperimentsBuilder.EXPERIMENT_SUMMARY_XATTR_NAME, experimentB);
+      changes.put(ExperimentsBuilder.EXPERIMENT_SUMMARY_XATTR_NAME, experimentConverter.marshal(experiment));
+      return changes;
+    };
+  
+    String hdfsUserName = hdfsUsersController.getHdfsUserName(project, user);
+    DistributedFileSystemOps udfso = dfs.getDfsOps(hdfsUserName);
+    try {
+      xattrCtrl.modifyProvXAttrs(udfso, Collections.singletonMap(experimentPath, attach));
     } finally {
       if (udfso != null) {
         dfs.closeDfsClient(udfso);
@@ -26,7 +26,9 @@ import io.hops.hopsworks.common.featurestore.FeaturestoreController;
 import io.hops.hopsworks.common.featurestore.featuremonitoring.config.FeatureMonitoringConfigurationController;
 import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultController;
 import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultDTO;
+import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultFacade;
 import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultInputValidation;
+import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultSeriesDTO;
 import io.hops.hopsworks.common.project.ProjectController;
 import io.hops.hopsworks.exceptions.FeaturestoreException;
 import io.hops.hopsworks.exceptions.ProjectException;
@@ -46,11 +48,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -134,6 +138,45 @@ public abstract class FeatureMonitoringResultResource extends FeaturestoreSubRes
     return Response.ok().entity(dtos).build();
   }
   
+  /**
+   * Endpoint to fetch the feature monitoring results of a configuration downsampled to a fixed number of points.
+   *
+   * @param configId the id of the configuration
+   * @param metric the metric of the results to aggregate, difference or specific_value
+   * @param start start of the series in ms, defaults to the first result
+   * @param end end of the series in ms, defaults to now
+   * @param points max number of points of the series
+   * @return min, max, avg and last value of the metric per time bucket
+   * @throws FeaturestoreException
+   */
+  @ApiOperation(value = "Fetch the feature monitoring results of a configuration as a downsampled time series",
+    response = FeatureMonitoringResultSeriesDTO.class)
+  @GET
+  @Path("/byconfig/{configId: [0-9]+}/series")
+  @Produces(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
+  @JWTRequired(acceptedTokens = {Audience.API, Audience.JOB},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  @ApiKeyRequired(acceptedScopes = {ApiScope.FEATURESTORE},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  public Response getSeriesByConfigId(@Context SecurityContext sc,
+    @Context HttpServletRequest req,
+    @Context UriInfo uriInfo,
+    @ApiParam(value = "Id of the configuration", required = true)
+    @PathParam("configId") Integer configId,
+    @ApiParam(value = "Metric to aggregate", allowableValues = "difference,specific_value")
+    @QueryParam("metric") @DefaultValue("difference") String metric,
+    @ApiParam(value = "Start of the series in ms") @QueryParam("start") Long start,
+    @ApiParam(value = "End of the series in ms") @QueryParam("end") Long end,
+    @ApiParam(value = "Max number of points") @QueryParam("points") @DefaultValue("100") Integer points
+  ) throws FeaturestoreException, ProjectException {
+    check();
+    FeatureMonitoringResultSeriesDTO series = featureMonitoringResultController.getFeatureMonitoringResultSeries(
+      configId, FeatureMonitoringResultFacade.SeriesMetric.valueOf(metric.toUpperCase()), start, end, points);
+    series.setHref(uriInfo.getAbsolutePath());
+    return Response.ok().entity(series).build();
+  }
+  
   /**
    * Endpoint to fetch a list of feature monitoring results attached to a Feature.
    *
@@ -17,10 +17,10 @@
 package io.hops.hopsworks.api.featurestore.trainingdataset;
 
 import io.hops.hopsworks.common.featurestore.featureview.FeatureViewController;
+import io.hops.hopsworks.common.featurestore.featureview.ServingMetadata;
 import io.hops.hopsworks.common.api.ResourceRequest;
 import io.hops.hopsworks.common.featurestore.FeaturestoreController;
 import io.hops.hopsworks.common.featurestore.feature.FeatureGroupFeatureDTO;
-import io.hops.hopsworks.common.featurestore.featuregroup.FeaturegroupController;
 import io.hops.hopsworks.common.featurestore.online.OnlineFeaturestoreController;
 import io.hops.hopsworks.common.featurestore.query.ConstructorController;
 import io.hops.hopsworks.common.featurestore.query.Feature;
@@ -79,8 +79,6 @@ public class PreparedStatementBuilder {
   @EJB
   private ConstructorController constructorController;
   @EJB
-  private FeaturegroupController featuregroupController;
-  @EJB
   private FilterController filterController;
 
   private URI uri(UriInfo uriInfo, Project project, Featurestore featurestore, TrainingDataset trainingDataset) {
@@ -141,8 +139,8 @@ public class PreparedStatementBuilder {
       throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.QUERY_FAILED_FG_DELETED, Level.FINE);
     }
 
-    List<ServingPreparedStatementDTO> servingPreparedStatementDTOS =
-        createServingPreparedStatementDTOS(joins, project, user, batch, false);
+    List<ServingPreparedStatementDTO> servingPreparedStatementDTOS = createServingPreparedStatementDTOS(joins,
+        featureViewController.getFeatureSchemas(project, user, joins), batch, false);
 
     return servingPreparedStatementDTOS;
   }
@@ -171,15 +169,23 @@ public class PreparedStatementBuilder {
       throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.QUERY_FAILED_FG_DELETED, Level.FINE);
     }
 
+    // the statements only depend on the feature view and the schema of its feature groups, they are generated once
+    // per variant and kept with the serving metadata of the feature view
+    ServingMetadata servingMetadata = featureViewController.getServingMetadata(project, user, featureView);
     List<ServingPreparedStatementDTO> servingPreparedStatementDTOS =
-        createServingPreparedStatementDTOS(joins, project, user, batch, inferenceHelperColumns);
+        servingMetadata.getPreparedStatements(batch, inferenceHelperColumns);
+    if (servingPreparedStatementDTOS == null) {
+      servingPreparedStatementDTOS = createServingPreparedStatementDTOS(joins, servingMetadata.getFeatureSchemas(),
+          batch, inferenceHelperColumns);
+      servingMetadata.setPreparedStatements(batch, inferenceHelperColumns, servingPreparedStatementDTOS);
+    }
 
-    return servingPreparedStatementDTOS;
+    return new ArrayList<>(servingPreparedStatementDTOS);
   }
 
   private List<ServingPreparedStatementDTO> createServingPreparedStatementDTOS(
-      Collection<TrainingDatasetJoin> joins, Project project, Users user, boolean batch, boolean inferenceHelperColumns)
-      throws FeaturestoreException {
+      Collection<TrainingDatasetJoin> joins, Map<Integer, List<FeatureGroupFeatureDTO>> featureSchemas, boolean batch,
+      boolean inferenceHelperColumns) throws FeaturestoreException {
     List<ServingPreparedStatementDTO> servingPreparedStatementDTOS = new ArrayList<>();
 
     // each join is a feature group, iterate over them.
@@ -193,7 +199,7 @@ public class PreparedStatementBuilder {
       }
 
       Map<String, Feature> featureGroupFeatures =
-        featuregroupController.getFeatures(featuregroup, project, user).stream()
+        featureSchemas.get(featuregroup.getId()).stream()
           .collect(Collectors.toMap(FeatureGroupFeatureDTO::getName,
             f -> new Feature(f.getName(), ALIAS, f.getType(), f.getPrimary(), f.getDefaultValue(), join.getPrefix(),
                 join.getFeatureGroup())
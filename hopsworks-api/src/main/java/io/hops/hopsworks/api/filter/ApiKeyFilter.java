@@ -19,14 +19,12 @@ package io.hops.hopsworks.api.filter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.hops.hopsworks.api.auth.Configuration;
 import io.hops.hopsworks.api.auth.UserStatusValidator;
-import io.hops.hopsworks.api.auth.UserUtilities;
 import io.hops.hopsworks.api.auth.key.ApiKeyRequired;
 import io.hops.hopsworks.api.auth.key.ApiKeyUtilities;
+import io.hops.hopsworks.api.auth.key.CachedApiKey;
 import io.hops.hopsworks.exceptions.ApiKeyException;
 import io.hops.hopsworks.exceptions.UserException;
-import io.hops.hopsworks.persistence.entity.user.Users;
-import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
-import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
+import io.hops.hopsworks.persistence.entity.user.security.ua.UserAccountStatus;
 import io.hops.hopsworks.restutils.RESTLogLevel;
 
 import javax.annotation.Priority;
@@ -36,8 +34,6 @@ import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.ext.Provider;
 import java.lang.reflect.Method;
-import java.util.List;
-import java.util.Set;
 
 @Provider
 @ApiKeyRequired
@@ -49,26 +45,16 @@ public class ApiKeyFilter extends io.hops.hopsworks.api.auth.key.ApiKeyFilter {
   @EJB
   private ApiKeyUtilities apiKeyUtilities;
   @EJB
-  private UserUtilities userUtilities;
-  @EJB
   private Configuration conf;
   @Context
   private ResourceInfo resourceInfo;
 
-  protected void validateUserStatus(Users user) throws UserException {
-    userStatusValidator.checkStatus(user.getStatus());
-  }
-
-  protected ApiKey getApiKey(String key) throws ApiKeyException {
-    return apiKeyUtilities.getApiKey(key);
-  }
-
-  protected Set<ApiScope> getApiScopes(ApiKey key) {
-    return apiKeyUtilities.getScopes(key);
+  protected void validateUserStatus(UserAccountStatus status) throws UserException {
+    userStatusValidator.checkStatus(status);
   }
 
-  protected List<String> getUserRoles(Users user) {
-    return userUtilities.getUserRoles(user);
+  protected CachedApiKey getApiKey(String key) throws ApiKeyException {
+    return apiKeyUtilities.getVerifiedApiKey(key);
   }
 
   protected RESTLogLevel getRestLogLevel() {
@@ -17,6 +17,7 @@
 package io.hops.hopsworks.api.jobs.alert;
 
 import com.google.common.base.Strings;
+import io.hops.hopsworks.alert.AMConfigTransaction;
 import io.hops.hopsworks.alert.dao.AlertReceiverFacade;
 import io.hops.hopsworks.alert.exception.AlertManagerAccessControlException;
 import io.hops.hopsworks.alert.exception.AlertManagerUnreachableException;
@@ -25,6 +26,7 @@ import io.hops.hopsworks.alerting.exceptions.AlertManagerClientCreateException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigCtrlCreateException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigReadException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigUpdateException;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerDuplicateEntryException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerNoSuchElementException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerResponseException;
 import io.hops.hopsworks.api.alert.AlertBuilder;
@@ -74,6 +76,8 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -194,9 +198,12 @@ public class JobAlertsResource extends JobSubResource {
       jobAlert.setSeverity(jobAlertsDTO.getSeverity());
     }
     if (!jobAlert.getReceiver().getName().equals(jobAlertsDTO.getReceiver())) {
-      deleteRoute(jobAlert);
+      // replace the route with a single Alertmanager reload
+      AMConfigTransaction transaction = new AMConfigTransaction();
+      alertController.deleteRoute(transaction, jobAlert);
       jobAlert.setReceiver(getReceiver(jobAlertsDTO.getReceiver()));
-      createRoute(jobAlert);
+      createRoute(transaction, jobAlert);
+      commit(transaction);
     }
     jobAlert.setAlertType(alertController.getAlertType(jobAlert.getReceiver()));
     jobAlert = jobalertsFacade.update(jobAlert);
@@ -224,17 +231,15 @@ public class JobAlertsResource extends JobSubResource {
 
   private JobAlertsDTO createAlert(PostableJobAlerts jobAlertsDTO, Boolean bulk, UriInfo uriInfo,
       ResourceRequest resourceRequest) throws JobException, ProjectException {
-    JobAlertsDTO dto;
-    if (bulk) {
-      validateBulk(jobAlertsDTO);
-      dto = new JobAlertsDTO();
-      for (PostableJobAlerts pa : jobAlertsDTO.getItems()) {
-        dto.addItem(createAlert(pa, uriInfo, resourceRequest));
-      }
-      dto.setCount((long) jobAlertsDTO.getItems().size());
-    } else {
-      dto = createAlert(jobAlertsDTO, uriInfo, resourceRequest);
+    if (!bulk) {
+      return createAlerts(Collections.singletonList(jobAlertsDTO), uriInfo, resourceRequest).get(0);
     }
+    validateBulk(jobAlertsDTO);
+    JobAlertsDTO dto = new JobAlertsDTO();
+    for (JobAlertsDTO item : createAlerts(jobAlertsDTO.getItems(), uriInfo, resourceRequest)) {
+      dto.addItem(item);
+    }
+    dto.setCount((long) jobAlertsDTO.getItems().size());
     return dto;
   }
 
@@ -251,21 +256,34 @@ public class JobAlertsResource extends JobSubResource {
     }
   }
 
-  private JobAlertsDTO createAlert(PostableJobAlerts jobAlertsDTO, UriInfo uriInfo,
-                                   ResourceRequest resourceRequest) throws JobException, ProjectException {
+  /**
+   * Creates the routes of all alerts with a single Alertmanager reload before saving the alerts.
+   */
+  private List<JobAlertsDTO> createAlerts(List<PostableJobAlerts> jobAlertsDTOs, UriInfo uriInfo,
+                                          ResourceRequest resourceRequest) throws JobException, ProjectException {
     Jobs job = getJob();
-    validate(jobAlertsDTO, job);
-    JobAlert jobAlert = new JobAlert();
-    jobAlert.setStatus(jobAlertsDTO.getStatus());
-    jobAlert.setSeverity(jobAlertsDTO.getSeverity());
-    jobAlert.setCreated(new Date());
-    jobAlert.setJobId(job);
-    jobAlert.setReceiver(getReceiver(jobAlertsDTO.getReceiver()));
-    jobAlert.setAlertType(alertController.getAlertType(jobAlert.getReceiver()));
-    createRoute(jobAlert);
-    jobalertsFacade.save(jobAlert);
-    jobAlert = jobalertsFacade.findByJobAndStatus(job, jobAlertsDTO.getStatus());
-    return jobalertsBuilder.buildItems(uriInfo, resourceRequest, jobAlert);
+    AMConfigTransaction transaction = new AMConfigTransaction();
+    List<JobAlert> jobAlerts = new ArrayList<>();
+    for (PostableJobAlerts jobAlertsDTO : jobAlertsDTOs) {
+      validate(jobAlertsDTO, job);
+      JobAlert jobAlert = new JobAlert();
+      jobAlert.setStatus(jobAlertsDTO.getStatus());
+      jobAlert.setSeverity(jobAlertsDTO.getSeverity());
+      jobAlert.setCreated(new Date());
+      jobAlert.setJobId(job);
+      jobAlert.setReceiver(getReceiver(jobAlertsDTO.getReceiver()));
+      jobAlert.setAlertType(alertController.getAlertType(jobAlert.getReceiver()));
+      createRoute(transaction, jobAlert);
+      jobAlerts.add(jobAlert);
+    }
+    commit(transaction);
+    List<JobAlertsDTO> dtos = new ArrayList<>();
+    for (JobAlert jobAlert : jobAlerts) {
+      jobalertsFacade.save(jobAlert);
+      jobAlert = jobalertsFacade.findByJobAndStatus(job, jobAlert.getStatus());
+      dtos.add(jobalertsBuilder.buildItems(uriInfo, resourceRequest, jobAlert));
+    }
+    return dtos;
   }
 
   private void validate(PostableJobAlerts jobAlertsDTO, Jobs job) throws JobException {
@@ -346,12 +364,20 @@ public class JobAlertsResource extends JobSubResource {
     return alertReceiver.get();
   }
 
-  private void createRoute(JobAlert jobAlert) throws JobException {
+  private void createRoute(AMConfigTransaction transaction, JobAlert jobAlert) throws JobException {
+    try {
+      alertController.createRoute(transaction, jobAlert);
+    } catch (AlertManagerAccessControlException e) {
+      throw new JobException(RESTCodes.JobErrorCode.FAILED_TO_CREATE_ROUTE, Level.FINE, e.getMessage());
+    }
+  }
+
+  private void commit(AMConfigTransaction transaction) throws JobException {
     try {
-      alertController.createRoute(jobAlert);
-    } catch ( AlertManagerClientCreateException | AlertManagerConfigReadException |
-        AlertManagerConfigCtrlCreateException | AlertManagerConfigUpdateException | AlertManagerNoSuchElementException |
-        AlertManagerAccessControlException | AlertManagerUnreachableException e) {
+      alertController.commit(transaction);
+    } catch (AlertManagerConfigReadException | AlertManagerConfigCtrlCreateException |
+        AlertManagerConfigUpdateException | AlertManagerNoSuchElementException |
+        AlertManagerDuplicateEntryException e) {
       throw new JobException(RESTCodes.JobErrorCode.FAILED_TO_CREATE_ROUTE, Level.FINE, e.getMessage());
     }
   }
@@ -129,8 +129,15 @@ public class ExecutionsBuilder {
     uri(dto, uriInfo, job);
     expand(dto, resourceRequest);
     if (dto.isExpand()) {
-      AbstractFacade.CollectionInfo collectionInfo = executionFacade.findByJob(resourceRequest.getOffset(),
-        resourceRequest.getLimit(), resourceRequest.getFilter(), resourceRequest.getSort(), job);
+      AbstractFacade.CollectionInfo collectionInfo;
+      if (resourceRequest.isCursorPagination()) {
+        collectionInfo = executionFacade.findByJob(resourceRequest.getCursor(), resourceRequest.getLimit(),
+          resourceRequest.getFilter(), resourceRequest.getSort(), job, resourceRequest.isCount());
+        dto.setNext(collectionInfo.getNext());
+      } else {
+        collectionInfo = executionFacade.findByJob(resourceRequest.getOffset(), resourceRequest.getLimit(),
+          resourceRequest.getFilter(), resourceRequest.getSort(), job);
+      }
       dto.setCount(collectionInfo.getCount());
       collectionInfo.getItems().forEach((exec) -> dto.addItem(build(uriInfo, resourceRequest, (Execution) exec)));
     }
@@ -26,6 +26,7 @@ import io.hops.hopsworks.api.util.Pagination;
 import io.hops.hopsworks.common.api.ResourceRequest;
 import io.hops.hopsworks.common.jobs.JobController;
 import io.hops.hopsworks.common.jobs.JobLogDTO;
+import io.hops.hopsworks.common.jobs.JobLogQuery;
 import io.hops.hopsworks.common.jobs.execution.ExecutionController;
 import io.hops.hopsworks.common.project.ProjectController;
 import io.hops.hopsworks.common.util.Settings;
@@ -34,6 +35,7 @@ import io.hops.hopsworks.exceptions.JobException;
 import io.hops.hopsworks.exceptions.ProjectException;
 import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
+import io.hops.hopsworks.persistence.InvalidQueryException;
 import io.hops.hopsworks.persistence.entity.jobs.description.Jobs;
 import io.hops.hopsworks.persistence.entity.jobs.history.Execution;
 import io.hops.hopsworks.persistence.entity.user.Users;
@@ -50,12 +52,14 @@ import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -108,6 +112,13 @@ public class ExecutionsResource extends JobSubResource {
     ResourceRequest resourceRequest = new ResourceRequest(ResourceRequest.Name.EXECUTIONS);
     resourceRequest.setOffset(pagination.getOffset());
     resourceRequest.setLimit(pagination.getLimit());
+    resourceRequest.setCursor(pagination.getCursor());
+    if (pagination.getCursor() != null) {
+      if (pagination.getOffset() != null) {
+        throw new InvalidQueryException("Cursor and offset pagination cannot be combined, use either cursor or offset");
+      }
+      resourceRequest.setCount(Boolean.TRUE.equals(pagination.getCount()));
+    }
     resourceRequest.setSort(executionsBeanParam.getSortBySet());
     resourceRequest.setFilter(executionsBeanParam.getFilter());
     resourceRequest.setExpansions(executionsBeanParam.getExpansions().getResources());
@@ -222,10 +233,20 @@ public class ExecutionsResource extends JobSubResource {
   public Response getLog(
     @PathParam("id") Integer id,
     @PathParam("type") JobLogDTO.LogType type,
+    @ApiParam(value = "byte offset to read from, negative values are relative to the end of the log")
+    @QueryParam("offset") Long offset,
+    @ApiParam(value = "maximum number of bytes to read") @QueryParam("length") Long length,
+    @ApiParam(value = "number of lines to skip") @QueryParam("line_offset") Long lineOffset,
+    @ApiParam(value = "maximum number of lines to return") @QueryParam("line_limit") Integer lineLimit,
+    @ApiParam(value = "return the last n lines") @QueryParam("tail") Integer tail,
+    @ApiParam(value = "text returned lines must contain") @QueryParam("filter") String filter,
+    @ApiParam(value = "wait for new output of a running execution")
+    @QueryParam("follow") @DefaultValue("false") boolean follow,
     @Context HttpServletRequest req,
     @Context SecurityContext sc) throws JobException, ProjectException {
     Execution execution = executionController.authorize(getJob(), id);
-    JobLogDTO dto = executionController.getLog(execution, type);
+    JobLogQuery query = new JobLogQuery(offset, length, lineOffset, lineLimit, tail, filter, follow);
+    JobLogDTO dto = executionController.getLog(execution, type, query);
     return Response.ok().entity(dto).build();
   }
   
@@ -22,6 +22,7 @@ import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.ws.rs.core.UriInfo;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.Map;
 
@@ -58,6 +59,14 @@ public class XAttrsBuilder {
     return dto;
   }
   
+  public XAttrDTO build(UriInfo uriInfo, ResourceRequest resourceRequest,
+      Project project, String path, Collection<String> names) {
+    XAttrDTO dto = new XAttrDTO();
+    dto.setItems(new LinkedList<>());
+    names.forEach(name -> dto.addItem(build(uriInfo, resourceRequest, project, path, name)));
+    return dto;
+  }
+  
   public XAttrDTO build(UriInfo uriInfo, ResourceRequest resourceRequest,
       Project project, String path, Map<String, String> xattrs) {
     XAttrDTO dto = new XAttrDTO();
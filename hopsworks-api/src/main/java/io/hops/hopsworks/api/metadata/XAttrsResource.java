@@ -105,12 +105,21 @@ public class XAttrsResource extends ProjectSubResource {
     Project project = getProject();
     Response.Status status = Response.Status.OK;
     String inodePath = datasetHelper.getDatasetPathIfFileExist(project, path, pathType).getFullPath().toString();
-    if (xattrsController.addXAttr(project, user, inodePath, xattrName, metaObj)) {
-      status = Response.Status.CREATED;
-    }
-    
     ResourceRequest resourceRequest = new ResourceRequest(ResourceRequest.Name.XATTRS);
-    XAttrDTO dto = xattrsBuilder.build(uriInfo, resourceRequest, project, inodePath, xattrName);
+    XAttrDTO dto;
+    if (xattrName == null) {
+      // Every attribute of the body in one go
+      Map<String, Boolean> created = xattrsController.addXAttrs(project, user, inodePath, metaObj);
+      if (created.containsValue(true)) {
+        status = Response.Status.CREATED;
+      }
+      dto = xattrsBuilder.build(uriInfo, resourceRequest, project, inodePath, created.keySet());
+    } else {
+      if (xattrsController.addXAttr(project, user, inodePath, xattrName, metaObj)) {
+        status = Response.Status.CREATED;
+      }
+      dto = xattrsBuilder.build(uriInfo, resourceRequest, project, inodePath, xattrName);
+    }
     
     if(status == Response.Status.CREATED) {
       UriBuilder builder = uriInfo.getAbsolutePathBuilder();
@@ -29,6 +29,7 @@ import io.hops.hopsworks.persistence.entity.dataset.Dataset;
 import io.hops.hopsworks.persistence.entity.dataset.DatasetSharedWith;
 import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
 import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.project.team.ProjectTeam;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import org.apache.hadoop.fs.Path;
 import org.javatuples.Pair;
@@ -149,11 +150,17 @@ public class DatasetAccessController {
    * It should not be shared across queries since then you would have to deal with stale values.
    * Since this cache is used per request, it is safe to use with multiple instances of glassfish.
    * Discarded(reset) between different requests(short intervals) in order to avoid stale cache values.
+   * The projects and roles of the user are loaded with a single query up front instead of once per project of the
+   * parsed hits.
    *
    * @param user
    */
   public DatasetAccessCtrl memoizedAccessorProjects(Users user) {
     ShortLivedCache cache = new ShortLivedCache();
+    for (ProjectTeam member : projectTeamFacade.findByMember(user)) {
+      cache.projectCache.put(member.getProject().getId(), Pair.with(member.getProject(), member.getTeamRole()));
+    }
+    cache.membershipsLoaded = true;
     return (i, c) -> accessorProjects(user, i, c, cache);
   }
   
@@ -246,7 +253,7 @@ public class DatasetAccessController {
       if(project == null) {
         return null;
       }
-      String projectRole = projectTeamFacade.findCurrentRole(project, user);
+      String projectRole = cache.membershipsLoaded ? null : projectTeamFacade.findCurrentRole(project, user);
       cache.projectCache.put(project.getId(), Pair.with(project, projectRole));
       return Pair.with(project, projectRole);
     }
@@ -256,7 +263,7 @@ public class DatasetAccessController {
     if (cache.projectCache.containsKey(project.getId())) {
       return cache.projectCache.get(project.getId());
     } else {
-      String projectRole = projectTeamFacade.findCurrentRole(project, user);
+      String projectRole = cache.membershipsLoaded ? null : projectTeamFacade.findCurrentRole(project, user);
       cache.projectCache.put(project.getId(), Pair.with(project, projectRole));
       return Pair.with(project, projectRole);
     }
@@ -284,5 +291,7 @@ public class DatasetAccessController {
     Map<Integer, Pair<Project, String>> projectCache = new HashMap<>();
     Map<Long, Dataset> datasetCache = new HashMap<>();
     Map<Long, Set<Integer>> sharedWithProjectsCache = new HashMap<>();
+    // all the projects the user is a member of are in projectCache, a project not in it has no role
+    boolean membershipsLoaded = false;
   }
 }
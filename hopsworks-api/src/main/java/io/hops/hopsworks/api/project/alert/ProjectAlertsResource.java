@@ -17,6 +17,7 @@
 package io.hops.hopsworks.api.project.alert;
 
 import com.google.common.base.Strings;
+import io.hops.hopsworks.alert.AMConfigTransaction;
 import io.hops.hopsworks.alert.dao.AlertReceiverFacade;
 import io.hops.hopsworks.alert.exception.AlertManagerAccessControlException;
 import io.hops.hopsworks.alert.exception.AlertManagerUnreachableException;
@@ -26,6 +27,7 @@ import io.hops.hopsworks.alerting.exceptions.AlertManagerClientCreateException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigCtrlCreateException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigReadException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerConfigUpdateException;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerDuplicateEntryException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerNoSuchElementException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerResponseException;
 import io.hops.hopsworks.api.alert.AlertBuilder;
@@ -80,6 +82,8 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -231,10 +235,13 @@ public class ProjectAlertsResource extends ProjectSubResource {
       projectServiceAlert.setSeverity(projectAlertsDTO.getSeverity());
     }
     if (!projectServiceAlert.getReceiver().getName().equals(projectAlertsDTO.getReceiver())) {
-      deleteRoute(projectServiceAlert);
+      // replace the route with a single Alertmanager reload
+      AMConfigTransaction transaction = new AMConfigTransaction();
+      alertController.deleteRoute(transaction, projectServiceAlert);
       projectServiceAlert.setReceiver(getReceiver(projectAlertsDTO.getReceiver()));
       projectServiceAlert.setAlertType(alertController.getAlertType(projectServiceAlert.getReceiver()));
-      createRoute(projectServiceAlert);
+      createRoute(transaction, projectServiceAlert);
+      commit(transaction);
     }
     projectServiceAlert = projectServiceAlertsFacade.update(projectServiceAlert);
     ResourceRequest resourceRequest = new ResourceRequest(ResourceRequest.Name.ALERTS);
@@ -262,18 +269,16 @@ public class ProjectAlertsResource extends ProjectSubResource {
 
   private ProjectAlertsDTO createAlert(PostableProjectAlerts projectAlertsDTO, Boolean bulk, UriInfo uriInfo,
       ResourceRequest resourceRequest) throws ProjectException {
-    ProjectAlertsDTO dto;
     Project project = getProject();
-    if (bulk) {
-      validateBulk(projectAlertsDTO);
-      dto = new ProjectAlertsDTO();
-      for (PostableProjectAlerts pa : projectAlertsDTO.getItems()) {
-        dto.addItem(createAlert(pa, uriInfo, project, resourceRequest));
-      }
-      dto.setCount((long) projectAlertsDTO.getItems().size());
-    } else {
-      dto = createAlert(projectAlertsDTO, uriInfo, project, resourceRequest);
+    if (!bulk) {
+      return createAlerts(Collections.singletonList(projectAlertsDTO), uriInfo, project, resourceRequest).get(0);
+    }
+    validateBulk(projectAlertsDTO);
+    ProjectAlertsDTO dto = new ProjectAlertsDTO();
+    for (ProjectAlertsDTO item : createAlerts(projectAlertsDTO.getItems(), uriInfo, project, resourceRequest)) {
+      dto.addItem(item);
     }
+    dto.setCount((long) projectAlertsDTO.getItems().size());
     return dto;
   }
 
@@ -290,21 +295,34 @@ public class ProjectAlertsResource extends ProjectSubResource {
     }
   }
 
-  private ProjectAlertsDTO createAlert(PostableProjectAlerts projectAlertsDTO, UriInfo uriInfo, Project project,
-      ResourceRequest resourceRequest) throws ProjectException {
-    validate(projectAlertsDTO);
-    ProjectServiceAlert projectServiceAlert = new ProjectServiceAlert();
-    projectServiceAlert.setStatus(projectAlertsDTO.getStatus());
-    projectServiceAlert.setSeverity(projectAlertsDTO.getSeverity());
-    projectServiceAlert.setService(projectAlertsDTO.getService());
-    projectServiceAlert.setCreated(new Date());
-    projectServiceAlert.setProject(project);
-    projectServiceAlert.setReceiver(getReceiver(projectAlertsDTO.getReceiver()));
-    projectServiceAlert.setAlertType(alertController.getAlertType(projectServiceAlert.getReceiver()));
-    createRoute(projectServiceAlert);
-    projectServiceAlertsFacade.save(projectServiceAlert);
-    projectServiceAlert = projectServiceAlertsFacade.findByProjectAndStatus(project, projectAlertsDTO.getStatus());
-    return projectAlertsBuilder.buildItems(uriInfo, resourceRequest, projectServiceAlert);
+  /**
+   * Creates the routes of all alerts with a single Alertmanager reload before saving the alerts.
+   */
+  private List<ProjectAlertsDTO> createAlerts(List<PostableProjectAlerts> projectAlertsDTOs, UriInfo uriInfo,
+      Project project, ResourceRequest resourceRequest) throws ProjectException {
+    AMConfigTransaction transaction = new AMConfigTransaction();
+    List<ProjectServiceAlert> projectServiceAlerts = new ArrayList<>();
+    for (PostableProjectAlerts projectAlertsDTO : projectAlertsDTOs) {
+      validate(projectAlertsDTO);
+      ProjectServiceAlert projectServiceAlert = new ProjectServiceAlert();
+      projectServiceAlert.setStatus(projectAlertsDTO.getStatus());
+      projectServiceAlert.setSeverity(projectAlertsDTO.getSeverity());
+      projectServiceAlert.setService(projectAlertsDTO.getService());
+      projectServiceAlert.setCreated(new Date());
+      projectServiceAlert.setProject(project);
+      projectServiceAlert.setReceiver(getReceiver(projectAlertsDTO.getReceiver()));
+      projectServiceAlert.setAlertType(alertController.getAlertType(projectServiceAlert.getReceiver()));
+      createRoute(transaction, projectServiceAlert);
+      projectServiceAlerts.add(projectServiceAlert);
+    }
+    commit(transaction);
+    List<ProjectAlertsDTO> dtos = new ArrayList<>();
+    for (ProjectServiceAlert projectServiceAlert : projectServiceAlerts) {
+      projectServiceAlertsFacade.save(projectServiceAlert);
+      projectServiceAlert = projectServiceAlertsFacade.findByProjectAndStatus(project, projectServiceAlert.getStatus());
+      dtos.add(projectAlertsBuilder.buildItems(uriInfo, resourceRequest, projectServiceAlert));
+    }
+    return dtos;
   }
 
   private AlertReceiver getReceiver(String name) throws ProjectException {
@@ -320,12 +338,21 @@ public class ProjectAlertsResource extends ProjectSubResource {
         "Alert receiver not found " + name);
   }
 
-  private void createRoute(ProjectServiceAlert projectServiceAlert) throws ProjectException {
+  private void createRoute(AMConfigTransaction transaction, ProjectServiceAlert projectServiceAlert)
+      throws ProjectException {
+    try {
+      alertController.createRoute(transaction, projectServiceAlert);
+    } catch (AlertManagerAccessControlException e) {
+      throw new ProjectException(RESTCodes.ProjectErrorCode.FAILED_TO_CREATE_ROUTE, Level.FINE, e.getMessage());
+    }
+  }
+
+  private void commit(AMConfigTransaction transaction) throws ProjectException {
     try {
-      alertController.createRoute(projectServiceAlert);
-    } catch ( AlertManagerClientCreateException | AlertManagerConfigReadException |
-        AlertManagerConfigCtrlCreateException | AlertManagerConfigUpdateException | AlertManagerNoSuchElementException |
-        AlertManagerAccessControlException | AlertManagerUnreachableException e) {
+      alertController.commit(transaction);
+    } catch (AlertManagerConfigReadException | AlertManagerConfigCtrlCreateException |
+        AlertManagerConfigUpdateException | AlertManagerNoSuchElementException |
+        AlertManagerDuplicateEntryException e) {
       throw new ProjectException(RESTCodes.ProjectErrorCode.FAILED_TO_CREATE_ROUTE, Level.FINE, e.getMessage());
     }
   }
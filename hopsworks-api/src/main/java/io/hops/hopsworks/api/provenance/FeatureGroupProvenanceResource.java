@@ -151,7 +151,8 @@ public class FeatureGroupProvenanceResource extends FeatureGroupSubResource {
     Featuregroup fg = featureGroupController.getFeaturegroupById(getFeaturestore(project), getFeatureGroupId());
     ProvExplicitLink<Featuregroup> provenance
         = provCtrl.featureGroupLinks(project, fg, pagination.getUpstreamLvls(), pagination.getDownstreamLvls());
-    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, project, user, provenance);
+    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, project, user, provenance,
+      pagination);
     return Response.ok().entity(result).build();
   }
 
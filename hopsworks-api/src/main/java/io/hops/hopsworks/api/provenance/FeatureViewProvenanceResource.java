@@ -142,7 +142,8 @@ public class FeatureViewProvenanceResource extends FeatureViewSubResource {
         = featureViewController.getByNameVersionAndFeatureStore(getName(), getVersion(), getFeaturestore(project));
     ProvExplicitLink<FeatureView> provenance
         = provCtrl.featureViewLinks(project, fv, pagination.getUpstreamLvls(), pagination.getDownstreamLvls());
-    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, project, user, provenance);
+    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, project, user, provenance,
+      pagination);
     return Response.ok().entity(result).build();
   }
 
@@ -42,6 +42,27 @@ public class LinksPagination {
   @DefaultValue("1")
   private Integer downstreamLvls;
 
+  @QueryParam("offset")
+  @ApiParam(
+    name = "offset",
+    value = "number of upstream and downstream links of the requested artifact to skip",
+    example = "0",
+    defaultValue = "0",
+    required = false)
+  @DefaultValue("0")
+  private Integer offset;
+
+  @QueryParam("limit")
+  @ApiParam(
+    name = "limit",
+    value = "-1 for all links, positive integer for the max number of upstream and downstream links of each " +
+      "artifact in the graph",
+    example = "100",
+    defaultValue = "-1",
+    required = false)
+  @DefaultValue("-1")
+  private Integer limit;
+
   public LinksPagination(
       @QueryParam("upstreamLvls") Integer upstreamLvls,
       @QueryParam("downstreamLvls") Integer downstreamLvls) {
@@ -66,4 +87,20 @@ public class LinksPagination {
   public void setDownstreamLvls(Integer downstreamLvls) {
     this.downstreamLvls = downstreamLvls;
   }
+
+  public Integer getOffset() {
+    return offset;
+  }
+
+  public void setOffset(Integer offset) {
+    this.offset = offset;
+  }
+
+  public Integer getLimit() {
+    return limit;
+  }
+
+  public void setLimit(Integer limit) {
+    this.limit = limit;
+  }
 }
@@ -116,7 +116,8 @@ public class ModelProvenanceResource extends ModelRegistrySubResource {
     resourceRequest.setExpansions(explicitProvenanceExpansionBeanParam.getResources());
     ProvExplicitLink<ModelVersion> provenance = provCtrl.modelLinks(accessProject, modelVersion,
         pagination.getUpstreamLvls(), pagination.getDownstreamLvls());
-    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, accessProject, user, provenance);
+    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, accessProject, user, provenance,
+      pagination);
     return Response.ok().entity(result).build();
   }
 }
@@ -125,7 +125,8 @@ public class StorageConnectorProvenanceResource extends FeaturestoreSubResource
         storageConnectorController.getConnectorWithName(user, project, featurestore, connectorName);
     ProvExplicitLink<FeaturestoreConnector> provenance = provCtrl.storageConnectorLinks(project, connector,
         pagination.getUpstreamLvls(), pagination.getDownstreamLvls());
-    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, project, user, provenance);
+    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, project, user, provenance,
+      pagination);
     return Response.ok().entity(result).build();
   }
 }
@@ -152,7 +152,8 @@ public class TrainingDatasetProvenanceResource extends TrainingDatasetSubResourc
       getTrainingDatasetVersion());
     ProvExplicitLink<TrainingDataset> provenance
         = provCtrl.trainingDatasetLinks(project, td, pagination.getUpstreamLvls(), pagination.getDownstreamLvls());
-    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, project, user, provenance);
+    ProvExplicitLinkDTO<?> result = linksBuilder.build(uriInfo, resourceRequest, project, user, provenance,
+      pagination);
     return Response.ok().entity(result).build();
   }
 
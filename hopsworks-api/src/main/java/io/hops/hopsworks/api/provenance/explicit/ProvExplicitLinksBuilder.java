@@ -19,6 +19,7 @@ import io.hops.hopsworks.api.featurestore.featureview.FeatureViewBuilder;
 import io.hops.hopsworks.api.featurestore.trainingdataset.TrainingDatasetDTOBuilder;
 import io.hops.hopsworks.api.modelregistry.models.ModelsBuilder;
 import io.hops.hopsworks.api.modelregistry.models.dto.ModelDTO;
+import io.hops.hopsworks.api.provenance.LinksPagination;
 import io.hops.hopsworks.api.provenance.explicit.dto.ProvArtifactDTO;
 import io.hops.hopsworks.api.provenance.explicit.dto.featurestore.ProvCachedFeatureGroupDTO;
 import io.hops.hopsworks.api.provenance.explicit.dto.featurestore.ProvOnDemandFeatureGroupDTO;
@@ -65,8 +66,13 @@ import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Stateless
 @TransactionAttribute(TransactionAttributeType.NEVER)
@@ -156,54 +162,53 @@ public class ProvExplicitLinksBuilder {
                                       Project accessProject, Users user, ProvExplicitLink<?> links)
       throws GenericException, FeaturestoreException, DatasetException, ServiceException, MetadataException,
       FeatureStoreMetadataException, IOException, ModelRegistryException {
+    return build(uriInfo, resourceRequest, accessProject, user, links, new LinksPagination(-1, -1));
+  }
+  
+  /**
+   * Build the lineage graph of an artifact, walking at most the upstream and downstream levels of the pagination.
+   * Artifacts reached through several paths are resolved once and their links are built once per remaining depth,
+   * unless the links reach an artifact of the path they are reached from, as a cycle stops at such artifacts.
+   * The offset and limit of the pagination page the links of the requested artifact, the limit also bounds the
+   * links of every other artifact in the graph. The number of links before paging is returned with each artifact.
+   */
+  public ProvExplicitLinkDTO<?> build(UriInfo uriInfo, ResourceRequest resourceRequest, Project accessProject,
+                                      Users user, ProvExplicitLink<?> links, LinksPagination pagination)
+      throws GenericException, FeaturestoreException, DatasetException, ServiceException, MetadataException,
+      FeatureStoreMetadataException, IOException, ModelRegistryException {
     boolean expandLink = resourceRequest != null && resourceRequest.contains(ResourceRequest.Name.PROVENANCE);
     boolean expandArtifact = resourceRequest != null
       && resourceRequest.contains(ResourceRequest.Name.PROVENANCE_ARTIFACTS);
+    if (expandLink) {
+      LinkTraversal traversal = new LinkTraversal(uriInfo, accessProject, user, expandArtifact, pagination);
+      return traverse(traversal, links, levels(pagination.getUpstreamLvls()),
+        levels(pagination.getDownstreamLvls()), true);
+    }
     if (links.getNode() instanceof FeaturestoreConnector) {
-      if (expandLink) {
-        return storageConnectorLink(uriInfo, accessProject, user, expandArtifact, links);
-      } else {
-        ProvExplicitLinkDTO<?> linksDTO = new ProvExplicitLinkDTO<>();
-        FeaturestoreConnector connector = (FeaturestoreConnector) links.getNode();
-        linksDTO.setHref(storageConnectorURI(uriInfo, accessProject, connector).build());
-        return linksDTO;
-      }
+      ProvExplicitLinkDTO<?> linksDTO = new ProvExplicitLinkDTO<>();
+      FeaturestoreConnector connector = (FeaturestoreConnector) links.getNode();
+      linksDTO.setHref(storageConnectorURI(uriInfo, accessProject, connector).build());
+      return linksDTO;
     } else if (links.getNode() instanceof Featuregroup) {
-      if (expandLink) {
-        return featureGroupLink(uriInfo, accessProject, user, expandArtifact, links);
-      } else {
-        ProvExplicitLinkDTO<?> linksDTO = new ProvExplicitLinkDTO<>();
-        Featuregroup featureGroup = (Featuregroup) links.getNode();
-        linksDTO.setHref(featureGroupURI(uriInfo, accessProject, featureGroup).build());
-        return linksDTO;
-      }
+      ProvExplicitLinkDTO<?> linksDTO = new ProvExplicitLinkDTO<>();
+      Featuregroup featureGroup = (Featuregroup) links.getNode();
+      linksDTO.setHref(featureGroupURI(uriInfo, accessProject, featureGroup).build());
+      return linksDTO;
     } else if (links.getNode() instanceof FeatureView) {
-      if (expandLink) {
-        return featureViewLink(uriInfo, accessProject, user, expandArtifact, links);
-      } else {
-        ProvExplicitLinkDTO<?> linksDTO = new ProvExplicitLinkDTO<>();
-        FeatureView featureView = (FeatureView) links.getNode();
-        linksDTO.setHref(featureViewURI(uriInfo, accessProject, featureView).build());
-        return linksDTO;
-      }
+      ProvExplicitLinkDTO<?> linksDTO = new ProvExplicitLinkDTO<>();
+      FeatureView featureView = (FeatureView) links.getNode();
+      linksDTO.setHref(featureViewURI(uriInfo, accessProject, featureView).build());
+      return linksDTO;
     } else if (links.getNode() instanceof TrainingDataset) {
-      if(expandLink) {
-        return trainingDatasetLink(uriInfo, accessProject, user, expandArtifact, links);
-      } else {
-        ProvExplicitLinkDTO<TrainingDatasetDTO> linksDTO = new ProvExplicitLinkDTO<>();
-        TrainingDataset trainingDataset = (TrainingDataset) links.getNode();
-        linksDTO.setHref(trainingDatasetURI(uriInfo, accessProject, trainingDataset).build());
-        return linksDTO;
-      }
+      ProvExplicitLinkDTO<TrainingDatasetDTO> linksDTO = new ProvExplicitLinkDTO<>();
+      TrainingDataset trainingDataset = (TrainingDataset) links.getNode();
+      linksDTO.setHref(trainingDatasetURI(uriInfo, accessProject, trainingDataset).build());
+      return linksDTO;
     } else if (links.getNode() instanceof ModelVersion) {
-      if(expandLink) {
-        return modelLink(uriInfo, accessProject, user, expandArtifact, links);
-      } else {
-        ProvExplicitLinkDTO<ModelDTO> linksDTO = new ProvExplicitLinkDTO<>();
-        ModelVersion model = (ModelVersion) links.getNode();
-        linksDTO.setHref(modelURI(uriInfo, accessProject, model).build());
-        return linksDTO;
-      }
+      ProvExplicitLinkDTO<ModelDTO> linksDTO = new ProvExplicitLinkDTO<>();
+      ModelVersion model = (ModelVersion) links.getNode();
+      linksDTO.setHref(modelURI(uriInfo, accessProject, model).build());
+      return linksDTO;
     }
     return null;
   }
@@ -233,7 +238,6 @@ public class ProvExplicitLinksBuilder {
       artifactDTO.setHref(href);
     }
     linksDTO.setNode(buildNodeDTO(links, artifactDTO));
-    traverseLinks(uriInfo, accessProject, user, linksDTO, expandArtifact, links);
     return linksDTO;
   }
   
@@ -262,7 +266,6 @@ public class ProvExplicitLinksBuilder {
       artifactDTO.setHref(href);
     }
     linksDTO.setNode(buildNodeDTO(links, artifactDTO));
-    traverseLinks(uriInfo, accessProject, user, linksDTO, expandArtifact, links);
     return linksDTO;
   }
   
@@ -307,7 +310,6 @@ public class ProvExplicitLinksBuilder {
       artifactDTO.setHref(
         featurestoreUtils.featureViewURI(uriInfo.getBaseUriBuilder(), accessProject, featureView).build());
     }
-    traverseLinks(uriInfo, accessProject, user, linksDTO, expandArtifact, links);
     return linksDTO;
   }
   
@@ -338,7 +340,6 @@ public class ProvExplicitLinksBuilder {
         featurestoreUtils.trainingDatasetURI(uriInfo.getBaseUriBuilder(), accessProject, trainingDataset).build());
     }
     linksDTO.setNode(buildNodeDTO(links, artifactDTO));
-    traverseLinks(uriInfo, accessProject, user, linksDTO, expandArtifact, links);
     return linksDTO;
   }
 
@@ -371,47 +372,152 @@ public class ProvExplicitLinksBuilder {
             .queryParam("expand", "USERS").build());
     }
     linksDTO.setNode(buildNodeDTO(links, artifactDTO));
-    traverseLinks(uriInfo, accessProject, user, linksDTO, expandArtifact, links);
     return linksDTO;
   }
   
-  private void traverseLinks(UriInfo uriInfo, Project accessProject, Users user, ProvExplicitLinkDTO<?> linksDTO,
-                             boolean expandArtifact, ProvExplicitLink<?> links)
+  private ProvExplicitLinkDTO<?> traverse(LinkTraversal traversal, ProvExplicitLink<?> links, int upstreamLvls,
+                                          int downstreamLvls, boolean root)
       throws FeaturestoreException, ServiceException, MetadataException, FeatureStoreMetadataException,
       DatasetException, IOException, GenericException, ModelRegistryException {
-    if(linksDTO.getNode().isAccessible()) {
-      for (ProvExplicitLink<?> downstreamLink : links.getDownstream()) {
-        ProvExplicitLinkDTO<?> downstreamLinkDTO =
-          traverseLinksInt(uriInfo, accessProject, user, expandArtifact, downstreamLink);
-        linksDTO.addDownstream(downstreamLinkDTO);
+    String nodeKey = links.getArtifactType() + ":" + links.getNodeId();
+    String linksKey = nodeKey + ":" + upstreamLvls + ":" + downstreamLvls;
+    CachedLinks cached = root ? null : traversal.links.get(linksKey);
+    // links built on another path are reused if they do not reach an artifact of the current path, where a walk from
+    // here would stop
+    if (cached != null && Collections.disjoint(cached.reached, traversal.path)) {
+      traversal.reached.addAll(cached.reached);
+      return cached.links;
+    }
+    ProvExplicitLinkDTO<?> resolved = traversal.nodes.get(nodeKey);
+    if (resolved == null) {
+      resolved = resolve(traversal, links);
+      if (resolved == null) {
+        return null;
       }
-      for (ProvExplicitLink<?> upstreamLink : links.getUpstream()) {
-        ProvExplicitLinkDTO<?> upstreamLinkDTO =
-          traverseLinksInt(uriInfo, accessProject, user, expandArtifact, upstreamLink);
-        linksDTO.addUpstream(upstreamLinkDTO);
+      traversal.nodes.put(nodeKey, resolved);
+    }
+    ProvExplicitLinkDTO linksDTO = new ProvExplicitLinkDTO<>();
+    linksDTO.setHref(resolved.getHref());
+    linksDTO.setNode(resolved.getNode());
+    Set<String> outerReached = traversal.reached;
+    traversal.reached = new HashSet<>();
+    traversal.reached.add(nodeKey);
+    // an artifact already on the current path closes a cycle and is not walked again
+    if (linksDTO.getNode().isAccessible() && traversal.path.add(nodeKey)) {
+      try {
+        if (downstreamLvls != 0) {
+          linksDTO.setDownstreamCount(links.getDownstream().size());
+          for (ProvExplicitLink<?> downstreamLink : page(traversal, links.getDownstream(), root)) {
+            ProvExplicitLinkDTO<?> downstreamLinkDTO =
+              traverse(traversal, downstreamLink, upstreamLvls, nextLevel(downstreamLvls), false);
+            if (downstreamLinkDTO != null) {
+              linksDTO.addDownstream(downstreamLinkDTO);
+            }
+          }
+        }
+        if (upstreamLvls != 0) {
+          linksDTO.setUpstreamCount(links.getUpstream().size());
+          for (ProvExplicitLink<?> upstreamLink : page(traversal, links.getUpstream(), root)) {
+            ProvExplicitLinkDTO<?> upstreamLinkDTO =
+              traverse(traversal, upstreamLink, nextLevel(upstreamLvls), downstreamLvls, false);
+            if (upstreamLinkDTO != null) {
+              linksDTO.addUpstream(upstreamLinkDTO);
+            }
+          }
+        }
+      } finally {
+        traversal.path.remove(nodeKey);
       }
     }
+    Set<String> reached = traversal.reached;
+    outerReached.addAll(reached);
+    traversal.reached = outerReached;
+    // links cut short at an artifact of the current path depend on that path and are not cached
+    if (!root && Collections.disjoint(reached, traversal.path)) {
+      traversal.links.put(linksKey, new CachedLinks(linksDTO, reached));
+    }
+    return linksDTO;
   }
   
-  private ProvExplicitLinkDTO<?> traverseLinksInt(UriInfo uriInfo, Project accessProject, Users user,
-                                                  boolean expandArtifact, ProvExplicitLink link)
+  private ProvExplicitLinkDTO<?> resolve(LinkTraversal traversal, ProvExplicitLink link)
       throws FeaturestoreException, ServiceException, DatasetException, MetadataException,
       FeatureStoreMetadataException, IOException, GenericException, ModelRegistryException {
     switch(link.getArtifactType()) {
       case STORAGE_CONNECTOR:
-        return storageConnectorLink(uriInfo, accessProject, user, expandArtifact, link);
+        return storageConnectorLink(traversal.uriInfo, traversal.accessProject, traversal.user,
+          traversal.expandArtifact, link);
       case FEATURE_GROUP:
-        return featureGroupLink(uriInfo, accessProject, user, expandArtifact, link);
+        return featureGroupLink(traversal.uriInfo, traversal.accessProject, traversal.user,
+          traversal.expandArtifact, link);
       case FEATURE_VIEW:
-        return featureViewLink(uriInfo, accessProject, user, expandArtifact, link);
+        return featureViewLink(traversal.uriInfo, traversal.accessProject, traversal.user,
+          traversal.expandArtifact, link);
       case TRAINING_DATASET:
-        return trainingDatasetLink(uriInfo, accessProject, user, expandArtifact, link);
+        return trainingDatasetLink(traversal.uriInfo, traversal.accessProject, traversal.user,
+          traversal.expandArtifact, link);
       case MODEL:
-        return modelLink(uriInfo, accessProject, user, expandArtifact, link);
+        return modelLink(traversal.uriInfo, traversal.accessProject, traversal.user,
+          traversal.expandArtifact, link);
       default:
         return null;
     }
   }
+  
+  private List<ProvExplicitLink> page(LinkTraversal traversal, List<ProvExplicitLink> links, boolean root) {
+    int from = root ? Math.min(traversal.offset, links.size()) : 0;
+    int to = traversal.limit < 0 ? links.size() : Math.min(links.size(), from + traversal.limit);
+    return links.subList(from, to);
+  }
+  
+  private static int levels(Integer levels) {
+    return levels == null ? -1 : levels;
+  }
+  
+  private static int nextLevel(int levels) {
+    return levels < 0 ? levels : levels - 1;
+  }
+  
+  /**
+   * State of building one lineage graph
+   */
+  private static class LinkTraversal {
+    private final UriInfo uriInfo;
+    private final Project accessProject;
+    private final Users user;
+    private final boolean expandArtifact;
+    private final int offset;
+    private final int limit;
+    // type:id -> resolved artifact without links
+    private final Map<String, ProvExplicitLinkDTO<?>> nodes = new HashMap<>();
+    // type:id:upstreamLvls:downstreamLvls -> artifact with its links
+    private final Map<String, CachedLinks> links = new HashMap<>();
+    // type:id of the artifacts on the current path
+    private final Set<String> path = new HashSet<>();
+    // type:id of the artifacts reached while building the links of the artifact being walked
+    private Set<String> reached = new HashSet<>();
+    
+    LinkTraversal(UriInfo uriInfo, Project accessProject, Users user, boolean expandArtifact,
+                  LinksPagination pagination) {
+      this.uriInfo = uriInfo;
+      this.accessProject = accessProject;
+      this.user = user;
+      this.expandArtifact = expandArtifact;
+      this.offset = pagination.getOffset() == null ? 0 : Math.max(0, pagination.getOffset());
+      this.limit = pagination.getLimit() == null ? -1 : pagination.getLimit();
+    }
+  }
+  
+  private static class CachedLinks {
+    private final ProvExplicitLinkDTO<?> links;
+    // type:id of the artifacts the links reach, including the artifact itself
+    private final Set<String> reached;
+    
+    CachedLinks(ProvExplicitLinkDTO<?> links, Set<String> reached) {
+      this.links = links;
+      this.reached = reached;
+    }
+  }
+  
   private  ProvNodeDTO buildNodeDTO(ProvExplicitLink links, RestDTO artifactDTO) {
     return buildNodeDTO(links, artifactDTO, Optional.empty());
   }
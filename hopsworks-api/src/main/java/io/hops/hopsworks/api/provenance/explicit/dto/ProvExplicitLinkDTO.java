@@ -26,6 +26,8 @@ public class ProvExplicitLinkDTO<A extends RestDTO> extends RestDTO<ProvExplicit
   private ProvNodeDTO<A> node;
   private List<ProvExplicitLinkDTO> upstream = new ArrayList<>();
   private List<ProvExplicitLinkDTO> downstream = new ArrayList<>();
+  private Integer upstreamCount;
+  private Integer downstreamCount;
   
   public ProvExplicitLinkDTO() {
   }
@@ -61,4 +63,20 @@ public class ProvExplicitLinkDTO<A extends RestDTO> extends RestDTO<ProvExplicit
   public void addDownstream(ProvExplicitLinkDTO link) {
     downstream.add(link);
   }
+  
+  public Integer getUpstreamCount() {
+    return upstreamCount;
+  }
+  
+  public void setUpstreamCount(Integer upstreamCount) {
+    this.upstreamCount = upstreamCount;
+  }
+  
+  public Integer getDownstreamCount() {
+    return downstreamCount;
+  }
+  
+  public void setDownstreamCount(Integer downstreamCount) {
+    this.downstreamCount = downstreamCount;
+  }
 }
@@ -29,6 +29,15 @@ public class Pagination implements PaginationParams {
   @ApiParam(required = false)
   private Integer limit;
 
+  @QueryParam("cursor")
+  @ApiParam(value = "Continuation token for cursor pagination, * for the first page. Supported by some collections " +
+    "instead of offset, cannot be combined with offset.", required = false)
+  private String cursor;
+
+  @QueryParam("count")
+  @ApiParam(value = "Whether to count the total number of items when using cursor pagination", required = false)
+  private Boolean count;
+
   public Pagination(
       @QueryParam("offset") Integer offset,
       @QueryParam("limit") Integer limit) {
@@ -56,9 +65,25 @@ public class Pagination implements PaginationParams {
     this.limit = limit;
   }
 
+  public String getCursor() {
+    return cursor;
+  }
+
+  public void setCursor(String cursor) {
+    this.cursor = cursor;
+  }
+
+  public Boolean getCount() {
+    return count;
+  }
+
+  public void setCount(Boolean count) {
+    this.count = count;
+  }
+
   @Override
   public String toString() {
-    return "Pagination{" + "offset=" + offset + ", limit=" + limit + '}';
+    return "Pagination{" + "offset=" + offset + ", limit=" + limit + ", cursor=" + cursor + ", count=" + count + '}';
   }
 
 }
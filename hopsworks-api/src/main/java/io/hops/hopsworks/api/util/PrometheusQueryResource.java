@@ -23,7 +23,6 @@ import io.hops.hopsworks.common.util.PrometheusClient;
 import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
 import io.swagger.annotations.Api;
-import org.json.JSONObject;
 
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
@@ -56,9 +55,8 @@ public class PrometheusQueryResource {
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   public Response executePrometheusQuery(@QueryParam("query") String query) throws ServiceException {
-    JSONObject jsonObject = prometheusClient.execute(query);
     return Response.ok()
-        .entity(jsonObject.toString())
+        .entity(prometheusClient.executeRaw(query))
         .build();
   }
 }
@@ -0,0 +1,173 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.provenance.explicit;
+
+import io.hops.hopsworks.api.provenance.LinksPagination;
+import io.hops.hopsworks.api.provenance.explicit.dto.ProvArtifactDTO;
+import io.hops.hopsworks.api.provenance.explicit.dto.ProvExplicitLinkDTO;
+import io.hops.hopsworks.common.api.ResourceRequest;
+import io.hops.hopsworks.common.provenance.explicit.ProvArtifact;
+import io.hops.hopsworks.common.provenance.explicit.ProvExplicitLink;
+import io.hops.hopsworks.persistence.entity.provenance.ProvExplicitNode;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TestProvExplicitLinksBuilder {
+
+  private ProvExplicitLinksBuilder builder;
+  private ResourceRequest resourceRequest;
+
+  @Before
+  public void setup() {
+    builder = new ProvExplicitLinksBuilder(null, null, null, null, null);
+    resourceRequest = new ResourceRequest(ResourceRequest.Name.PROVENANCE);
+  }
+
+  @Test
+  public void testCycle() throws Exception {
+    // r -> a -> b -> a, r -> b
+    ProvExplicitLink<ProvArtifact> r = link(0);
+    ProvExplicitLink<ProvArtifact> a = link(1);
+    ProvExplicitLink<ProvArtifact> b = link(2);
+    r.addDownstream(a);
+    r.addDownstream(b);
+    a.addDownstream(b);
+    b.addDownstream(a);
+
+    ProvExplicitLinkDTO<?> dto = build(r, 0, -1, null, null);
+
+    // r -> a -> b -> a stops at a, which is on the path
+    Assert.assertEquals(Arrays.asList("1", "2"), ids(dto.getDownstream()));
+    ProvExplicitLinkDTO<?> ra = dto.getDownstream().get(0);
+    Assert.assertEquals(Arrays.asList("2"), ids(ra.getDownstream()));
+    Assert.assertEquals(Arrays.asList("1"), ids(ra.getDownstream().get(0).getDownstream()));
+    Assert.assertTrue(ra.getDownstream().get(0).getDownstream().get(0).getDownstream().isEmpty());
+    // r -> b -> a -> b, the links of b built below a were cut short at a and cannot be reused here
+    ProvExplicitLinkDTO<?> rb = dto.getDownstream().get(1);
+    Assert.assertEquals(Arrays.asList("1"), ids(rb.getDownstream()));
+    Assert.assertEquals(Arrays.asList("2"), ids(rb.getDownstream().get(0).getDownstream()));
+    Assert.assertTrue(rb.getDownstream().get(0).getDownstream().get(0).getDownstream().isEmpty());
+  }
+
+  @Test
+  public void testDiamond() throws Exception {
+    // r -> a -> c -> d, r -> b -> c
+    ProvExplicitLink<ProvArtifact> r = link(0);
+    ProvExplicitLink<ProvArtifact> a = link(1);
+    ProvExplicitLink<ProvArtifact> b = link(2);
+    ProvExplicitLink<ProvArtifact> c = link(3);
+    ProvExplicitLink<ProvArtifact> d = link(4);
+    r.addDownstream(a);
+    r.addDownstream(b);
+    a.addDownstream(c);
+    b.addDownstream(c);
+    c.addDownstream(d);
+
+    ProvExplicitLinkDTO<?> dto = build(r, 0, -1, null, null);
+
+    ProvExplicitLinkDTO<?> viaA = dto.getDownstream().get(0).getDownstream().get(0);
+    ProvExplicitLinkDTO<?> viaB = dto.getDownstream().get(1).getDownstream().get(0);
+    Assert.assertSame(viaA, viaB);
+    Assert.assertEquals(Arrays.asList("4"), ids(viaA.getDownstream()));
+  }
+
+  @Test
+  public void testDiamondLevels() throws Exception {
+    // r -> a -> c -> d, r -> b -> x -> c, c is reached with a different number of levels left
+    ProvExplicitLink<ProvArtifact> r = link(0);
+    ProvExplicitLink<ProvArtifact> a = link(1);
+    ProvExplicitLink<ProvArtifact> b = link(2);
+    ProvExplicitLink<ProvArtifact> c = link(3);
+    ProvExplicitLink<ProvArtifact> d = link(4);
+    ProvExplicitLink<ProvArtifact> x = link(5);
+    r.addDownstream(a);
+    r.addDownstream(b);
+    a.addDownstream(c);
+    b.addDownstream(x);
+    x.addDownstream(c);
+    c.addDownstream(d);
+
+    ProvExplicitLinkDTO<?> dto = build(r, 0, 3, null, null);
+
+    ProvExplicitLinkDTO<?> viaA = dto.getDownstream().get(0).getDownstream().get(0);
+    ProvExplicitLinkDTO<?> viaB = dto.getDownstream().get(1).getDownstream().get(0).getDownstream().get(0);
+    Assert.assertEquals(Arrays.asList("4"), ids(viaA.getDownstream()));
+    Assert.assertTrue(viaB.getDownstream().isEmpty());
+  }
+
+  @Test
+  public void testPaging() throws Exception {
+    ProvExplicitLink<ProvArtifact> r = link(0);
+    for (int i = 1; i <= 5; i++) {
+      r.addDownstream(link(i));
+    }
+    ProvExplicitLink<ProvArtifact> second = r.getDownstream().get(1);
+    for (int i = 6; i <= 8; i++) {
+      second.addDownstream(link(i));
+    }
+
+    ProvExplicitLinkDTO<?> dto = build(r, 0, -1, 1, 2);
+
+    // offset and limit page the links of the requested artifact
+    Assert.assertEquals(Integer.valueOf(5), dto.getDownstreamCount());
+    Assert.assertEquals(Arrays.asList("2", "3"), ids(dto.getDownstream()));
+    // only the limit applies to the other artifacts
+    ProvExplicitLinkDTO<?> secondDTO = dto.getDownstream().get(0);
+    Assert.assertEquals(Integer.valueOf(3), secondDTO.getDownstreamCount());
+    Assert.assertEquals(Arrays.asList("6", "7"), ids(secondDTO.getDownstream()));
+  }
+
+  @Test
+  public void testPagingOffsetPastEnd() throws Exception {
+    ProvExplicitLink<ProvArtifact> r = link(0);
+    r.addDownstream(link(1));
+    r.addDownstream(link(2));
+
+    ProvExplicitLinkDTO<?> dto = build(r, 0, -1, 5, 2);
+
+    Assert.assertEquals(Integer.valueOf(2), dto.getDownstreamCount());
+    Assert.assertTrue(dto.getDownstream().isEmpty());
+  }
+
+  private ProvExplicitLinkDTO<?> build(ProvExplicitLink<?> root, int upstreamLvls, int downstreamLvls,
+                                       Integer offset, Integer limit) throws Exception {
+    LinksPagination pagination = new LinksPagination(upstreamLvls, downstreamLvls);
+    pagination.setOffset(offset);
+    pagination.setLimit(limit);
+    return builder.build(null, resourceRequest, null, null, root, pagination);
+  }
+
+  // deleted artifacts are built from the link alone, without looking up the artifact
+  private static ProvExplicitLink<ProvArtifact> link(int id) {
+    ProvExplicitLink<ProvArtifact> link = new ProvExplicitLink<>();
+    link.setNode(new ProvArtifact(id, "project", "fg_" + id, 1), ProvArtifact::getId);
+    link.setArtifactType(ProvExplicitNode.Type.FEATURE_GROUP);
+    link.setDeleted(true);
+    link.setAccessible(true);
+    return link;
+  }
+
+  private static List<String> ids(List<ProvExplicitLinkDTO> links) {
+    return links.stream()
+      .map(link -> ((ProvArtifactDTO) link.getNode().getArtifact()).getId())
+      .collect(Collectors.toList());
+  }
+}
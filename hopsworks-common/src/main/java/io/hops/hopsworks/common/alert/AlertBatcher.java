@@ -0,0 +1,176 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.alert;
+
+import io.hops.hopsworks.alerting.api.alert.dto.PostableAlert;
+import io.hops.hopsworks.persistence.entity.project.Project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Coalesces the alerts of a project posted within a window into a single batch. Alerts with the same labels are
+ * the same alert for alertmanager, only the last one is kept. A batch that failed to be posted is queued again with
+ * an exponential backoff, merged with the alerts that arrived meanwhile.
+ * The batcher does not read the clock, the caller passes the current time in milliseconds.
+ */
+public class AlertBatcher {
+
+  private final int maxPendingAlerts;
+  private final long windowMillis;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+
+  // project name -> alerts waiting to be posted
+  private final Map<String, PendingAlerts> pending = new HashMap<>();
+  private int pendingAlerts = 0;
+
+  public AlertBatcher(int maxPendingAlerts, long windowMillis, int maxAttempts, long initialBackoffMillis,
+      long maxBackoffMillis) {
+    this.maxPendingAlerts = maxPendingAlerts;
+    this.windowMillis = windowMillis;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  /**
+   * @return the number of alerts dropped because too many alerts are waiting to be posted
+   */
+  public synchronized int add(Project project, List<PostableAlert> alerts, long now) {
+    PendingAlerts projectAlerts = pending.computeIfAbsent(project.getName(), k -> new PendingAlerts(project, now));
+    int dropped = 0;
+    for (PostableAlert alert : alerts) {
+      String key = key(alert);
+      if (projectAlerts.alerts.containsKey(key)) {
+        // same alert, the latest annotations win
+        projectAlerts.alerts.put(key, alert);
+      } else if (pendingAlerts < maxPendingAlerts) {
+        projectAlerts.alerts.put(key, alert);
+        pendingAlerts++;
+      } else {
+        dropped++;
+      }
+    }
+    if (projectAlerts.alerts.isEmpty()) {
+      pending.remove(project.getName());
+    }
+    return dropped;
+  }
+
+  /**
+   * Remove the batches of the projects whose window elapsed and that are not backing off after a failure.
+   */
+  public synchronized List<Batch> due(long now) {
+    List<Batch> due = new ArrayList<>();
+    Iterator<PendingAlerts> it = pending.values().iterator();
+    while (it.hasNext()) {
+      PendingAlerts projectAlerts = it.next();
+      if (now - projectAlerts.firstQueued >= windowMillis && now >= projectAlerts.notBefore) {
+        due.add(new Batch(projectAlerts.project, projectAlerts.alerts, projectAlerts.firstQueued,
+            projectAlerts.attempts + 1));
+        pendingAlerts -= projectAlerts.alerts.size();
+        it.remove();
+      }
+    }
+    return due;
+  }
+
+  /**
+   * Queue a batch again after it failed to be posted.
+   *
+   * @return false if the batch was dropped because it reached the maximum number of attempts
+   */
+  public synchronized boolean failed(Batch batch, long now) {
+    if (batch.attempt >= maxAttempts) {
+      return false;
+    }
+    PendingAlerts newer = pending.remove(batch.project.getName());
+    // the window of the batch already elapsed, only the backoff applies
+    PendingAlerts retry = new PendingAlerts(batch.project, batch.firstQueued);
+    retry.alerts.putAll(batch.alerts);
+    retry.attempts = batch.attempt;
+    retry.notBefore = now + backoff(batch.attempt);
+    // alerts queued while the batch was being posted join the retry, the newer version of an alert wins
+    pendingAlerts += retry.alerts.size();
+    pending.put(batch.project.getName(), retry);
+    if (newer != null) {
+      pendingAlerts -= newer.alerts.size();
+      add(batch.project, new ArrayList<>(newer.alerts.values()), now);
+    }
+    return true;
+  }
+
+  public synchronized int size() {
+    return pendingAlerts;
+  }
+
+  long backoff(int attempt) {
+    long backoff = initialBackoffMillis << Math.min(attempt - 1, 30);
+    return Math.min(backoff, maxBackoffMillis);
+  }
+
+  private String key(PostableAlert alert) {
+    Map<String, String> labels = alert.getLabels() != null ? new TreeMap<>(alert.getLabels()) : Collections.emptyMap();
+    return labels.toString();
+  }
+
+  private static class PendingAlerts {
+    private final Project project;
+    private final long firstQueued;
+    private final Map<String, PostableAlert> alerts = new LinkedHashMap<>();
+    private int attempts = 0;
+    private long notBefore = 0;
+
+    private PendingAlerts(Project project, long firstQueued) {
+      this.project = project;
+      this.firstQueued = firstQueued;
+    }
+  }
+
+  public static class Batch {
+    private final Project project;
+    private final Map<String, PostableAlert> alerts;
+    private final long firstQueued;
+    private final int attempt;
+
+    private Batch(Project project, Map<String, PostableAlert> alerts, long firstQueued, int attempt) {
+      this.project = project;
+      this.alerts = alerts;
+      this.firstQueued = firstQueued;
+      this.attempt = attempt;
+    }
+
+    public Project getProject() {
+      return project;
+    }
+
+    public List<PostableAlert> getAlerts() {
+      return new ArrayList<>(alerts.values());
+    }
+
+    public int getAttempt() {
+      return attempt;
+    }
+  }
+}
@@ -17,6 +17,7 @@ package io.hops.hopsworks.common.alert;
 
 import com.google.common.base.Strings;
 import io.hops.hopsworks.alert.AMClient;
+import io.hops.hopsworks.alert.AMConfigTransaction;
 import io.hops.hopsworks.alert.AlertManagerConfiguration;
 import io.hops.hopsworks.alert.dao.AlertReceiverFacade;
 import io.hops.hopsworks.alert.exception.AlertManagerAccessControlException;
@@ -63,19 +64,18 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 @Stateless
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class AlertController {
-  private static final Logger LOGGER = Logger.getLogger(AlertController.class.getName());
   @EJB
   private AMClient alertManager;
   @EJB
   private AlertManagerConfiguration alertManagerConfiguration;
   @EJB
   private AlertReceiverFacade alertReceiverFacade;
+  @EJB
+  private AlertDispatcher alertDispatcher;
 
   /**
    * Send job alert
@@ -165,33 +165,22 @@ public class AlertController {
     }
   }
 
+  /**
+   * Queue feature group alerts, they are sent in the background by the {@link AlertDispatcher}
+   */
   public void sendFgAlert(List<PostableAlert> postableAlerts, Project project, String name) {
-    try {
-      sendAlert(postableAlerts, project);
-    } catch (Exception e) {
-      LOGGER.log(java.util.logging.Level.WARNING, "Failed to send alert. Featuregroup={0}. Exception: {1}",
-        new Object[] {name, e.getMessage()});
-    }
+    alertDispatcher.dispatch(postableAlerts, project, "Featuregroup=" + name);
   }
   
+  /**
+   * Queue feature monitoring alerts, they are sent in the background by the {@link AlertDispatcher}
+   */
   public void sendFeatureMonitorAlert(List<PostableAlert> postableAlerts, Project project, String name) {
-    try {
-      if (!postableAlerts.isEmpty()) {
-        sendAlert(postableAlerts, project);
-      }
-    } catch (Exception e) {
-      LOGGER.log(java.util.logging.Level.WARNING, "Failed to send alert. Feature Monitoring Config={0}. Exception: {1}",
-        new Object[]{name, e.getMessage()});
-    }
+    alertDispatcher.dispatch(postableAlerts, project, "Feature Monitoring Config=" + name);
   }
 
   private void sendJobAlert(List<PostableAlert> postableAlerts, Project project, String name, Integer id) {
-    try {
-      sendAlert(postableAlerts, project);
-    } catch (Exception e) {
-      LOGGER.log(Level.WARNING,
-          "Failed to send alert. Job={0} executionId={1}. Exception: {2}", new Object[] {name, id, e.getMessage()});
-    }
+    alertDispatcher.dispatch(postableAlerts, project, "Job=" + name + " executionId=" + id);
   }
 
   private List<Alert> sendFgTestAlert(Project project, AlertType alertType, AlertSeverity severity,
@@ -497,6 +486,54 @@ public class AlertController {
     }
   }
   
+  /**
+   * Stages the route of alert in transaction. Nothing changes in Alertmanager until the transaction is committed.
+   */
+  public void createRoute(AMConfigTransaction transaction, ProjectServiceAlert alert)
+      throws AlertManagerAccessControlException {
+    addRouteIfNotExist(transaction, alert.getAlertType(), ConfigUtil.getRoute(alert), alert.getProject());
+  }
+
+  public void createRoute(AMConfigTransaction transaction, JobAlert alert) throws AlertManagerAccessControlException {
+    addRouteIfNotExist(transaction, alert.getAlertType(), ConfigUtil.getRoute(alert), alert.getJobId().getProject());
+  }
+
+  /**
+   * Stages the removal of the route of alert in transaction, unless other alerts use the same route.
+   */
+  public void deleteRoute(AMConfigTransaction transaction, ProjectServiceAlert alert) {
+    removeRoute(transaction, ConfigUtil.getRoute(alert), alert.getId(), alert.getProject());
+  }
+
+  public void deleteRoute(AMConfigTransaction transaction, JobAlert alert) {
+    removeRoute(transaction, ConfigUtil.getRoute(alert), alert.getId(), alert.getJobId().getProject());
+  }
+
+  /**
+   * Applies all route changes staged in transaction with a single Alertmanager reload.
+   */
+  public void commit(AMConfigTransaction transaction) throws AlertManagerConfigCtrlCreateException,
+      AlertManagerDuplicateEntryException, AlertManagerNoSuchElementException, AlertManagerConfigUpdateException,
+      AlertManagerConfigReadException {
+    alertManagerConfiguration.commit(transaction);
+  }
+
+  private void addRouteIfNotExist(AMConfigTransaction transaction, AlertType type, Route route, Project project)
+      throws AlertManagerAccessControlException {
+    if (!type.isGlobal()) {
+      alertManagerConfiguration.fixRoute(route, project);
+    }
+    transaction.addRouteIfNotExist(route);
+  }
+
+  private void removeRoute(AMConfigTransaction transaction, Route route, int id, Project project) {
+    // same routes removeRoute(route, project) would remove, removing a missing route does nothing
+    if (!isUsedByOtherAlerts(route, id) && (ConfigUtil.isRouteGlobal(route) ||
+        ConfigUtil.isRouteInProject(route, project))) {
+      transaction.removeRoute(route);
+    }
+  }
+
   private boolean isUsedByOtherAlerts(Route route, int id) {
     Optional<AlertReceiver> alertReceiver = alertReceiverFacade.findByName(route.getReceiver());
     if (!alertReceiver.isPresent()) {
@@ -0,0 +1,143 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.alert;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.hops.hopsworks.alert.AMClient;
+import io.hops.hopsworks.alert.exception.AlertManagerAccessControlException;
+import io.hops.hopsworks.alerting.api.alert.dto.PostableAlert;
+import io.hops.hopsworks.persistence.entity.project.Project;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Posts the alerts of jobs, validations and feature monitoring to alertmanager in the background. Callers only queue
+ * the alerts, they are coalesced per project by an {@link AlertBatcher} and posted in batches by a timer, retrying
+ * with backoff while alertmanager is unreachable.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AlertDispatcher {
+  private static final Logger LOGGER = Logger.getLogger(AlertDispatcher.class.getName());
+  private static final long FLUSH_INTERVAL_MS = 1000L;
+  private static final long WINDOW_MS = 2000L;
+  private static final int MAX_PENDING_ALERTS = 10000;
+  private static final int MAX_ATTEMPTS = 8;
+  private static final long INITIAL_BACKOFF_MS = 1000L;
+  private static final long MAX_BACKOFF_MS = 5 * 60 * 1000L;
+
+  @EJB
+  private AMClient alertManager;
+  @Resource
+  private TimerService timerService;
+  private Timer timer;
+
+  private AlertBatcher batcher;
+  private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+  public AlertDispatcher() {
+  }
+
+  // For testing
+  AlertDispatcher(AMClient alertManager, AlertBatcher batcher) {
+    this.alertManager = alertManager;
+    this.batcher = batcher;
+  }
+
+  @PostConstruct
+  public void init() {
+    batcher = new AlertBatcher(MAX_PENDING_ALERTS, WINDOW_MS, MAX_ATTEMPTS, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS);
+    timer = timerService.createIntervalTimer(FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+        new TimerConfig("Alert dispatcher timer", false));
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (timer != null) {
+      timer.cancel();
+    }
+  }
+
+  /**
+   * Queue alerts to be posted, does not block on alertmanager.
+   *
+   * @param postableAlerts
+   * @param project
+   * @param source the job, feature group or feature monitoring config that raised the alerts, for logging
+   */
+  public void dispatch(List<PostableAlert> postableAlerts, Project project, String source) {
+    if (postableAlerts == null || postableAlerts.isEmpty()) {
+      return;
+    }
+    int dropped = batcher.add(project, postableAlerts, System.currentTimeMillis());
+    if (dropped > 0) {
+      LOGGER.log(Level.WARNING, "Too many alerts waiting to be sent, dropped {0} alerts of {1}",
+          new Object[]{dropped, source});
+    }
+  }
+
+  @Timeout
+  public void flush() {
+    if (!flushing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      flush(System.currentTimeMillis());
+    } finally {
+      flushing.set(false);
+    }
+  }
+
+  @VisibleForTesting
+  void flush(long now) {
+    for (AlertBatcher.Batch batch : batcher.due(now)) {
+      try {
+        alertManager.postAlerts(batch.getAlerts(), batch.getProject());
+      } catch (AlertManagerAccessControlException | IllegalArgumentException e) {
+        // will not succeed on retry
+        LOGGER.log(Level.WARNING, "Dropping alerts of project {0}. Exception: {1}",
+            new Object[]{batch.getProject().getName(), e.getMessage()});
+      } catch (Exception e) {
+        if (batcher.failed(batch, now)) {
+          LOGGER.log(Level.FINE, "Failed to send alerts of project {0}, attempt {1}. Exception: {2}",
+              new Object[]{batch.getProject().getName(), batch.getAttempt(), e.getMessage()});
+        } else {
+          LOGGER.log(Level.WARNING, "Failed to send alerts of project {0} after {1} attempts. Exception: {2}",
+              new Object[]{batch.getProject().getName(), batch.getAttempt(), e.getMessage()});
+        }
+      }
+    }
+  }
+}
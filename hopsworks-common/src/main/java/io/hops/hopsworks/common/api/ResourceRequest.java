@@ -28,6 +28,9 @@ public class ResourceRequest {
   private Name name;
   private Integer offset;
   private Integer limit;
+  // continuation token, set when the client uses cursor (keyset) pagination instead of offset
+  private String cursor;
+  private boolean count = true;
   private Set<? extends AbstractFacade.SortBy> sort;
   private Set<? extends AbstractFacade.FilterBy> filter;
   private Set<String> field;
@@ -93,6 +96,29 @@ public class ResourceRequest {
     this.limit = limit;
   }
 
+  public String getCursor() {
+    return cursor;
+  }
+
+  public void setCursor(String cursor) {
+    this.cursor = cursor;
+  }
+
+  public boolean isCursorPagination() {
+    return cursor != null;
+  }
+
+  /**
+   * @return false if the client does not need the total count of the collection
+   */
+  public boolean isCount() {
+    return count;
+  }
+
+  public void setCount(boolean count) {
+    this.count = count;
+  }
+
   public Set<? extends AbstractFacade.SortBy> getSort() {
     return sort;
   }
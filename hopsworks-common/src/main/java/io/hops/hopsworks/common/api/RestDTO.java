@@ -30,6 +30,8 @@ public abstract class RestDTO<D> {
   protected Boolean expand;
   protected List<D> items;
   protected Long count = null;
+  // continuation token of the next page for collections paginated with a cursor
+  protected String next = null;
   
   public RestDTO(URI href) {
     this.href = href;
@@ -92,4 +94,12 @@ public abstract class RestDTO<D> {
   public void setCount(Long count) {
     this.count = count;
   }
+  
+  public String getNext() {
+    return next;
+  }
+  
+  public void setNext(String next) {
+    this.next = next;
+  }
 }
\ No newline at end of file
@@ -56,6 +56,7 @@ import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -125,6 +126,13 @@ public class ExecutionFacade extends AbstractFacade<Execution> {
     return findByProjectAndStatesQuery(project, JobState.getRunningStates()).getResultList();
   }
 
+  public long countByProjectAndNotFinished(Project project) {
+    return em.createNamedQuery("Execution.countByProjectAndStates", Long.class)
+            .setParameter("project", project)
+            .setParameter("states", JobState.getRunningStates())
+            .getSingleResult();
+  }
+
   private TypedQuery<Execution> findByProjectAndStatesQuery(Project project, Set<JobState> states) {
     return em.createNamedQuery("Execution.findByProjectAndStates", Execution.class)
             .setParameter("project", project)
@@ -158,6 +166,22 @@ public class ExecutionFacade extends AbstractFacade<Execution> {
     return q.getResultList();
   }
 
+  /**
+   * Check in one query which of the jobs have an execution that is not in a final state.
+   *
+   * @param jobs jobs to check
+   * @return ids of the jobs with a running execution
+   */
+  public Set<Integer> findJobIdsNotFinished(Collection<Jobs> jobs) {
+    if (jobs.isEmpty()) {
+      return new HashSet<>();
+    }
+    TypedQuery<Integer> q = em.createNamedQuery("Execution.findJobIdsByJobsAndStates", Integer.class);
+    q.setParameter("jobs", jobs);
+    q.setParameter("states", JobState.getRunningStates());
+    return new HashSet<>(q.getResultList());
+  }
+
   /**
    * Get all executions that are not in a final state.
    *
@@ -194,6 +218,60 @@ public class ExecutionFacade extends AbstractFacade<Execution> {
   }
   
 
+  /**
+   * Keyset paginated executions of a job. Continues after the position encoded in the cursor token instead of using an
+   * offset, so the cost of a page does not depend on its depth. Only sorting by id or submission time is supported,
+   * with id as tiebreaker.
+   * @param cursor continuation token returned with the previous page, null for the first page
+   * @param withCount if false the total count query is skipped and the returned count is null
+   */
+  public CollectionInfo<Execution> findByJob(String cursor, Integer limit,
+    Set<? extends AbstractFacade.FilterBy> filters,
+    Set<? extends AbstractFacade.SortBy> sorts,
+    Jobs job, boolean withCount) {
+    Sorts sort = Sorts.ID;
+    OrderBy order = OrderBy.DESC;
+    if (sorts != null && !sorts.isEmpty()) {
+      if (sorts.size() > 1) {
+        throw new InvalidQueryException("Cursor pagination supports a single sort_by, but found: " + sorts.size());
+      }
+      AbstractFacade.SortBy sortBy = sorts.iterator().next();
+      order = sortBy.getParam();
+      if (Sorts.ID.getValue().equals(sortBy.getValue())) {
+        sort = Sorts.ID;
+      } else if (Sorts.SUBMISSIONTIME.getValue().equals(sortBy.getValue())) {
+        sort = Sorts.SUBMISSIONTIME;
+      } else {
+        throw new InvalidQueryException("Cursor pagination supports sort_by id or submissiontime, but found: " +
+          sortBy.getValue());
+      }
+    }
+    String sortSql = sort.getSql().trim();
+    AbstractFacade.Cursor position = AbstractFacade.Cursor.decode(cursor);
+    if (position != null) {
+      position.checkSort(sort.getValue(), order);
+    }
+    String more = "e.job = :job " +
+      (position == null ? "" : "AND " + keysetCondition(sortSql, "e.id", order, position));
+    String queryStr = buildQuery("SELECT e FROM Execution e ", filters, null, more) +
+      keysetSortString(sortSql, "e.id", order);
+    TypedQuery<Execution> query = em.createQuery(queryStr, Execution.class).setParameter("job", job);
+    setFilter(filters, query);
+    setKeyset(position, sortSql, "e.id", Integer.class, query);
+    setKeysetLimit(limit, query);
+    Long count = null;
+    if (withCount) {
+      String queryCountStr = buildQuery("SELECT COUNT(e.id) FROM Execution e ", filters, null, "e.job = :job ");
+      Query queryCount = em.createQuery(queryCountStr, Execution.class).setParameter("job", job);
+      setFilter(filters, queryCount);
+      count = (Long) queryCount.getSingleResult();
+    }
+    Sorts issuedFor = sort;
+    OrderBy issuedOrder = order;
+    return keysetPage(query.getResultList(), limit, e -> new AbstractFacade.Cursor(issuedFor.getValue(), issuedOrder,
+      issuedFor == Sorts.SUBMISSIONTIME ? e.getSubmissionTime() : null, e.getId().longValue()), count);
+  }
+
   public int batchDelete(List<Execution> executions) {
     // Find all executionIds
     List<Integer> executionIds = executions.stream().map(Execution::getId).collect(Collectors.toList());
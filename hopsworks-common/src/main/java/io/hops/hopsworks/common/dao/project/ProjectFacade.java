@@ -38,6 +38,8 @@
  */
 package io.hops.hopsworks.common.dao.project;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -257,6 +259,18 @@ public class ProjectFacade extends AbstractFacade<Project> {
         .getSingleResult());
   }
 
+  /**
+   * Callers should keep the number of ids below the SQL select IN limit.
+   */
+  public List<Project> findByIds(Collection<Integer> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return em.createNamedQuery("Project.findByIds", Project.class)
+        .setParameter("ids", ids)
+        .getResultList();
+  }
+
   public Project findByName(String name) {
     TypedQuery<Project> query = em.createNamedQuery("Project.findByName",
         Project.class);
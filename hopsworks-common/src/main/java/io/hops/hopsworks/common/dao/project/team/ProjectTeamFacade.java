@@ -182,6 +182,18 @@ public class ProjectTeamFacade extends AbstractFacade<ProjectTeam> {
     return query.getResultList();
   }
 
+  /**
+   * Find all the memberships of the given user, including the ones under removal.
+   * <p/>
+   * @param member
+   * @return
+   */
+  public List<ProjectTeam> findByMember(Users member) {
+    return em.createNamedQuery("ProjectTeam.findByTeamMember", ProjectTeam.class)
+        .setParameter("user", member)
+        .getResultList();
+  }
+
   /**
    * Count the number of studies this user is a member of.
    * <p/>
@@ -68,6 +68,12 @@ public class ServingFacade {
         .getResultList();
   }
 
+  public long countForProject(Project project) {
+    return em.createNamedQuery("Serving.countByProject", Long.class)
+        .setParameter("project", project)
+        .getSingleResult();
+  }
+
   public List<Serving> findForProjectAndModel(Project project, String modelName) {
     return em.createNamedQuery("Serving.findByProjectAndModel", Serving.class)
             .setParameter("project", project)
@@ -38,6 +38,7 @@
  */
 package io.hops.hopsworks.common.dao.user;
 
+import io.hops.hopsworks.api.auth.key.ApiKeyCache;
 import io.hops.hopsworks.common.dao.AbstractFacade;
 import io.hops.hopsworks.persistence.InvalidQueryException;
 import io.hops.hopsworks.persistence.entity.user.BbcGroup;
@@ -55,6 +56,7 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -66,6 +68,8 @@ public class UserFacade extends AbstractFacade<Users> {
   private EntityManager em;
   @EJB
   private BbcGroupFacade groupFacade;
+  @EJB
+  private ApiKeyCache apiKeyCache;
 
   @Override
   protected EntityManager getEntityManager() {
@@ -326,6 +330,16 @@ public class UserFacade extends AbstractFacade<Users> {
     return res;
   }
 
+  /**
+   * Callers should keep the number of uids below the SQL select IN limit.
+   */
+  public List<Users> findByUids(Collection<Integer> uids) {
+    if (uids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return em.createNamedQuery("Users.findByUids", Users.class).setParameter("uids", uids).getResultList();
+  }
+
   public Users findByUsername(String username) {
     try {
       return em.createNamedQuery("Users.findByUsername", Users.class).setParameter("username", username).
@@ -341,12 +355,15 @@ public class UserFacade extends AbstractFacade<Users> {
 
   @Override
   public Users update(Users user) {
+    // status and roles of the user are cached with the api keys
+    apiKeyCache.invalidateUser(user.getUid());
     return em.merge(user);
   }
 
   public void removeByEmail(String email) {
     Users user = findByEmail(email);
     if (user != null) {
+      apiKeyCache.invalidateUser(user.getUid());
       em.remove(user);
     }
   }
@@ -354,6 +371,7 @@ public class UserFacade extends AbstractFacade<Users> {
   @Override
   public void remove(Users user) {
     if (user != null && user.getEmail() != null && em.contains(user)) {
+      apiKeyCache.invalidateUser(user.getUid());
       em.remove(user);
     }
   }
@@ -416,6 +434,7 @@ public class UserFacade extends AbstractFacade<Users> {
     BbcGroup bbcGroup = em.find(BbcGroup.class, gidNumber);
     Users user = findByEmail(userMail);
     user.getBbcGroupCollection().add(bbcGroup);
+    apiKeyCache.invalidateUser(user.getUid());
     em.merge(user);
   }
 
@@ -429,6 +448,7 @@ public class UserFacade extends AbstractFacade<Users> {
     Users user = findByEmail(userMail);
     UserGroup p = em.find(UserGroup.class, new UserGroup(
         new UserGroupPK(user.getUid(), gid)).getUserGroupPK());
+    apiKeyCache.invalidateUser(user.getUid());
     em.remove(p);
   }
 
@@ -441,6 +461,7 @@ public class UserFacade extends AbstractFacade<Users> {
   public void updateStatus(String userMail, UserAccountStatus newStatus) {
     Users user = findByEmail(userMail);
     user.setStatus(newStatus);
+    apiKeyCache.invalidateUser(user.getUid());
     em.merge(user);
   }
 
@@ -49,6 +49,11 @@ import io.hops.hopsworks.common.dao.log.operation.OperationsLogFacade;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.common.dao.user.activity.ActivityFacade;
+import io.hops.hopsworks.common.dataset.preview.PreviewFormatException;
+import io.hops.hopsworks.common.dataset.preview.PreviewSource;
+import io.hops.hopsworks.common.dataset.preview.TablePreview;
+import io.hops.hopsworks.common.dataset.preview.TablePreviewer;
+import io.hops.hopsworks.common.dataset.preview.TablePreviewers;
 import io.hops.hopsworks.common.featurestore.FeaturestoreConstants;
 import io.hops.hopsworks.common.featurestore.online.OnlineFeaturestoreController;
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
@@ -106,7 +111,9 @@ import javax.ejb.TransactionAttributeType;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -597,9 +604,27 @@ public class DatasetController {
 
   public FilePreviewDTO filePreview(Project project, Users user, Path fullPath, FilePreviewMode mode,
                                     List<String> allowedImgExtension) throws DatasetException {
+    return filePreview(project, user, fullPath, mode, allowedImgExtension, null, null);
+  }
+  
+  /**
+   * Previews a file. Recognized data formats such as Parquet, Avro and CSV are returned as a typed table read from
+   * the footer or the first rows of the file, everything else as text.
+   *
+   * @param columns columns to include in a table preview, null or empty for all
+   * @param rows maximum number of rows in a table preview, null for the default
+   */
+  public FilePreviewDTO filePreview(Project project, Users user, Path fullPath, FilePreviewMode mode,
+                                    List<String> allowedImgExtension, List<String> columns, Integer rows)
+    throws DatasetException {
+    if (rows != null && (rows < 1 || rows > Settings.FILE_PREVIEW_TABLE_MAX_ROWS)) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.FILE_PREVIEW_INVALID, Level.FINE,
+        "Number of rows must be between 1 and " + Settings.FILE_PREVIEW_TABLE_MAX_ROWS);
+    }
     DistributedFileSystemOps udfso = null;
     FSDataInputStream is = null;
     FilePreviewDTO filePreviewDTO = null;
+    TablePreviewer previewer;
     String fileName = fullPath.getName();
     try {
       udfso = dfs.getDfsOps(project, user);
@@ -613,6 +638,7 @@ public class DatasetController {
         fileExtension = fileName.substring(fileName.lastIndexOf(".")).replace(".", "").toUpperCase();
       }
       long fileSize = udfso.getFileStatus(fullPath).getLen();
+      PreviewSource source = new HdfsPreviewSource(is, fileSize);
       if (allowedImgExtension.contains(fileExtension)) {
         //If it is an image smaller than 10MB download it otherwise thrown an error
         if (fileSize < settings.getFilePreviewImageSize()) {
@@ -631,6 +657,11 @@ public class DatasetController {
           NotebookConversion.HTML);
         filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_HTML_TYPE, fileExtension.toLowerCase(),
           status.getLog());
+      } else if ((previewer = TablePreviewers.get(fileExtension, source, mode)) != null) {
+        TablePreview table = previewer.preview(source, columns,
+          rows == null ? Settings.FILE_PREVIEW_TABLE_DEFAULT_ROWS : rows, Settings.FILE_PREVIEW_TABLE_MAX_BYTES);
+        filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_TABLE_TYPE, fileExtension.toLowerCase(), "");
+        filePreviewDTO.setTable(table);
       } else {
         try (DataInputStream dis = new DataInputStream(is)) {
           int sizeThreshold = Settings.FILE_PREVIEW_TXT_SIZE_BYTES; //in bytes
@@ -650,6 +681,9 @@ public class DatasetController {
             new String(headContent, StandardCharsets.UTF_8));
         }
       }
+    } catch (IllegalArgumentException | PreviewFormatException ex) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.FILE_PREVIEW_INVALID, Level.FINE, ex.getMessage(),
+        ex.getMessage(), ex);
     } catch (IOException | ServiceException ex) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.DATASET_OPERATION_ERROR, Level.SEVERE, "path: " +
         fullPath.toString(), ex.getMessage(), ex);
@@ -1520,4 +1554,39 @@ public class DatasetController {
       dfs.closeDfsClient(dfso);
     }
   }
+  
+  /**
+   * Positioned reads do not move the stream, so the text preview still starts at the beginning of the file after a
+   * previewer has looked at its magic bytes.
+   */
+  private static class HdfsPreviewSource implements PreviewSource {
+    private final FSDataInputStream in;
+    private final long length;
+    
+    HdfsPreviewSource(FSDataInputStream in, long length) {
+      this.in = in;
+      this.length = length;
+    }
+    
+    @Override
+    public long getLength() {
+      return length;
+    }
+    
+    @Override
+    public void readFully(long position, byte[] buffer) throws IOException {
+      in.readFully(position, buffer);
+    }
+    
+    @Override
+    public InputStream open(long position) throws IOException {
+      in.seek(position);
+      return new FilterInputStream(in) {
+        @Override
+        public void close() {
+          // The stream is closed by filePreview
+        }
+      };
+    }
+  }
 }
@@ -39,6 +39,8 @@
 
 package io.hops.hopsworks.common.dataset;
 
+import io.hops.hopsworks.common.dataset.preview.TablePreview;
+
 import javax.xml.bind.annotation.XmlRootElement;
 
 /**
@@ -51,6 +53,8 @@ public class FilePreviewDTO {
   private String type;
   private String content;
   private String extension;
+  // Set instead of content for data formats previewed as a table
+  private TablePreview table;
 
   public FilePreviewDTO() {
   }
@@ -85,6 +89,14 @@ public class FilePreviewDTO {
     this.extension = extension;
   }
 
+  public TablePreview getTable() {
+    return table;
+  }
+
+  public void setTable(TablePreview table) {
+    this.table = table;
+  }
+
   @Override
   /**
    * Formats a JSON to be displayed by the browser.
@@ -0,0 +1,204 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import com.google.common.io.ByteStreams;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Previews Avro object container files. Blocks are decoded in order until the row limit is reached, so only the
+ * header and the first blocks are read. DataFileStream allocates every block at the size the file declares before
+ * reading it, so it is only given the blocks that were checked to fit in the bytes read.
+ */
+public class AvroPreviewer implements TablePreviewer {
+  
+  static final byte[] MAGIC = {'O', 'b', 'j', 1};
+  private static final int SYNC_SIZE = 16;
+  private static final String VALUE_COLUMN = "value";
+  
+  @Override
+  public TablePreview preview(PreviewSource source, List<String> columns, int limit, int maxBytes)
+    throws IOException {
+    byte[] head;
+    try (InputStream in = ByteStreams.limit(source.open(0), maxBytes)) {
+      head = ByteStreams.toByteArray(in);
+    }
+    // head is in memory, failures from here on are in the content of the file
+    try {
+      return preview(head, source.getLength(), columns, limit);
+    } catch (PreviewFormatException e) {
+      throw e;
+    } catch (EOFException e) {
+      throw new PreviewFormatException("Avro header is too large to preview", e);
+    } catch (IOException | AvroRuntimeException e) {
+      throw new PreviewFormatException("Failed to read Avro file: " + e.getMessage(), e);
+    }
+  }
+  
+  private TablePreview preview(byte[] head, long length, List<String> columns, int limit) throws IOException {
+    TablePreview preview = new TablePreview("avro");
+    int end = completeBlocksEnd(head);
+    try (DataFileStream<Object> stream = new DataFileStream<>(new ByteArrayInputStream(head, 0, end),
+      new GenericDatumReader<>())) {
+      Schema schema = stream.getSchema();
+      List<String> names = new ArrayList<>();
+      List<String> types = new ArrayList<>();
+      if (schema.getType() == Schema.Type.RECORD) {
+        for (Schema.Field field : schema.getFields()) {
+          names.add(field.name());
+          types.add(typeName(field.schema()));
+        }
+      } else {
+        names.add(VALUE_COLUMN);
+        types.add(typeName(schema));
+      }
+      int[] projection = TablePreviewers.project(names, columns);
+      List<String> projectedNames = TablePreviewers.select(names, projection);
+      List<String> projectedTypes = TablePreviewers.select(types, projection);
+      for (int i = 0; i < projection.length; i++) {
+        preview.getColumns().add(new TablePreview.Column(projectedNames.get(i), projectedTypes.get(i)));
+      }
+      Object datum = null;
+      while (preview.getRows().size() < limit && stream.hasNext()) {
+        datum = stream.next(datum);
+        List<String> row = new ArrayList<>(projection.length);
+        for (int index : projection) {
+          row.add(format(datum instanceof GenericRecord ? ((GenericRecord) datum).get(index) : datum));
+        }
+        preview.getRows().add(row);
+      }
+      preview.setTruncated(stream.hasNext() || end < length);
+    }
+    return preview;
+  }
+  
+  /**
+   * Walks the header and the block framing of the container file in buffer.
+   *
+   * @return the end of the last block that is whole in buffer
+   * @throws EOFException if the header does not fit in buffer
+   */
+  static int completeBlocksEnd(byte[] buffer) throws IOException {
+    Framing framing = new Framing(buffer);
+    framing.skip(MAGIC.length);
+    // metadata map, a negative count is followed by the size of the entries
+    for (long count = framing.readLong(); count != 0; count = framing.readLong()) {
+      if (count < 0) {
+        count = -count;
+        framing.readLong();
+      }
+      for (long i = 0; i < count; i++) {
+        framing.skip(framing.readLong());
+        framing.skip(framing.readLong());
+      }
+    }
+    framing.skip(SYNC_SIZE);
+    int end = framing.position;
+    try {
+      while (framing.position < buffer.length) {
+        // row count, then the size of the serialized rows
+        framing.readLong();
+        framing.skip(framing.readLong());
+        framing.skip(SYNC_SIZE);
+        end = framing.position;
+      }
+    } catch (EOFException e) {
+      // a block cut by the byte limit or declaring more bytes than were read
+    }
+    return end;
+  }
+  
+  private static class Framing {
+    private final byte[] buffer;
+    private int position;
+    
+    Framing(byte[] buffer) {
+      this.buffer = buffer;
+    }
+    
+    // zig-zag encoded variable length long
+    long readLong() throws IOException {
+      long value = 0;
+      int shift = 0;
+      int b;
+      do {
+        if (position >= buffer.length) {
+          throw new EOFException();
+        }
+        if (shift > 63) {
+          throw new PreviewFormatException("Invalid Avro file, malformed long");
+        }
+        b = buffer[position++] & 0xff;
+        value |= (long) (b & 0x7f) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return (value >>> 1) ^ -(value & 1);
+    }
+    
+    void skip(long length) throws IOException {
+      if (length < 0) {
+        throw new PreviewFormatException("Invalid Avro file, negative length " + length);
+      }
+      if (length > buffer.length - position) {
+        throw new EOFException();
+      }
+      position += (int) length;
+    }
+  }
+  
+  static String typeName(Schema schema) {
+    if (schema.getLogicalType() != null) {
+      return schema.getLogicalType().getName();
+    }
+    if (schema.getType() == Schema.Type.UNION) {
+      List<Schema> types = schema.getTypes();
+      if (types.size() == 2 && types.get(0).getType() == Schema.Type.NULL) {
+        return typeName(types.get(1));
+      } else if (types.size() == 2 && types.get(1).getType() == Schema.Type.NULL) {
+        return typeName(types.get(0));
+      }
+    }
+    return schema.getType().getName();
+  }
+  
+  private static String format(Object value) {
+    if (value == null) {
+      return null;
+    } else if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return Base64.getEncoder().encodeToString(bytes);
+    } else if (value instanceof GenericData.Fixed) {
+      return Base64.getEncoder().encodeToString(((GenericData.Fixed) value).bytes());
+    }
+    return value.toString();
+  }
+}
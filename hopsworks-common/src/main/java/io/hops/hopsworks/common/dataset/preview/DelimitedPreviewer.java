@@ -0,0 +1,194 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Previews delimited text with a header row, such as CSV. Fields may be quoted as in RFC 4180, so delimiters and
+ * line breaks inside quotes do not split a record. Column types are inferred from the rows read.
+ */
+public class DelimitedPreviewer implements TablePreviewer {
+  
+  private final String format;
+  private final char delimiter;
+  
+  public DelimitedPreviewer(String format, char delimiter) {
+    this.format = format;
+    this.delimiter = delimiter;
+  }
+  
+  @Override
+  public TablePreview preview(PreviewSource source, List<String> columns, int limit, int maxBytes)
+    throws IOException {
+    TablePreview preview = new TablePreview(format);
+    // The stream ends early if the file is larger than maxBytes. A record cut by that early end is dropped
+    boolean bounded = source.getLength() > maxBytes;
+    try (InputStream in = ByteStreams.limit(source.open(0), maxBytes);
+         Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      RecordReader records = new RecordReader(reader, delimiter);
+      List<String> header = records.next();
+      if (header == null || (bounded && !records.terminated)) {
+        preview.setTruncated(header != null);
+        return preview;
+      }
+      if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+        header.set(0, header.get(0).substring(1));
+      }
+      for (int i = 0; i < header.size(); i++) {
+        if (header.get(i).isEmpty()) {
+          header.set(i, "_c" + i);
+        }
+      }
+      int[] projection = TablePreviewers.project(header, columns);
+      List<String> record;
+      while (preview.getRows().size() < limit && (record = records.next()) != null) {
+        if (bounded && !records.terminated) {
+          break;
+        }
+        if (record.size() == 1 && record.get(0).isEmpty()) {
+          continue;
+        }
+        preview.getRows().add(TablePreviewers.select(record, projection));
+      }
+      preview.setTruncated(bounded || records.hasMore());
+      List<String> names = TablePreviewers.select(header, projection);
+      for (int i = 0; i < names.size(); i++) {
+        preview.getColumns().add(new TablePreview.Column(names.get(i), inferType(preview.getRows(), i)));
+      }
+    }
+    return preview;
+  }
+  
+  static String inferType(List<List<String>> rows, int column) {
+    boolean isBoolean = true;
+    boolean isLong = true;
+    boolean isDouble = true;
+    boolean empty = true;
+    for (List<String> row : rows) {
+      String value = row.get(column);
+      if (value == null || value.isEmpty()) {
+        continue;
+      }
+      empty = false;
+      isBoolean = isBoolean && (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false"));
+      if (isLong) {
+        try {
+          Long.parseLong(value);
+        } catch (NumberFormatException e) {
+          isLong = false;
+        }
+      }
+      if (isDouble && !isLong) {
+        try {
+          Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+          isDouble = false;
+        }
+      }
+    }
+    if (empty) {
+      return "string";
+    } else if (isBoolean) {
+      return "boolean";
+    } else if (isLong) {
+      return "long";
+    } else if (isDouble) {
+      return "double";
+    }
+    return "string";
+  }
+  
+  private static class RecordReader {
+    private static final int NONE = -2;
+    private final Reader reader;
+    private final char delimiter;
+    private int lookahead = NONE;
+    // Whether the last record read ended with a line break rather than with the end of the stream
+    private boolean terminated;
+    
+    RecordReader(Reader reader, char delimiter) {
+      this.reader = reader;
+      this.delimiter = delimiter;
+    }
+    
+    private int peek() throws IOException {
+      if (lookahead == NONE) {
+        lookahead = reader.read();
+      }
+      return lookahead;
+    }
+    
+    private int read() throws IOException {
+      int c = peek();
+      lookahead = NONE;
+      return c;
+    }
+    
+    boolean hasMore() throws IOException {
+      return peek() != -1;
+    }
+    
+    List<String> next() throws IOException {
+      if (peek() == -1) {
+        return null;
+      }
+      List<String> fields = new ArrayList<>();
+      StringBuilder field = new StringBuilder();
+      boolean quoted = false;
+      terminated = false;
+      while (true) {
+        int c = read();
+        if (c == -1) {
+          fields.add(field.toString());
+          return fields;
+        }
+        if (quoted) {
+          if (c != '"') {
+            field.append((char) c);
+          } else if (peek() == '"') {
+            field.append((char) read());
+          } else {
+            quoted = false;
+          }
+        } else if (c == '"' && field.length() == 0) {
+          quoted = true;
+        } else if (c == delimiter) {
+          fields.add(field.toString());
+          field.setLength(0);
+        } else if (c == '\n' || c == '\r') {
+          if (c == '\r' && peek() == '\n') {
+            read();
+          }
+          fields.add(field.toString());
+          terminated = true;
+          return fields;
+        } else {
+          field.append((char) c);
+        }
+      }
+    }
+  }
+}
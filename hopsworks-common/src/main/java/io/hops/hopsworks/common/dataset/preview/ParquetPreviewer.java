@@ -0,0 +1,221 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TList;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TProtocolUtil;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TMemoryInputTransport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Previews Parquet files from their footer only. The footer is a Thrift compact encoded FileMetaData struct that is
+ * decoded field by field, skipping everything except the schema and the row counts, so the preview costs two
+ * positioned reads whatever the size of the file. Row values are not decoded as no Parquet reader ships with
+ * Hopsworks.
+ */
+public class ParquetPreviewer implements TablePreviewer {
+  
+  static final byte[] MAGIC = TablePreviewers.magic("PAR1");
+  private static final int TAIL_LENGTH = 8;
+  
+  private static final String[] PHYSICAL_TYPES = {"boolean", "int32", "int64", "int96", "float", "double", "binary",
+    "fixed_len_byte_array"};
+  // Converted types by id, for files written before logical types were introduced
+  private static final String[] CONVERTED_TYPES = {"string", "map", "map", "list", "enum", "decimal", "date",
+    "time_millis", "time_micros", "timestamp_millis", "timestamp_micros", "uint8", "uint16", "uint32", "uint64",
+    "int8", "int16", "int32", "int64", "json", "bson", "interval"};
+  // LogicalType union members by field id
+  private static final String[] LOGICAL_TYPES = {null, "string", "map", "list", "enum", "decimal", "date", "time",
+    "timestamp", null, "integer", "null", "json", "bson", "uuid", "float16"};
+  
+  @Override
+  public TablePreview preview(PreviewSource source, List<String> columns, int limit, int maxBytes)
+    throws IOException {
+    long length = source.getLength();
+    if (length < MAGIC.length + TAIL_LENGTH) {
+      throw new PreviewFormatException("Not a Parquet file, file is too short");
+    }
+    byte[] tail = new byte[TAIL_LENGTH];
+    source.readFully(length - TAIL_LENGTH, tail);
+    if (!Arrays.equals(MAGIC, Arrays.copyOfRange(tail, 4, TAIL_LENGTH))) {
+      throw new PreviewFormatException("Not a Parquet file, footer magic not found");
+    }
+    long footerLength = ByteBuffer.wrap(tail, 0, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xFFFFFFFFL;
+    if (footerLength > length - MAGIC.length - TAIL_LENGTH) {
+      throw new PreviewFormatException("Corrupt Parquet file, footer length " + footerLength +
+        " exceeds the file size");
+    }
+    if (footerLength > maxBytes) {
+      throw new PreviewFormatException("Parquet footer of " + footerLength + " bytes is too large to preview");
+    }
+    byte[] footer = new byte[(int) footerLength];
+    source.readFully(length - TAIL_LENGTH - footerLength, footer);
+    FileMetaData metaData = new FileMetaData();
+    try {
+      metaData.read(new TCompactProtocol(new TMemoryInputTransport(footer)));
+    } catch (TException e) {
+      throw new PreviewFormatException("Corrupt Parquet footer: " + e.getMessage(), e);
+    }
+    
+    TablePreview preview = new TablePreview("parquet");
+    List<String> names = new ArrayList<>();
+    List<String> types = new ArrayList<>();
+    metaData.topLevelColumns(names, types);
+    int[] projection = TablePreviewers.project(names, columns);
+    List<String> projectedNames = TablePreviewers.select(names, projection);
+    List<String> projectedTypes = TablePreviewers.select(types, projection);
+    for (int i = 0; i < projection.length; i++) {
+      preview.getColumns().add(new TablePreview.Column(projectedNames.get(i), projectedTypes.get(i)));
+    }
+    preview.setNumRows(metaData.numRows);
+    preview.setNumRowGroups(metaData.numRowGroups);
+    preview.setTruncated(metaData.numRows > 0);
+    preview.setMessage("Row values are not decoded for Parquet files, only the schema and row counts from the " +
+      "footer are shown");
+    return preview;
+  }
+  
+  private static class SchemaElement {
+    private Integer physicalType;
+    private String name;
+    private int numChildren;
+    private Integer convertedType;
+    private Integer logicalType;
+    
+    void read(TProtocol protocol) throws TException {
+      protocol.readStructBegin();
+      TField field;
+      while ((field = protocol.readFieldBegin()).type != TType.STOP) {
+        if (field.id == 1 && field.type == TType.I32) {
+          physicalType = protocol.readI32();
+        } else if (field.id == 4 && field.type == TType.STRING) {
+          name = protocol.readString();
+        } else if (field.id == 5 && field.type == TType.I32) {
+          numChildren = protocol.readI32();
+        } else if (field.id == 6 && field.type == TType.I32) {
+          convertedType = protocol.readI32();
+        } else if (field.id == 10 && field.type == TType.STRUCT) {
+          logicalType = readUnionField(protocol);
+        } else {
+          TProtocolUtil.skip(protocol, field.type);
+        }
+        protocol.readFieldEnd();
+      }
+      protocol.readStructEnd();
+    }
+    
+    String typeName() {
+      if (logicalType != null && logicalType < LOGICAL_TYPES.length && LOGICAL_TYPES[logicalType] != null) {
+        return LOGICAL_TYPES[logicalType];
+      } else if (convertedType != null && convertedType >= 0 && convertedType < CONVERTED_TYPES.length) {
+        return CONVERTED_TYPES[convertedType];
+      } else if (physicalType != null && physicalType >= 0 && physicalType < PHYSICAL_TYPES.length) {
+        return PHYSICAL_TYPES[physicalType];
+      }
+      return numChildren > 0 ? "struct" : "unknown";
+    }
+  }
+  
+  private static class FileMetaData {
+    private final List<SchemaElement> schema = new ArrayList<>();
+    private long numRows;
+    private int numRowGroups;
+    
+    void read(TProtocol protocol) throws TException {
+      protocol.readStructBegin();
+      TField field;
+      while ((field = protocol.readFieldBegin()).type != TType.STOP) {
+        if (field.id == 2 && field.type == TType.LIST) {
+          TList list = protocol.readListBegin();
+          for (int i = 0; i < list.size; i++) {
+            SchemaElement element = new SchemaElement();
+            element.read(protocol);
+            schema.add(element);
+          }
+          protocol.readListEnd();
+        } else if (field.id == 3 && field.type == TType.I64) {
+          numRows = protocol.readI64();
+        } else if (field.id == 4 && field.type == TType.LIST) {
+          // Row groups hold the column chunk metadata, which is the bulk of the footer and not needed here
+          TList list = protocol.readListBegin();
+          for (int i = 0; i < list.size; i++) {
+            TProtocolUtil.skip(protocol, list.elemType);
+          }
+          protocol.readListEnd();
+          numRowGroups = list.size;
+        } else {
+          TProtocolUtil.skip(protocol, field.type);
+        }
+        protocol.readFieldEnd();
+      }
+      protocol.readStructEnd();
+    }
+    
+    /**
+     * The schema is a depth first flattening of the tree, the first element being the root.
+     */
+    void topLevelColumns(List<String> names, List<String> types) throws PreviewFormatException {
+      if (schema.isEmpty()) {
+        return;
+      }
+      int index = 1;
+      for (int i = 0; i < schema.get(0).numChildren; i++) {
+        if (index >= schema.size()) {
+          throw new PreviewFormatException("Corrupt Parquet footer, schema is incomplete");
+        }
+        SchemaElement column = schema.get(index);
+        names.add(column.name);
+        types.add(column.typeName());
+        index = skipSubtree(index);
+      }
+    }
+    
+    private int skipSubtree(int index) {
+      int next = index + 1;
+      for (int i = 0; i < schema.get(index).numChildren && next < schema.size(); i++) {
+        next = skipSubtree(next);
+      }
+      return next;
+    }
+  }
+  
+  /**
+   * @return the id of the member set in a Thrift union
+   */
+  private static Integer readUnionField(TProtocol protocol) throws TException {
+    Integer id = null;
+    protocol.readStructBegin();
+    TField field;
+    while ((field = protocol.readFieldBegin()).type != TType.STOP) {
+      id = (int) field.id;
+      TProtocolUtil.skip(protocol, field.type);
+      protocol.readFieldEnd();
+    }
+    protocol.readStructEnd();
+    return id;
+  }
+}
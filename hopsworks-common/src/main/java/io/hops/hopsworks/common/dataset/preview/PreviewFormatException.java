@@ -0,0 +1,33 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import java.io.IOException;
+
+/**
+ * The content of the file does not match the format of its previewer: the file is corrupt, is not of the format its
+ * name says, or its metadata is too large to preview.
+ */
+public class PreviewFormatException extends IOException {
+  
+  public PreviewFormatException(String message) {
+    super(message);
+  }
+  
+  public PreviewFormatException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Random access to the file being previewed, so that previewers can go straight to a footer instead of streaming
+ * the whole file.
+ */
+public interface PreviewSource {
+  
+  long getLength();
+  
+  /**
+   * Fills buffer with the bytes starting at position.
+   */
+  void readFully(long position, byte[] buffer) throws IOException;
+  
+  /**
+   * Returns a stream positioned at position. Closing the stream does not close the source.
+   */
+  InputStream open(long position) throws IOException;
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed tabular preview of a data file. Rows hold the values of the projected columns in the order of columns,
+ * null for missing values.
+ */
+@XmlRootElement
+public class TablePreview {
+  
+  public static class Column {
+    private String name;
+    private String type;
+    
+    public Column() {
+    }
+    
+    public Column(String name, String type) {
+      this.name = name;
+      this.type = type;
+    }
+    
+    public String getName() {
+      return name;
+    }
+    
+    public void setName(String name) {
+      this.name = name;
+    }
+    
+    public String getType() {
+      return type;
+    }
+    
+    public void setType(String type) {
+      this.type = type;
+    }
+    
+    @Override
+    public String toString() {
+      return name + ":" + type;
+    }
+  }
+  
+  private String format;
+  private List<Column> columns = new ArrayList<>();
+  private List<List<String>> rows = new ArrayList<>();
+  // Total rows in the file, if the format records it
+  private Long numRows;
+  // Row groups for Parquet
+  private Integer numRowGroups;
+  private boolean truncated;
+  private String message;
+  
+  public TablePreview() {
+  }
+  
+  public TablePreview(String format) {
+    this.format = format;
+  }
+  
+  public String getFormat() {
+    return format;
+  }
+  
+  public void setFormat(String format) {
+    this.format = format;
+  }
+  
+  public List<Column> getColumns() {
+    return columns;
+  }
+  
+  public void setColumns(List<Column> columns) {
+    this.columns = columns;
+  }
+  
+  public List<List<String>> getRows() {
+    return rows;
+  }
+  
+  public void setRows(List<List<String>> rows) {
+    this.rows = rows;
+  }
+  
+  public Long getNumRows() {
+    return numRows;
+  }
+  
+  public void setNumRows(Long numRows) {
+    this.numRows = numRows;
+  }
+  
+  public Integer getNumRowGroups() {
+    return numRowGroups;
+  }
+  
+  public void setNumRowGroups(Integer numRowGroups) {
+    this.numRowGroups = numRowGroups;
+  }
+  
+  public boolean isTruncated() {
+    return truncated;
+  }
+  
+  public void setTruncated(boolean truncated) {
+    this.truncated = truncated;
+  }
+  
+  public String getMessage() {
+    return message;
+  }
+  
+  public void setMessage(String message) {
+    this.message = message;
+  }
+  
+  @Override
+  public String toString() {
+    return "TablePreview{" +
+      "format='" + format + '\'' +
+      ", columns=" + columns +
+      ", rows=" + rows.size() +
+      ", numRows=" + numRows +
+      ", numRowGroups=" + numRowGroups +
+      ", truncated=" + truncated +
+      '}';
+  }
+}
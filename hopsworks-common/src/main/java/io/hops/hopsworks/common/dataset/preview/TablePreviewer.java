@@ -0,0 +1,34 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Builds a tabular preview of one file format.
+ */
+public interface TablePreviewer {
+  
+  /**
+   * @param columns columns to include, in order. Null or empty for all columns
+   * @param limit maximum number of rows to return
+   * @param maxBytes maximum number of bytes to read from the source
+   * @throws IllegalArgumentException if a requested column does not exist
+   * @throws PreviewFormatException if the content of the source does not match the format
+   */
+  TablePreview preview(PreviewSource source, List<String> columns, int limit, int maxBytes) throws IOException;
+}
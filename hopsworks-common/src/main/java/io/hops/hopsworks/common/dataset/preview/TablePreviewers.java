@@ -0,0 +1,134 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import io.hops.hopsworks.common.dataset.FilePreviewMode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of the tabular previewers. Binary formats are found by extension or, for files without a known
+ * extension, by the magic bytes at the start of the file. Delimited text has no magic and is only tabulated when
+ * previewing the head of a file with a known extension.
+ */
+public class TablePreviewers {
+  
+  private static final int MAGIC_LENGTH = 4;
+  private static final Map<String, Registration> BY_EXTENSION = new ConcurrentHashMap<>();
+  private static final List<Registration> BY_MAGIC = new CopyOnWriteArrayList<>();
+  
+  static {
+    register(new DelimitedPreviewer("csv", ','), null, "csv");
+    register(new DelimitedPreviewer("tsv", '\t'), null, "tsv", "tab");
+    register(new AvroPreviewer(), AvroPreviewer.MAGIC, "avro");
+    register(new ParquetPreviewer(), ParquetPreviewer.MAGIC, "parquet");
+  }
+  
+  private TablePreviewers() {
+  }
+  
+  /**
+   * @param magic bytes every file of the format starts with, or null if the format is text
+   */
+  public static void register(TablePreviewer previewer, byte[] magic, String... extensions) {
+    Registration registration = new Registration(previewer, magic);
+    for (String extension : extensions) {
+      BY_EXTENSION.put(extension.toLowerCase(Locale.ROOT), registration);
+    }
+    if (magic != null) {
+      BY_MAGIC.add(registration);
+    }
+  }
+  
+  /**
+   * @return the previewer for the file, or null if it should be previewed as text
+   */
+  public static TablePreviewer get(String extension, PreviewSource source, FilePreviewMode mode) throws IOException {
+    Registration registration = extension == null ? null : BY_EXTENSION.get(extension.toLowerCase(Locale.ROOT));
+    if (registration == null && !BY_MAGIC.isEmpty() && source.getLength() >= MAGIC_LENGTH) {
+      byte[] head = new byte[MAGIC_LENGTH];
+      source.readFully(0, head);
+      for (Registration candidate : BY_MAGIC) {
+        if (candidate.matches(head)) {
+          registration = candidate;
+          break;
+        }
+      }
+    }
+    if (registration == null || (registration.magic == null && mode == FilePreviewMode.TAIL)) {
+      return null;
+    }
+    return registration.previewer;
+  }
+  
+  /**
+   * Resolves the requested columns to indexes into available.
+   *
+   * @throws IllegalArgumentException if a requested column does not exist
+   */
+  static int[] project(List<String> available, List<String> requested) {
+    if (requested == null || requested.isEmpty()) {
+      int[] all = new int[available.size()];
+      for (int i = 0; i < all.length; i++) {
+        all[i] = i;
+      }
+      return all;
+    }
+    int[] projection = new int[requested.size()];
+    for (int i = 0; i < projection.length; i++) {
+      projection[i] = available.indexOf(requested.get(i));
+      if (projection[i] < 0) {
+        throw new IllegalArgumentException("Column not found: " + requested.get(i) + ". Available columns: " +
+          available);
+      }
+    }
+    return projection;
+  }
+  
+  static <T> List<T> select(List<T> values, int[] projection) {
+    List<T> selected = new ArrayList<>(projection.length);
+    for (int index : projection) {
+      selected.add(index < values.size() ? values.get(index) : null);
+    }
+    return selected;
+  }
+  
+  static byte[] magic(String magic) {
+    return magic.getBytes(StandardCharsets.US_ASCII);
+  }
+  
+  private static class Registration {
+    private final TablePreviewer previewer;
+    private final byte[] magic;
+    
+    Registration(TablePreviewer previewer, byte[] magic) {
+      this.previewer = previewer;
+      this.magic = magic;
+    }
+    
+    boolean matches(byte[] head) {
+      return magic.length <= head.length && Arrays.equals(magic, Arrays.copyOf(head, magic.length));
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.datavalidationv2.reports;
+
+import io.hops.hopsworks.common.util.PayaraClusterManager;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.Featuregroup;
+import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.datavalidationv2.ValidationReport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.AccessTimeout;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@Singleton
+@Startup
+@DependsOn("Settings")
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ValidationReportCleaner {
+  
+  private final static Logger LOG = Logger.getLogger(ValidationReportCleaner.class.getName());
+  
+  private static final int BATCH_SIZE = 500;
+  
+  @EJB
+  private Settings settings;
+  @EJB
+  private ValidationReportFacade validationReportFacade;
+  @EJB
+  private ValidationReportController validationReportController;
+  @EJB
+  private PayaraClusterManager payaraClusterManager;
+  @Resource
+  private TimerService timerService;
+  private Timer timer;
+  
+  @PostConstruct
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public void init() {
+    timer = timerService.createIntervalTimer(10L, settings.getValidationReportCleanerInterval(),
+      new TimerConfig("ValidationReportCleaner", false));
+  }
+  
+  @PreDestroy
+  private void destroyTimer() {
+    if (timer != null) {
+      timer.cancel();
+    }
+  }
+  
+  /**
+   * Timer bean to periodically delete the validation reports that are out of retention. Feature groups validating
+   * every micro-batch accumulate a report row, its results and a report file per validation. Reports older than
+   * the retention days are deleted, and the reports of each feature group beyond its latest max per feature group.
+   * Reports are deleted in batches, with bulk statements for the rows, so that a large backlog does not end up in a
+   * single transaction.
+   *
+   * @param timer
+   *   timer
+   */
+  @Lock(LockType.WRITE)
+  @AccessTimeout(value = 1000)
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  @Timeout
+  public void deleteExpiredValidationReports(Timer timer) {
+    if (!payaraClusterManager.amIThePrimary()) {
+      return;
+    }
+    LOG.log(Level.FINE, "DeleteExpiredValidationReports start");
+    try {
+      deleteOlderThanRetention();
+      deleteBeyondMaxPerFeatureGroup();
+    } catch (Exception ex) {
+      LOG.log(Level.SEVERE, "ValidationReportCleaner timer error", ex);
+    }
+    LOG.log(Level.FINE, "DeleteExpiredValidationReports end");
+  }
+  
+  private void deleteOlderThanRetention() {
+    int retentionDays = settings.getValidationReportsRetentionDays();
+    if (retentionDays < 0) {
+      return;
+    }
+    Date before = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+    List<ValidationReport> reports = validationReportFacade.findValidatedBefore(before, BATCH_SIZE);
+    while (!reports.isEmpty()) {
+      LOG.log(Level.INFO, "Deleting " + reports.size() + " validation reports older than " + before);
+      validationReportController.deleteValidationReports(reports);
+      reports = validationReportFacade.findValidatedBefore(before, BATCH_SIZE);
+    }
+  }
+  
+  private void deleteBeyondMaxPerFeatureGroup() {
+    int maxPerFeatureGroup = settings.getValidationReportsMaxPerFeatureGroup();
+    if (maxPerFeatureGroup < 0) {
+      return;
+    }
+    for (Featuregroup featuregroup : validationReportFacade.findFeaturegroupsWithMoreReportsThan(maxPerFeatureGroup)) {
+      List<ValidationReport> reports =
+        validationReportFacade.findFeaturegroupReportsBeyondLatest(featuregroup, maxPerFeatureGroup, BATCH_SIZE);
+      while (!reports.isEmpty()) {
+        LOG.log(Level.INFO, "Deleting " + reports.size() + " validation reports of feature group " +
+          featuregroup.getId() + " beyond the latest " + maxPerFeatureGroup);
+        validationReportController.deleteValidationReports(reports);
+        reports =
+          validationReportFacade.findFeaturegroupReportsBeyondLatest(featuregroup, maxPerFeatureGroup, BATCH_SIZE);
+      }
+    }
+  }
+}
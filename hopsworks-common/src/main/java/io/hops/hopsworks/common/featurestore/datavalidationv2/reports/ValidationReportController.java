@@ -62,7 +62,9 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
@@ -231,6 +233,39 @@ public class ValidationReportController {
     }
   }
 
+  /**
+   * Delete the reports and their results in bulk, then their files as superuser. A file that cannot be deleted is
+   * logged and left behind instead of failing the batch, the reports are already gone at that point.
+   *
+   * @param validationReports reports to delete, of any feature group
+   */
+  public void deleteValidationReports(List<ValidationReport> validationReports) {
+    validationReportFacade.deleteBatch(validationReports);
+    Map<Integer, Path> reportDirs = new HashMap<>();
+    DistributedFileSystemOps udfso = null;
+    try {
+      // delete as superuser as the user that created the report might have been removed from the project
+      udfso = dfs.getDfsOps();
+      for (ValidationReport validationReport : validationReports) {
+        Featuregroup featuregroup = validationReport.getFeaturegroup();
+        Path reportDir = reportDirs.computeIfAbsent(featuregroup.getId(), id ->
+          getValidationDataset(featuregroup.getFeaturestore().getProject())
+            .map(dataset -> getValidationReportDirFullPath(featuregroup, dataset))
+            .orElse(null));
+        if (reportDir == null || validationReport.getFileName() == null) {
+          continue;
+        }
+        try {
+          udfso.rm(new Path(reportDir, validationReport.getFileName()), false);
+        } catch (IOException e) {
+          LOGGER.log(Level.WARNING, "Could not delete the file of validation report " + validationReport.getId(), e);
+        }
+      }
+    } finally {
+      dfs.closeDfsClient(udfso);
+    }
+  }
+
   public void deleteFeaturegroupDataValidationDir(Users user, Featuregroup featuregroup)
     throws FeaturestoreException {
     Project project = featuregroup.getFeaturestore().getProject();
@@ -17,10 +17,13 @@
 
 package io.hops.hopsworks.common.featurestore.datavalidationv2.reports;
 
+import com.google.common.collect.Lists;
 import io.hops.hopsworks.common.dao.AbstractFacade;
+import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.Featuregroup;
 import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.datavalidationv2.ValidationReport;
 
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -28,12 +31,15 @@ import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 import javax.validation.ConstraintViolationException;
+import java.util.Date;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.sql.Timestamp;
 
 /**
@@ -43,8 +49,13 @@ import java.sql.Timestamp;
 @Stateless
 public class ValidationReportFacade extends AbstractFacade<ValidationReport> {
   private static final Logger LOGGER = Logger.getLogger(ValidationReportFacade.class.getName());
+  // load the results of a page of reports with one IN query instead of one query per report
+  private static final String BATCH_TYPE_HINT = "eclipselink.batch.type";
+  private static final String BATCH_HINT = "eclipselink.batch";
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
+  @EJB
+  private Settings settings;
 
 
   public ValidationReportFacade() {
@@ -101,22 +112,75 @@ public class ValidationReportFacade extends AbstractFacade<ValidationReport> {
     setFilter(filters, query);
     setFilter(filters, queryCount);
     setOffsetAndLim(offset, limit, query);
+    batchFetchResults(query);
     return new CollectionInfo<ValidationReport>((Long) queryCount.getSingleResult(), query.getResultList());
   }
 
   public Optional<ValidationReport> findFeaturegroupLatestValidationReport(Featuregroup featuregroup) {
-    List<ValidationReport> validationReports = em.createNamedQuery("ValidationReport" +
-        ".findByFeaturegroupOrderedByDescDate",
-      ValidationReport.class).setParameter("featuregroup", featuregroup).getResultList();
-    Optional<ValidationReport> latestReport;
+    return findFeaturegroupLatestValidationReports(featuregroup, 1).stream().findFirst();
+  }
+
+  /**
+   * @return the latest n reports of the feature group, the most recent first
+   */
+  public List<ValidationReport> findFeaturegroupLatestValidationReports(Featuregroup featuregroup, int n) {
+    TypedQuery<ValidationReport> query = em.createNamedQuery("ValidationReport.findByFeaturegroupOrderedByDescDate",
+      ValidationReport.class)
+      .setParameter("featuregroup", featuregroup)
+      .setMaxResults(n);
+    batchFetchResults(query);
+    return query.getResultList();
+  }
 
-    if (validationReports.isEmpty()) {
-      latestReport = Optional.empty();
-    } else {
-      latestReport = Optional.of(validationReports.get(0));
+  /**
+   * @return at most limit reports validated before the given time, the oldest first
+   */
+  public List<ValidationReport> findValidatedBefore(Date before, int limit) {
+    return em.createNamedQuery("ValidationReport.findValidatedBefore", ValidationReport.class)
+      .setParameter("validationTime", before)
+      .setMaxResults(limit)
+      .getResultList();
+  }
+
+  /**
+   * @return at most limit reports of the feature group that are older than its latest keep reports
+   */
+  public List<ValidationReport> findFeaturegroupReportsBeyondLatest(Featuregroup featuregroup, int keep, int limit) {
+    return em.createNamedQuery("ValidationReport.findByFeaturegroupOrderedByDescDate", ValidationReport.class)
+      .setParameter("featuregroup", featuregroup)
+      .setFirstResult(keep)
+      .setMaxResults(limit)
+      .getResultList();
+  }
+
+  public List<Featuregroup> findFeaturegroupsWithMoreReportsThan(long count) {
+    return em.createNamedQuery("ValidationReport.findFeaturegroupsWithMoreReportsThan", Featuregroup.class)
+      .setParameter("count", count)
+      .getResultList();
+  }
+
+  /**
+   * Delete the reports and their results with bulk statements instead of removing them one entity at a time. The ids
+   * are split in IN lists of at most sql_max_select_in, all deleted in one transaction.
+   */
+  @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+  public int deleteBatch(List<ValidationReport> validationReports) {
+    List<Integer> ids = validationReports.stream().map(ValidationReport::getId).collect(Collectors.toList());
+    int deleted = 0;
+    for (List<Integer> partition : Lists.partition(ids, settings.getSQLMaxSelectIn())) {
+      em.createNamedQuery("ValidationResult.deleteByValidationReports")
+        .setParameter("ids", partition)
+        .executeUpdate();
+      deleted += em.createNamedQuery("ValidationReport.deleteBatch")
+        .setParameter("ids", partition)
+        .executeUpdate();
     }
+    return deleted;
+  }
 
-    return latestReport;
+  private void batchFetchResults(Query query) {
+    query.setHint(BATCH_TYPE_HINT, "IN");
+    query.setHint(BATCH_HINT, "vr.validationResults");
   }
 
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
@@ -173,9 +237,9 @@ public class ValidationReportFacade extends AbstractFacade<ValidationReport> {
   but for now the created field populated on report upload serves as 
   a proxy */
   public enum Filters {
-    VALIDATION_TIME_GT("VALIDATION_TIME_GT", "vr.validationTime > :validationTime ","validationTime",""),
-    VALIDATION_TIME_LT("VALIDATION_TIME_LT", "vr.validationTime < :validationTime ","validationTime",""),
-    VALIDATION_TIME_EQ("VALIDATION_TIME_EQ", "vr.validationTime = :validationTime ","validationTime","");
+    VALIDATION_TIME_GT("VALIDATION_TIME_GT", "vr.validationTime > :validationTimeGt ","validationTimeGt",""),
+    VALIDATION_TIME_LT("VALIDATION_TIME_LT", "vr.validationTime < :validationTimeLt ","validationTimeLt",""),
+    VALIDATION_TIME_EQ("VALIDATION_TIME_EQ", "vr.validationTime = :validationTimeEq ","validationTimeEq","");
 
     private final String value;
     private final String sql;
@@ -181,11 +181,11 @@ public class ValidationResultFacade extends AbstractFacade<ValidationResult> {
   }
 
   public enum Filters {
-    VALIDATION_TIME_GT("VALIDATION_TIME_GT", "vr.validationTime > :validationTime ", "validationTime", ""),
-    VALIDATION_TIME_LT("VALIDATION_TIME_LT", "vr.validationTime < :validationTime ", "validationTime", ""),
-    VALIDATION_TIME_GTE("VALIDATION_TIME_GTE", "vr.validationTime >= :validationTime ", "validationTime", ""),
-    VALIDATION_TIME_LTE("VALIDATION_TIME_LTE", "vr.validationTime <= :validationTime ", "validationTime", ""),
-    VALIDATION_TIME_EQ("VALIDATION_TIME_EQ", "vr.validationTime = :validationTime ", "validationTime", ""),
+    VALIDATION_TIME_GT("VALIDATION_TIME_GT", "vr.validationTime > :validationTimeGt ", "validationTimeGt", ""),
+    VALIDATION_TIME_LT("VALIDATION_TIME_LT", "vr.validationTime < :validationTimeLt ", "validationTimeLt", ""),
+    VALIDATION_TIME_GTE("VALIDATION_TIME_GTE", "vr.validationTime >= :validationTimeGte ", "validationTimeGte", ""),
+    VALIDATION_TIME_LTE("VALIDATION_TIME_LTE", "vr.validationTime <= :validationTimeLte ", "validationTimeLte", ""),
+    VALIDATION_TIME_EQ("VALIDATION_TIME_EQ", "vr.validationTime = :validationTimeEq ", "validationTimeEq", ""),
     INGESTION_RESULT_EQ("INGESTION_RESULT_EQ", "vr.ingestionResult IN :ingestionResult ", "ingestionResult", "");
 
     private final String value;
@@ -46,7 +46,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
@@ -62,6 +61,8 @@ public class EmbeddingController {
   @EJB
   private VectorDatabaseClient vectorDatabaseClient;
   @EJB
+  private VectorIndexRegistry vectorIndexRegistry;
+  @EJB
   private FeaturegroupController featuregroupController;
   @EJB
   private ModelVersionFacade modelVersionFacade;
@@ -75,6 +76,7 @@ public class EmbeddingController {
   // For testing
   EmbeddingController(VectorDatabaseClient vectorDatabaseClient, Settings settings) {
     this.vectorDatabaseClient = vectorDatabaseClient;
+    this.vectorIndexRegistry = new VectorIndexRegistry(vectorDatabaseClient);
     this.settings = settings;
   }
 
@@ -106,8 +108,7 @@ public class EmbeddingController {
       int remainingMappingSize;
       if (indexExist(indexName)) {
         remainingMappingSize = settings.getOpensearchDefaultIndexMappingLimit()
-            - vectorDatabaseClient.getClient().getSchema(new Index(indexName)).stream()
-            .mapToInt(field -> countMappingSizeIncludingSubFields(field.getType())).sum();
+            - vectorIndexRegistry.getMappingSize(indexName);
       } else {
         remainingMappingSize = settings.getOpensearchDefaultIndexMappingLimit();
       }
@@ -124,22 +125,9 @@ public class EmbeddingController {
     }
   }
 
-  // In opensearch, if the type has sub-fields, it is considered as 2 mappings
-  // `"4160_col_98":{"type":"long"}` --> 1 mapping
-  // `"5438_binary":{"type":"text","fields":{"keyword":{"type":"keyword","ignore_above":256}}}` --> 2 mappings
-  private int countMappingSizeIncludingSubFields(Object value) {
-    int count = 1;
-    if (value instanceof Map) {
-      if (((Map<?, ?>) value).containsKey("fields")) {
-        count += 1;
-      }
-    }
-    return count;
-  }
-
   public boolean indexExist(String name) throws FeaturestoreException {
     try {
-      return vectorDatabaseClient.getClient().getIndex(name).isPresent();
+      return vectorIndexRegistry.exists(name);
     } catch (VectorDatabaseException e) {
       throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.COULD_NOT_GET_VECTOR_DB_INDEX,
           Level.FINE, "Cannot get opensearch vectordb index: " + name);
@@ -221,7 +209,7 @@ public class EmbeddingController {
   public void dropEmbeddingForProject(Project project)
       throws FeaturestoreException {
     try {
-      for (Index index : vectorDatabaseClient.getClient().getAllIndices().stream()
+      for (Index index : vectorDatabaseClient.getClient().getIndices(getVectorDbIndexPrefix(project) + "*").stream()
           .filter(index -> index.getName().startsWith(getVectorDbIndexPrefix(project))).collect(Collectors.toSet())) {
         vectorDatabaseClient.getClient().deleteIndex(index);
       }
@@ -235,6 +223,13 @@ public class EmbeddingController {
     return indexName.matches("^\\d+" + embeddingIndexIdentifier + ".*");
   }
 
+  /**
+   * @return index name pattern matching the embedding indices of all projects
+   */
+  public String getEmbeddingIndexPattern() {
+    return "*" + embeddingIndexIdentifier + "*";
+  }
+
   public Integer getProjectId(String indexName) {
     return Integer.valueOf(indexName.split(embeddingIndexIdentifier)[0]);
   }
@@ -99,7 +99,7 @@ public class EmbeddingIndexCleaner {
     for (Project project : projectFacade.findAll()) {
       projectIds.add(project.getId());
     }
-    for (Index index : vectorDatabaseClient.getClient().getAllIndices()) {
+    for (Index index : vectorDatabaseClient.getClient().getIndices(embeddingController.getEmbeddingIndexPattern())) {
       if (embeddingController.isEmbeddingIndex(index.getName()) &&
           !projectIds.contains(embeddingController.getProjectId(index.getName()))) {
         indexesToRemove.add(index);
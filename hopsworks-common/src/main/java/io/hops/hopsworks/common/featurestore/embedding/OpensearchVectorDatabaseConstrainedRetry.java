@@ -21,6 +21,7 @@ import io.hops.hopsworks.common.opensearch.OpenSearchClient;
 import io.hops.hopsworks.common.util.LongRunningHttpRequests;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.OpenSearchException;
+import io.hops.hopsworks.vectordb.Index;
 import io.hops.hopsworks.vectordb.OpensearchVectorDatabase;
 import io.hops.hopsworks.vectordb.VectorDatabaseException;
 import org.opensearch.client.RestHighLevelClient;
@@ -45,6 +46,8 @@ public class OpensearchVectorDatabaseConstrainedRetry extends OpensearchVectorDa
   private Settings settings;
   @EJB
   private OpenSearchClient openSearchClient;
+  @EJB
+  private VectorIndexRegistry vectorIndexRegistry;
 
   @Override
   protected Boolean shouldRetry() {
@@ -61,6 +64,35 @@ public class OpensearchVectorDatabaseConstrainedRetry extends OpensearchVectorDa
     longRunningHttpRequests.decrement();
   }
 
+  @Override
+  public void createIndex(Index index, String mapping, Boolean skipIfExist) throws VectorDatabaseException {
+    try {
+      super.createIndex(index, mapping, skipIfExist);
+    } finally {
+      vectorIndexRegistry.invalidate(index.getName());
+    }
+  }
+
+  @Override
+  public void addFields(Index index, String mapping) throws VectorDatabaseException {
+    try {
+      super.addFields(index, mapping);
+    } finally {
+      vectorIndexRegistry.invalidate(index.getName());
+    }
+  }
+
+  @Override
+  public void deleteIndex(Index index) throws VectorDatabaseException {
+    try {
+      super.deleteIndex(index);
+      vectorIndexRegistry.deleted(index.getName());
+    } catch (VectorDatabaseException | RuntimeException e) {
+      vectorIndexRegistry.invalidate(index.getName());
+      throw e;
+    }
+  }
+
   @Override
   protected RestHighLevelClient getClient() throws VectorDatabaseException {
     try {
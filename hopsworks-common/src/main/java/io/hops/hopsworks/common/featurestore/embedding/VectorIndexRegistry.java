@@ -0,0 +1,282 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.embedding;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.exceptions.FeaturestoreException;
+import io.hops.hopsworks.vectordb.Field;
+import io.hops.hopsworks.vectordb.Index;
+import io.hops.hopsworks.vectordb.VectorDatabaseException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per node registry of the vector db index mappings. Embedding validation and index checks are served from memory
+ * instead of going to opensearch on every feature group create or update.
+ * Entries are loaded lazily, invalidated when an index is created, extended or deleted through
+ * {@link OpensearchVectorDatabaseConstrainedRetry} on any node, and periodically reconciled with opensearch to
+ * catch changes done outside Hopsworks.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class VectorIndexRegistry {
+
+  private static final Logger LOGGER = Logger.getLogger(VectorIndexRegistry.class.getName());
+  private static final String INDEX_UPDATED_TOPIC_NAME = "vector_index_updated";
+  private static final long RECONCILE_INTERVAL_MS = 10 * 60 * 1000L;
+
+  @EJB
+  private VectorDatabaseClient vectorDatabaseClient;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+  @Resource
+  private TimerService timerService;
+
+  // both maps are loaded lazily and independently, an index checked for existence does not need its schema
+  private final Map<String, Boolean> existing = new ConcurrentHashMap<>();
+  private final Map<String, IndexSchema> schemas = new ConcurrentHashMap<>();
+  // bumped whenever an index is invalidated, a value loaded before the bump is stale and must not be cached
+  private final Map<String, Long> versions = new ConcurrentHashMap<>();
+  private ITopic<String> indexUpdatedTopic;
+  private UUID myUUID;
+  private Timer timer;
+
+  public VectorIndexRegistry() {
+  }
+
+  // For testing
+  VectorIndexRegistry(VectorDatabaseClient vectorDatabaseClient) {
+    this.vectorDatabaseClient = vectorDatabaseClient;
+  }
+
+  @PostConstruct
+  public void init() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      indexUpdatedTopic = hazelcastInstance.getTopic(INDEX_UPDATED_TOPIC_NAME);
+      myUUID = indexUpdatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+    timer = timerService.createIntervalTimer(RECONCILE_INTERVAL_MS, RECONCILE_INTERVAL_MS,
+        new TimerConfig("VectorIndexRegistry reconciler", false));
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (indexUpdatedTopic != null) {
+      //needed for redeploy to remove the listener
+      indexUpdatedTopic.removeMessageListener(myUUID);
+    }
+    if (timer != null) {
+      timer.cancel();
+    }
+  }
+
+  public class MessageListenerImpl implements MessageListener<String> {
+    @Override
+    public void onMessage(Message<String> message) {
+      if (!message.getPublishingMember().localMember()) {
+        String indexName = message.getMessageObject();
+        bumpVersion(indexName);
+        existing.remove(indexName);
+        schemas.remove(indexName);
+      }
+    }
+  }
+
+  public boolean exists(String indexName) throws VectorDatabaseException, FeaturestoreException {
+    Boolean exists = existing.get(indexName);
+    if (exists == null) {
+      long version = getVersion(indexName);
+      boolean loaded = vectorDatabaseClient.getClient().getIndex(indexName).isPresent();
+      ifCurrent(indexName, version, () -> existing.put(indexName, loaded));
+      exists = loaded;
+    }
+    return exists;
+  }
+
+  /**
+   * @return the fields of an existing index
+   */
+  public List<Field> getSchema(String indexName) throws VectorDatabaseException, FeaturestoreException {
+    return getIndexSchema(indexName).fields;
+  }
+
+  /**
+   * @return number of mappings used by an existing index, counting sub-fields as opensearch does
+   */
+  public int getMappingSize(String indexName) throws VectorDatabaseException, FeaturestoreException {
+    return getIndexSchema(indexName).mappingSize;
+  }
+
+  /**
+   * Drop the cached mapping of an index on all nodes. Called after the index was created or its mapping changed.
+   */
+  public void invalidate(String indexName) {
+    bumpVersion(indexName);
+    existing.remove(indexName);
+    schemas.remove(indexName);
+    publish(indexName);
+  }
+
+  /**
+   * Record that an index was deleted, on this node without reloading it and on the other nodes by invalidating it.
+   */
+  public void deleted(String indexName) {
+    bumpVersion(indexName);
+    schemas.remove(indexName);
+    existing.put(indexName, false);
+    publish(indexName);
+  }
+
+  private void publish(String indexName) {
+    if (indexUpdatedTopic != null) {
+      indexUpdatedTopic.publish(indexName);
+    }
+  }
+
+  private IndexSchema getIndexSchema(String indexName) throws VectorDatabaseException, FeaturestoreException {
+    IndexSchema schema = schemas.get(indexName);
+    if (schema == null) {
+      long version = getVersion(indexName);
+      IndexSchema loaded = new IndexSchema(vectorDatabaseClient.getClient().getSchema(new Index(indexName)));
+      ifCurrent(indexName, version, () -> schemas.put(indexName, loaded));
+      schema = loaded;
+    }
+    return schema;
+  }
+
+  private long getVersion(String indexName) {
+    return versions.getOrDefault(indexName, 0L);
+  }
+
+  private void bumpVersion(String indexName) {
+    versions.merge(indexName, 1L, Long::sum);
+  }
+
+  /**
+   * Runs update only if the index was not invalidated since version was read. The check and the update are atomic
+   * with respect to bumpVersion, as both hold the lock of the versions entry.
+   */
+  private void ifCurrent(String indexName, long version, Runnable update) {
+    versions.compute(indexName, (name, current) -> {
+      if ((current == null ? 0L : current) == version) {
+        update.run();
+      }
+      return current;
+    });
+  }
+
+  @Timeout
+  public void reconcile() {
+    for (Map.Entry<String, Boolean> entry : existing.entrySet()) {
+      long version = getVersion(entry.getKey());
+      try {
+        boolean actual = vectorDatabaseClient.getClient().getIndex(entry.getKey()).isPresent();
+        if (actual != entry.getValue()) {
+          LOGGER.log(Level.WARNING, "Vector db index {0} was {1} outside of Hopsworks, refreshing it",
+              new Object[]{entry.getKey(), actual ? "created" : "deleted"});
+          schemas.remove(entry.getKey());
+        }
+        ifCurrent(entry.getKey(), version, () -> existing.replace(entry.getKey(), entry.getValue(), actual));
+      } catch (Exception e) {
+        LOGGER.log(Level.FINE, "Could not reconcile vector db index " + entry.getKey(), e);
+        existing.remove(entry.getKey(), entry.getValue());
+      }
+    }
+    for (Map.Entry<String, IndexSchema> entry : schemas.entrySet()) {
+      long version = getVersion(entry.getKey());
+      try {
+        IndexSchema actual = new IndexSchema(vectorDatabaseClient.getClient().getSchema(new Index(entry.getKey())));
+        if (!actual.equals(entry.getValue())) {
+          LOGGER.log(Level.WARNING, "Mapping of vector db index {0} changed outside of Hopsworks, refreshing it",
+              entry.getKey());
+        }
+        ifCurrent(entry.getKey(), version, () -> schemas.replace(entry.getKey(), entry.getValue(), actual));
+      } catch (Exception e) {
+        // the index may have been deleted, it is reloaded on the next lookup
+        LOGGER.log(Level.FINE, "Could not reconcile mapping of vector db index " + entry.getKey(), e);
+        schemas.remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  // In opensearch, if the type has sub-fields, it is considered as 2 mappings
+  // `"4160_col_98":{"type":"long"}` --> 1 mapping
+  // `"5438_binary":{"type":"text","fields":{"keyword":{"type":"keyword","ignore_above":256}}}` --> 2 mappings
+  static int countMappingSizeIncludingSubFields(Object value) {
+    int count = 1;
+    if (value instanceof Map) {
+      if (((Map<?, ?>) value).containsKey("fields")) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  private static class IndexSchema {
+    private final List<Field> fields;
+    private final int mappingSize;
+
+    private IndexSchema(List<Field> fields) {
+      this.fields = Collections.unmodifiableList(fields);
+      this.mappingSize = fields.stream().mapToInt(field -> countMappingSizeIncludingSubFields(field.getType())).sum();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      IndexSchema that = (IndexSchema) o;
+      return mappingSize == that.mappingSize && fields.equals(that.fields);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fields, mappingSize);
+    }
+  }
+}
@@ -39,6 +39,7 @@ import io.hops.hopsworks.common.featurestore.featuregroup.ondemand.OnDemandFeatu
 import io.hops.hopsworks.common.featurestore.featuregroup.online.OnlineFeaturegroupController;
 import io.hops.hopsworks.common.featurestore.featuregroup.stream.StreamFeatureGroupController;
 import io.hops.hopsworks.common.featurestore.featuregroup.stream.StreamFeatureGroupDTO;
+import io.hops.hopsworks.common.featurestore.featureview.ServingMetadataCache;
 import io.hops.hopsworks.common.featurestore.online.OnlineFeaturestoreController;
 import io.hops.hopsworks.common.featurestore.query.ConstructorController;
 import io.hops.hopsworks.common.featurestore.query.Feature;
@@ -148,6 +149,8 @@ public class FeaturegroupController {
   @EJB
   private SearchFSCommandLogger searchCommandLogger;
   @EJB
+  private ServingMetadataCache servingMetadataCache;
+  @EJB
   private EmbeddingController embeddingController;
   @EJB
   private ConstructorController constructorController;
@@ -518,6 +521,7 @@ public class FeaturegroupController {
     }
 
     featuregroup = featuregroupFacade.updateFeaturegroupMetadata(featuregroup);
+    servingMetadataCache.invalidateFeatureGroup(featuregroup.getId());
     searchCommandLogger.updateMetadata(featuregroup);
     return convertFeaturegrouptoDTO(featuregroup, project, user);
   }
@@ -552,6 +556,7 @@ public class FeaturegroupController {
     } else {
       cachedFeaturegroupController.enableFeaturegroupOnline(featurestore, featuregroup, project, user);
     }
+    servingMetadataCache.invalidateFeatureGroup(featuregroup.getId());
 
     // Log activity
     fsActivityFacade.logMetadataActivity(user, featuregroup, FeaturestoreActivityMeta.ONLINE_ENABLED, null);
@@ -584,6 +589,7 @@ public class FeaturegroupController {
     featurestoreUtils.verifyUserProjectEqualsFsProjectAndDataOwner(user, project, featurestore,
         FeaturestoreUtils.ActionMessage.DISABLE_FEATURE_GROUP_ONLINE);
     cachedFeaturegroupController.disableFeaturegroupOnline(featuregroup, project, user);
+    servingMetadataCache.invalidateFeatureGroup(featuregroup.getId());
 
     // Log activity
     fsActivityFacade.logMetadataActivity(user, featuregroup, FeaturestoreActivityMeta.ONLINE_DISABLED, null);
@@ -666,6 +672,7 @@ public class FeaturegroupController {
     featurestoreUtils.verifyUserProjectEqualsFsProjectAndDataOwner(user, project, featuregroup.getFeaturestore(),
         FeaturestoreUtils.ActionMessage.DELETE_FEATURE_GROUP);
     searchCommandLogger.delete(featuregroup);
+    servingMetadataCache.invalidateFeatureGroup(featuregroup.getId());
     // In some cases, fg metadata was not deleted. https://hopsworks.atlassian.net/browse/FSTORE-377
     // This enables users to delete a corrupted fg using the hsfs client.
     if (featuregroup.getOnDemandFeaturegroup() == null
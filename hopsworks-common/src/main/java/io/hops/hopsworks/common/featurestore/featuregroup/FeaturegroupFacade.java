@@ -209,6 +209,25 @@ public class FeaturegroupFacade extends AbstractFacade<Featuregroup> {
     return query.getSingleResult();
   }
 
+  /**
+   * Counts the feature groups of a featurestore that are governed by the online enabled or online disabled feature
+   * groups quota. For backwards compatibility online disabled on-demand feature groups are not counted.
+   *
+   * @param featurestore the featurestore to query
+   * @param onlineEnabled which quota to count for
+   * @return number of feature groups
+   */
+  public long countForQuota(Featurestore featurestore, boolean onlineEnabled) {
+    String queryStr = "SELECT count(fg.id) FROM Featuregroup fg WHERE fg.featurestore = :featurestore"
+      + " AND fg.onlineEnabled = :onlineEnabled"
+      + " AND (fg.cachedFeaturegroup IS NOT null OR fg.streamFeatureGroup IS NOT null"
+      + (onlineEnabled ? " OR fg.onDemandFeaturegroup IS NOT null)" : ")");
+    return em.createQuery(queryStr, Long.class)
+      .setParameter("featurestore", featurestore)
+      .setParameter("onlineEnabled", onlineEnabled)
+      .getSingleResult();
+  }
+
   public List<Featuregroup> findByStorageConnectors(List<FeaturestoreConnector> storageConnectors) {
     if (storageConnectors.size() > settings.getSQLMaxSelectIn()) {
       List<Featuregroup> result = new ArrayList<>();
@@ -19,6 +19,7 @@ package io.hops.hopsworks.common.featurestore.featuregroup.online;
 import com.google.common.base.Strings;
 import io.hops.hopsworks.common.featurestore.feature.FeatureGroupFeatureDTO;
 import io.hops.hopsworks.common.hdfs.Utils;
+import io.hops.hopsworks.common.kafka.AvroSchemaCache;
 import io.hops.hopsworks.exceptions.FeaturestoreException;
 import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.Featuregroup;
 import io.hops.hopsworks.restutils.RESTCodes;
@@ -27,6 +28,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
 import org.apache.hadoop.hive.serde2.thrift.Type;
 
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -40,8 +42,16 @@ import java.util.logging.Level;
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class AvroSchemaConstructorController {
   
+  @EJB
+  private AvroSchemaCache avroSchemaCache;
+  
   public AvroSchemaConstructorController() {}
   
+  // For testing
+  AvroSchemaConstructorController(AvroSchemaCache avroSchemaCache) {
+    this.avroSchemaCache = avroSchemaCache;
+  }
+  
   public String constructSchema(Featuregroup featuregroup, List<FeatureGroupFeatureDTO> schema)
       throws FeaturestoreException {
     String featureGroupEntityName = Utils.getFeaturegroupName(featuregroup);
@@ -55,11 +65,22 @@ public class AvroSchemaConstructorController {
     
     for (FeatureGroupFeatureDTO feature : schema) {
       recordSchema = recordSchema.name(feature.getName())
-        .type(toAvro(feature.getType(), true, feature.getName())).noDefault();
+        .type(getAvroType(feature.getType(), feature.getName())).noDefault();
     }
     return recordSchema.endRecord().toString(true);
   }
   
+  // the type of a feature depends only on its hive type and name, new versions of a feature group and schema updates
+  // mostly add features to the ones already converted
+  private Schema getAvroType(String hiveType, String featureName) throws FeaturestoreException {
+    Schema avroType = avroSchemaCache.getAvroType(hiveType, true, featureName);
+    if (avroType == null) {
+      avroType = toAvro(hiveType, true, featureName);
+      avroSchemaCache.putAvroType(hiveType, true, featureName, avroType);
+    }
+    return avroType;
+  }
+  
   public Schema toAvroPrimitiveType(String hiveType) throws FeaturestoreException {
     SchemaBuilder.TypeBuilder<Schema> avroSchema = SchemaBuilder.builder();
     
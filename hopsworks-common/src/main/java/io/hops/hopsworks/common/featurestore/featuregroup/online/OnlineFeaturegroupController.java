@@ -21,6 +21,7 @@ import com.logicalclocks.shaded.org.apache.commons.lang3.StringUtils;
 import io.hops.hopsworks.common.dao.kafka.TopicDTO;
 import io.hops.hopsworks.common.featurestore.embedding.EmbeddingController;
 import io.hops.hopsworks.common.featurestore.embedding.VectorDatabaseClient;
+import io.hops.hopsworks.common.featurestore.embedding.VectorIndexRegistry;
 import io.hops.hopsworks.common.featurestore.feature.FeatureGroupFeatureDTO;
 import io.hops.hopsworks.common.featurestore.featuregroup.FeaturegroupController;
 import io.hops.hopsworks.common.featurestore.featuregroup.cached.FeaturegroupPreview;
@@ -108,6 +109,8 @@ public class OnlineFeaturegroupController {
   private EmbeddingController embeddingController;
   @EJB
   private VectorDatabaseClient vectorDatabaseClient;
+  @EJB
+  private VectorIndexRegistry vectorIndexRegistry;
 
   private final static List<String> SUPPORTED_MYSQL_TYPES = Arrays.asList("INT", "TINYINT",
       "SMALLINT", "BIGINT", "FLOAT", "DOUBLE", "DECIMAL", "DATE", "TIMESTAMP");
@@ -390,7 +393,7 @@ public class OnlineFeaturegroupController {
           // fetching documents where pk column of the fg is not null
           .map(pk -> embeddingController.getFieldName(featuregroup.getEmbedding(), pk.getName()))
           .collect(Collectors.toSet());
-      Set<Field> targetFields = vectorDatabaseClient.getClient().getSchema(index)
+      Set<Field> targetFields = vectorIndexRegistry.getSchema(index.getName())
           .stream()
           .filter(field -> primaryKeyFields.contains(field.getName()))
           .collect(Collectors.toSet());
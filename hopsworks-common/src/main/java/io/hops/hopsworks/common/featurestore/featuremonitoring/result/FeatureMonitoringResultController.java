@@ -28,6 +28,7 @@ import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import java.util.Date;
 import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
@@ -37,6 +38,10 @@ import java.util.logging.Logger;
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class FeatureMonitoringResultController {
   private static final Logger LOGGER = Logger.getLogger(FeatureMonitoringResultController.class.getName());
+  private static final int DEFAULT_SERIES_POINTS = 100;
+  private static final int MAX_SERIES_POINTS = 1000;
+  // a bucket is at least a minute wide
+  private static final long MIN_SERIES_BUCKET_SIZE = 60 * 1000L;
   
   @EJB
   FeatureMonitoringResultFacade featureMonitoringResultFacade;
@@ -94,4 +99,62 @@ public class FeatureMonitoringResultController {
     
     return featureMonitoringResultFacade.findByConfigId(offset, limit, sorts, filters, config);
   }
-}
\ No newline at end of file
+  
+  /**
+   * Downsample the results of a configuration to at most the given number of points, for charting.
+   *
+   * @param start in ms, defaults to the time of the first result
+   * @param end in ms exclusive, defaults to now
+   */
+  public FeatureMonitoringResultSeriesDTO getFeatureMonitoringResultSeries(Integer configId,
+    FeatureMonitoringResultFacade.SeriesMetric metric, Long start, Long end, Integer points)
+      throws FeaturestoreException {
+    int numPoints = points == null ? DEFAULT_SERIES_POINTS : points;
+    if (numPoints < 1 || numPoints > MAX_SERIES_POINTS) {
+      throw new IllegalArgumentException("Number of points should be between 1 and " + MAX_SERIES_POINTS);
+    }
+    FeatureMonitoringConfiguration config =
+      featureMonitoringConfigurationController.getFeatureMonitoringConfigurationByConfigId(configId);
+    FeatureMonitoringResultSeriesDTO series = new FeatureMonitoringResultSeriesDTO();
+    series.setConfigId(configId);
+    series.setMetric(metric);
+    long seriesEnd = end == null ? System.currentTimeMillis() : end;
+    Long seriesStart = start;
+    if (seriesStart == null) {
+      Optional<Date> first = featureMonitoringResultFacade.findFirstMonitoringTime(config);
+      if (!first.isPresent()) {
+        return series;
+      }
+      seriesStart = first.get().getTime();
+    }
+    if (seriesStart >= seriesEnd) {
+      throw new IllegalArgumentException("Start of the series should be before its end");
+    }
+    long bucketSize = Math.max(MIN_SERIES_BUCKET_SIZE, (seriesEnd - seriesStart + numPoints - 1) / numPoints);
+    series.setStart(seriesStart);
+    series.setEnd(seriesEnd);
+    series.setBucketSize(bucketSize);
+    for (Object[] row : featureMonitoringResultFacade.findSeries(config, metric, new Date(seriesStart),
+      new Date(seriesEnd), bucketSize)) {
+      series.getPoints().add(toSeriesPoint(row, seriesStart, bucketSize));
+    }
+    return series;
+  }
+  
+  FeatureMonitoringResultSeriesPointDTO toSeriesPoint(Object[] row, long start, long bucketSize) {
+    FeatureMonitoringResultSeriesPointDTO point = new FeatureMonitoringResultSeriesPointDTO();
+    point.setTime(start + ((Number) row[0]).longValue() * bucketSize);
+    point.setCount(((Number) row[1]).longValue());
+    point.setShiftDetectedCount(row[2] == null ? 0L : ((Number) row[2]).longValue());
+    point.setMin(toDouble(row[3]));
+    point.setMax(toDouble(row[4]));
+    point.setAvg(toDouble(row[5]));
+    point.setLast(row[6] == null ? null : Double.valueOf(row[6].toString()));
+    point.setLastMonitoringTime(row[7] == null ? null : ((Date) row[7]).getTime());
+    return point;
+  }
+  
+  private Double toDouble(Object value) {
+    return value == null ? null : ((Number) value).doubleValue();
+  }
+}
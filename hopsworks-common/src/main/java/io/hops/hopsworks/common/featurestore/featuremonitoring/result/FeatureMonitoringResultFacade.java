@@ -26,6 +26,8 @@ import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -73,6 +75,51 @@ public class FeatureMonitoringResultFacade extends AbstractFacade<FeatureMonitor
     return new CollectionInfo<FeatureMonitoringResult>((Long) queryCount.getSingleResult(), query.getResultList());
   }
   
+  /**
+   * Aggregate the results of a configuration in [start, end) into buckets of bucketSize ms, in the database so that
+   * only one row per bucket is returned however long the history is.
+   *
+   * @return rows of bucket index, count, shift detected count, min, max, avg and last value of the metric and time of
+   * the last result, ordered by bucket
+   */
+  public List<Object[]> findSeries(FeatureMonitoringConfiguration config, SeriesMetric metric, Date start, Date end,
+    long bucketSize) {
+    String column = "result." + metric.getColumn();
+    String queryStr = "SELECT FLOOR((UNIX_TIMESTAMP(result.monitoring_time) - UNIX_TIMESTAMP(?2)) * 1000 / ?4) AS " +
+      "bucket, COUNT(result.id), SUM(result.shift_detected), MIN(" + column + "), MAX(" + column + "), AVG(" +
+      column + "), SUBSTRING_INDEX(GROUP_CONCAT(" + column + " ORDER BY result.monitoring_time DESC), ',', 1), " +
+      "MAX(result.monitoring_time) FROM hopsworks.feature_monitoring_result result " +
+      "WHERE result.feature_monitoring_config_id = ?1 AND result.monitoring_time >= ?2 " +
+      "AND result.monitoring_time < ?3 GROUP BY bucket ORDER BY bucket";
+    Query query = em.createNativeQuery(queryStr)
+      .setParameter(1, config.getId())
+      .setParameter(2, new Timestamp(start.getTime()))
+      .setParameter(3, new Timestamp(end.getTime()))
+      .setParameter(4, bucketSize);
+    return query.getResultList();
+  }
+  
+  public Optional<Date> findFirstMonitoringTime(FeatureMonitoringConfiguration config) {
+    Date first = em.createQuery("SELECT MIN(result.monitoringTime) FROM FeatureMonitoringResult result " +
+        "WHERE result.featureMonitoringConfig=:config", Date.class)
+      .setParameter("config", config)
+      .getSingleResult();
+    return Optional.ofNullable(first);
+  }
+  
+  /**
+   * Delete at most limit results monitored before the given time. Their descriptive statistics are left to the
+   * statistics cleaner.
+   *
+   * @return the number of deleted results
+   */
+  public int deleteOlderThan(Date before, int limit) {
+    return em.createNativeQuery("DELETE FROM hopsworks.feature_monitoring_result WHERE monitoring_time < ?1 LIMIT ?2")
+      .setParameter(1, new Timestamp(before.getTime()))
+      .setParameter(2, limit)
+      .executeUpdate();
+  }
+  
   private void setFilter(Set<? extends AbstractFacade.FilterBy> filter, Query q) {
     if (filter == null || filter.isEmpty()) {
       return;
@@ -82,6 +129,21 @@ public class FeatureMonitoringResultFacade extends AbstractFacade<FeatureMonitor
     }
   }
   
+  public enum SeriesMetric {
+    DIFFERENCE("difference"),
+    SPECIFIC_VALUE("specific_value");
+    
+    private final String column;
+    
+    SeriesMetric(String column) {
+      this.column = column;
+    }
+    
+    public String getColumn() {
+      return column;
+    }
+  }
+  
   public enum Sorts {
     MONITORING_TIME("MONITORING_TIME", "result.monitoringTime ", "DESC");
     
@@ -0,0 +1,38 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.featuremonitoring.result;
+
+import io.hops.hopsworks.common.api.RestDTO;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feature monitoring results of a configuration downsampled to a fixed number of buckets, buckets without results
+ * are left out
+ */
+@Getter
+@Setter
+public class FeatureMonitoringResultSeriesDTO extends RestDTO<FeatureMonitoringResultSeriesDTO> {
+  private Integer configId;
+  private FeatureMonitoringResultFacade.SeriesMetric metric;
+  private Long start;
+  private Long end;
+  private Long bucketSize;
+  private List<FeatureMonitoringResultSeriesPointDTO> points = new ArrayList<>();
+}
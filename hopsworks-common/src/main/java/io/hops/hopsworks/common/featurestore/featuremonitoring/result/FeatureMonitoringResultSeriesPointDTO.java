@@ -0,0 +1,38 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.featuremonitoring.result;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Feature monitoring results of a configuration aggregated over a time bucket
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class FeatureMonitoringResultSeriesPointDTO {
+  // start of the bucket, in ms
+  private Long time;
+  private Long count;
+  private Long shiftDetectedCount;
+  private Double min;
+  private Double max;
+  private Double avg;
+  private Double last;
+  private Long lastMonitoringTime;
+}
@@ -64,6 +64,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -104,6 +105,8 @@ public class FeatureViewController {
   private FeaturegroupController featuregroupController;
   @EJB
   private SearchFSCommandLogger searchCommandLogger;
+  @EJB
+  private ServingMetadataCache servingMetadataCache;
 
   public FeatureView createFeatureView(Project project, Users user, FeatureView featureView, Featurestore featurestore)
     throws FeaturestoreException, IOException {
@@ -247,6 +250,7 @@ public class FeatureViewController {
       trainingDatasetController.delete(user, project, featurestore, fv);
       searchCommandLogger.delete(fv);
       featureViewFacade.remove(fv);
+      servingMetadataCache.invalidateFeatureView(fv.getId());
       removeFeatureViewDir(project, user, fv);
       //Delete associated jobs
       fsJobManagerController.deleteJobs(project, user, fv);
@@ -303,6 +307,63 @@ public class FeatureViewController {
 
   public List<ServingKey> getServingKeys(Project project, Users user, FeatureView featureView)
       throws FeaturestoreException {
+    if (featureView.getId() == null) {
+      // feature view being created, the serving keys are persisted with it
+      return getServingKeys(featureView, getFeatureSchemas(project, user, featureView.getJoins()));
+    }
+    return getServingMetadata(project, user, featureView).getServingKeys().stream()
+        .map(servingKey -> copyServingKey(servingKey, featureView))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return the serving keys, prepared statements and feature group schemas of the feature view, from the cache if
+   * they were built already
+   */
+  public ServingMetadata getServingMetadata(Project project, Users user, FeatureView featureView)
+      throws FeaturestoreException {
+    ServingMetadata servingMetadata = servingMetadataCache.get(featureView.getId());
+    if (servingMetadata != null) {
+      return servingMetadata;
+    }
+    long version = servingMetadataCache.getVersion();
+    Map<Integer, List<FeatureGroupFeatureDTO>> featureSchemas =
+        getFeatureSchemas(project, user, featureView.getJoins());
+    servingMetadata = new ServingMetadata(featureView.getId(), version, featureSchemas,
+        getServingKeys(featureView, featureSchemas));
+    servingMetadataCache.put(servingMetadata);
+    return servingMetadata;
+  }
+
+  /**
+   * @return the features of each feature group joined, read once per feature group
+   */
+  public Map<Integer, List<FeatureGroupFeatureDTO>> getFeatureSchemas(Project project, Users user,
+      Collection<TrainingDatasetJoin> joins) throws FeaturestoreException {
+    Map<Integer, List<FeatureGroupFeatureDTO>> featureSchemas = new HashMap<>();
+    for (TrainingDatasetJoin join : joins) {
+      Featuregroup featuregroup = join.getFeatureGroup();
+      if (featuregroup != null && !featureSchemas.containsKey(featuregroup.getId())) {
+        featureSchemas.put(featuregroup.getId(), featuregroupController.getFeatures(featuregroup, project, user));
+      }
+    }
+    return featureSchemas;
+  }
+
+  private ServingKey copyServingKey(ServingKey servingKey, FeatureView featureView) {
+    ServingKey copy = new ServingKey();
+    copy.setFeatureName(servingKey.getFeatureName());
+    copy.setFeatureGroup(servingKey.getFeatureGroup());
+    copy.setPrefix(servingKey.getPrefix());
+    copy.setRequired(servingKey.getRequired());
+    copy.setJoinOn(servingKey.getJoinOn());
+    copy.setJoinIndex(servingKey.getJoinIndex());
+    copy.setFeatureView(featureView);
+    return copy;
+  }
+
+  private List<ServingKey> getServingKeys(FeatureView featureView,
+      Map<Integer, List<FeatureGroupFeatureDTO>> featureSchemas) throws FeaturestoreException {
     List<ServingKey> servingKeys = Lists.newArrayList();
     Set<String> prefixFeatureNames = Sets.newHashSet();
     Set<Integer> featureGroupIdAdded = Sets.newHashSet();
@@ -313,8 +374,7 @@ public class FeatureViewController {
       throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.FEATUREGROUP_NOT_FOUND,
           Level.SEVERE, "Cannot construct serving because some feature groups which are used in the query are removed");
     }
-    Set<String> leftPrimaryKeys = featuregroupController
-        .getFeatures(leftJoin.get().getFeatureGroup(), project, user)
+    Set<String> leftPrimaryKeys = featureSchemas.get(leftJoin.get().getFeatureGroup().getId())
         .stream()
         .filter(FeatureGroupFeatureDTO::getPrimary)
         .map(FeatureGroupFeatureDTO::getName)
@@ -325,8 +385,7 @@ public class FeatureViewController {
       // This contains join key and pk of feature group
       Set<String> tempPrefixFeatureNames = Sets.newHashSet();
 
-      List<FeatureGroupFeatureDTO> primaryKeys = featuregroupController
-          .getFeatures(join.getFeatureGroup(), project, user)
+      List<FeatureGroupFeatureDTO> primaryKeys = featureSchemas.get(join.getFeatureGroup().getId())
           .stream()
           .filter(FeatureGroupFeatureDTO::getPrimary)
           .collect(Collectors.toList());
@@ -437,4 +496,9 @@ public class FeatureViewController {
       FeaturegroupController featuregroupController) {
     this.featuregroupController = featuregroupController;
   }
+
+  // For testing
+  public void setServingMetadataCache(ServingMetadataCache servingMetadataCache) {
+    this.servingMetadataCache = servingMetadataCache;
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.featureview;
+
+import io.hops.hopsworks.common.featurestore.feature.FeatureGroupFeatureDTO;
+import io.hops.hopsworks.common.featurestore.query.ServingPreparedStatementDTO;
+import io.hops.hopsworks.persistence.entity.featurestore.featureview.ServingKey;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot of what online serving of a feature view needs: the schema of its feature groups, its serving keys and
+ * its prepared statements. The snapshot is immutable except for the prepared statements, which are generated on the
+ * first request of each variant.
+ */
+public class ServingMetadata {
+
+  private final Integer featureViewId;
+  // the version of the cache the snapshot was built at
+  private final long version;
+  // feature group id -> features
+  private final Map<Integer, List<FeatureGroupFeatureDTO>> featureSchemas;
+  private final List<ServingKey> servingKeys;
+  // batch and inference helper columns -> statements
+  private final Map<String, List<ServingPreparedStatementDTO>> preparedStatements = new ConcurrentHashMap<>();
+
+  public ServingMetadata(Integer featureViewId, long version,
+      Map<Integer, List<FeatureGroupFeatureDTO>> featureSchemas, List<ServingKey> servingKeys) {
+    this.featureViewId = featureViewId;
+    this.version = version;
+    this.featureSchemas = Collections.unmodifiableMap(featureSchemas);
+    this.servingKeys = Collections.unmodifiableList(servingKeys);
+  }
+
+  public Integer getFeatureViewId() {
+    return featureViewId;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Map<Integer, List<FeatureGroupFeatureDTO>> getFeatureSchemas() {
+    return featureSchemas;
+  }
+
+  public Set<Integer> getFeatureGroupIds() {
+    return featureSchemas.keySet();
+  }
+
+  public List<ServingKey> getServingKeys() {
+    return servingKeys;
+  }
+
+  /**
+   * @return the prepared statements of the variant or null if they were not generated yet
+   */
+  public List<ServingPreparedStatementDTO> getPreparedStatements(boolean batch, boolean inferenceHelperColumns) {
+    return preparedStatements.get(variant(batch, inferenceHelperColumns));
+  }
+
+  public void setPreparedStatements(boolean batch, boolean inferenceHelperColumns,
+      List<ServingPreparedStatementDTO> statements) {
+    preparedStatements.put(variant(batch, inferenceHelperColumns), Collections.unmodifiableList(statements));
+  }
+
+  private String variant(boolean batch, boolean inferenceHelperColumns) {
+    return batch + "|" + inferenceHelperColumns;
+  }
+}
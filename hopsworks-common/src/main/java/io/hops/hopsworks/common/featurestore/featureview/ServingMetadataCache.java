@@ -0,0 +1,182 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.featureview;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per node cache of the serving metadata of feature views, keyed by the feature view id.
+ * Serving clients fetch the serving keys and prepared statements when they start and when they scale out, a hit
+ * saves reading the schema of every feature group of the feature view and generating the statements again.
+ * Snapshots are invalidated on all nodes when the feature view is deleted and when one of its feature groups is
+ * updated, enabled or disabled online or deleted.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ServingMetadataCache {
+
+  private static final String FEATURE_VIEW_INVALIDATED_TOPIC_NAME = "serving_metadata_feature_view_invalidated";
+  private static final String FEATURE_GROUP_INVALIDATED_TOPIC_NAME = "serving_metadata_feature_group_invalidated";
+  private static final long MAX_FEATURE_VIEWS = 5000;
+  // the expiry only bounds how long changes done outside Hopsworks, e.g. altering a table in Hive, are missed
+  private static final long EXPIRE_MINUTES = 60;
+
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private Cache<Integer, ServingMetadata> snapshots;
+  // bumped on every invalidation, a snapshot built while an invalidation happened is not cached
+  private final AtomicLong version = new AtomicLong();
+  private ITopic<Integer> featureViewInvalidatedTopic;
+  private ITopic<Integer> featureGroupInvalidatedTopic;
+  private UUID featureViewListenerUUID;
+  private UUID featureGroupListenerUUID;
+
+  public ServingMetadataCache() {
+  }
+
+  // For testing
+  public ServingMetadataCache(long maxFeatureViews) {
+    snapshots = build(maxFeatureViews);
+  }
+
+  @PostConstruct
+  public void init() {
+    snapshots = build(MAX_FEATURE_VIEWS);
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      featureViewInvalidatedTopic = hazelcastInstance.getTopic(FEATURE_VIEW_INVALIDATED_TOPIC_NAME);
+      featureViewListenerUUID = featureViewInvalidatedTopic.addMessageListener(new FeatureViewInvalidatedListener());
+      featureGroupInvalidatedTopic = hazelcastInstance.getTopic(FEATURE_GROUP_INVALIDATED_TOPIC_NAME);
+      featureGroupListenerUUID =
+          featureGroupInvalidatedTopic.addMessageListener(new FeatureGroupInvalidatedListener());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    //needed for redeploy to remove the listeners
+    if (featureViewInvalidatedTopic != null) {
+      featureViewInvalidatedTopic.removeMessageListener(featureViewListenerUUID);
+    }
+    if (featureGroupInvalidatedTopic != null) {
+      featureGroupInvalidatedTopic.removeMessageListener(featureGroupListenerUUID);
+    }
+  }
+
+  private Cache<Integer, ServingMetadata> build(long maxFeatureViews) {
+    return Caffeine.newBuilder()
+        .maximumSize(maxFeatureViews)
+        .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+        .build();
+  }
+
+  public class FeatureViewInvalidatedListener implements MessageListener<Integer> {
+    @Override
+    public void onMessage(Message<Integer> message) {
+      if (!message.getPublishingMember().localMember()) {
+        invalidateFeatureViewLocal(message.getMessageObject());
+      }
+    }
+  }
+
+  public class FeatureGroupInvalidatedListener implements MessageListener<Integer> {
+    @Override
+    public void onMessage(Message<Integer> message) {
+      if (!message.getPublishingMember().localMember()) {
+        invalidateFeatureGroupLocal(message.getMessageObject());
+      }
+    }
+  }
+
+  /**
+   * @return the snapshot of the feature view or null if it is not cached
+   */
+  public ServingMetadata get(Integer featureViewId) {
+    return snapshots.getIfPresent(featureViewId);
+  }
+
+  /**
+   * @return the version a snapshot built from now on belongs to
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * Cache a snapshot, unless an invalidation happened since the version it was built at.
+   */
+  public synchronized void put(ServingMetadata servingMetadata) {
+    if (servingMetadata.getVersion() == version.get()) {
+      snapshots.put(servingMetadata.getFeatureViewId(), servingMetadata);
+    }
+  }
+
+  /**
+   * Drop the snapshot of a feature view on all nodes.
+   */
+  public void invalidateFeatureView(Integer featureViewId) {
+    invalidateFeatureViewLocal(featureViewId);
+    if (featureViewInvalidatedTopic != null) {
+      featureViewInvalidatedTopic.publish(featureViewId);
+    }
+  }
+
+  /**
+   * Drop the snapshots of all the feature views reading from a feature group on all nodes.
+   */
+  public void invalidateFeatureGroup(Integer featureGroupId) {
+    invalidateFeatureGroupLocal(featureGroupId);
+    if (featureGroupInvalidatedTopic != null) {
+      featureGroupInvalidatedTopic.publish(featureGroupId);
+    }
+  }
+
+  private synchronized void invalidateFeatureViewLocal(Integer featureViewId) {
+    version.incrementAndGet();
+    snapshots.invalidate(featureViewId);
+  }
+
+  private synchronized void invalidateFeatureGroupLocal(Integer featureGroupId) {
+    version.incrementAndGet();
+    snapshots.asMap().values().removeIf(snapshot -> snapshot.getFeatureGroupIds().contains(featureGroupId));
+  }
+
+  long size() {
+    snapshots.cleanUp();
+    return snapshots.estimatedSize();
+  }
+}
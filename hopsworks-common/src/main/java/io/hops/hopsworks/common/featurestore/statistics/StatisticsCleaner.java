@@ -16,6 +16,7 @@
 
 package io.hops.hopsworks.common.featurestore.statistics;
 
+import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultFacade;
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
 import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.common.util.PayaraClusterManager;
@@ -40,7 +41,9 @@ import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -60,6 +63,8 @@ public class StatisticsCleaner {
   @EJB
   private FeatureDescriptiveStatisticsFacade featureDescriptiveStatisticsFacade;
   @EJB
+  private FeatureMonitoringResultFacade featureMonitoringResultFacade;
+  @EJB
   private DistributedFsService dfs;
   @EJB
   private PayaraClusterManager payaraClusterManager;
@@ -94,6 +99,8 @@ public class StatisticsCleaner {
    * This timer accepts a batch size that defines how many feature descriptive statistics are to be deleted par
    * trigger event. For example, if a feature group with 10000 feature descriptive statistics is deleted, the timer
    * can remove the feature descriptive statistics in batches of 1000.
+   * Feature monitoring results older than the configured retention are deleted first, in batches as well, so that
+   * their descriptive statistics are cleaned up in the same run.
    *
    * @param timer
    *   timer
@@ -113,6 +120,7 @@ public class StatisticsCleaner {
       udfso = dfs.getDfsOps();
       
       LOG.log(Level.FINE, "DeleteOrphanStatistics start");
+      deleteExpiredMonitoringResults();
       List<FeatureDescriptiveStatistics> fds =
         featureDescriptiveStatisticsFacade.findOrphaned(new Pair<>(0, batchSize))
             .stream()
@@ -138,6 +146,21 @@ public class StatisticsCleaner {
     LOG.log(Level.FINE, "DeleteOrphanStatistics end");
   }
   
+  private void deleteExpiredMonitoringResults() {
+    int retentionDays = settings.getFeatureMonitoringResultsRetentionDays();
+    if (retentionDays < 0) {
+      return;
+    }
+    Date before = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+    int deleted;
+    do {
+      deleted = featureMonitoringResultFacade.deleteOlderThan(before, batchSize);
+      if (deleted > 0) {
+        LOG.log(Level.INFO, "Deleted " + deleted + " feature monitoring results older than " + before);
+      }
+    } while (deleted == batchSize);
+  }
+  
   private void deleteExtendedStatsFiles(List<FeatureDescriptiveStatistics> fds, DistributedFileSystemOps udfso)
       throws IOException {
     for (FeatureDescriptiveStatistics stats : fds) {
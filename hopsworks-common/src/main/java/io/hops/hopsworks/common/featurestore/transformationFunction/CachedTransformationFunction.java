@@ -0,0 +1,77 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.transformationFunction;
+
+import io.hops.hopsworks.persistence.entity.featurestore.transformationFunction.TransformationFunction;
+
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a transformation function version and its source code, as kept by
+ * {@link TransformationFunctionCache}.
+ */
+public class CachedTransformationFunction {
+
+  private final Integer id;
+  private final String name;
+  private final Integer version;
+  private final String outputType;
+  // sha256 of the source code, functions with the same source share the same string
+  private final String digest;
+  private final String sourceCode;
+
+  CachedTransformationFunction(TransformationFunction transformationFunction, String digest, String sourceCode) {
+    this.id = transformationFunction.getId();
+    this.name = transformationFunction.getName();
+    this.version = transformationFunction.getVersion();
+    this.outputType = transformationFunction.getOutputType();
+    this.digest = digest;
+    this.sourceCode = sourceCode;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Integer getVersion() {
+    return version;
+  }
+
+  public String getOutputType() {
+    return outputType;
+  }
+
+  public String getDigest() {
+    return digest;
+  }
+
+  public String getSourceCode() {
+    return sourceCode;
+  }
+
+  /**
+   * @return true if this entry was cached for the given row, a row with a reused id is a different function
+   */
+  boolean isOf(TransformationFunction transformationFunction) {
+    return Objects.equals(id, transformationFunction.getId())
+        && Objects.equals(name, transformationFunction.getName())
+        && Objects.equals(version, transformationFunction.getVersion());
+  }
+}
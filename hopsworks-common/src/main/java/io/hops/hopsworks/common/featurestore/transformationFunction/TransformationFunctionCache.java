@@ -0,0 +1,174 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.transformationFunction;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.persistence.entity.featurestore.transformationFunction.TransformationFunction;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per node cache of the source code of transformation functions, keyed by the function id and version.
+ * Building a query, resolving serving keys or creating a training dataset reads the source of every transformation
+ * function of the feature view, a hit saves one read from HopsFS per function.
+ * Sources are content addressed: functions with the same source, e.g. the built-in functions registered in every
+ * feature store, share a single copy. Entries are added on registration and evicted on all nodes on delete.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class TransformationFunctionCache {
+
+  private static final String EVICTED_TOPIC_NAME = "transformation_function_evicted";
+  private static final long MAX_FUNCTIONS = 10000;
+  // the files are not changed in place, the expiry only bounds the memory of functions no longer used
+  private static final long EXPIRE_HOURS = 24;
+
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private Cache<Key, CachedTransformationFunction> functions;
+  // digest -> source code, held as long as a function with that source is cached
+  private Cache<String, String> sources;
+  private ITopic<Integer> evictedTopic;
+  private UUID myUUID;
+
+  public TransformationFunctionCache() {
+  }
+
+  // For testing
+  public TransformationFunctionCache(long maxFunctions) {
+    build(maxFunctions);
+  }
+
+  @PostConstruct
+  public void init() {
+    build(MAX_FUNCTIONS);
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      evictedTopic = hazelcastInstance.getTopic(EVICTED_TOPIC_NAME);
+      myUUID = evictedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (evictedTopic != null) {
+      //needed for redeploy to remove the listener
+      evictedTopic.removeMessageListener(myUUID);
+    }
+  }
+
+  private void build(long maxFunctions) {
+    functions = Caffeine.newBuilder()
+        .maximumSize(maxFunctions)
+        .expireAfterAccess(EXPIRE_HOURS, TimeUnit.HOURS)
+        .build();
+    sources = Caffeine.newBuilder()
+        .weakValues()
+        .build();
+  }
+
+  public class MessageListenerImpl implements MessageListener<Integer> {
+    @Override
+    public void onMessage(Message<Integer> message) {
+      if (!message.getPublishingMember().localMember()) {
+        evictLocal(message.getMessageObject());
+      }
+    }
+  }
+
+  /**
+   * @return the cached source of the transformation function or null if it is not cached
+   */
+  public CachedTransformationFunction get(TransformationFunction transformationFunction) {
+    Key key = new Key(transformationFunction.getId(), transformationFunction.getVersion());
+    CachedTransformationFunction cached = functions.getIfPresent(key);
+    if (cached != null && !cached.isOf(transformationFunction)) {
+      functions.invalidate(key);
+      return null;
+    }
+    return cached;
+  }
+
+  public CachedTransformationFunction put(TransformationFunction transformationFunction, String sourceCode) {
+    String digest = DigestUtils.sha256Hex(sourceCode);
+    // keep the copy already cached for this digest so that identical sources are stored once
+    String shared = sources.get(digest, d -> sourceCode);
+    CachedTransformationFunction cached = new CachedTransformationFunction(transformationFunction, digest, shared);
+    functions.put(new Key(transformationFunction.getId(), transformationFunction.getVersion()), cached);
+    return cached;
+  }
+
+  /**
+   * Evict a deleted transformation function on all nodes.
+   */
+  public void evict(Integer transformationFunctionId) {
+    evictLocal(transformationFunctionId);
+    if (evictedTopic != null) {
+      evictedTopic.publish(transformationFunctionId);
+    }
+  }
+
+  private void evictLocal(Integer transformationFunctionId) {
+    functions.asMap().keySet().removeIf(key -> key.id.equals(transformationFunctionId));
+  }
+
+  private static class Key {
+    private final Integer id;
+    private final Integer version;
+
+    private Key(Integer id, Integer version) {
+      this.id = id;
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return id.equals(key.id) && Objects.equals(version, key.version);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * id.hashCode() + (version != null ? version.hashCode() : 0);
+    }
+  }
+}
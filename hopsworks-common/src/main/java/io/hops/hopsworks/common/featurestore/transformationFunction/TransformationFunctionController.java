@@ -71,6 +71,8 @@ public class TransformationFunctionController {
   private FeaturestoreConnectorFacade featurestoreConnectorFacade;
   @EJB
   private Settings settings;
+  @EJB
+  private TransformationFunctionCache transformationFunctionCache;
 
   private static final String TRANSFORMATIONFUNCTIONS_FOLDER = "transformation_functions";
   private static final String TRANSFORMATION_FUNCTION_FILE_TYPE = ".json";
@@ -83,18 +85,29 @@ public class TransformationFunctionController {
     this.transformationFunctionFacade = transformationFunctionFacade;
   }
 
+  // for testing
+  public TransformationFunctionController(TransformationFunctionFacade transformationFunctionFacade,
+                                          TransformationFunctionCache transformationFunctionCache,
+                                          DistributedFsService dfs) {
+    this.transformationFunctionFacade = transformationFunctionFacade;
+    this.transformationFunctionCache = transformationFunctionCache;
+    this.dfs = dfs;
+  }
+
   public TransformationFunction register(Users user, Project project, Featurestore featurestore,
                                          TransformationFunctionDTO transformationFunctionDTO)
       throws FeaturestoreException, IOException {
     verifyTransformationFunctionInput(transformationFunctionDTO);
     create(user, project, featurestore, transformationFunctionDTO);
-    return transformationFunctionFacade.register(
+    TransformationFunction transformationFunction = transformationFunctionFacade.register(
         transformationFunctionDTO.getName(),
         transformationFunctionDTO.getOutputType(),
         transformationFunctionDTO.getVersion(),
         featurestore,
         new Date(),
         user);
+    transformationFunctionCache.put(transformationFunction, transformationFunctionDTO.getSourceCodeContent());
+    return transformationFunction;
   }
 
   public void registerBuiltInTransformationFunctions(Users user, Project project,
@@ -153,15 +166,23 @@ public class TransformationFunctionController {
 
 
 
+  /**
+   * Source code of the transformation function, read from HopsFS only if it is not cached yet.
+   * Access to the feature store is checked by the caller.
+   */
   public String readContent(Users user, Project project, TransformationFunction transformationFunction)
       throws FeaturestoreException {
+    CachedTransformationFunction cached = transformationFunctionCache.get(transformationFunction);
+    if (cached != null) {
+      return cached.getSourceCode();
+    }
     DistributedFileSystemOps udfso = null;
     String path = getFullPath(transformationFunction.getFeaturestore(), transformationFunction.getName(),
         transformationFunction.getVersion()) + "/" + transformationFunction.getName()
         + TRANSFORMATION_FUNCTION_FILE_TYPE;
     try {
       udfso = dfs.getDfsOps(hdfsUsersController.getHdfsUserName(project, user));
-      return udfso.cat(path);
+      return transformationFunctionCache.put(transformationFunction, udfso.cat(path)).getSourceCode();
     } catch (IOException e) {
       throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.TRANSFORMATION_FUNCTION_READ_ERROR,
           Level.WARNING, e.getMessage(), e.getMessage(), e);
@@ -241,6 +262,7 @@ public class TransformationFunctionController {
 
       // delete the record
       transformationFunctionFacade.delete(transformationFunction);
+      transformationFunctionCache.evict(transformationFunction.getId());
 
       // delete json files
       udfso.rm(dirPath, true);
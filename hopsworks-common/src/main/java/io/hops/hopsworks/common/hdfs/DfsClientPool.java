@@ -0,0 +1,249 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.hdfs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keyed pool of file system clients, one key per hdfs user. A released client is kept idle and handed out again to
+ * the next caller of the same user instead of creating a new client and connection.
+ * Every borrow gets its own handle of the pooled client. Only the first close of a handle releases the client, so a
+ * caller closing twice cannot return a client that was lent to another caller in the meantime.
+ * The pool never blocks a caller: when the bounds are reached clients are still created but closed on release.
+ * Clients kept out longer than the leak threshold are logged and no longer counted as borrowed.
+ * Closing a handle releases it at the current system time, the other methods take the current time in
+ * milliseconds from the caller.
+ */
+public class DfsClientPool {
+
+  private static final Logger LOGGER = Logger.getLogger(DfsClientPool.class.getName());
+
+  private final int maxIdlePerUser;
+  private final int maxIdle;
+  private final long idleTimeoutMillis;
+  private final long leakThresholdMillis;
+  private final Consumer<DistributedFileSystemOps> destroyer;
+
+  // user -> idle clients, the most recently released first
+  private final Map<String, Deque<Idle>> idle = new HashMap<>();
+  // handle -> borrow of the pooled client
+  private final Map<DistributedFileSystemOps, Borrowed> borrowed = new IdentityHashMap<>();
+  private int idleCount = 0;
+
+  private long created = 0;
+  private long reused = 0;
+  private long evicted = 0;
+  private long leaked = 0;
+
+  /**
+   * @param destroyer closes a client for good, when it is evicted or not kept on release
+   */
+  public DfsClientPool(int maxIdlePerUser, int maxIdle, long idleTimeoutMillis, long leakThresholdMillis,
+      Consumer<DistributedFileSystemOps> destroyer) {
+    this.maxIdlePerUser = maxIdlePerUser;
+    this.maxIdle = maxIdle;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.leakThresholdMillis = leakThresholdMillis;
+    this.destroyer = destroyer;
+  }
+
+  /**
+   * @param factory creates a new client for the user if none is idle, outside of the pool lock
+   * @return a handle of a client for the user, closing it returns the client to the pool
+   */
+  public DistributedFileSystemOps borrow(String user, Supplier<DistributedFileSystemOps> factory, long now) {
+    DistributedFileSystemOps client;
+    synchronized (this) {
+      client = pollIdle(user);
+      if (client != null) {
+        reused++;
+        return lend(client, user, now);
+      }
+    }
+    client = factory.get();
+    if (client == null) {
+      return null;
+    }
+    synchronized (this) {
+      created++;
+      return lend(client, user, now);
+    }
+  }
+
+  private DistributedFileSystemOps lend(DistributedFileSystemOps client, String user, long now) {
+    AtomicBoolean released = new AtomicBoolean();
+    DistributedFileSystemOps handle = new DistributedFileSystemOps(client, h -> {
+      if (released.compareAndSet(false, true)) {
+        release(h, System.currentTimeMillis());
+      }
+    });
+    borrowed.put(handle, new Borrowed(client, user, now, Thread.currentThread().getName()));
+    return handle;
+  }
+
+  /**
+   * Return the client of a handle to the pool. It is closed if the pool is full or the handle is no longer counted
+   * as borrowed. Closing the handle calls this once, calling it directly again closes the client.
+   */
+  public void release(DistributedFileSystemOps handle, long now) {
+    Borrowed borrow;
+    synchronized (this) {
+      borrow = borrowed.remove(handle);
+      if (borrow != null && idleCount < maxIdle) {
+        Deque<Idle> userIdle = idle.computeIfAbsent(borrow.user, k -> new ArrayDeque<>());
+        if (userIdle.size() < maxIdlePerUser) {
+          userIdle.push(new Idle(borrow.client, now));
+          idleCount++;
+          return;
+        }
+      }
+    }
+    // a handle that is not borrowed anymore was leaked or cleared, the pool does not know its client
+    destroyer.accept(borrow != null ? borrow.client : handle);
+  }
+
+  /**
+   * Close the clients idle for longer than the idle timeout and log the clients borrowed for longer than the leak
+   * threshold.
+   */
+  public void maintain(long now) {
+    List<DistributedFileSystemOps> expired = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Deque<Idle>> users = idle.values().iterator();
+      while (users.hasNext()) {
+        Deque<Idle> userIdle = users.next();
+        // the oldest clients are at the end
+        while (!userIdle.isEmpty() && now - userIdle.peekLast().since >= idleTimeoutMillis) {
+          expired.add(userIdle.pollLast().client);
+        }
+        if (userIdle.isEmpty()) {
+          users.remove();
+        }
+      }
+      idleCount -= expired.size();
+      evicted += expired.size();
+
+      Iterator<Map.Entry<DistributedFileSystemOps, Borrowed>> it = borrowed.entrySet().iterator();
+      while (it.hasNext()) {
+        Borrowed borrow = it.next().getValue();
+        if (now - borrow.since >= leakThresholdMillis) {
+          // a late release closes the client instead of pooling it
+          it.remove();
+          leaked++;
+          LOGGER.log(Level.WARNING, "File system client of {0} borrowed by thread {1} was not closed after {2} ms",
+              new Object[]{borrow.user, borrow.thread, now - borrow.since});
+        }
+      }
+    }
+    expired.forEach(destroyer);
+  }
+
+  /**
+   * Close all the idle clients, borrowed clients are closed when released.
+   */
+  public void clear() {
+    List<DistributedFileSystemOps> clients = new ArrayList<>();
+    synchronized (this) {
+      idle.values().forEach(userIdle -> userIdle.forEach(i -> clients.add(i.client)));
+      idle.clear();
+      borrowed.clear();
+      idleCount = 0;
+    }
+    clients.forEach(destroyer);
+  }
+
+  private DistributedFileSystemOps pollIdle(String user) {
+    Deque<Idle> userIdle = idle.get(user);
+    if (userIdle == null) {
+      return null;
+    }
+    Idle i = userIdle.poll();
+    if (userIdle.isEmpty()) {
+      idle.remove(user);
+    }
+    if (i == null) {
+      return null;
+    }
+    idleCount--;
+    return i.client;
+  }
+
+  public synchronized int getIdle() {
+    return idleCount;
+  }
+
+  public synchronized int getBorrowed() {
+    return borrowed.size();
+  }
+
+  public synchronized long getCreated() {
+    return created;
+  }
+
+  public synchronized long getReused() {
+    return reused;
+  }
+
+  public synchronized long getEvicted() {
+    return evicted;
+  }
+
+  public synchronized long getLeaked() {
+    return leaked;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "DfsClientPool{idle=" + idleCount + ", borrowed=" + borrowed.size() + ", created=" + created
+        + ", reused=" + reused + ", evicted=" + evicted + ", leaked=" + leaked + "}";
+  }
+
+  private static class Idle {
+    private final DistributedFileSystemOps client;
+    private final long since;
+
+    private Idle(DistributedFileSystemOps client, long since) {
+      this.client = client;
+      this.since = since;
+    }
+  }
+
+  private static class Borrowed {
+    private final DistributedFileSystemOps client;
+    private final String user;
+    private final long since;
+    private final String thread;
+
+    private Borrowed(DistributedFileSystemOps client, String user, long since, String thread) {
+      this.client = client;
+      this.user = user;
+      this.since = since;
+      this.thread = thread;
+    }
+  }
+}
@@ -46,9 +46,11 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.security.PrivilegedExceptionAction;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -61,6 +63,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Options;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.XAttrSetFlag;
 import org.apache.hadoop.fs.permission.AclEntry;
 import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.hdfs.DistributedFileSystem;
@@ -76,6 +79,8 @@ public class DistributedFileSystemOps {
   private final DistributedFileSystem dfs;
   private Configuration conf;
   private final String effectiveUser;
+  // set when this is the handle of a DfsClientPool client for one borrow, close returns the client to the pool
+  private Consumer<DistributedFileSystemOps> releaser;
 
   public enum StoragePolicy {
     CLOUD("CLOUD"),
@@ -119,6 +124,17 @@ public class DistributedFileSystemOps {
   public DistributedFileSystemOps(UserGroupInformation ugi, Configuration conf) {
     this(ugi, conf, null);
   }
+
+  /**
+   * A handle of a pooled client for a single borrow. It shares the file system of the client, closing it passes the
+   * handle to releaser.
+   */
+  DistributedFileSystemOps(DistributedFileSystemOps client, Consumer<DistributedFileSystemOps> releaser) {
+    this.dfs = client.getFilesystem();
+    this.conf = client.getConf();
+    this.effectiveUser = client.getEffectiveUser();
+    this.releaser = releaser;
+  }
   
   private DistributedFileSystem getDfs(UserGroupInformation ugi,
           final Configuration conf, final URI uri) {
@@ -619,10 +635,22 @@ public class DistributedFileSystemOps {
     setMetaStatus(path, status);
   }
 
+  boolean isPooled() {
+    return releaser != null;
+  }
+
   /**
-   * Closes the distributed file system.
+   * Closes the distributed file system, or returns it to the pool it was borrowed from.
    */
   public void close() {
+    if (releaser != null) {
+      releaser.accept(this);
+    } else {
+      closeFileSystem();
+    }
+  }
+
+  void closeFileSystem() {
     try {
       dfs.close();
     } catch (IOException ex) {
@@ -671,6 +699,21 @@ public class DistributedFileSystemOps {
     dfs.setXAttr(path,  name, value);
   }
   
+  /**
+   * Attach an extended attribute with a name to a file/directory in the given
+   * path. With {@link XAttrSetFlag#CREATE} the call fails if the attribute
+   * already exists, with {@link XAttrSetFlag#REPLACE} if it does not.
+   * @param path
+   * @param name
+   * @param value
+   * @param flag
+   * @throws IOException
+   */
+  public void setXAttr(Path path, String name, byte[] value, EnumSet<XAttrSetFlag> flag)
+      throws IOException {
+    dfs.setXAttr(path, name, value, flag);
+  }
+  
   /**
    * Remove an extended attribute using its name from a given file/directory.
    * @param path
@@ -0,0 +1,110 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.hdfs;
+
+import io.hops.hopsworks.common.security.BaseHadoopClientsService;
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per node pool of the file system clients handed out by {@link DistributedFsService}. Closing a pooled client,
+ * directly or through {@link DistributedFsService#closeDfsClient(DistributedFileSystemOps)}, returns it to the pool.
+ * Idle clients are closed by a timer, together with their user certificates when RPC TLS is enabled.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class DistributedFsClientPool {
+
+  private static final Logger LOGGER = Logger.getLogger(DistributedFsClientPool.class.getName());
+  private static final int MAX_IDLE_PER_USER = 4;
+  private static final int MAX_IDLE = 512;
+  private static final long IDLE_TIMEOUT_MS = 60 * 1000L;
+  private static final long LEAK_THRESHOLD_MS = 30 * 60 * 1000L;
+  private static final long MAINTENANCE_INTERVAL_MS = 30 * 1000L;
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private BaseHadoopClientsService bhcs;
+  @Resource
+  private TimerService timerService;
+  private Timer timer;
+
+  private DfsClientPool pool;
+
+  public DistributedFsClientPool() {
+  }
+
+  @PostConstruct
+  public void init() {
+    pool = new DfsClientPool(MAX_IDLE_PER_USER, MAX_IDLE, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS, this::close);
+    timer = timerService.createIntervalTimer(MAINTENANCE_INTERVAL_MS, MAINTENANCE_INTERVAL_MS,
+        new TimerConfig("File system client pool maintenance", false));
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (timer != null) {
+      timer.cancel();
+    }
+    pool.clear();
+  }
+
+  /**
+   * @param user the effective user of the client
+   * @param factory creates a new client when none of the user is idle
+   */
+  public DistributedFileSystemOps borrow(String user, Supplier<DistributedFileSystemOps> factory) {
+    return pool.borrow(user, factory, System.currentTimeMillis());
+  }
+
+  @Timeout
+  public void maintain() {
+    pool.maintain(System.currentTimeMillis());
+    LOGGER.log(Level.FINE, "{0}", pool);
+  }
+
+  public DfsClientPool getPool() {
+    return pool;
+  }
+
+  private void close(DistributedFileSystemOps client) {
+    if (settings.getHopsRpcTls()) {
+      // no-op for the super user, it has no project specific certificate
+      bhcs.removeNonSuperUserCertificate(client.getEffectiveUser());
+    }
+    client.closeFileSystem();
+  }
+}
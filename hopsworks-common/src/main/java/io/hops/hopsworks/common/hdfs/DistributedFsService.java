@@ -93,6 +93,8 @@ public class DistributedFsService {
   private Settings settings;
   @EJB
   private BaseHadoopClientsService bhcs;
+  @EJB
+  private DistributedFsClientPool dfsClientPool;
 
   private Configuration conf;
   private String hadoopConfDir;
@@ -147,11 +149,15 @@ public class DistributedFsService {
   }
 
   /**
-   * creates a new distributed file system operations with the super user
+   * distributed file system operations with the super user, reused from the pool if one is idle
    * <p>
    * @return DistributedFileSystemOps
    */
   public DistributedFileSystemOps getDfsOps() {
+    return dfsClientPool.borrow(loginUser.getUserName(), this::createDfsOps);
+  }
+
+  private DistributedFileSystemOps createDfsOps() {
     if (settings.getHopsRpcTls()) {
       Configuration newConf = new Configuration(conf);
   
@@ -194,7 +200,7 @@ public class DistributedFsService {
   }
   
   /**
-   * Returns the user specific distributed file system operations
+   * Returns the user specific distributed file system operations, reused from the pool if one is idle
    * <p>
    * @param username
    * @return
@@ -203,6 +209,10 @@ public class DistributedFsService {
     if (username == null || username.isEmpty()) {
       throw new IllegalArgumentException("username not provided.");
     }
+    return dfsClientPool.borrow(username, () -> createDfsOps(username));
+  }
+
+  private DistributedFileSystemOps createDfsOps(String username) {
     UserGroupInformation ugi;
     try {
       ugi = UserGroupInformation.createProxyUser(username, UserGroupInformation.
@@ -233,6 +243,11 @@ public class DistributedFsService {
 
   public void closeDfsClient(DistributedFileSystemOps udfso) {
     if (null != udfso) {
+      if (udfso.isPooled()) {
+        // certificates are removed when the pool closes the client
+        udfso.close();
+        return;
+      }
       if (settings.getHopsRpcTls()
           && !udfso.getEffectiveUser().equals(loginUser.getUserName())) {
         bhcs.removeNonSuperUserCertificate(udfso.getEffectiveUser());
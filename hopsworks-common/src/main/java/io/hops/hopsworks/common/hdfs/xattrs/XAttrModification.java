@@ -0,0 +1,34 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.hdfs.xattrs;
+
+import java.util.Map;
+
+/**
+ * Read/modify/write of the extended attributes of one path, see {@link XAttrsController#modifyXAttrs}. If the path is
+ * modified concurrently the modification is applied again to the new attributes, so it should not have side effects
+ * that cannot be repeated.
+ *
+ * @param <E> the exception the modification can fail with
+ */
+public interface XAttrModification<E extends Exception> {
+  
+  /**
+   * @param current the attributes of the namespace on the path, by name without the namespace
+   * @return the attributes to write, by name. A null value removes the attribute.
+   */
+  Map<String, byte[]> apply(Map<String, byte[]> current) throws E;
+}
@@ -28,6 +28,7 @@ import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.restutils.RESTCodes;
 import org.apache.commons.io.Charsets;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.XAttrSetFlag;
 import org.apache.hadoop.ipc.RemoteException;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -37,11 +38,16 @@ import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @Stateless(name = "XAttrsController")
 @TransactionAttribute(TransactionAttributeType.NEVER)
@@ -49,6 +55,10 @@ public class XAttrsController {
 
   public final static String XATTR_USER_NAMESPACE = "user.";
   public final static String XATTR_PROV_NAMESPACE = "provenance.";
+  
+  private static final Logger LOGGER = Logger.getLogger(XAttrsController.class.getName());
+  // How often a read/modify/write is retried when the attributes change underneath it
+  private static final int XATTR_MODIFY_ATTEMPTS = 3;
 
   @EJB
   private InodeController inodeController;
@@ -83,9 +93,40 @@ public class XAttrsController {
     }
 
     String metadata = metaJSON.getString(name);
-    boolean created = getXAttr(project, user, inodePath, XATTR_USER_NAMESPACE, name) == null;
-    addXAttrInt(project, user, inodePath, name, metadata);
-    return created;
+    return !addXAttrInt(project, user, inodePath, name, metadata);
+  }
+  
+  /**
+   * Sets every attribute of a json object on a path, reading the attributes of the path once.
+   *
+   * @return for each attribute set, whether it did not exist before
+   */
+  public Map<String, Boolean> addXAttrs(Project project, Users user, String inodePath, String metaObj)
+    throws DatasetException, MetadataException {
+    Object json = new JSONTokener(metaObj).nextValue();
+    if (!(json instanceof JSONObject) || ((JSONObject) json).length() == 0) {
+      throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_MISSING_FIELD, Level.FINE);
+    }
+    JSONObject metaJSON = (JSONObject) json;
+    Map<String, byte[]> values = new HashMap<>();
+    for (String name : metaJSON.keySet()) {
+      if (name.isEmpty()) {
+        throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_MISSING_FIELD, Level.FINE);
+      }
+      values.put(name, metaJSON.getString(name).getBytes(Charsets.UTF_8));
+    }
+    String path = validatePath(inodePath);
+    DistributedFileSystemOps udfso = getDFS(project, user);
+    try {
+      Map<String, byte[]> previous = modifyXAttrs(udfso, XATTR_USER_NAMESPACE, path, current -> values);
+      Map<String, Boolean> created = new HashMap<>();
+      values.keySet().forEach(name -> created.put(name, !previous.containsKey(name)));
+      return created;
+    } finally {
+      if (udfso != null) {
+        dfs.closeDfsClient(udfso);
+      }
+    }
   }
 
   public void addStrXAttr(String path, String name, String value, DistributedFileSystemOps udfso)
@@ -113,6 +154,70 @@ public class XAttrsController {
     return getXAttrsInt(path, udfso);
   }
   
+  /**
+   * Reads the attributes of a namespace on many paths, with one call to the NameNode per path.
+   *
+   * @return the attributes of each path by name without the namespace
+   */
+  public Map<String, Map<String, byte[]>> getXAttrs(DistributedFileSystemOps udfso, String namespace,
+    Collection<String> paths) throws MetadataException, DatasetException {
+    Map<String, Map<String, byte[]>> result = new HashMap<>();
+    for (String path : paths) {
+      result.put(path, getXAttrsInt(udfso, path, namespace));
+    }
+    return result;
+  }
+  
+  /**
+   * Read/modify/write of the attributes of a namespace on many paths. The attributes of each path are read once and
+   * only the attributes returned by its modification are written. If another writer creates or removes one of them in
+   * the meantime, the attributes are read again and the modification is applied to them, up to
+   * {@value #XATTR_MODIFY_ATTEMPTS} times. Paths are modified one after the other, a failure leaves the paths before
+   * it modified.
+   *
+   * @param modifications by path
+   * @return the attributes of each path before it was modified, by name without the namespace
+   */
+  public <E extends Exception> Map<String, Map<String, byte[]>> modifyXAttrs(DistributedFileSystemOps udfso,
+    String namespace, Map<String, ? extends XAttrModification<E>> modifications)
+    throws MetadataException, DatasetException, E {
+    Map<String, Map<String, byte[]>> previous = new HashMap<>();
+    for (Map.Entry<String, ? extends XAttrModification<E>> modification : modifications.entrySet()) {
+      previous.put(modification.getKey(),
+        modifyXAttrs(udfso, namespace, modification.getKey(), modification.getValue()));
+    }
+    return previous;
+  }
+  
+  private <E extends Exception> Map<String, byte[]> modifyXAttrs(DistributedFileSystemOps udfso, String namespace,
+    String path, XAttrModification<E> modification) throws MetadataException, DatasetException, E {
+    for (int attempt = 1; attempt <= XATTR_MODIFY_ATTEMPTS; attempt++) {
+      Map<String, byte[]> current = getXAttrsInt(udfso, path, namespace);
+      Map<String, byte[]> changes = modification.apply(Collections.unmodifiableMap(current));
+      boolean conflict = false;
+      for (Map.Entry<String, byte[]> change : changes.entrySet()) {
+        String name = change.getKey();
+        if (change.getValue() == null) {
+          conflict = current.containsKey(name) && !removeXAttrIfExists(udfso, path, namespace, name);
+        } else {
+          EnumSet<XAttrSetFlag> flag = EnumSet.of(current.containsKey(name) ? XAttrSetFlag.REPLACE :
+            XAttrSetFlag.CREATE);
+          conflict = !setXAttrInt(udfso, path, namespace, name, change.getValue(), flag);
+        }
+        if (conflict) {
+          LOGGER.log(Level.FINE, "xattr {0}{1} of {2} changed concurrently, attempt {3}",
+            new Object[]{namespace, name, path, attempt});
+          break;
+        }
+      }
+      if (!conflict) {
+        return current;
+      }
+    }
+    throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_CONFLICT, Level.FINE, path,
+      "xattrs of " + path + " kept changing during " + XATTR_MODIFY_ATTEMPTS + " attempts");
+  }
+  
   public boolean removeXAttr(Users user, DatasetPath path, String name) throws MetadataException, DatasetException {
     return removeXAttr(path.getAccessProject(), user, path.getFullPath().toString(), name);
   }
@@ -122,32 +227,26 @@ public class XAttrsController {
     if(name == null || name.isEmpty())
       throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_MISSING_FIELD, Level.FINE);
 
-    boolean found = getXAttr(project, user, inodePath, XATTR_USER_NAMESPACE, name) != null;
-    if(found){
-      removeXAttrInt(project, user, inodePath, name);
-    }
-    return found;
-  }
-
-  private void addXAttrInt(Project project, Users user, String inodePath, String name, String metadataJson)
-    throws DatasetException, MetadataException {
     String path = validatePath(inodePath);
     DistributedFileSystemOps udfso = getDFS(project, user);
     try {
-      addXAttrInt(udfso, path, XATTR_USER_NAMESPACE, name, metadataJson.getBytes(Charsets.UTF_8));
+      return removeXAttrIfExists(udfso, path, XATTR_USER_NAMESPACE, name);
     } finally {
       if (udfso != null) {
         dfs.closeDfsClient(udfso);
       }
     }
   }
-  
-  private void removeXAttrInt(Project project, Users user, String inodePath, String name)
-    throws MetadataException, DatasetException {
+
+  /**
+   * @return true if the attribute existed before
+   */
+  private boolean addXAttrInt(Project project, Users user, String inodePath, String name, String metadataJson)
+    throws DatasetException, MetadataException {
     String path = validatePath(inodePath);
     DistributedFileSystemOps udfso = getDFS(project, user);
     try {
-      removeXAttrInt(udfso, path, XATTR_USER_NAMESPACE, name);
+      return upsertXAttrInt(udfso, path, XATTR_USER_NAMESPACE, name, metadataJson.getBytes(Charsets.UTF_8));
     } finally {
       if (udfso != null) {
         dfs.closeDfsClient(udfso);
@@ -209,6 +308,24 @@ public class XAttrsController {
     }
   }
 
+  private Map<String, byte[]> getXAttrsInt(DistributedFileSystemOps udfso, String path, String namespace)
+    throws MetadataException, DatasetException {
+    try {
+      Map<String, byte[]> result = new HashMap<>();
+      for (Map.Entry<String, byte[]> e : udfso.getXAttrs(new Path(path)).entrySet()) {
+        if (e.getValue() != null && e.getKey().startsWith(namespace)) {
+          result.put(e.getKey().substring(namespace.length()), e.getValue());
+        }
+      }
+      return result;
+    } catch (FileNotFoundException e) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.INODE_NOT_FOUND, Level.FINE,
+        "file " + path + " doesn't exist", e.getMessage(), e);
+    } catch (IOException e) {
+      throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_ERROR, Level.SEVERE, path, e.getMessage(), e);
+    }
+  }
+
   private Map<String, String> getXAttrsInt(String path, DistributedFileSystemOps udfso) throws MetadataException {
     try {
       Map<String, String> result = new HashMap<>();
@@ -228,10 +345,42 @@ public class XAttrsController {
 
   private void addXAttrInt(DistributedFileSystemOps udfso, String path, String namespace, String name, byte[] value)
     throws MetadataException {
+    setXAttrInt(udfso, path, namespace, name, value, EnumSet.of(XAttrSetFlag.CREATE, XAttrSetFlag.REPLACE));
+  }
+  
+  /**
+   * Sets the attribute without reading it first, usually with a single call to the NameNode.
+   *
+   * @return true if the attribute existed before
+   */
+  private boolean upsertXAttrInt(DistributedFileSystemOps udfso, String path, String namespace, String name,
+    byte[] value) throws MetadataException {
+    for (int attempt = 1; attempt <= XATTR_MODIFY_ATTEMPTS; attempt++) {
+      if (setXAttrInt(udfso, path, namespace, name, value, EnumSet.of(XAttrSetFlag.CREATE))) {
+        return false;
+      }
+      // Exists, unless it is removed before we replace it
+      if (setXAttrInt(udfso, path, namespace, name, value, EnumSet.of(XAttrSetFlag.REPLACE))) {
+        return true;
+      }
+    }
+    throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_CONFLICT, Level.FINE, path,
+      "xattr " + namespace + name + " of " + path + " kept changing during " + XATTR_MODIFY_ATTEMPTS + " attempts");
+  }
+  
+  /**
+   * @return false if the attribute existed and the flag was CREATE, or did not exist and the flag was REPLACE
+   */
+  private boolean setXAttrInt(DistributedFileSystemOps udfso, String path, String namespace, String name, byte[] value,
+    EnumSet<XAttrSetFlag> flag) throws MetadataException {
     try {
-      udfso.setXAttr(new Path(path), getXAttrName(namespace, name), value);
+      udfso.setXAttr(new Path(path), getXAttrName(namespace, name), value, flag);
+      return true;
     } catch(RemoteException e) {
-      if(e.getClassName().equals("org.apache.hadoop.HadoopIllegalArgumentException")
+      if(e.getClassName().equals("java.io.IOException")
+        && e.getMessage() != null && e.getMessage().contains("flag must be specified")) {
+        return false;
+      } else if(e.getClassName().equals("org.apache.hadoop.HadoopIllegalArgumentException")
         && e.getMessage().startsWith("The XAttr value is too big.")) {
         throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_MAX_SIZE_EXCEEDED, Level.FINE, e);
       } else if(e.getClassName().equals("java.io.IOException")
@@ -254,6 +403,27 @@ public class XAttrsController {
         Level.SEVERE, path, e.getMessage(), e);
     }
   }
+  
+  /**
+   * @return false if there was no such attribute
+   */
+  private boolean removeXAttrIfExists(DistributedFileSystemOps udfso, String path, String namespace, String name)
+    throws MetadataException {
+    try {
+      udfso.removeXAttr(new Path(path), getXAttrName(namespace, name));
+      return true;
+    } catch (RemoteException e) {
+      if(e.getClassName().equals("java.io.IOException")
+        && e.getMessage() != null && e.getMessage().startsWith("No matching attributes found")) {
+        return false;
+      }
+      throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_ERROR,
+        Level.SEVERE, path, e.getMessage(), e);
+    } catch (IOException e) {
+      throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_ERROR,
+        Level.SEVERE, path, e.getMessage(), e);
+    }
+  }
 
   private String validatePath(String path)
       throws MetadataException, DatasetException {
@@ -308,9 +478,24 @@ public class XAttrsController {
       throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_MISSING_FIELD, Level.FINE);
     }
     String path = validatePath(inodePath);
-    boolean hasPrevious = (getXAttrInt(udfso, path, XATTR_PROV_NAMESPACE, name) != null);
+    return upsertXAttrInt(udfso, path, XATTR_PROV_NAMESPACE, name, value);
+  }
+  
+  /**
+   * Sets a provenance attribute whether or not it exists, with a single call to the NameNode.
+   */
+  public void setProvXAttr(DistributedFileSystemOps udfso, String inodePath, String name, byte[] value)
+    throws MetadataException, DatasetException {
+    if (name == null || name.isEmpty()) {
+      throw new MetadataException(RESTCodes.MetadataErrorCode.METADATA_MISSING_FIELD, Level.FINE);
+    }
+    String path = validatePath(inodePath);
     addXAttrInt(udfso, path, XATTR_PROV_NAMESPACE, name, value);
-    return hasPrevious;
+  }
+  
+  public <E extends Exception> Map<String, Map<String, byte[]>> modifyProvXAttrs(DistributedFileSystemOps udfso,
+    Map<String, ? extends XAttrModification<E>> modifications) throws MetadataException, DatasetException, E {
+    return modifyXAttrs(udfso, XATTR_PROV_NAMESPACE, modifications);
   }
   
   public void removeProvXAttr(DistributedFileSystemOps udfso, String inodePath, String name)
@@ -24,6 +24,11 @@ public class JobLogDTO {
   private String path;
   private LogType type;
   private Retriable retriable;
+  private Long offset;
+  private Long nextOffset;
+  private Long nextLine;
+  private Long size;
+  private Boolean complete;
   
   public JobLogDTO() {
   }
@@ -64,6 +69,46 @@ public class JobLogDTO {
     this.retriable = retriable;
   }
   
+  public Long getOffset() {
+    return offset;
+  }
+  
+  public void setOffset(Long offset) {
+    this.offset = offset;
+  }
+  
+  public Long getNextOffset() {
+    return nextOffset;
+  }
+  
+  public void setNextOffset(Long nextOffset) {
+    this.nextOffset = nextOffset;
+  }
+  
+  public Long getNextLine() {
+    return nextLine;
+  }
+  
+  public void setNextLine(Long nextLine) {
+    this.nextLine = nextLine;
+  }
+  
+  public Long getSize() {
+    return size;
+  }
+  
+  public void setSize(Long size) {
+    this.size = size;
+  }
+  
+  public Boolean getComplete() {
+    return complete;
+  }
+  
+  public void setComplete(Boolean complete) {
+    this.complete = complete;
+  }
+  
   public enum LogType {
     OUT("out"),
     ERR("err");
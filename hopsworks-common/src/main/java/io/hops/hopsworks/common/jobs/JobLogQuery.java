@@ -0,0 +1,83 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jobs;
+
+/**
+ * Which part of a job log to return. Exactly one of the three read modes is used: tail (last n lines), line
+ * (lines after a line offset) or byte range (the default, starting at offset 0). A negative offset is relative to the
+ * end of the file. The filter, if set, is a text lines must contain to be returned.
+ */
+public class JobLogQuery {
+  
+  private final Long offset;
+  private final Long length;
+  private final Long lineOffset;
+  private final Integer lineLimit;
+  private final Integer tail;
+  private final String filter;
+  private final boolean follow;
+  
+  public JobLogQuery(Long offset, Long length, Long lineOffset, Integer lineLimit, Integer tail, String filter,
+    boolean follow) {
+    this.offset = offset;
+    this.length = length;
+    this.lineOffset = lineOffset;
+    this.lineLimit = lineLimit;
+    this.tail = tail;
+    this.filter = filter;
+    this.follow = follow;
+  }
+  
+  public static JobLogQuery defaultQuery() {
+    return new JobLogQuery(null, null, null, null, null, null, false);
+  }
+  
+  public Long getOffset() {
+    return offset;
+  }
+  
+  public Long getLength() {
+    return length;
+  }
+  
+  public Long getLineOffset() {
+    return lineOffset;
+  }
+  
+  public Integer getLineLimit() {
+    return lineLimit;
+  }
+  
+  public Integer getTail() {
+    return tail;
+  }
+  
+  public String getFilter() {
+    return filter;
+  }
+  
+  public boolean isFollow() {
+    return follow;
+  }
+  
+  public boolean isTail() {
+    return tail != null;
+  }
+  
+  public boolean isLineRange() {
+    return lineOffset != null || lineLimit != null;
+  }
+}
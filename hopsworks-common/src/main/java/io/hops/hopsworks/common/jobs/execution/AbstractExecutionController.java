@@ -29,6 +29,7 @@ import io.hops.hopsworks.common.hdfs.HdfsUsersController;
 import io.hops.hopsworks.common.hdfs.Utils;
 import io.hops.hopsworks.common.hdfs.inode.InodeController;
 import io.hops.hopsworks.common.jobs.JobLogDTO;
+import io.hops.hopsworks.common.jobs.JobLogQuery;
 import io.hops.hopsworks.common.jobs.flink.FlinkController;
 import io.hops.hopsworks.common.jobs.spark.SparkController;
 import io.hops.hopsworks.common.jobs.yarn.YarnExecutionFinalizer;
@@ -68,7 +69,6 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
@@ -268,21 +268,24 @@ public abstract class AbstractExecutionController implements ExecutionController
   //====================================================================================================================
   @Override
   public JobLogDTO getLog(Execution execution, JobLogDTO.LogType type) throws JobException {
-    if (!execution.getState().isFinalState()) {
-      throw new JobException(RESTCodes.JobErrorCode.JOB_EXECUTION_INVALID_STATE, Level.FINE, "Job still running.");
-    }
+    return getLog(execution, type, JobLogQuery.defaultQuery());
+  }
+  
+  @Override
+  public JobLogDTO getLog(Execution execution, JobLogDTO.LogType type, JobLogQuery query) throws JobException {
+    String filter = validateLogQuery(query);
+    boolean running = !execution.getState().isFinalState();
     
     JobLogDTO dto = new JobLogDTO(type);
     DistributedFileSystemOps dfso = null;
     try {
       dfso = dfs.getDfsOps();
-      String message;
       String stdPath;
       String path = (dto.getType() == JobLogDTO.LogType.OUT ? execution.getStdoutPath() : execution.getStderrPath());
       JobLogDTO.Retriable retriable = (dto.getType() == JobLogDTO.LogType.OUT ? JobLogDTO.Retriable.RETRIEABLE_OUT :
         JobLogDTO.Retriable.RETRIABLE_ERR);
-      boolean status = (dto.getType() != JobLogDTO.LogType.OUT || execution.getFinalStatus().equals(JobFinalStatus
-        .SUCCEEDED));
+      boolean status = !running && (dto.getType() != JobLogDTO.LogType.OUT || execution.getFinalStatus().equals(
+        JobFinalStatus.SUCCEEDED));
       String hdfsPath = REMOTE_PROTOCOL + path;
       if (!Strings.isNullOrEmpty(path) && dfso.exists(hdfsPath)) {
         Project project = execution.getJob().getProject();
@@ -291,25 +294,38 @@ public abstract class AbstractExecutionController implements ExecutionController
         String stdDirPath = stdPath.substring(0, fileIndex);
         dto.setPath(Settings.DIR_ROOT + File.separator + project.getName() + stdDirPath + File.separator +  "std" +
           dto.getType().getName().toLowerCase() + ".log");
-        if (dfso.listStatus(new org.apache.hadoop.fs.Path(hdfsPath))[0].getLen() > Settings.JOB_LOGS_DISPLAY_SIZE) {
-          dto.setLog("Log is too big to display in browser. Click on the download button to get the log file.");
-        } else {
-          try (InputStream input = dfso.open(hdfsPath)) {
-            message = IOUtils.toString(input, "UTF-8");
-          }
-          dto.setLog(message.isEmpty() ? "No information." : message);
-          if (message.isEmpty() && execution.getState().isFinalState() && execution.getAppId() != null && status) {
+        org.apache.hadoop.fs.Path logPath = new org.apache.hadoop.fs.Path(hdfsPath);
+        long size = dfso.getFileStatus(logPath).getLen();
+        if (running && query.isFollow() && !query.isTail() && !query.isLineRange()) {
+          // the client goes back to the pool while waiting
+          dfso.close();
+          dfso = null;
+          size = waitForLog(logPath, size, resolveLogOffset(query, size));
+          dfso = dfs.getDfsOps();
+        }
+        JobLogReader.Chunk chunk = readLog(dfso, hdfsPath, size, query, filter, running);
+        dto.setLog(chunk.getLog());
+        dto.setOffset(chunk.getOffset());
+        dto.setNextOffset(chunk.getNextOffset());
+        dto.setNextLine(chunk.getNextLine() < 0 ? null : chunk.getNextLine());
+        dto.setSize(size);
+        dto.setComplete(!running && chunk.isEnd());
+        if (size == 0) {
+          dto.setLog(running ? "" : "No information.");
+          if (status && execution.getAppId() != null) {
             dto.setRetriable(retriable);
           }
         }
       } else {
         String logMsg = "No log available.";
-        if ( execution.getJob().getJobType() == JobType.PYTHON){
+        if (running) {
+          dto.setLog(logMsg + " The execution is still running.");
+        } else if ( execution.getJob().getJobType() == JobType.PYTHON){
           logMsg+= " If job failed instantaneously, please check again later or try running the job again. Log " +
             "aggregation can take a few minutes to complete.";
           dto.setLog(logMsg);
         }
-        if (execution.getState().isFinalState() && execution.getAppId() != null && status) {
+        if (status && execution.getAppId() != null) {
           dto.setRetriable(retriable);
         }
       }
@@ -324,6 +340,85 @@ public abstract class AbstractExecutionController implements ExecutionController
     return dto;
   }
   
+  private String validateLogQuery(JobLogQuery query) throws JobException {
+    if (query.getLength() != null && query.getLength() <= 0) {
+      throw new JobException(RESTCodes.JobErrorCode.JOB_LOG, Level.FINE, "Length must be positive.");
+    }
+    if (query.getLineOffset() != null && query.getLineOffset() < 0) {
+      throw new JobException(RESTCodes.JobErrorCode.JOB_LOG, Level.FINE, "Line offset cannot be negative.");
+    }
+    if (query.getLineLimit() != null && query.getLineLimit() <= 0) {
+      throw new JobException(RESTCodes.JobErrorCode.JOB_LOG, Level.FINE, "Line limit must be positive.");
+    }
+    if (query.getTail() != null && query.getTail() <= 0) {
+      throw new JobException(RESTCodes.JobErrorCode.JOB_LOG, Level.FINE, "Tail must be positive.");
+    }
+    if (Strings.isNullOrEmpty(query.getFilter())) {
+      return null;
+    }
+    if (query.getFilter().length() > Settings.JOB_LOGS_MAX_FILTER_LENGTH) {
+      throw new JobException(RESTCodes.JobErrorCode.JOB_LOG, Level.FINE,
+        "Filter cannot be longer than " + Settings.JOB_LOGS_MAX_FILTER_LENGTH + " characters.");
+    }
+    return query.getFilter();
+  }
+  
+  private long resolveLogOffset(JobLogQuery query, long size) {
+    if (query.getOffset() == null) {
+      return 0;
+    }
+    long offset = query.getOffset() < 0 ? size + query.getOffset() : query.getOffset();
+    return Math.max(0, Math.min(offset, size));
+  }
+  
+  /**
+   * Waits until the log of a running execution grows past offset or the follow timeout expires. A client is borrowed
+   * for each poll only, so waiting requests do not hold on to pooled clients.
+   *
+   * @return the size of the log when done waiting
+   */
+  private long waitForLog(org.apache.hadoop.fs.Path logPath, long size, long offset) throws IOException {
+    long deadline = System.currentTimeMillis() + Settings.JOB_LOGS_FOLLOW_TIMEOUT_MS;
+    while (size <= offset && System.currentTimeMillis() < deadline) {
+      try {
+        Thread.sleep(Settings.JOB_LOGS_FOLLOW_POLL_MS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      DistributedFileSystemOps dfso = dfs.getDfsOps();
+      try {
+        size = dfso.getFileStatus(logPath).getLen();
+      } finally {
+        dfso.close();
+      }
+    }
+    return size;
+  }
+  
+  private JobLogReader.Chunk readLog(DistributedFileSystemOps dfso, String hdfsPath, long size, JobLogQuery query,
+    String filter, boolean running) throws IOException {
+    try (FSDataInputStream input = dfso.open(hdfsPath)) {
+      if (query.isTail()) {
+        int lines = Math.min(query.getTail(), Settings.JOB_LOGS_MAX_LINES);
+        long start = Math.max(0, size - Settings.JOB_LOGS_DISPLAY_SIZE - 1);
+        input.seek(start);
+        return JobLogReader.readTail(input, start, lines, filter, running);
+      }
+      long length = query.getLength() == null ? Settings.JOB_LOGS_DISPLAY_SIZE :
+        Math.min(query.getLength(), Settings.JOB_LOGS_DISPLAY_SIZE);
+      if (query.isLineRange()) {
+        long lineOffset = query.getLineOffset() == null ? 0 : query.getLineOffset();
+        int lineLimit = query.getLineLimit() == null ? Settings.JOB_LOGS_DEFAULT_LINES :
+          Math.min(query.getLineLimit(), Settings.JOB_LOGS_MAX_LINES);
+        return JobLogReader.readLines(input, lineOffset, lineLimit, length, filter, running);
+      }
+      long offset = resolveLogOffset(query, size);
+      input.seek(offset);
+      return JobLogReader.readRange(input, offset, length, filter, running);
+    }
+  }
+  
   @Override
   public JobLogDTO retryLogAggregation(Execution execution, JobLogDTO.LogType type) throws JobException {
     if (!execution.getState().isFinalState()) {
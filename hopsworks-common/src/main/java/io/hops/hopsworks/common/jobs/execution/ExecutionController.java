@@ -41,6 +41,7 @@ package io.hops.hopsworks.common.jobs.execution;
 
 import io.hops.hopsworks.common.dao.jobs.description.YarnAppUrlsDTO;
 import io.hops.hopsworks.common.jobs.JobLogDTO;
+import io.hops.hopsworks.common.jobs.JobLogQuery;
 import io.hops.hopsworks.exceptions.GenericException;
 import io.hops.hopsworks.exceptions.JobException;
 import io.hops.hopsworks.exceptions.ProjectException;
@@ -69,6 +70,8 @@ public interface ExecutionController {
   
   JobLogDTO getLog(Execution execution, JobLogDTO.LogType type) throws JobException;
   
+  JobLogDTO getLog(Execution execution, JobLogDTO.LogType type, JobLogQuery query) throws JobException;
+  
   JobLogDTO retryLogAggregation(Execution execution, JobLogDTO.LogType type) throws JobException;
   
   void checkAccessRight(String appId, Project project) throws JobException;
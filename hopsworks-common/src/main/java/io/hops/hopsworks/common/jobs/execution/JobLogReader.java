@@ -0,0 +1,242 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jobs.execution;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reads parts of a job log from a stream without loading the whole file. Lines longer than {@link #MAX_LINE_BYTES}
+ * are returned in pieces, so memory use is bounded by the requested byte budget and not by the size of the log.
+ * The filter, if not null, is a text returned lines must contain. It is matched literally, as a user supplied
+ * regular expression could take exponential time on a single line.
+ */
+public class JobLogReader {
+  
+  static final int MAX_LINE_BYTES = 64 * 1024;
+  
+  private JobLogReader() {
+  }
+  
+  /**
+   * Reads whole lines from a stream positioned at offset until maxBytes have been consumed.
+   *
+   * @param holdPartial if true, a last line without a line break is left for a later read as it is still being written
+   */
+  public static Chunk readRange(InputStream in, long offset, long maxBytes, String filter, boolean holdPartial)
+    throws IOException {
+    LineScanner scanner = new LineScanner(in);
+    StringBuilder out = new StringBuilder();
+    Cursor cursor = collect(scanner, out, maxBytes, Long.MAX_VALUE, filter, holdPartial);
+    return new Chunk(out.toString(), offset, offset + cursor.bytes, -1, cursor.end);
+  }
+  
+  /**
+   * Skips lineOffset lines of a stream positioned at the start of the log and then reads up to lineLimit matching
+   * lines, consuming at most maxBytes after the skipped lines.
+   */
+  public static Chunk readLines(InputStream in, long lineOffset, int lineLimit, long maxBytes, String filter,
+    boolean holdPartial) throws IOException {
+    LineScanner scanner = new LineScanner(in);
+    long skippedBytes = 0;
+    long skippedLines = 0;
+    while (skippedLines < lineOffset && scanner.next(MAX_LINE_BYTES)) {
+      if (!scanner.isComplete(holdPartial)) {
+        return new Chunk("", skippedBytes, skippedBytes, skippedLines, true);
+      }
+      skippedBytes += scanner.consumed;
+      skippedLines++;
+    }
+    StringBuilder out = new StringBuilder();
+    Cursor cursor = collect(scanner, out, maxBytes, lineLimit, filter, holdPartial);
+    return new Chunk(out.toString(), skippedBytes, skippedBytes + cursor.bytes, skippedLines + cursor.lines,
+      cursor.end);
+  }
+  
+  /**
+   * Returns the last matching lines of a stream positioned at start. If start is not the beginning of the file
+   * everything up to and including the first line break is dropped, so callers seek one byte before the window they
+   * want. The caller bounds memory by choosing how far from the end start is.
+   */
+  public static Chunk readTail(InputStream in, long start, int lines, String filter, boolean holdPartial)
+    throws IOException {
+    LineScanner scanner = new LineScanner(in);
+    long position = start;
+    if (start > 0) {
+      while (scanner.next(MAX_LINE_BYTES)) {
+        position += scanner.consumed;
+        if (scanner.terminated) {
+          break;
+        }
+      }
+    }
+    Deque<String> last = new ArrayDeque<>();
+    while (lines > 0 && scanner.next(MAX_LINE_BYTES)) {
+      if (!scanner.isComplete(holdPartial)) {
+        break;
+      }
+      position += scanner.consumed;
+      String line = scanner.text();
+      if (filter == null || line.contains(filter)) {
+        if (last.size() == lines) {
+          last.removeFirst();
+        }
+        last.addLast(line);
+      }
+    }
+    StringBuilder out = new StringBuilder();
+    for (String line : last) {
+      out.append(line).append('\n');
+    }
+    return new Chunk(out.toString(), start, position, -1, true);
+  }
+  
+  private static Cursor collect(LineScanner scanner, StringBuilder out, long maxBytes, long maxLines, String filter,
+    boolean holdPartial) throws IOException {
+    Cursor cursor = new Cursor();
+    long matched = 0;
+    while (matched < maxLines && cursor.bytes < maxBytes) {
+      if (!scanner.next(maxBytes - cursor.bytes)) {
+        cursor.end = true;
+        break;
+      }
+      if (!scanner.isComplete(holdPartial) && (cursor.bytes > 0 || scanner.eof)) {
+        // Cut by the byte budget or still being written, leave it to the next read
+        cursor.end = scanner.eof;
+        break;
+      }
+      cursor.bytes += scanner.consumed;
+      cursor.lines++;
+      String line = scanner.text();
+      if (filter == null || line.contains(filter)) {
+        out.append(line).append('\n');
+        matched++;
+      }
+    }
+    return cursor;
+  }
+  
+  private static final class Cursor {
+    private long bytes;
+    private long lines;
+    private boolean end;
+  }
+  
+  private static final class LineScanner {
+    private final InputStream in;
+    private final byte[] buffer = new byte[MAX_LINE_BYTES];
+    private int length;
+    private int consumed;
+    private boolean terminated;
+    private boolean eof;
+    
+    private LineScanner(InputStream in) {
+      this.in = new BufferedInputStream(in);
+    }
+    
+    /**
+     * Reads the next line, or as much of it as fits in budget.
+     *
+     * @return false if the end of the stream was reached without reading anything
+     */
+    private boolean next(long budget) throws IOException {
+      int limit = (int) Math.min(budget, MAX_LINE_BYTES);
+      length = 0;
+      consumed = 0;
+      terminated = false;
+      while (consumed < limit) {
+        int b = in.read();
+        if (b < 0) {
+          eof = true;
+          break;
+        }
+        consumed++;
+        if (b == '\n') {
+          terminated = true;
+          break;
+        }
+        buffer[length++] = (byte) b;
+      }
+      if (!terminated && !eof && consumed < budget) {
+        // Do not turn the line break right after a full buffer into an empty line
+        in.mark(1);
+        int b = in.read();
+        if (b == '\n') {
+          consumed++;
+          terminated = true;
+        } else {
+          in.reset();
+        }
+      }
+      return consumed > 0;
+    }
+    
+    private boolean isComplete(boolean holdPartial) {
+      return terminated || length == MAX_LINE_BYTES || (eof && !holdPartial);
+    }
+    
+    private String text() {
+      int end = length > 0 && buffer[length - 1] == '\r' ? length - 1 : length;
+      return new String(buffer, 0, end, StandardCharsets.UTF_8);
+    }
+  }
+  
+  public static class Chunk {
+    private final String log;
+    private final long offset;
+    private final long nextOffset;
+    private final long nextLine;
+    private final boolean end;
+    
+    Chunk(String log, long offset, long nextOffset, long nextLine, boolean end) {
+      this.log = log;
+      this.offset = offset;
+      this.nextOffset = nextOffset;
+      this.nextLine = nextLine;
+      this.end = end;
+    }
+    
+    public String getLog() {
+      return log;
+    }
+    
+    public long getOffset() {
+      return offset;
+    }
+    
+    public long getNextOffset() {
+      return nextOffset;
+    }
+    
+    /**
+     * @return the line to continue from, or -1 if the chunk was not read by line
+     */
+    public long getNextLine() {
+      return nextLine;
+    }
+    
+    /**
+     * @return true if everything currently in the log up to the end of the chunk has been read
+     */
+    public boolean isEnd() {
+      return end;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jobs.scheduler;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel holding the next fire time of the job schedules in memory.
+ * A schedule is hashed into the bucket of its fire tick, schedules more than a revolution away share the bucket and
+ * stay there until their fire time is reached. Advancing the wheel only visits the buckets of the elapsed ticks, so
+ * the cost of a tick depends on the schedules due around it and not on the total number of schedules.
+ * The wheel does not read the clock, the caller passes the current time which makes it usable with a virtual clock.
+ */
+public class JobScheduleTimingWheel {
+
+  private final long tickMillis;
+  private final List<Map<Integer, Instant>> buckets;
+  // schedule id -> fire time, to find the bucket of a schedule when it is rescheduled or cancelled
+  private final Map<Integer, Instant> fireTimes = new HashMap<>();
+  // last tick that fully elapsed, its bucket and the ones before it do not hold due schedules anymore
+  private long currentTick;
+
+  public JobScheduleTimingWheel(long tickMillis, int wheelSize, Instant start) {
+    if (tickMillis <= 0 || wheelSize <= 0) {
+      throw new IllegalArgumentException("Tick duration and wheel size should be positive");
+    }
+    this.tickMillis = tickMillis;
+    this.buckets = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      buckets.add(new HashMap<>());
+    }
+    this.currentTick = tick(start) - 1;
+  }
+
+  /**
+   * Add a schedule or move it to a new fire time. Fire times in the past are returned by the next advance.
+   */
+  public synchronized void schedule(Integer scheduleId, Instant fireTime) {
+    cancel(scheduleId);
+    // overdue schedules go in the next bucket that will be visited
+    long fireTick = Math.max(tick(fireTime), currentTick + 1);
+    bucket(fireTick).put(scheduleId, fireTime);
+    fireTimes.put(scheduleId, fireTime);
+  }
+
+  public synchronized void cancel(Integer scheduleId) {
+    Instant fireTime = fireTimes.remove(scheduleId);
+    if (fireTime != null) {
+      // the schedule might have been moved to the next bucket if it was overdue
+      if (bucket(tick(fireTime)).remove(scheduleId) == null) {
+        for (Map<Integer, Instant> bucket : buckets) {
+          if (bucket.remove(scheduleId) != null) {
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Advance the wheel to now and remove the due schedules. A schedule is returned only once, it has to be scheduled
+   * again with its next fire time.
+   *
+   * @param now current time
+   * @return ids of the schedules with fire time before or at now
+   */
+  public synchronized List<Integer> advance(Instant now) {
+    List<Integer> due = new ArrayList<>();
+    long nowTick = tick(now);
+    if (nowTick <= currentTick) {
+      return due;
+    }
+    if (nowTick - currentTick >= buckets.size()) {
+      // more than a revolution elapsed, e.g. after a pause, every bucket needs to be visited
+      for (Map<Integer, Instant> bucket : buckets) {
+        collectDue(bucket, now, due);
+      }
+    } else {
+      for (long tick = currentTick + 1; tick <= nowTick; tick++) {
+        collectDue(bucket(tick), now, due);
+      }
+    }
+    // the bucket of now can still get schedules due later in this tick, it is visited again by the next advance
+    currentTick = nowTick - 1;
+    return due;
+  }
+
+  public synchronized Instant getFireTime(Integer scheduleId) {
+    return fireTimes.get(scheduleId);
+  }
+
+  public synchronized int size() {
+    return fireTimes.size();
+  }
+
+  public synchronized void clear() {
+    buckets.forEach(Map::clear);
+    fireTimes.clear();
+  }
+
+  private void collectDue(Map<Integer, Instant> bucket, Instant now, List<Integer> due) {
+    Iterator<Map.Entry<Integer, Instant>> it = bucket.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Integer, Instant> entry = it.next();
+      if (!entry.getValue().isAfter(now)) {
+        due.add(entry.getKey());
+        fireTimes.remove(entry.getKey());
+        it.remove();
+      }
+    }
+  }
+
+  private Map<Integer, Instant> bucket(long tick) {
+    return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+  }
+
+  private long tick(Instant time) {
+    return Math.floorDiv(time.toEpochMilli(), tickMillis);
+  }
+}
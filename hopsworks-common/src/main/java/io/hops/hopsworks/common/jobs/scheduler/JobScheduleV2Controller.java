@@ -24,6 +24,7 @@ import com.google.common.base.Strings;
 import io.hops.hopsworks.common.dao.jobhistory.ExecutionFacade;
 import io.hops.hopsworks.common.dao.jobs.description.JobScheduleV2Facade;
 import io.hops.hopsworks.common.jobs.execution.ExecutionController;
+import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.GenericException;
 import io.hops.hopsworks.exceptions.JobException;
 import io.hops.hopsworks.exceptions.ProjectException;
@@ -32,16 +33,29 @@ import io.hops.hopsworks.persistence.entity.jobs.description.Jobs;
 import io.hops.hopsworks.persistence.entity.jobs.scheduler.JobScheduleV2;
 import io.hops.hopsworks.restutils.RESTCodes;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static com.cronutils.model.CronType.QUARTZ;
 
@@ -49,9 +63,18 @@ import static com.cronutils.model.CronType.QUARTZ;
 @Stateless
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class JobScheduleV2Controller {
+  private static final Logger LOGGER = Logger.getLogger(JobScheduleV2Controller.class.getName());
 
   @EJB
   private JobScheduleV2Facade jobScheduleFacade;
+  @EJB
+  private JobScheduleV2Timer jobScheduleTimer;
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+  @Resource
+  private SessionContext sessionContext;
   @Inject
   private ExecutionController executionController;
   @Inject
@@ -68,40 +91,134 @@ public class JobScheduleV2Controller {
     executionController.start(job, jobConfig, job.getCreator());
   }
   
+  /**
+   * Start the execution of a due schedule. Public so that the submission workers can call it through the container.
+   *
+   * @param jobSchedule
+   */
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public void submitSingle(JobScheduleV2 jobSchedule) {
+    try {
+      executeSingle(jobSchedule.getJob(), jobSchedule.getNextExecutionDateTime());
+    } catch (JobException | ProjectException | ServiceException | GenericException | RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Could not start scheduled execution of job " + jobSchedule.getJob().getName(), e);
+    }
+  }
+
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
-  public void executeWithCron() throws JobException, ProjectException, ServiceException, GenericException {
+  public void executeWithCron() {
     executeWithCron(Instant.now());
   }
   
   /**
-   * For test purpose, so that job start time can be verified in unit test.
+   * Execute all the schedules due at currentTime. Public for test purpose, so that job start time can be verified in
+   * unit test.
    *
    * @param currentTime
-   * @throws JobException
-   * @throws ProjectException
-   * @throws ServiceException
-   * @throws GenericException
    */
-  public void executeWithCron(Instant currentTime)
-          throws JobException, ProjectException, ServiceException, GenericException {
-    for (JobScheduleV2 jobSchedule : jobScheduleFacade.getActiveWithCurrentExecutionTime(currentTime)) {
-      if (executionFacade.findByJobAndNotFinished(jobSchedule.getJob()).size() > 0) {
-        // Should not do parallel executions to void issues with Hudi
+  public void executeWithCron(Instant currentTime) {
+    executeSchedules(jobScheduleFacade.getActiveWithCurrentExecutionTime(currentTime), currentTime);
+  }
+
+  /**
+   * Execute the schedules picked by the timing wheel of {@link JobScheduleV2Timer}. The schedules are read again from
+   * the database, which holds the actual next execution time, so a schedule that was already executed or changed by
+   * another node is not executed twice.
+   *
+   * @param scheduleIds schedules due at currentTime according to the timing wheel
+   * @param currentTime
+   * @return the schedules with their next execution time, to be put back in the timing wheel
+   */
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public List<JobScheduleV2> executeDue(Collection<Integer> scheduleIds, Instant currentTime) {
+    List<JobScheduleV2> schedules = jobScheduleFacade.getByIds(scheduleIds);
+    List<JobScheduleV2> due = schedules.stream()
+      .filter(s -> s.getEnabled() && s.getNextExecutionDateTime() != null
+        && !s.getNextExecutionDateTime().isAfter(currentTime))
+      .collect(Collectors.toList());
+    List<JobScheduleV2> result = schedules.stream().filter(s -> !due.contains(s)).collect(Collectors.toList());
+    result.addAll(executeSchedules(due, currentTime));
+    return result;
+  }
+
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public List<JobScheduleV2> getActiveSchedules() {
+    return jobScheduleFacade.getActive();
+  }
+
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public Optional<JobScheduleV2> findSchedule(Integer scheduleId) {
+    return jobScheduleFacade.getById(scheduleId);
+  }
+
+  private List<JobScheduleV2> executeSchedules(List<JobScheduleV2> jobSchedules, Instant currentTime) {
+    // Check all the jobs in a single query
+    Set<Integer> runningJobs = executionFacade.findJobIdsNotFinished(
+      jobSchedules.stream().map(JobScheduleV2::getJob).collect(Collectors.toList()));
+    List<JobScheduleV2> updated = new ArrayList<>();
+    List<JobScheduleV2> toSubmit = new ArrayList<>();
+    for (JobScheduleV2 jobSchedule : jobSchedules) {
+      if (runningJobs.contains(jobSchedule.getJob().getId())) {
+        // Should not do parallel executions to avoid issues with Hudi. The schedule stays due and is retried on the
+        // next tick.
+        updated.add(jobSchedule);
         continue;
       }
-      updateNextExecutionDateTime(currentTime, jobSchedule);
-      executeSingle(jobSchedule.getJob(), jobSchedule.getNextExecutionDateTime());
+      JobScheduleV2 next = updateNextExecutionDateTime(currentTime, jobSchedule);
+      updated.add(next);
+      toSubmit.add(next);
+    }
+    submit(toSubmit);
+    return updated;
+  }
+
+  /**
+   * Start the executions concurrently, bounded by job_scheduler_max_concurrent_submissions, so that a slow submission
+   * does not delay the other schedules. Returns when all the executions were submitted.
+   */
+  private void submit(List<JobScheduleV2> jobSchedules) {
+    // go through the business object so that the container interceptors also apply on the executor threads
+    JobScheduleV2Controller self = sessionContext != null ?
+      sessionContext.getBusinessObject(JobScheduleV2Controller.class) : this;
+    if (executorService == null || jobSchedules.size() <= 1) {
+      jobSchedules.forEach(self::submitSingle);
+      return;
+    }
+    Queue<JobScheduleV2> queue = new ConcurrentLinkedQueue<>(jobSchedules);
+    int workers = Math.max(1, Math.min(settings.getJobSchedulerMaxConcurrentSubmissions(), jobSchedules.size()));
+    List<Future<?>> submissions = new ArrayList<>(workers);
+    for (int i = 0; i < workers; i++) {
+      submissions.add(executorService.submit(() -> {
+        JobScheduleV2 jobSchedule;
+        while ((jobSchedule = queue.poll()) != null) {
+          self.submitSingle(jobSchedule);
+        }
+      }));
+    }
+    for (Future<?> submission : submissions) {
+      try {
+        submission.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        LOGGER.log(Level.WARNING, "Scheduled executions submission failed", e);
+      }
     }
   }
 
   public JobScheduleV2 createSchedule(JobScheduleV2 jobSchedule) {
     jobSchedule.setStartDateTime(jobSchedule.getStartDateTime());
     setNextExecutionDateTime(Instant.now(), jobSchedule);
-    return jobScheduleFacade.update(jobSchedule);
+    JobScheduleV2 created = jobScheduleFacade.update(jobSchedule);
+    jobScheduleTimer.scheduleUpdated(created.getId());
+    return created;
   }
 
   public void deleteSchedule(Integer jobId) {
+    Optional<JobScheduleV2> jobSchedule = jobScheduleFacade.getByJobId(jobId);
     jobScheduleFacade.removeByJobId(jobId);
+    jobSchedule.ifPresent(s -> jobScheduleTimer.scheduleUpdated(s.getId()));
   }
 
   public JobScheduleV2 updateSchedule(JobScheduleV2 jobScheduleV2) throws JobException {
@@ -132,7 +249,9 @@ public class JobScheduleV2Controller {
       setNextExecutionDateTime(Instant.now(), jobSchedule);
     }
 
-    return jobScheduleFacade.update(jobSchedule);
+    JobScheduleV2 updated = jobScheduleFacade.update(jobSchedule);
+    jobScheduleTimer.scheduleUpdated(updated.getId());
+    return updated;
   }
 
   public JobScheduleV2 getScheduleByJobId(Integer jobId) throws JobException {
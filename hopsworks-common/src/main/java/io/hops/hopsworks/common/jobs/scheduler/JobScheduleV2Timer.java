@@ -16,15 +16,18 @@
 
 package io.hops.hopsworks.common.jobs.scheduler;
 
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
 import io.hops.hopsworks.common.util.PayaraClusterManager;
-import io.hops.hopsworks.exceptions.GenericException;
-import io.hops.hopsworks.exceptions.JobException;
-import io.hops.hopsworks.exceptions.ProjectException;
-import io.hops.hopsworks.exceptions.ServiceException;
+import io.hops.hopsworks.persistence.entity.jobs.scheduler.JobScheduleV2;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.EJB;
 import javax.ejb.ScheduleExpression;
 import javax.ejb.Singleton;
@@ -33,20 +36,52 @@ import javax.ejb.Timeout;
 import javax.ejb.Timer;
 import javax.ejb.TimerConfig;
 import javax.ejb.TimerService;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Inject;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Fires the cron job schedules on the primary node. The next execution time of the active schedules is kept in a
+ * {@link JobScheduleTimingWheel}, loaded from the database when the node becomes primary and kept up to date when
+ * schedules are created, updated or deleted on any node. The database stays the source of truth: due schedules are
+ * read again before they are executed and a new primary picks up the overdue schedules of the previous one.
+ */
 @Singleton
 @Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class JobScheduleV2Timer {
   private static final Logger LOGGER = Logger.getLogger(JobScheduleV2Timer.class.getName());
+  private static final String SCHEDULE_UPDATED_TOPIC_NAME = "job_schedule_updated";
+  private static final long TICK_MS = 60 * 1000L;
+  // one day of one minute ticks, schedules further away wait in their bucket for the following revolutions
+  private static final int WHEEL_SIZE = 1440;
+  // reload the wheel from the database every hour, in case a schedule update notification was lost
+  private static final int RESYNC_TICKS = 60;
   
   @EJB
   private JobScheduleV2Controller jobScheduleController;
   @EJB
   private PayaraClusterManager payaraClusterManager;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
   @Resource
   private TimerService timerService;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   private Timer timer;
+  private ITopic<Integer> scheduleUpdatedTopic;
+  private UUID myUUID;
+
+  private volatile JobScheduleTimingWheel wheel;
+  private int ticksSinceLoad = 0;
+  private final AtomicBoolean running = new AtomicBoolean(false);
 
   @PostConstruct
   public void init() {
@@ -54,6 +89,11 @@ public class JobScheduleV2Timer {
     schedule.hour("*");
     schedule.minute("*");
     timer = timerService.createCalendarTimer(schedule, new TimerConfig("Job scheduler timer", false));
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      scheduleUpdatedTopic = hazelcastInstance.getTopic(SCHEDULE_UPDATED_TOPIC_NAME);
+      myUUID = scheduleUpdatedTopic.addMessageListener(new MessageListenerImpl());
+    }
   }
 
   @PreDestroy
@@ -61,14 +101,103 @@ public class JobScheduleV2Timer {
     if (timer != null) {
       timer.cancel();
     }
+    if (scheduleUpdatedTopic != null) {
+      //needed for redeploy to remove the listener
+      scheduleUpdatedTopic.removeMessageListener(myUUID);
+    }
+  }
+
+  public class MessageListenerImpl implements MessageListener<Integer> {
+    @Override
+    public void onMessage(Message<Integer> message) {
+      if (!message.getPublishingMember().localMember()) {
+        // the Hazelcast listener thread is not managed by the container, reload on a managed thread to call the EJBs
+        Integer scheduleId = message.getMessageObject();
+        try {
+          executorService.submit(() -> reload(scheduleId));
+        } catch (RejectedExecutionException e) {
+          // the wheel is reloaded from the database on the next resync
+          LOGGER.log(Level.WARNING, "Could not reload job schedule " + scheduleId, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Notify the primary node that a schedule was created, updated or deleted.
+   *
+   * @param scheduleId
+   */
+  public void scheduleUpdated(Integer scheduleId) {
+    reload(scheduleId);
+    if (scheduleUpdatedTopic != null) {
+      scheduleUpdatedTopic.publish(scheduleId);
+    }
+  }
+
+  private void reload(Integer scheduleId) {
+    JobScheduleTimingWheel current = wheel;
+    if (current == null || scheduleId == null) {
+      // not the primary, the wheel is loaded from the database when this node becomes primary
+      return;
+    }
+    Optional<JobScheduleV2> jobSchedule = jobScheduleController.findSchedule(scheduleId);
+    if (jobSchedule.isPresent()) {
+      reschedule(current, jobSchedule.get());
+    } else {
+      current.cancel(scheduleId);
+    }
   }
 
   @Timeout
-  public void schedule() throws JobException, ProjectException, ServiceException, GenericException {
+  public void schedule() {
     if (!payaraClusterManager.amIThePrimary()) {
+      // drop the wheel so that it is reloaded with the schedules updated meanwhile if this node becomes primary again
+      wheel = null;
       return;
     }
-    LOGGER.fine("JobScheduleV2Timer schedule just triggered");
-    jobScheduleController.executeWithCron();
+    if (!running.compareAndSet(false, true)) {
+      LOGGER.log(Level.INFO, "Previous job scheduler tick is still running, skipping this one");
+      return;
+    }
+    try {
+      LOGGER.fine("JobScheduleV2Timer schedule just triggered");
+      Instant now = Instant.now();
+      JobScheduleTimingWheel current = wheel;
+      if (current == null || ++ticksSinceLoad >= RESYNC_TICKS) {
+        current = load(now);
+      }
+      List<Integer> due = current.advance(now);
+      if (!due.isEmpty()) {
+        for (JobScheduleV2 jobSchedule : jobScheduleController.executeDue(due, now)) {
+          reschedule(current, jobSchedule);
+        }
+      }
+    } catch (RuntimeException e) {
+      // reload the wheel from the database on the next tick
+      wheel = null;
+      LOGGER.log(Level.SEVERE, "Job scheduler tick failed", e);
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private JobScheduleTimingWheel load(Instant now) {
+    JobScheduleTimingWheel loaded = new JobScheduleTimingWheel(TICK_MS, WHEEL_SIZE, now);
+    for (JobScheduleV2 jobSchedule : jobScheduleController.getActiveSchedules()) {
+      reschedule(loaded, jobSchedule);
+    }
+    LOGGER.log(Level.FINE, "Loaded {0} job schedules", loaded.size());
+    wheel = loaded;
+    ticksSinceLoad = 0;
+    return loaded;
+  }
+
+  private void reschedule(JobScheduleTimingWheel current, JobScheduleV2 jobSchedule) {
+    if (Boolean.TRUE.equals(jobSchedule.getEnabled()) && jobSchedule.getNextExecutionDateTime() != null) {
+      current.schedule(jobSchedule.getId(), jobSchedule.getNextExecutionDateTime());
+    } else {
+      current.cancel(jobSchedule.getId());
+    }
   }
 }
@@ -0,0 +1,136 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jupyter;
+
+import io.hops.hopsworks.exceptions.ServiceException;
+import io.hops.hopsworks.restutils.RESTCodes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Bounded queue of notebook conversions. Concurrent requests for the same notebook and conversion are collapsed into
+ * a single conversion whose result is handed to all of them. At most maxConcurrent conversions run at a time and at
+ * most maxQueued wait for their turn, further requests are rejected instead of piling up behind the slow ones.
+ */
+public class ConversionQueue {
+
+  public interface Conversion {
+    String convert() throws ServiceException;
+  }
+
+  private final int maxConcurrent;
+  private final int maxQueued;
+  private final long waitTimeoutMillis;
+  private final Semaphore running;
+  // key -> result of the conversion in progress
+  private final ConcurrentHashMap<String, CompletableFuture<String>> inProgress = new ConcurrentHashMap<>();
+  private final AtomicLong collapsed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+
+  public ConversionQueue(int maxConcurrent, int maxQueued, long waitTimeoutMillis) {
+    this.maxConcurrent = maxConcurrent;
+    this.maxQueued = maxQueued;
+    this.waitTimeoutMillis = waitTimeoutMillis;
+    this.running = new Semaphore(maxConcurrent, true);
+  }
+
+  /**
+   * Run the conversion, or wait for the one of the same key already in progress.
+   *
+   * @param key identifies the notebook content and the conversion
+   * @return the result of the conversion
+   * @throws ServiceException if the conversion failed, the queue is full or the wait timed out
+   */
+  public String run(String key, Conversion conversion) throws ServiceException {
+    CompletableFuture<String> result = new CompletableFuture<>();
+    CompletableFuture<String> existing = inProgress.putIfAbsent(key, result);
+    if (existing != null) {
+      collapsed.incrementAndGet();
+      return await(existing);
+    }
+    try {
+      if (inProgress.size() > maxConcurrent + maxQueued) {
+        rejected.incrementAndGet();
+        throw new ServiceException(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_BUSY, Level.FINE, null,
+          inProgress.size() + " notebook conversions in progress or queued");
+      }
+      if (!running.tryAcquire(waitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        rejected.incrementAndGet();
+        throw new ServiceException(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_BUSY, Level.FINE, null,
+          "Waited " + waitTimeoutMillis + " ms for a notebook conversion to finish");
+      }
+      try {
+        String converted = conversion.convert();
+        result.complete(converted);
+        return converted;
+      } finally {
+        running.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      ServiceException se = new ServiceException(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_ERROR, Level.WARNING,
+        null, "Interrupted while waiting to convert the notebook", e);
+      result.completeExceptionally(se);
+      throw se;
+    } catch (ServiceException | RuntimeException e) {
+      result.completeExceptionally(e);
+      throw e;
+    } finally {
+      inProgress.remove(key, result);
+    }
+  }
+
+  private String await(CompletableFuture<String> conversion) throws ServiceException {
+    try {
+      // the conversion itself waits for a turn and then for the process, give it both
+      return conversion.get(2 * waitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ServiceException) {
+        ServiceException cause = (ServiceException) e.getCause();
+        throw new ServiceException((RESTCodes.ServiceErrorCode) cause.getErrorCode(), cause.getLevel(),
+          cause.getUsrMsg(), cause.getDevMsg(), cause);
+      }
+      throw new ServiceException(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_ERROR, Level.SEVERE, null,
+        e.getCause().getMessage(), e.getCause());
+    } catch (TimeoutException e) {
+      throw new ServiceException(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_BUSY, Level.FINE, null,
+        "Timed out waiting for the conversion of the same notebook", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceException(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_ERROR, Level.WARNING, null,
+        "Interrupted while waiting for the conversion of the same notebook", e);
+    }
+  }
+
+  public int getInProgress() {
+    return inProgress.size();
+  }
+
+  public long getCollapsed() {
+    return collapsed.get();
+  }
+
+  public long getRejected() {
+    return rejected.get();
+  }
+}
@@ -37,6 +37,7 @@ import io.hops.hopsworks.persistence.entity.jupyter.JupyterSettings;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.restutils.RESTCodes;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.Path;
@@ -67,6 +68,8 @@ import java.util.logging.Logger;
 public class JupyterController {
 
   private static final Logger LOGGER = Logger.getLogger(JupyterController.class.getName());
+  // larger notebooks are converted without hashing them for the render cache
+  private static final long MAX_CACHED_NOTEBOOK_SIZE = 32L * 1024 * 1024;
 
   @EJB
   private DistributedFsService dfs;
@@ -92,6 +95,8 @@ public class JupyterController {
   private XAttrsController xAttrsController;
   @Inject
   private NoteBookConverter noteBookConverter;
+  @EJB
+  private NotebookRenderCache notebookRenderCache;
 
   private ObjectMapper objectMapper;
 
@@ -104,7 +109,50 @@ public class JupyterController {
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
   public SystemJobStatus convertIPythonNotebook(Project project, Users user, String notebookPath, String pyPath,
       NotebookConversion notebookConversion)  throws ServiceException {
-    return noteBookConverter.convertIPythonNotebook(project, user, notebookPath, pyPath, notebookConversion);
+    // converting to python writes the script next to the notebook, only the rendered html can be reused
+    String renderKey = notebookConversion == NotebookConversion.HTML ?
+      getRenderKey(project, user, notebookPath, notebookConversion) : null;
+    if (renderKey == null) {
+      return noteBookConverter.convertIPythonNotebook(project, user, notebookPath, pyPath, notebookConversion);
+    }
+    String rendered = notebookRenderCache.render(renderKey, () -> {
+      String html = noteBookConverter.convertIPythonNotebook(project, user, notebookPath, pyPath, notebookConversion)
+        .getLog();
+      // the notebook could have been saved while it was converted
+      if (renderKey.equals(getRenderKey(project, user, notebookPath, notebookConversion))) {
+        notebookRenderCache.put(renderKey, html);
+      }
+      return html;
+    });
+    SystemJobStatus status = new SystemJobStatus(0);
+    status.setLog(rendered);
+    return status;
+  }
+
+  /**
+   * @return the hash of the notebook content and the conversion, or null if the notebook is too large to be cached
+   * or could not be read
+   */
+  private String getRenderKey(Project project, Users user, String notebookPath,
+      NotebookConversion notebookConversion) {
+    DistributedFileSystemOps udfso = null;
+    try {
+      udfso = dfs.getDfsOps(project, user);
+      Path path = new Path(notebookPath);
+      if (udfso.getFileStatus(path).getLen() > MAX_CACHED_NOTEBOOK_SIZE) {
+        return null;
+      }
+      try (FSDataInputStream in = udfso.open(path)) {
+        return notebookConversion.name() + ":" + DigestUtils.sha256Hex(in);
+      }
+    } catch (IOException e) {
+      LOGGER.log(Level.FINE, "Could not hash notebook " + notebookPath + ", converting it without the cache", e);
+      return null;
+    } finally {
+      if (udfso != null) {
+        dfs.closeDfsClient(udfso);
+      }
+    }
   }
 
   public void shutdown(Project project, Users user, String secret, String cid, int port) throws ServiceException {
@@ -26,10 +26,13 @@ import java.time.LocalDateTime;
 public final class JupyterJWT extends ServiceJWT {
   public final CidAndPort pidAndPort;
   public Path tokenFile;
+  // When the renewal of the token is due, ahead of its expiration
+  public LocalDateTime renewAt;
   
   public JupyterJWT(JupyterJWT jupyterJWT) {
     this(jupyterJWT.project, jupyterJWT.user, jupyterJWT.expiration, jupyterJWT.pidAndPort);
     this.tokenFile = jupyterJWT.tokenFile;
+    this.renewAt = jupyterJWT.renewAt;
   }
   
   public JupyterJWT(Project project, Users user, LocalDateTime expiration, CidAndPort pidAndPort) {
@@ -21,7 +21,6 @@ import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.dao.user.UserFacade;
-import io.hops.hopsworks.common.util.DateUtils;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.user.Users;
 
@@ -31,9 +30,12 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
@@ -49,18 +51,12 @@ public class JupyterJWTCache {
   @EJB
   private UserFacade userFacade;
   
-  private final TreeSet<JupyterJWTDTO> jupyterJWTs = new TreeSet<>((t0, t1) -> {
-    if (t0.equals(t1)) {
-      return 0;
-    } else {
-      if (t0.getExpiration().isBefore(t1.getExpiration())) {
-        return -1;
-      } else if (t0.getExpiration().isAfter(t1.getExpiration())) {
-        return 1;
-      }
-      return 0;
-    }
-  });
+  // Ordered by renewal time. Ties are broken by project and user, otherwise tokens due at the same time would be
+  // taken for duplicates and dropped
+  private final TreeSet<JupyterJWTDTO> jupyterJWTs = new TreeSet<>(
+    Comparator.comparing(JupyterJWTDTO::getRenewAt)
+      .thenComparing(JupyterJWTDTO::getProjectId)
+      .thenComparing(JupyterJWTDTO::getUserId));
   
   private final HashMap<CidAndPort, JupyterJWT> pidAndPortToJWT = new HashMap<>();
   
@@ -97,10 +93,16 @@ public class JupyterJWTCache {
       pidAndPortToJWTMap.remove(pidAndPort);
     } else {
       JupyterJWT jupyterJWT = pidAndPortToJWT.remove(pidAndPort);
-      jupyterJWTs.remove(new JupyterJWTDTO(jupyterJWT));
+      if (jupyterJWT != null) {
+        jupyterJWTs.remove(new JupyterJWTDTO(jupyterJWT));
+      }
     }
   }
   
+  /**
+   * Replaces the tokens that are still cached. Tokens removed in the meantime, because their notebook server was
+   * stopped, are not added back.
+   */
   public void replaceAll(Set<JupyterJWT> renewedJWTs) {
     if (hazelcastInstance != null) {
       IMap<CidAndPort, JupyterJWTDTO> pidAndPortToJWTMap = hazelcastInstance.getMap(MAP_NAME);
@@ -109,6 +111,9 @@ public class JupyterJWTCache {
       renewedJWTs.forEach(t -> {
         //remove old token
         JupyterJWT jupyterJWT = pidAndPortToJWT.remove(t.pidAndPort);
+        if (jupyterJWT == null) {
+          return;
+        }
         jupyterJWTs.remove(new JupyterJWTDTO(jupyterJWT));
         //Add the new token
         jupyterJWTs.add(new JupyterJWTDTO(t));
@@ -126,14 +131,25 @@ public class JupyterJWTCache {
     }
   }
   
-  public Iterator<JupyterJWTDTO> getMaybeExpired() {
+  /**
+   * @return the tokens whose renewal is due, in no particular order
+   */
+  public Collection<JupyterJWTDTO> getDueForRenewal(LocalDateTime now) {
     if (hazelcastInstance != null) {
       IMap<CidAndPort, JupyterJWTDTO> pidAndPortToJWTMap = hazelcastInstance.getMap(MAP_NAME);
-      Predicate<CidAndPort, JupyterJWTDTO> expirationPredicate = Predicates.lessEqual("expiration", DateUtils.getNow());
-      Collection<JupyterJWTDTO> jupyterJWTDTOS = pidAndPortToJWTMap.values(expirationPredicate);
-      return jupyterJWTDTOS.iterator();
+      // Entries written before renewal windows were introduced have no renewAt and are due on expiration
+      Predicate<CidAndPort, JupyterJWTDTO> duePredicate = Predicates.or(Predicates.lessEqual("renewAt", now),
+        Predicates.lessEqual("expiration", now));
+      return pidAndPortToJWTMap.values(duePredicate);
     } else {
-      return jupyterJWTs.iterator();
+      List<JupyterJWTDTO> due = new ArrayList<>();
+      for (JupyterJWTDTO jupyterJWT : jupyterJWTs) {
+        if (!jupyterJWT.maybeRenew(now)) {
+          break;
+        }
+        due.add(jupyterJWT);
+      }
+      return due;
     }
   }
 }
@@ -26,6 +26,7 @@ public class JupyterJWTDTO implements Serializable {
   private Integer projectId;
   private Integer userId;
   private LocalDateTime expiration;
+  private LocalDateTime renewAt;
   private String token;
   private String tokenFile;
   private final CidAndPort pidAndPort;
@@ -34,6 +35,7 @@ public class JupyterJWTDTO implements Serializable {
     this.projectId = jupyterJWT.project.getId();
     this.userId = jupyterJWT.user.getUid();
     this.expiration = jupyterJWT.expiration;
+    this.renewAt = jupyterJWT.renewAt != null ? jupyterJWT.renewAt : jupyterJWT.expiration;
     this.token = jupyterJWT.token;
     this.tokenFile = jupyterJWT.tokenFile.toString();
     this.pidAndPort = jupyterJWT.pidAndPort;
@@ -63,6 +65,14 @@ public class JupyterJWTDTO implements Serializable {
     this.expiration = expiration;
   }
   
+  public LocalDateTime getRenewAt() {
+    return renewAt;
+  }
+  
+  public void setRenewAt(LocalDateTime renewAt) {
+    this.renewAt = renewAt;
+  }
+  
   public String getToken() {
     return token;
   }
@@ -84,7 +94,9 @@ public class JupyterJWTDTO implements Serializable {
   }
   
   public boolean maybeRenew(LocalDateTime now) {
-    return now.isAfter(expiration) || now.isEqual(expiration);
+    // Entries written before renewal windows were introduced have no renewAt
+    LocalDateTime due = renewAt != null ? renewAt : expiration;
+    return now.isAfter(due) || now.isEqual(due);
   }
   
   public boolean isExpired() {
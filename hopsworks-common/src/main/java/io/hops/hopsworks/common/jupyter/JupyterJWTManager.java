@@ -18,6 +18,7 @@ package io.hops.hopsworks.common.jupyter;
 
 import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.google.common.collect.Lists;
 import io.hops.hopsworks.api.auth.UserUtilities;
 import io.hops.hopsworks.common.dao.jupyter.MaterializedJWTFacade;
 import io.hops.hopsworks.common.dao.jupyter.JupyterSettingsFacade;
@@ -55,6 +56,7 @@ import javax.ejb.TimerConfig;
 import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -64,14 +66,18 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static java.util.logging.Level.INFO;
 import static java.util.logging.Level.WARNING;
@@ -83,6 +89,12 @@ import static java.util.logging.Level.WARNING;
 public class JupyterJWTManager {
   private static final Logger LOG = Logger.getLogger(JupyterJWTManager.class.getName());
   public static final String TOKEN_FILE_NAME = "token.jwt";
+  private static final long MONITOR_INTERVAL_MS = 5000L;
+  // Renewals start early enough for a failed renewal to be retried several times before the token expires
+  private static final long MIN_RENEWAL_LEAD_MS = 6 * MONITOR_INTERVAL_MS;
+  // Bounds how long a run holds the lock that starting notebook servers wait for. Tokens left over are the ones
+  // expiring last and are renewed in the next run
+  private static final int MAX_RENEWALS_PER_RUN = 500;
 
   @EJB
   private Settings settings;
@@ -106,6 +118,8 @@ public class JupyterJWTManager {
   private JupyterJWTTokenWriter jwtTokenWriter;
   @Resource
   private TimerService timerService;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   @EJB
   private PayaraClusterManager payaraClusterManager;
   @EJB
@@ -119,13 +133,18 @@ public class JupyterJWTManager {
     } catch (Exception ex) {
       LOG.log(Level.WARNING, "Exception while recovering Jupyter JWTs. Keep going on...", ex);
     }
-    long monitorInterval = 5000L;
-    timerService.createIntervalTimer(1000L, monitorInterval, new TimerConfig("Jupyter JWT renewal service", false));
+    timerService.createIntervalTimer(1000L, MONITOR_INTERVAL_MS,
+      new TimerConfig("Jupyter JWT renewal service", false));
   }
 
   private void addToken(JupyterJWT jupyterJWT) {
+    jupyterJWT.renewAt = renewAt(jupyterJWT.expiration, jupyterJWT.pidAndPort);
     jupyterJWTCache.add(jupyterJWT);
   }
+  
+  private LocalDateTime renewAt(LocalDateTime expiration, CidAndPort pidAndPort) {
+    return JupyterJWTRenewals.renewAt(expiration, pidAndPort, settings.getJWTLifetimeMs(), MIN_RENEWAL_LEAD_MS);
+  }
 
   private void removeToken(CidAndPort pidAndPort) {
     jupyterJWTCache.remove(pidAndPort);
@@ -294,55 +313,118 @@ public class JupyterJWTManager {
     if (!payaraClusterManager.amIThePrimary()) {
       return;
     }
-    // Renew the rest of them
-    Set<JupyterJWT> renewedJWTs = new HashSet<>(jupyterJWTCache.getSize());
-    Iterator<JupyterJWTDTO> jupyterJWTs = jupyterJWTCache.getMaybeExpired();
     LocalDateTime now = DateUtils.getNow();
     try {
-
-      while (jupyterJWTs.hasNext()) {
-        JupyterJWTDTO element = jupyterJWTs.next();
-        // Elements are sorted by their expiration date.
-        // If element N does not need to be renewed neither does N+1
-        if (element.maybeRenew(now)) {
-          LocalDateTime newExpirationDate = now.plus(settings.getJWTLifetimeMs(), ChronoUnit.MILLIS);
-          String newToken = null;
-          try {
-            newToken = jwtController.renewToken(element.getToken(), DateUtils.localDateTime2Date(newExpirationDate),
-                DateUtils.localDateTime2Date(now), false, new HashMap<>(3));
-            Project project = projectFacade.find(element.getProjectId());
-            Users user = userFacade.find(element.getUserId());
-            JupyterJWT renewedJWT = new JupyterJWT(project, user, newExpirationDate, element.getPidAndPort());
-            renewedJWT.tokenFile = Paths.get(element.getTokenFile());
-            renewedJWT.token = newToken;
-            jwtTokenWriter.writeToken(settings, renewedJWT);
+      List<JupyterJWTDTO> due = JupyterJWTRenewals.mostUrgent(jupyterJWTCache.getDueForRenewal(now),
+        MAX_RENEWALS_PER_RUN);
+      if (due.isEmpty()) {
+        return;
+      }
+      Map<Integer, Project> projects = findProjects(due);
+      Map<Integer, Users> users = findUsers(due);
+      Set<JupyterJWT> renewedJWTs = ConcurrentHashMap.newKeySet(due.size());
+      Queue<JupyterJWTDTO> queue = new ConcurrentLinkedQueue<>(due);
+      Runnable renewal = () -> {
+        JupyterJWTDTO element;
+        while ((element = queue.poll()) != null) {
+          JupyterJWT renewedJWT = renew(element, now, projects.get(element.getProjectId()),
+            users.get(element.getUserId()));
+          if (renewedJWT != null) {
             renewedJWTs.add(renewedJWT);
-          } catch (JWTException ex) {
-            LOG.log(Level.WARNING, "Could not renew Jupyter JWT for " + element, ex);
-          } catch (IOException ex) {
-            LOG.log(Level.WARNING, "Could not write renewed Jupyter JWT to file for " + element, ex);
-            if (newToken != null) {
-              try {
-                jwtController.invalidate(newToken);
-              } catch (InvalidationException invEx) {
-                LOG.log(Level.FINE, "Could not invalidate failed token", invEx);
-              }
-            }
-          } catch (Exception ex) {
-            LOG.log(Level.SEVERE, "Generic error renewing Jupyter JWT for " + element, ex);
           }
-        } else {
-          break;
         }
+      };
+      int workers = Math.max(1, Math.min(settings.getJupyterJWTRenewalMaxConcurrent(), due.size()));
+      if (executorService == null || workers == 1) {
+        renewal.run();
+      } else {
+        List<Future<?>> renewals = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+          renewals.add(executorService.submit(renewal));
+        }
+        for (Future<?> future : renewals) {
+          try {
+            future.get();
+          } catch (ExecutionException ex) {
+            LOG.log(Level.SEVERE, "Jupyter JWT renewal worker failed", ex);
+          }
+        }
+      }
+      jupyterJWTCache.replaceAll(renewedJWTs);
+      
+      long expired = due.stream().filter(t -> !t.getExpiration().isAfter(now)).count();
+      if (expired > 0) {
+        LOG.log(WARNING, expired + " Jupyter JWTs were renewed after they had expired. Consider raising "
+          + "jupyter_jwt_renewal_max_concurrent");
       }
-      renewedJWTs.forEach(t -> {
-        removeToken(t.pidAndPort);
-        addToken(t);
-      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     } catch (Exception e) {
       LOG.log(Level.SEVERE, "Got an exception while renewing jupyter jwt token" , e);
     }
   }
+  
+  /**
+   * Renews a token and writes it to the notebook server's token file. Runs outside the container lock of this bean.
+   *
+   * @return the renewed token, or null if it could not be renewed. It will be retried in the next run
+   */
+  private JupyterJWT renew(JupyterJWTDTO element, LocalDateTime now, Project project, Users user) {
+    if (project == null || user == null) {
+      LOG.log(Level.WARNING, "Could not renew Jupyter JWT for project " + element.getProjectId() + " and user "
+        + element.getUserId() + ", either the Project or the User does not exist");
+      return null;
+    }
+    LocalDateTime newExpirationDate = now.plus(settings.getJWTLifetimeMs(), ChronoUnit.MILLIS);
+    String newToken = null;
+    try {
+      // Forced, as the renewal is due before the token expires
+      newToken = jwtController.renewToken(element.getToken(), DateUtils.localDateTime2Date(newExpirationDate),
+          DateUtils.localDateTime2Date(now), false, new HashMap<>(3), true);
+      JupyterJWT renewedJWT = new JupyterJWT(project, user, newExpirationDate, element.getPidAndPort());
+      renewedJWT.tokenFile = Paths.get(element.getTokenFile());
+      renewedJWT.token = newToken;
+      renewedJWT.renewAt = renewAt(newExpirationDate, element.getPidAndPort());
+      jwtTokenWriter.writeToken(settings, renewedJWT);
+      return renewedJWT;
+    } catch (JWTException ex) {
+      LOG.log(Level.WARNING, "Could not renew Jupyter JWT for " + describe(project, user), ex);
+    } catch (IOException ex) {
+      LOG.log(Level.WARNING, "Could not write renewed Jupyter JWT to file for " + describe(project, user), ex);
+      if (newToken != null) {
+        try {
+          jwtController.invalidate(newToken);
+        } catch (InvalidationException invEx) {
+          LOG.log(Level.FINE, "Could not invalidate failed token", invEx);
+        }
+      }
+    } catch (Exception ex) {
+      LOG.log(Level.SEVERE, "Generic error renewing Jupyter JWT for " + describe(project, user), ex);
+    }
+    return null;
+  }
+  
+  private static String describe(Project project, Users user) {
+    return "(" + project.getName() + "/" + user.getUsername() + ")";
+  }
+  
+  private Map<Integer, Project> findProjects(List<JupyterJWTDTO> jupyterJWTs) {
+    List<Integer> ids = jupyterJWTs.stream().map(JupyterJWTDTO::getProjectId).distinct().collect(Collectors.toList());
+    Map<Integer, Project> projects = new HashMap<>(ids.size());
+    for (List<Integer> partition : Lists.partition(ids, settings.getSQLMaxSelectIn())) {
+      projectFacade.findByIds(partition).forEach(p -> projects.put(p.getId(), p));
+    }
+    return projects;
+  }
+  
+  private Map<Integer, Users> findUsers(List<JupyterJWTDTO> jupyterJWTs) {
+    List<Integer> uids = jupyterJWTs.stream().map(JupyterJWTDTO::getUserId).distinct().collect(Collectors.toList());
+    Map<Integer, Users> users = new HashMap<>(uids.size());
+    for (List<Integer> partition : Lists.partition(uids, settings.getSQLMaxSelectIn())) {
+      userFacade.findByUids(partition).forEach(u -> users.put(u.getUid(), u));
+    }
+    return users;
+  }
 
   @Lock(LockType.WRITE)
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
@@ -0,0 +1,72 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jupyter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Decides when Jupyter JWTs are renewed and in which order. A token is renewed ahead of its expiration, in a window
+ * of one to two tenths of the token lifetime. Where in the window depends on a jitter derived from the container and
+ * port of the notebook server, so that tokens issued together, for example during recovery, are not all due in the
+ * same run. Due tokens are renewed soonest expiring first.
+ */
+public class JupyterJWTRenewals {
+  
+  static final int LEAD_DIVISOR = 10;
+  
+  static final Comparator<JupyterJWTDTO> BY_EXPIRATION = Comparator.comparing(JupyterJWTDTO::getExpiration)
+    .thenComparing(JupyterJWTDTO::getProjectId)
+    .thenComparing(JupyterJWTDTO::getUserId);
+  
+  private JupyterJWTRenewals() {
+  }
+  
+  /**
+   * @param minLeadMs the least time before expiration to start renewing, so that failed renewals are retried a few
+   *                  times before the token expires
+   */
+  public static LocalDateTime renewAt(LocalDateTime expiration, CidAndPort pidAndPort, long lifetimeMs,
+    long minLeadMs) {
+    long maxLead = lifetimeMs / 2;
+    long lead = Math.min(Math.max(lifetimeMs / LEAD_DIVISOR, minLeadMs), maxLead);
+    long jitterRange = Math.min(lead, maxLead - lead);
+    if (jitterRange > 0) {
+      // Spread the bits of the hash code so that neighbouring ports do not get neighbouring renewal times
+      long hash = (pidAndPort.hashCode() & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+      lead += Math.floorMod(hash >>> 16, jitterRange);
+    }
+    return expiration.minus(lead, ChronoUnit.MILLIS);
+  }
+  
+  /**
+   * @return up to max of the due tokens, soonest expiring first
+   */
+  public static List<JupyterJWTDTO> mostUrgent(Collection<JupyterJWTDTO> due, int max) {
+    PriorityQueue<JupyterJWTDTO> queue = new PriorityQueue<>(Math.max(1, due.size()), BY_EXPIRATION);
+    queue.addAll(due);
+    List<JupyterJWTDTO> batch = new ArrayList<>(Math.min(max, queue.size()));
+    while (batch.size() < max && !queue.isEmpty()) {
+      batch.add(queue.poll());
+    }
+    return batch;
+  }
+}
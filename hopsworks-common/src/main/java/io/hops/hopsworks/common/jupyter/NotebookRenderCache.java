@@ -0,0 +1,144 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jupyter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import io.hops.hopsworks.exceptions.ServiceException;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of rendered notebooks keyed by the hash of the notebook content and the conversion, shared by the nodes of
+ * the cluster through Hazelcast. A notebook is converted once per content, previewing it again or from another
+ * project returns the rendered notebook without starting a conversion. Conversions of notebooks not cached go
+ * through a {@link ConversionQueue}.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class NotebookRenderCache {
+
+  private static final String MAP_NAME = "notebookRenderMap";
+  // in characters of rendered notebooks
+  private static final long MAX_LOCAL_SIZE = 64L * 1024 * 1024;
+  // in MB of heap used by the map on each node
+  private static final int MAX_SHARED_SIZE_MB = 256;
+  private static final int MAX_RENDERED_SIZE = 8 * 1024 * 1024;
+  private static final long EXPIRE_HOURS = 24;
+  private static final int MAX_CONCURRENT_CONVERSIONS = 4;
+  private static final int MAX_QUEUED_CONVERSIONS = 32;
+  // a conversion times out after 120s
+  private static final long CONVERSION_WAIT_TIMEOUT_MS = 130 * 1000L;
+
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private Cache<String, String> rendered;
+  private ConversionQueue conversionQueue;
+
+  public NotebookRenderCache() {
+  }
+
+  // For testing
+  NotebookRenderCache(long maxLocalSize, ConversionQueue conversionQueue) {
+    build(maxLocalSize);
+    this.conversionQueue = conversionQueue;
+  }
+
+  @PostConstruct
+  public void init() {
+    build(MAX_LOCAL_SIZE);
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null && hazelcastInstance.getConfig().getMapConfigOrNull(MAP_NAME) == null) {
+      MapConfig mapConfig = new MapConfig(MAP_NAME);
+      // evict the least recently used renders once the map takes MAX_SHARED_SIZE_MB of heap on a node
+      mapConfig.setEvictionConfig(new EvictionConfig()
+        .setEvictionPolicy(EvictionPolicy.LRU)
+        .setMaxSizePolicy(MaxSizePolicy.USED_HEAP_SIZE)
+        .setSize(MAX_SHARED_SIZE_MB));
+      hazelcastInstance.getConfig().addMapConfig(mapConfig);
+    }
+    conversionQueue =
+      new ConversionQueue(MAX_CONCURRENT_CONVERSIONS, MAX_QUEUED_CONVERSIONS, CONVERSION_WAIT_TIMEOUT_MS);
+  }
+
+  private void build(long maxLocalSize) {
+    rendered = Caffeine.newBuilder()
+      .maximumWeight(maxLocalSize)
+      .weigher((String key, String value) -> value.length())
+      .expireAfterAccess(EXPIRE_HOURS, TimeUnit.HOURS)
+      .build();
+  }
+
+  /**
+   * @param key the hash of the notebook and the conversion
+   * @param conversion converts the notebook if it was not rendered before
+   * @return the rendered notebook
+   */
+  public String render(String key, ConversionQueue.Conversion conversion) throws ServiceException {
+    String cached = get(key);
+    if (cached != null) {
+      return cached;
+    }
+    return conversionQueue.run(key, () -> {
+      // rendered on another node while this request was queued
+      String renderedMeanwhile = get(key);
+      return renderedMeanwhile != null ? renderedMeanwhile : conversion.convert();
+    });
+  }
+
+  /**
+   * @return the rendered notebook or null if it is not cached
+   */
+  public String get(String key) {
+    String cached = rendered.getIfPresent(key);
+    if (cached == null && hazelcastInstance != null) {
+      IMap<String, String> renderedMap = hazelcastInstance.getMap(MAP_NAME);
+      cached = renderedMap.get(key);
+      if (cached != null) {
+        rendered.put(key, cached);
+      }
+    }
+    return cached;
+  }
+
+  public void put(String key, String renderedNotebook) {
+    if (renderedNotebook == null || renderedNotebook.length() > MAX_RENDERED_SIZE) {
+      return;
+    }
+    rendered.put(key, renderedNotebook);
+    if (hazelcastInstance != null) {
+      IMap<String, String> renderedMap = hazelcastInstance.getMap(MAP_NAME);
+      renderedMap.set(key, renderedNotebook, EXPIRE_HOURS, TimeUnit.HOURS);
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.kafka;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.SchemaCompatibility;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+import org.apache.avro.SchemaValidationException;
+import org.apache.avro.SchemaValidator;
+import org.apache.avro.SchemaValidatorBuilder;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per node cache of parsed avro schemas and of the compatibility between pairs of schemas, keyed by the SHA-256
+ * fingerprint of the schemas. Registering a version or checking its compatibility parses and validates only the
+ * schemas not seen before instead of the whole history of the subject.
+ * The entries depend only on the content of the schemas, they never need to be invalidated.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AvroSchemaCache {
+
+  private static final long MAX_SCHEMAS = 10000;
+  private static final long MAX_COMPATIBILITY_RESULTS = 100000;
+  private static final long MAX_TYPES = 10000;
+  // the expiry only bounds the memory of schemas no longer used
+  private static final long EXPIRE_HOURS = 1;
+
+  // fingerprint of the schema text -> parsed schema
+  private Cache<String, ParsedSchema> schemas;
+  // strategy, fingerprint of the schema to test and of the previous schema -> compatible
+  private Cache<String, Boolean> compatibility;
+  // hive type, nullable and namespace -> avro type
+  private Cache<String, Schema> types;
+
+  public AvroSchemaCache() {
+  }
+
+  // For testing
+  public AvroSchemaCache(long maxSize) {
+    build(maxSize, maxSize, maxSize);
+  }
+
+  @PostConstruct
+  public void init() {
+    build(MAX_SCHEMAS, MAX_COMPATIBILITY_RESULTS, MAX_TYPES);
+  }
+
+  private void build(long maxSchemas, long maxCompatibilityResults, long maxTypes) {
+    schemas = Caffeine.newBuilder()
+        .maximumSize(maxSchemas)
+        .expireAfterAccess(EXPIRE_HOURS, TimeUnit.HOURS)
+        .build();
+    compatibility = Caffeine.newBuilder()
+        .maximumSize(maxCompatibilityResults)
+        .expireAfterAccess(EXPIRE_HOURS, TimeUnit.HOURS)
+        .build();
+    types = Caffeine.newBuilder()
+        .maximumSize(maxTypes)
+        .expireAfterAccess(EXPIRE_HOURS, TimeUnit.HOURS)
+        .build();
+  }
+
+  /**
+   * @param schemaContent the json of the schema
+   * @return the parsed schema
+   * @throws SchemaParseException if the schema is not a valid avro schema, invalid schemas are not cached
+   */
+  public ParsedSchema parse(String schemaContent) {
+    String key = DigestUtils.sha256Hex(schemaContent);
+    ParsedSchema parsedSchema = schemas.getIfPresent(key);
+    if (parsedSchema == null) {
+      parsedSchema = new ParsedSchema(new Schema.Parser().parse(schemaContent));
+      schemas.put(key, parsedSchema);
+    }
+    return parsedSchema;
+  }
+
+  /**
+   * @return true if schemaToTest is compatible with previousSchema
+   */
+  public boolean isCompatible(ParsedSchema schemaToTest, ParsedSchema previousSchema, SchemaCompatibility sc) {
+    if (sc == SchemaCompatibility.NONE) {
+      return true;
+    }
+    String key = getStrategy(sc) + "|" + schemaToTest.getFingerprint() + "|" + previousSchema.getFingerprint();
+    Boolean compatible = compatibility.getIfPresent(key);
+    if (compatible == null) {
+      compatible = validate(schemaToTest.getSchema(), previousSchema.getSchema(), sc);
+      compatibility.put(key, compatible);
+    }
+    return compatible;
+  }
+
+  /**
+   * @return true if all the previous versions of a subject need to be compatible, false if only the latest
+   */
+  public boolean isTransitive(SchemaCompatibility sc) {
+    switch (sc) {
+      case BACKWARD_TRANSITIVE:
+      case FORWARD_TRANSITIVE:
+      case FULL_TRANSITIVE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return the avro type of a feature or null if it is not cached
+   */
+  public Schema getAvroType(String hiveType, boolean nullable, String nameSpace) {
+    return types.getIfPresent(typeKey(hiveType, nullable, nameSpace));
+  }
+
+  public void putAvroType(String hiveType, boolean nullable, String nameSpace, Schema avroType) {
+    types.put(typeKey(hiveType, nullable, nameSpace), avroType);
+  }
+
+  private String typeKey(String hiveType, boolean nullable, String nameSpace) {
+    return hiveType + "|" + nullable + "|" + nameSpace;
+  }
+
+  private boolean validate(Schema schemaToTest, Schema previousSchema, SchemaCompatibility sc) {
+    SchemaValidator validator = getSchemaValidator(sc);
+    try {
+      validator.validate(schemaToTest, Collections.singleton(previousSchema));
+    } catch (SchemaValidationException e) {
+      return false;
+    }
+    return true;
+  }
+
+  // compatibility of one pair of schemas, the transitive levels check every pair with the same strategy
+  private SchemaValidator getSchemaValidator(SchemaCompatibility sc) {
+    switch (getStrategy(sc)) {
+      case CAN_READ:
+        return new SchemaValidatorBuilder().canReadStrategy().validateLatest();
+      case CAN_BE_READ:
+        return new SchemaValidatorBuilder().canBeReadStrategy().validateLatest();
+      default:
+        return new SchemaValidatorBuilder().mutualReadStrategy().validateLatest();
+    }
+  }
+
+  private Strategy getStrategy(SchemaCompatibility sc) {
+    switch (sc) {
+      case BACKWARD:
+      case BACKWARD_TRANSITIVE:
+        return Strategy.CAN_READ;
+      case FORWARD:
+      case FORWARD_TRANSITIVE:
+        return Strategy.CAN_BE_READ;
+      case FULL:
+      case FULL_TRANSITIVE:
+        return Strategy.MUTUAL_READ;
+      default:
+        throw new IllegalArgumentException("Unknown schema compatibility " + sc.toString());
+    }
+  }
+
+  private enum Strategy {
+    CAN_READ,
+    CAN_BE_READ,
+    MUTUAL_READ
+  }
+
+  long size() {
+    schemas.cleanUp();
+    compatibility.cleanUp();
+    return schemas.estimatedSize() + compatibility.estimatedSize();
+  }
+
+  /**
+   * A parsed schema with its json and fingerprint, to be used read only.
+   */
+  public static class ParsedSchema {
+    private final Schema schema;
+    private final String json;
+    private final String fingerprint;
+
+    private ParsedSchema(Schema schema) {
+      this.schema = schema;
+      this.json = schema.toString();
+      this.fingerprint = DigestUtils.sha256Hex(json);
+    }
+
+    public Schema getSchema() {
+      return schema;
+    }
+
+    public String getJson() {
+      return json;
+    }
+
+    public String getFingerprint() {
+      return fingerprint;
+    }
+  }
+}
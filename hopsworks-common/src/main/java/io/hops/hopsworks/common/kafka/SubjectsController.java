@@ -24,16 +24,13 @@ import io.hops.hopsworks.persistence.entity.kafka.schemas.Subjects;
 import io.hops.hopsworks.common.dao.kafka.schemas.SubjectsFacade;
 import io.hops.hopsworks.persistence.entity.kafka.schemas.SubjectsCompatibility;
 import io.hops.hopsworks.common.dao.kafka.schemas.SubjectsCompatibilityFacade;
+import io.hops.hopsworks.common.kafka.AvroSchemaCache.ParsedSchema;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.KafkaException;
 import io.hops.hopsworks.exceptions.SchemaException;
 import io.hops.hopsworks.restutils.RESTCodes;
-import org.apache.avro.Schema;
 import org.apache.avro.SchemaParseException;
-import org.apache.avro.SchemaValidationException;
-import org.apache.avro.SchemaValidator;
-import org.apache.avro.SchemaValidatorBuilder;
 
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
@@ -41,7 +38,6 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import java.math.BigInteger;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -62,6 +58,8 @@ public class SubjectsController {
   private SchemasController schemasController;
   @EJB
   private ProjectTopicsFacade projectTopicsFacade;
+  @EJB
+  private AvroSchemaCache avroSchemaCache;
   
   public List<String> getSubjects(Project project) {
     return subjectsFacade.getListOfSubjects(project);
@@ -110,16 +108,10 @@ public class SubjectsController {
   public SubjectDTO registerNewSubject(Project project, String subject, String schemaContent,
     boolean isEnablingKafkaService) throws KafkaException, SchemaException {
     validateSubject(subject, isEnablingKafkaService);
-    Schema schema;
-    try {
-      schema = new Schema.Parser().parse(schemaContent);
-    } catch (SchemaParseException e) {
-      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
-        "schema=" + schemaContent);
-    }
+    ParsedSchema schema = parse(schemaContent);
     //check if schema exists - return current id
     Optional<Subjects> optionalSubject =
-      subjectsFacade.findSubjectByNameAndSchema(project, subject, schema.toString());
+      subjectsFacade.findSubjectByNameAndSchema(project, subject, schema.getJson());
     if (optionalSubject.isPresent()) {
       Subjects subjects = optionalSubject.get();
       return new SubjectDTO(subjects.getSchema().getId(), subjects.getSubject(), subjects.getVersion());
@@ -135,7 +127,7 @@ public class SubjectsController {
       .max(Integer::compareTo)
       .orElse(0);
   
-    Schemas schemas = schemasController.addNewSchema(project, schema.toString());
+    Schemas schemas = schemasController.addNewSchema(project, schema.getJson());
     Integer id = subjectsFacade.insertNewSubject(project, subject, schemas, latestVersion + 1);
     return new SubjectDTO(id, subject, latestVersion + 1);
   }
@@ -154,39 +146,35 @@ public class SubjectsController {
     }
   }
   
-  private boolean isCompatible(Project project, String subject, Schema schema) throws SchemaException {
+  private boolean isCompatible(Project project, String subject, ParsedSchema schema) throws SchemaException {
     SchemaCompatibility sc = getSubjectOrProjectCompatibility(project, subject);
     if (sc.equals(SchemaCompatibility.NONE)) {
       return true;
     }
-    SchemaValidator validator = getSchemaValidator(sc);
-    List<Schema> previousSchemas = subjectsFacade.findSubjectByName(project, subject)
+    List<Subjects> previousVersions = subjectsFacade.findSubjectByName(project, subject)
       .stream()
       .sorted(Comparator.comparing(Subjects::getVersion).reversed())
-      .map(s -> new Schema.Parser().parse(s.getSchema().getSchema()))
       .collect(Collectors.toList());
-    try {
-      
-      validator.validate(schema, previousSchemas);
-    } catch (SchemaValidationException e) {
-      return false;
+    if (!avroSchemaCache.isTransitive(sc) && !previousVersions.isEmpty()) {
+      previousVersions = previousVersions.subList(0, 1);
+    }
+    // the stored versions and their compatibility with the schema are cached by fingerprint, only the versions not
+    // seen before are parsed and validated
+    for (Subjects previousVersion : previousVersions) {
+      if (!avroSchemaCache.isCompatible(schema, avroSchemaCache.parse(previousVersion.getSchema().getSchema()), sc)) {
+        return false;
+      }
     }
-    
     return true;
   }
   
-  private boolean isCompatible(Schema previousSchema, Schema schemaToTest, SchemaCompatibility sc) {
-    if (sc == SchemaCompatibility.NONE) {
-      return true;
-    }
-    
-    SchemaValidator validator = getSchemaValidator(sc);
+  private ParsedSchema parse(String schemaContent) throws SchemaException {
     try {
-      validator.validate(schemaToTest, Collections.singleton(previousSchema));
-    } catch (SchemaValidationException e) {
-      return false;
+      return avroSchemaCache.parse(schemaContent);
+    } catch (SchemaParseException e) {
+      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
+        "schema=" + schemaContent);
     }
-    return true;
   }
   
   private SchemaCompatibility getSubjectOrProjectCompatibility(Project project, String subject) throws SchemaException {
@@ -201,42 +189,17 @@ public class SubjectsController {
     }
   }
   
-  private SchemaValidator getSchemaValidator(SchemaCompatibility sc) {
-    switch(sc) {
-      case BACKWARD:
-        return new SchemaValidatorBuilder().canReadStrategy().validateLatest();
-      case BACKWARD_TRANSITIVE:
-        return new SchemaValidatorBuilder().canReadStrategy().validateAll();
-      case FORWARD:
-        return new SchemaValidatorBuilder().canBeReadStrategy().validateLatest();
-      case FORWARD_TRANSITIVE:
-        return new SchemaValidatorBuilder().canBeReadStrategy().validateAll();
-      case FULL:
-        return new SchemaValidatorBuilder().mutualReadStrategy().validateLatest();
-      case FULL_TRANSITIVE:
-        return new SchemaValidatorBuilder().mutualReadStrategy().validateAll();
-      default:
-        throw new IllegalArgumentException("Unknown schema compatibility " + sc.toString());
-    }
-  }
-  
   public SubjectDTO checkIfSchemaRegistered(Project project, String subject, String schemaContent) throws
     SchemaException {
     if (!subjectsFacade.getListOfSubjects(project).contains(subject)) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SUBJECT_NOT_FOUND, Level.FINE, "subject=" +
         subject);
     }
-    Schema schema;
-    try {
-      schema = new Schema.Parser().parse(schemaContent);
-    } catch (SchemaParseException e) {
-      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
-        "schema=" + schemaContent);
-    }
-    Optional<Subjects> optional = subjectsFacade.findSubjectByNameAndSchema(project, subject, schema.toString());
+    ParsedSchema schema = parse(schemaContent);
+    Optional<Subjects> optional = subjectsFacade.findSubjectByNameAndSchema(project, subject, schema.getJson());
     if (!optional.isPresent()) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SCHEMA_NOT_FOUND, Level.FINE,
-        "schema=" + schema.toString());
+        "schema=" + schema.getJson());
     }
     return new SubjectDTO(optional.get());
   }
@@ -264,13 +227,7 @@ public class SubjectsController {
     String schemaToTest) throws SchemaException {
     
     validateVersion(version);
-    Schema schema;
-    try {
-      schema = new Schema.Parser().parse(schemaToTest);
-    } catch (SchemaParseException e) {
-      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
-        "schema=" + schemaToTest);
-    }
+    ParsedSchema schema = parse(schemaToTest);
     if (!subjectsFacade.getListOfSubjects(project).contains(subject)) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SUBJECT_NOT_FOUND, Level.FINE, "subject=" +
         subject);
@@ -288,7 +245,8 @@ public class SubjectsController {
         .getName() + ", subject=" + subject + ", version=" + version);
     }
     
-    boolean isCompatible = isCompatible(new Schema.Parser().parse(optional.get().getSchema().getSchema()), schema, sc);
+    boolean isCompatible =
+      avroSchemaCache.isCompatible(schema, avroSchemaCache.parse(optional.get().getSchema().getSchema()), sc);
     return new CompatibilityCheck(isCompatible);
   }
   
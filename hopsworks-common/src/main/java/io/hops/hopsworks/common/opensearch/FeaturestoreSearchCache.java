@@ -0,0 +1,115 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.opensearch;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.OpenSearchException;
+import org.opensearch.action.search.SearchResponse;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per node state of the feature store search. The existence of the index is checked once at startup and again only
+ * after it was found missing or a search on it failed. The responses of identical searches are cached for a few
+ * seconds, they are shared only between searches over the same projects and the access to each hit is still checked
+ * per user when the response is parsed.
+ */
+@Startup
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class FeaturestoreSearchCache {
+
+  private static final Logger LOGGER = Logger.getLogger(FeaturestoreSearchCache.class.getName());
+  private static final long MAX_RESULTS = 1000;
+  private static final long RESULT_TTL_SECONDS = 10;
+
+  @EJB
+  private OpenSearchClientController elasticClientCtrl;
+
+  // only existing indices are kept, a missing index is checked again on the next search
+  private final Set<String> existingIndices = ConcurrentHashMap.newKeySet();
+  private Cache<String, Map<FeaturestoreDocType, SearchResponse>> results;
+
+  public FeaturestoreSearchCache() {
+  }
+
+  // For testing
+  FeaturestoreSearchCache(OpenSearchClientController elasticClientCtrl) {
+    this.elasticClientCtrl = elasticClientCtrl;
+    build();
+  }
+
+  @PostConstruct
+  public void init() {
+    build();
+    try {
+      indexExists(Settings.FEATURESTORE_INDEX);
+    } catch (OpenSearchException e) {
+      // opensearch might not be up yet, checked again on the first search
+      LOGGER.log(Level.INFO, "Could not check the feature store index at startup: {0}", e.getMessage());
+    }
+  }
+
+  private void build() {
+    results = Caffeine.newBuilder()
+        .maximumSize(MAX_RESULTS)
+        .expireAfterWrite(RESULT_TTL_SECONDS, TimeUnit.SECONDS)
+        .build();
+  }
+
+  public boolean indexExists(String index) throws OpenSearchException {
+    if (existingIndices.contains(index)) {
+      return true;
+    }
+    boolean exists = elasticClientCtrl.mngIndexExists(index);
+    if (exists) {
+      existingIndices.add(index);
+    }
+    return exists;
+  }
+
+  /**
+   * Forget that the index exists and drop the cached responses, after a search on it failed.
+   */
+  public void indexChanged(String index) {
+    existingIndices.remove(index);
+    results.invalidateAll();
+  }
+
+  public Map<FeaturestoreDocType, SearchResponse> getResult(String key) {
+    return results.getIfPresent(key);
+  }
+
+  public void putResult(String key, Map<FeaturestoreDocType, SearchResponse> result) {
+    results.put(key, result);
+  }
+}
@@ -62,6 +62,9 @@ import org.opensearch.index.IndexNotFoundException;
 import org.opensearch.index.reindex.BulkByScrollResponse;
 import org.opensearch.index.reindex.DeleteByQueryRequest;
 import org.opensearch.rest.RestStatus;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.fetch.subphase.FetchSourceContext;
 import org.javatuples.Pair;
 
 import javax.ejb.EJB;
@@ -89,6 +92,8 @@ import java.util.regex.Pattern;
  */
 public class OpenSearchClientController {
   private static final Logger LOG = Logger.getLogger(OpenSearchClientController.class.getName());
+  //opensearch default index.max_result_window - from + size cannot go beyond this
+  private static final int MAX_RESULT_WINDOW = 10000;
   
   @EJB
   private OpenSearchClient client;
@@ -308,6 +313,73 @@ public class OpenSearchClientController {
     return Pair.with(response.getHits().getTotalHits().value, collectedResults);
   }
 
+  /**
+   * Streams the hits of a sorted request page by page using search_after, with offset and limit pushed down to
+   * opensearch. Only the page currently being handled is kept in memory, so the handler should filter/aggregate.
+   * The request needs a total sort order (a unique field as last sort key) for the search_after cursor to be stable.
+   * Offsets within the result window are served with from, deeper offsets are skipped by walking the sort values
+   * without fetching any document source.
+   * @param request sorted search request
+   * @param handler consumes each page of hits
+   * @param offset number of hits to skip
+   * @param limit max number of hits to hand to the handler
+   * @param pageSize number of hits requested per round trip
+   * @param <R>
+   * @param <S>
+   * @return pair containing the total hits and the handler state
+   * @throws OpenSearchException
+   */
+  public <R, S> Pair<Long, Try<S>> searchAfter(SearchRequest request, OpenSearchHits.Handler<R, S> handler,
+                                               int offset, int limit, int pageSize)
+    throws OpenSearchException {
+    SearchSourceBuilder source = request.source();
+    FetchSourceContext fetchSource = source.fetchSource();
+    Long totalHits = null;
+    int toSkip = 0;
+    if(offset + Math.min(limit, pageSize) <= MAX_RESULT_WINDOW) {
+      source.from(offset);
+    } else {
+      source.from(0);
+      toSkip = offset;
+    }
+    while(toSkip > 0) {
+      source.fetchSource(false).size(Math.min(toSkip, pageSize));
+      SearchResponse response = baseSearch(request);
+      if(totalHits == null) {
+        totalHits = response.getHits().getTotalHits().value;
+        source.trackTotalHits(false);
+      }
+      SearchHit[] hits = response.getHits().getHits();
+      if(hits.length == 0) {
+        return Pair.with(totalHits, handler.apply(hits));
+      }
+      toSkip -= hits.length;
+      source.searchAfter(hits[hits.length - 1].getSortValues());
+    }
+    source.fetchSource(fetchSource);
+    int leftover = limit;
+    Try<S> result;
+    do {
+      int size = Math.min(leftover, pageSize);
+      source.size(size);
+      SearchResponse response = baseSearch(request);
+      if(totalHits == null) {
+        totalHits = response.getHits().getTotalHits().value;
+        source.trackTotalHits(false);
+      }
+      SearchHit[] hits = response.getHits().getHits();
+      result = handler.apply(hits);
+      leftover -= hits.length;
+      // limit 0 or an empty page, there is no last hit to continue from
+      if(hits.length == 0 || hits.length < size) {
+        break;
+      }
+      source.from(0);
+      source.searchAfter(hits[hits.length - 1].getSortValues());
+    } while(leftover > 0 && result.isSuccess());
+    return Pair.with(totalHits, result);
+  }
+
   /**
    * Performs scrolling search for any request exceeding requested size, finally returning pair a containing totalHits
    * number and the whole response.
@@ -78,12 +78,16 @@ import javax.ejb.TransactionAttributeType;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.opensearch.index.query.QueryBuilders.boolQuery;
@@ -118,9 +122,20 @@ public class OpenSearchController {
   private KibanaClient kibanaClient;
   @EJB
   private OpenSearchClientController elasticClientCtrl;
+  @EJB
+  private FeaturestoreSearchCache featurestoreSearchCache;
   
   private static final Logger LOG = Logger.getLogger(OpenSearchController.class.getName());
   
+  public OpenSearchController() {
+  }
+  
+  // For testing
+  OpenSearchController(OpenSearchClientController elasticClientCtrl, FeaturestoreSearchCache featurestoreSearchCache) {
+    this.elasticClientCtrl = elasticClientCtrl;
+    this.featurestoreSearchCache = featurestoreSearchCache;
+  }
+  
 
   public SearchHit[] globalSearchHighLevel(String searchTerm) throws ServiceException, OpenSearchException {
     //check if the index are up and running
@@ -231,11 +246,23 @@ public class OpenSearchController {
     String searchTerm, int from, int size)
     throws OpenSearchException, ServiceException {
     //check if the indices are up and running
-    if (!elasticClientCtrl.mngIndexExists(Settings.FEATURESTORE_INDEX)) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.OPENSEARCH_INDEX_NOT_FOUND,
-        Level.SEVERE, "index: " + Settings.FEATURESTORE_INDEX);
+    checkFeaturestoreIndex();
+    String key = featurestoreSearchKey(docType.name(), searchTerm, from, size);
+    Map<FeaturestoreDocType, SearchResponse> result = featurestoreSearchCache.getResult(key);
+    if (result == null) {
+      try {
+        result = Collections.unmodifiableMap(featurestoreSearchInt(docType, searchTerm, from, size));
+      } catch (OpenSearchException e) {
+        featurestoreSearchCache.indexChanged(Settings.FEATURESTORE_INDEX);
+        throw e;
+      }
+      featurestoreSearchCache.putResult(key, result);
     }
-    
+    return result;
+  }
+  
+  private Map<FeaturestoreDocType, SearchResponse> featurestoreSearchInt(FeaturestoreDocType docType,
+    String searchTerm, int from, int size) throws OpenSearchException {
     Map<FeaturestoreDocType, SearchResponse> result = new HashMap<>();
     SearchResponse response;
     switch(docType) {
@@ -293,11 +320,28 @@ public class OpenSearchController {
     Map<FeaturestoreDocType, Set<Integer>> docProjectIds, int from, int size)
     throws OpenSearchException, ServiceException, GenericException {
     //check if the indices are up and running
-    if (!elasticClientCtrl.mngIndexExists(Settings.FEATURESTORE_INDEX)) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.OPENSEARCH_INDEX_NOT_FOUND,
-        Level.SEVERE, "index: " + Settings.FEATURESTORE_INDEX);
+    checkFeaturestoreIndex();
+    //the projects searched are part of the key, a response is only shared between searches over the same projects
+    String scope = new TreeMap<>(docProjectIds).entrySet().stream()
+      .map(e -> e.getKey() + "=" + new TreeSet<>(e.getValue()))
+      .collect(Collectors.joining(","));
+    String key = featurestoreSearchKey(scope, searchTerm, from, size);
+    Map<FeaturestoreDocType, SearchResponse> result = featurestoreSearchCache.getResult(key);
+    if (result == null) {
+      try {
+        result = Collections.unmodifiableMap(featurestoreSearchInt(searchTerm, docProjectIds, from, size));
+      } catch (OpenSearchException e) {
+        featurestoreSearchCache.indexChanged(Settings.FEATURESTORE_INDEX);
+        throw e;
+      }
+      featurestoreSearchCache.putResult(key, result);
     }
+    return result;
+  }
   
+  private Map<FeaturestoreDocType, SearchResponse> featurestoreSearchInt(String searchTerm,
+    Map<FeaturestoreDocType, Set<Integer>> docProjectIds, int from, int size)
+    throws OpenSearchException, GenericException {
     List<SearchQB> qbs = new ArrayList<>();
     for(FeaturestoreDocType docType : FeaturestoreDocType.values()) {
       if(docProjectIds.containsKey(docType)) {
@@ -342,6 +386,17 @@ public class OpenSearchController {
     return result;
   }
   
+  private void checkFeaturestoreIndex() throws OpenSearchException, ServiceException {
+    if (!featurestoreSearchCache.indexExists(Settings.FEATURESTORE_INDEX)) {
+      throw new ServiceException(RESTCodes.ServiceErrorCode.OPENSEARCH_INDEX_NOT_FOUND,
+        Level.SEVERE, "index: " + Settings.FEATURESTORE_INDEX);
+    }
+  }
+  
+  private String featurestoreSearchKey(String scope, String searchTerm, int from, int size) {
+    return scope + "|" + from + "|" + size + "|" + searchTerm;
+  }
+  
   private QueryBuilder addProjectToQuery(QueryBuilder qb, Set<Integer> projectIds) {
     return boolQuery()
       .must(termsQuery(Settings.FEATURESTORE_PROJECT_ID_FIELD, projectIds))
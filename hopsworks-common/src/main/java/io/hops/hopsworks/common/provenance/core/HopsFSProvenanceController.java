@@ -90,7 +90,8 @@ public class HopsFSProvenanceController {
     throws ProvenanceException {
     try {
       String provType = converter.marshal(provCore);
-      xattrCtrl.upsertProvXAttr(udfso, path, ProvXAttrs.PROV_XATTR_CORE_VAL, provType.getBytes());
+      // Callers have read the current value already, no need to read it again
+      xattrCtrl.setProvXAttr(udfso, path, ProvXAttrs.PROV_XATTR_CORE_VAL, provType.getBytes());
     } catch (GenericException | DatasetException | MetadataException e) {
       throw new ProvenanceException(RESTCodes.ProvenanceErrorCode.FS_ERROR, Level.WARNING,
         "hopsfs - set xattr - prov core - error", "hopsfs - set xattr - prov core - error", e);
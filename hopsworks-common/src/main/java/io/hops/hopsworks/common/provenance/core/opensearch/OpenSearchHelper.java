@@ -95,15 +95,20 @@ public class OpenSearchHelper {
     };
   }
   
+  public static void checkProvPagination(Integer offset, Integer limit, long defaultPageSize)
+    throws ProvenanceException {
+    try {
+      OpenSearchHelper.checkPagination(offset, limit, defaultPageSize);
+    } catch(OpenSearchException e) {
+      throw new ProvenanceException(RESTCodes.ProvenanceErrorCode.BAD_REQUEST, Level.INFO,
+        "query with malformed pagination", "query with malformed pagination", e);
+    }
+  }
+  
   public static CheckedFunction<SearchRequest, SearchRequest, ProvenanceException> withPagination(
     Integer offset, Integer limit, long defaultPageSize) {
     return (SearchRequest sr) -> {
-      try {
-        OpenSearchHelper.checkPagination(offset, limit, defaultPageSize);
-      } catch(OpenSearchException e) {
-        throw new ProvenanceException(RESTCodes.ProvenanceErrorCode.BAD_REQUEST, Level.INFO,
-          "query with malformed pagination", "query with malformed pagination", e);
-      }
+      checkProvPagination(offset, limit, defaultPageSize);
       if(offset != null) {
         sr.source().from(offset);
       }
@@ -127,6 +132,17 @@ public class OpenSearchHelper {
     };
   }
   
+  /**
+   * search_after requires a total order on the hits, so we append a unique field as the last sort key
+   */
+  public static CheckedFunction<SearchRequest, SearchRequest, ProvenanceException> withSearchAfterTiebreaker(
+    ProvParser.Field uniqueField) {
+    return (SearchRequest sr) -> {
+      sr.source().sort(SortBuilders.fieldSort(uniqueField.openSearchFieldName()).order(SortOrder.ASC));
+      return sr;
+    };
+  }
+  
   public static CheckedFunction<SearchRequest, SearchRequest, ProvenanceException> withFileOpsOrder(
     List<Pair<ProvParser.Field, SortOrder>> fileOpsSortBy) {
     return (SearchRequest sr) -> {
@@ -193,17 +193,19 @@ public class ProvStateController {
     List<ProvStateParamBuilder.SortE> xattrSortBy,
     Integer offset, Integer limit, HandlerFactory<R, S1, S2> handlerFactory)
     throws ProvenanceException {
+    OpenSearchHelper.checkProvPagination(offset, limit, settings.getOpenSearchMaxScrollPageSize());
+    int pageSize = settings.getOpenSearchDefaultScrollPageSize();
     CheckedSupplier<SearchRequest, ProvenanceException> srF =
-      OpenSearchHelper.baseSearchRequest(
-        settings.getProvFileIndex(projectIId),
-        settings.getOpenSearchDefaultScrollPageSize())
+      OpenSearchHelper.baseSearchRequest(settings.getProvFileIndex(projectIId), pageSize)
         .andThen(filterByStateParams(fileStateFilters, xAttrsFilters, likeXAttrsFilters, hasXAttrsFilters))
         .andThen(OpenSearchHelper.withFileStateOrder(fileStateSortBy, xattrSortBy))
-        .andThen(OpenSearchHelper.withPagination(offset, limit, settings.getOpenSearchMaxScrollPageSize()));
+        .andThen(OpenSearchHelper.withSearchAfterTiebreaker(ProvStateParser.FieldsP.FILE_I_ID));
     SearchRequest request = srF.get();
     Pair<Long, Try<S1>> searchResult;
     try {
-      searchResult = client.search(request, handlerFactory.getHandler());
+      //offset/limit are pushed down to opensearch and hits are handed over to the handler one page at a time
+      searchResult = client.searchAfter(request, handlerFactory.getHandler(),
+        offset == null ? 0 : offset, limit == null ? pageSize : limit, pageSize);
     } catch (OpenSearchException e) {
       String msg = "provenance - opensearch query problem";
       throw ProvHelper.fromOpenSearch(e, msg, msg + " - file state");
@@ -29,6 +29,7 @@ import io.hops.hopsworks.exceptions.UserException;
 import io.hops.hopsworks.persistence.entity.jupyter.config.GitBackend;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.python.CondaCommands;
+import io.hops.hopsworks.persistence.entity.python.CondaOp;
 import io.hops.hopsworks.restutils.RESTCodes;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -50,7 +51,9 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.logging.Level;
 
 @Stateless
@@ -166,92 +169,7 @@ public class DockerFileController {
       try (BufferedWriter writer = new BufferedWriter(new FileWriter(dockerFile))) {
         writer.write("FROM " + baseImage);
         writer.newLine();
-        writer.write(
-          "RUN --mount=type=bind,source=.condarc,target=/root/.condarc"
-            + " --mount=type=bind,source=.pip,target=/root/.pip ");
-        switch (cc.getInstallType()) {
-          case CONDA:
-            String condaLib;
-            if (cc.getVersion().equals(Settings.UNKNOWN_LIBRARY_VERSION)) {
-              condaLib = cc.getLib();
-              dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
-            } else {
-              condaLib = cc.getLib() + "=" + cc.getVersion();
-            }
-            writer.write(anaconda_dir + "/bin/conda install -y -n " + settings.getCurrentCondaEnvironment()
-              + " -c " + cc.getChannelUrl() + " " + condaLib);
-            break;
-          case PIP:
-            String pipLib;
-            if (cc.getVersion().equals(Settings.UNKNOWN_LIBRARY_VERSION)) {
-              pipLib = cc.getLib();
-              dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
-            } else {
-              pipLib = cc.getLib() + "==" + cc.getVersion();
-            }
-            writer.write(anaconda_project_dir + "/bin/pip install --upgrade " + pipLib);
-            break;
-          case EGG:
-            String eggName = cc.getLib();
-            String localEggPath = baseDir + File.separator + eggName;
-            copyCondaArtifactToLocal(cc.getArg(), localEggPath);
-            writer.write("--mount=type=bind,source=" + eggName + ",target=/root/" + eggName + " ");
-            writer.write(anaconda_project_dir + "/bin/easy_install --upgrade /root/" + eggName);
-            break;
-          case WHEEL:
-            String wheelName = cc.getLib();
-            String localWheelPath = baseDir + File.separator + wheelName;
-            copyCondaArtifactToLocal(cc.getArg(), localWheelPath);
-            writer.write("--mount=type=bind,source=" + wheelName + ",target=/root/" + wheelName + " ");
-            writer.write(anaconda_project_dir + "/bin/pip install --upgrade /root/" + wheelName);
-            break;
-          case REQUIREMENTS_TXT:
-            String requirementsName = cc.getLib();
-            String localRequirementsName = baseDir + File.separator + requirementsName;
-            copyCondaArtifactToLocal(cc.getArg(), localRequirementsName);
-            writer.write("--mount=type=bind,source=" + requirementsName + ",target=/root/" + requirementsName + " ");
-            writer.write(anaconda_project_dir + "/bin/pip install -r /root/" + requirementsName);
-            break;
-          case ENVIRONMENT_YAML:
-            String environmentsName = cc.getLib();
-            String localEnvironmentsName = baseDir + File.separator + environmentsName;
-            copyCondaArtifactToLocal(cc.getArg(), localEnvironmentsName);
-            writer.write("--mount=type=bind,source=" + environmentsName + ",target=/root/" + environmentsName + " ");
-            writer.write(anaconda_dir + "/bin/conda env update -f /root/" + environmentsName + " -n "
-              + settings.getCurrentCondaEnvironment());
-            break;
-          case GIT:
-            if (cc.getGitBackend() != null && cc.getGitApiKeyName() != null) {
-              apiToken = secretsController.get(cc.getUserId(), cc.getGitApiKeyName()).getPlaintext();
-              URL repoUrl = new URL(cc.getArg());
-              if (cc.getGitBackend().equals(GitBackend.GITHUB)) {
-                writer.write(anaconda_project_dir + "/bin/pip install --upgrade 'git+https://"
-                  + apiToken + ":x-oauth-basic@" + repoUrl.getHost() + repoUrl.getPath() + "'");
-              } else if (cc.getGitBackend().equals(GitBackend.GITLAB)) {
-                writer.write(anaconda_project_dir + "/bin/pip install --upgrade 'git+https://oauth2:"
-                  + apiToken + "@" + repoUrl.getHost() + repoUrl.getPath() + "'");
-              }
-            } else {
-              if(cc.getArg().startsWith("https://")) { //This is for backwards compatibility with previous behaviour
-                writer.write(anaconda_project_dir + "/bin/pip install --upgrade 'git+" + cc.getArg() + "'");
-              } else {
-                writer.write(anaconda_project_dir + "/bin/pip install --upgrade '" + cc.getArg() + "'");
-              }
-            }
-            dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
-            break;
-          case CUSTOM_COMMANDS:
-            copyCustomCommandsArtifactsToLocal(baseDir.getPath(), cc);
-            customCommandsDockerfile(writer, cc, baseDir);
-            break;
-          case ENVIRONMENT:
-          default:
-            throw new UnsupportedOperationException("install type unknown: " + cc.getInstallType());
-        }
-        //Installing faulty libraries like broken .egg files can cause the list operation to fail
-        //As we find library names and versions using that command we need to make sure it does not break
-        writer.write(" && " + " change_library_ownership.sh && " + getCleanupCommand(anaconda_dir)
-            + " && " + anaconda_dir + "/bin/conda list -n " + settings.getCurrentCondaEnvironment());
+        apiToken = writeInstallLibrary(writer, cc, baseDir, anaconda_dir, anaconda_project_dir, dockerBuildOpts);
       }
       return new BuildImageDetails(dockerFile, dockerBuildOpts, cc.getGitApiKeyName(), apiToken);
     } catch(IOException e) {
@@ -272,23 +190,189 @@ public class DockerFileController {
       try (BufferedWriter writer = new BufferedWriter(new FileWriter(dockerFile))) {
         writer.write("FROM " + baseImage + "\n");
         writer.newLine();
-        writer.write(
-          "RUN --mount=type=bind,source=.condarc,target=/root/.condarc"
-            + " --mount=type=bind,source=.pip,target=/root/.pip ");
+        writeUninstallLibrary(writer, cc, anaconda_dir, anaconda_project_dir);
+      }
+      return dockerFile;
+    } catch(IOException e) {
+      String errorMsg = "Failed to write docker file";
+      throw new ServiceException(RESTCodes.ServiceErrorCode.LOCAL_FILESYSTEM_ERROR, Level.INFO,
+        errorMsg, errorMsg, e);
+    }
+  }
+  
+  /**
+   * Writes the RUN instruction installing the library of the command
+   * @return the git api token used by the install, if any
+   */
+  private String writeInstallLibrary(BufferedWriter writer, CondaCommands cc, File baseDir, String anaconda_dir,
+                                     String anaconda_project_dir, ArrayList<String> dockerBuildOpts)
+    throws IOException, UserException {
+    String apiToken = null;
+    writer.write(
+      "RUN --mount=type=bind,source=.condarc,target=/root/.condarc"
+        + " --mount=type=bind,source=.pip,target=/root/.pip ");
+    switch (cc.getInstallType()) {
+      case CONDA:
+        String condaLib;
+        if (cc.getVersion().equals(Settings.UNKNOWN_LIBRARY_VERSION)) {
+          condaLib = cc.getLib();
+          dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
+        } else {
+          condaLib = cc.getLib() + "=" + cc.getVersion();
+        }
+        writer.write(anaconda_dir + "/bin/conda install -y -n " + settings.getCurrentCondaEnvironment()
+          + " -c " + cc.getChannelUrl() + " " + condaLib);
+        break;
+      case PIP:
+        String pipLib;
+        if (cc.getVersion().equals(Settings.UNKNOWN_LIBRARY_VERSION)) {
+          pipLib = cc.getLib();
+          dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
+        } else {
+          pipLib = cc.getLib() + "==" + cc.getVersion();
+        }
+        writer.write(anaconda_project_dir + "/bin/pip install --upgrade " + pipLib);
+        break;
+      case EGG:
+        String eggName = cc.getLib();
+        String localEggPath = baseDir + File.separator + eggName;
+        copyCondaArtifactToLocal(cc.getArg(), localEggPath);
+        writer.write("--mount=type=bind,source=" + eggName + ",target=/root/" + eggName + " ");
+        writer.write(anaconda_project_dir + "/bin/easy_install --upgrade /root/" + eggName);
+        break;
+      case WHEEL:
+        String wheelName = cc.getLib();
+        String localWheelPath = baseDir + File.separator + wheelName;
+        copyCondaArtifactToLocal(cc.getArg(), localWheelPath);
+        writer.write("--mount=type=bind,source=" + wheelName + ",target=/root/" + wheelName + " ");
+        writer.write(anaconda_project_dir + "/bin/pip install --upgrade /root/" + wheelName);
+        break;
+      case REQUIREMENTS_TXT:
+        String requirementsName = cc.getLib();
+        String localRequirementsName = baseDir + File.separator + requirementsName;
+        copyCondaArtifactToLocal(cc.getArg(), localRequirementsName);
+        writer.write("--mount=type=bind,source=" + requirementsName + ",target=/root/" + requirementsName + " ");
+        writer.write(anaconda_project_dir + "/bin/pip install -r /root/" + requirementsName);
+        break;
+      case ENVIRONMENT_YAML:
+        String environmentsName = cc.getLib();
+        String localEnvironmentsName = baseDir + File.separator + environmentsName;
+        copyCondaArtifactToLocal(cc.getArg(), localEnvironmentsName);
+        writer.write("--mount=type=bind,source=" + environmentsName + ",target=/root/" + environmentsName + " ");
+        writer.write(anaconda_dir + "/bin/conda env update -f /root/" + environmentsName + " -n "
+          + settings.getCurrentCondaEnvironment());
+        break;
+      case GIT:
+        if (cc.getGitBackend() != null && cc.getGitApiKeyName() != null) {
+          apiToken = secretsController.get(cc.getUserId(), cc.getGitApiKeyName()).getPlaintext();
+          URL repoUrl = new URL(cc.getArg());
+          if (cc.getGitBackend().equals(GitBackend.GITHUB)) {
+            writer.write(anaconda_project_dir + "/bin/pip install --upgrade 'git+https://"
+              + apiToken + ":x-oauth-basic@" + repoUrl.getHost() + repoUrl.getPath() + "'");
+          } else if (cc.getGitBackend().equals(GitBackend.GITLAB)) {
+            writer.write(anaconda_project_dir + "/bin/pip install --upgrade 'git+https://oauth2:"
+              + apiToken + "@" + repoUrl.getHost() + repoUrl.getPath() + "'");
+          }
+        } else {
+          if(cc.getArg().startsWith("https://")) { //This is for backwards compatibility with previous behaviour
+            writer.write(anaconda_project_dir + "/bin/pip install --upgrade 'git+" + cc.getArg() + "'");
+          } else {
+            writer.write(anaconda_project_dir + "/bin/pip install --upgrade '" + cc.getArg() + "'");
+          }
+        }
+        dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
+        break;
+      case CUSTOM_COMMANDS:
+        copyCustomCommandsArtifactsToLocal(baseDir.getPath(), cc);
+        customCommandsDockerfile(writer, cc, baseDir);
+        break;
+      case ENVIRONMENT:
+      default:
+        throw new UnsupportedOperationException("install type unknown: " + cc.getInstallType());
+    }
+    //Installing faulty libraries like broken .egg files can cause the list operation to fail
+    //As we find library names and versions using that command we need to make sure it does not break
+    writer.write(" && " + " change_library_ownership.sh && " + getCleanupCommand(anaconda_dir)
+        + " && " + anaconda_dir + "/bin/conda list -n " + settings.getCurrentCondaEnvironment());
+    return apiToken;
+  }
+  
+  private void writeUninstallLibrary(BufferedWriter writer, CondaCommands cc, String anaconda_dir,
+                                     String anaconda_project_dir) throws IOException {
+    writer.write(
+      "RUN --mount=type=bind,source=.condarc,target=/root/.condarc"
+        + " --mount=type=bind,source=.pip,target=/root/.pip ");
+    switch (cc.getInstallType()) {
+      case CONDA:
+        writer.write(anaconda_dir + "/bin/conda remove -y -n " +
+          settings.getCurrentCondaEnvironment() + " " + cc.getLib() + " || true\n");
+        break;
+      case PIP:
+        writer.write(anaconda_project_dir + "/bin/pip uninstall -y " + cc.getLib() + " || true\n");
+        break;
+      case ENVIRONMENT:
+      default:
+        throw new UnsupportedOperationException("install type unknown: " + cc.getInstallType());
+    }
+  }
+  
+  /**
+   * Commands that can be merged into a single image build: conda/pip installs of a named library and uninstalls.
+   * Installs from artifacts, git or custom commands keep being built one at a time.
+   */
+  public static boolean isBatchable(CondaCommands cc) {
+    if (cc.getInstallType() == null) {
+      return false;
+    }
+    switch (cc.getOp()) {
+      case INSTALL:
+      case UNINSTALL:
         switch (cc.getInstallType()) {
           case CONDA:
-            writer.write(anaconda_dir + "/bin/conda remove -y -n " +
-              settings.getCurrentCondaEnvironment() + " " + cc.getLib() + " || true\n");
-            break;
           case PIP:
-            writer.write(anaconda_project_dir + "/bin/pip uninstall -y " + cc.getLib() + " || true\n");
-            break;
-          case ENVIRONMENT:
+            return true;
           default:
-            throw new UnsupportedOperationException("install type unknown: " + cc.getInstallType());
+            return false;
+        }
+      default:
+        return false;
+    }
+  }
+  
+  /**
+   * Writes a single docker file applying all the given install/uninstall commands in order, one layer per command.
+   * All commands must be {@link #isBatchable(CondaCommands) batchable}.
+   */
+  public BuildImageDetails batchLibraryCommands(File baseDir, String dockerFileName, String baseImage,
+                                                List<CondaCommands> commands)
+    throws UserException, ServiceException {
+    String anaconda_dir = settings.getAnacondaDir();
+    String anaconda_project_dir = anaconda_dir + "/envs/" + settings.getCurrentCondaEnvironment();
+    ArrayList<String> dockerBuildOpts = new ArrayList<>();
+    dockerBuildOpts.add(DOCKER_HOST_NETWORK_OPT);
+    
+    File home = new File(System.getProperty("user.home"));
+    try {
+      FileUtils.copyFileToDirectory(new File(home, ".condarc"), baseDir);
+      FileUtils.copyDirectoryToDirectory(new File(home, ".pip"), baseDir);
+      File dockerFile = new File(baseDir, dockerFileName);
+      try (BufferedWriter writer = new BufferedWriter(new FileWriter(dockerFile))) {
+        writer.write("FROM " + baseImage);
+        writer.newLine();
+        for (CondaCommands cc : commands) {
+          if (!isBatchable(cc)) {
+            throw new UnsupportedOperationException("conda command cannot be batched: " + cc.getId());
+          }
+          if (cc.getOp() == CondaOp.UNINSTALL) {
+            writeUninstallLibrary(writer, cc, anaconda_dir, anaconda_project_dir);
+          } else {
+            writeInstallLibrary(writer, cc, baseDir, anaconda_dir, anaconda_project_dir, dockerBuildOpts);
+            writer.newLine();
+          }
         }
       }
-      return dockerFile;
+      return new BuildImageDetails(dockerFile,
+        dockerBuildOpts.stream().distinct().collect(Collectors.toCollection(ArrayList::new)), null, null);
     } catch(IOException e) {
       String errorMsg = "Failed to write docker file";
       throw new ServiceException(RESTCodes.ServiceErrorCode.LOCAL_FILESYSTEM_ERROR, Level.INFO,
@@ -69,9 +69,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -86,6 +88,24 @@ public class LibraryInstaller {
   private static final Comparator<CondaCommands> ASC_COMPARATOR = new CommandsComparator<>();
 
   private final AtomicInteger registryGCCycles = new AtomicInteger();
+  // Number of image builds currently running on the condaExecutorService
+  private final AtomicInteger runningBuilds = new AtomicInteger();
+
+  // Image build metrics
+  private final LongAdder imageBuilds = new LongAdder();
+  private final LongAdder imageBuildTimeMs = new LongAdder();
+  private final LongAdder batchedCommands = new LongAdder();
+
+  // conda list and pip check output per image. Image tags are versioned and never reused once the project has
+  // switched to them, an entry is still dropped before (re)building an image with the same name.
+  private static final int IMAGE_LIBRARIES_CACHE_SIZE = 100;
+  private final Map<String, ImageLibraries> imageLibrariesCache =
+    new LinkedHashMap<String, ImageLibraries>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ImageLibraries> eldest) {
+        return size() > IMAGE_LIBRARIES_CACHE_SIZE;
+      }
+    };
 
   // Docker base image info cache
   private Collection<PythonDep> baseImageDeps = null;
@@ -181,16 +201,36 @@ public class LibraryInstaller {
         LOG.log(Level.FINE, "allCondaCommandsOngoingByProject:" + allCondaCommandsOngoingByProject);
         for (Project project : allCondaCommandsNewByProject.keySet()) {
           if (!allCondaCommandsOngoingByProject.containsKey(project)) {
+            if (runningBuilds.get() >= settings.getMaxConcurrentEnvBuilds()) {
+              LOG.log(Level.FINE, "Max concurrent environment builds reached, postponing project " + project.getName());
+              continue;
+            }
             try {
               allCondaCommandsNewByProject.get(project).sort(ASC_COMPARATOR);
-              CondaCommands commandToExecute = allCondaCommandsNewByProject.get(project).get(0);
-              // check if it was not deleted...
-              if (condaCommandFacade.findCondaCommand(commandToExecute.getId()) == null) {
-                LOG.log(Level.FINE, "Command with ID " + commandToExecute.getId() + " not found, skipping...");
-              } else {
+              List<CondaCommands> commandsToExecute = nextCommands(allCondaCommandsNewByProject.get(project));
+              if (commandsToExecute.isEmpty()) {
+                continue;
+              }
+              for (CondaCommands commandToExecute : commandsToExecute) {
                 commandsController.updateCondaCommandStatus(
                     commandToExecute.getId(), CondaStatus.ONGOING, commandToExecute.getArg(), commandToExecute.getOp());
-                executorService.submit(() -> condaCommandHandler(commandToExecute));
+              }
+              runningBuilds.incrementAndGet();
+              try {
+                executorService.submit(() -> {
+                  try {
+                    if (commandsToExecute.size() == 1) {
+                      condaCommandHandler(commandsToExecute.get(0));
+                    } else {
+                      batchedCommandsHandler(commandsToExecute);
+                    }
+                  } finally {
+                    runningBuilds.decrementAndGet();
+                  }
+                });
+              } catch (Exception ex) {
+                runningBuilds.decrementAndGet();
+                throw ex;
               }
             } catch (Exception ex) {
               LOG.log(Level.WARNING, "Could not run conda commands for project: " + project, ex);
@@ -206,6 +246,65 @@ public class LibraryInstaller {
     }
   }
 
+  /**
+   * The next commands to run for a project (sorted by creation). This is the first command or, if it is a library
+   * install/uninstall, the longest run of consecutive batchable commands of the same user so that they are applied
+   * with a single image build.
+   */
+  private List<CondaCommands> nextCommands(List<CondaCommands> sortedCommands) {
+    List<CondaCommands> next = new ArrayList<>();
+    int maxBatchSize = Math.max(1, settings.getMaxEnvBuildBatchSize());
+    for (CondaCommands cc : sortedCommands) {
+      boolean batchable = DockerFileController.isBatchable(cc);
+      if (!next.isEmpty() && (!batchable || next.size() >= maxBatchSize
+        || !next.get(0).getUserId().equals(cc.getUserId()))) {
+        break;
+      }
+      // check if it was not deleted...
+      if (condaCommandFacade.findCondaCommand(cc.getId()) == null) {
+        LOG.log(Level.FINE, "Command with ID " + cc.getId() + " not found, skipping...");
+        continue;
+      }
+      next.add(cc);
+      if (!batchable) {
+        break;
+      }
+    }
+    return next;
+  }
+
+  /**
+   * Applies a batch of library commands with a single image build. If the build fails the commands are run again one
+   * by one, so that only the commands that fail on their own are marked as failed.
+   */
+  private void batchedCommandsHandler(List<CondaCommands> commandsToExecute) {
+    try {
+      try {
+        batchLibraryCommands(commandsToExecute);
+      } catch (Throwable ex) {
+        LOG.log(Level.WARNING, "Could not execute batch of commands with IDs: " + commandIds(commandsToExecute)
+          + ", running them one by one", ex);
+        for (CondaCommands cc : commandsToExecute) {
+          condaCommandHandler(cc);
+        }
+        return;
+      }
+      for (CondaCommands cc : commandsToExecute) {
+        commandsController.updateCondaCommandStatus(cc.getId(), CondaStatus.SUCCESS, cc.getArg(), cc.getOp());
+      }
+    } catch (ProjectException ex) {
+      LOG.log(Level.WARNING, "Could not update commands with IDs: " + commandIds(commandsToExecute), ex);
+    }
+  }
+
+  private List<Integer> commandIds(List<CondaCommands> commands) {
+    List<Integer> ids = new ArrayList<>(commands.size());
+    for (CondaCommands cc : commands) {
+      ids.add(cc.getId());
+    }
+    return ids;
+  }
+
   private void condaCommandHandler(CondaCommands commandToExecute) {
     // Remove operations are handled differently, as we it needs to take an exclusive lock on all operations
     if (commandToExecute.getOp() != CondaOp.REMOVE) {
@@ -285,7 +384,7 @@ public class LibraryInstaller {
       File dockerFile = dockerFileController.createNewImage(cwd, dockerFileName, baseImage, cc);
 
       String initialDockerImage = projectUtils.getInitialDockerImageName(project);
-      dockerImageController.buildImage(initialDockerImage, dockerFile.getAbsolutePath(), cwd);
+      buildImage(initialDockerImage, dockerFile.getAbsolutePath(), cwd);
       updateProjectDockerImage(cc, initialDockerImage);
     } finally {
       try {
@@ -317,15 +416,19 @@ public class LibraryInstaller {
         e.getMessage(), e);
     }
     
-    String condaListOutput = dockerImageController.listLibraries(dockerImage);
+    ImageLibraries imageLibraries = getImageLibraries(dockerImage);
+    if (imageLibraries == null) {
+      imageLibraries = new ImageLibraries(dockerImageController.listLibraries(dockerImage),
+        dockerImageController.checkImage(dockerImage));
+      putImageLibraries(dockerImage, imageLibraries);
+    }
     // Update installed dependencies
-    Collection<PythonDep> projectDeps = libraryController.parseCondaList(condaListOutput);
+    Collection<PythonDep> projectDeps = libraryController.parseCondaList(imageLibraries.condaList);
     projectDeps = libraryController.addOngoingOperations(project.getCondaCommandsCollection(), projectDeps);
     project.setPythonDepCollection(projectDeps);
     
     // Update PIP conflicts
-    String pipConflictStr = dockerImageController.checkImage(dockerImage);
-    setPipConflicts(project, pipConflictStr);
+    setPipConflicts(project, imageLibraries.pipConflicts);
     
     projectFacade.update(project);
     projectFacade.flushEm();
@@ -343,7 +446,7 @@ public class LibraryInstaller {
       String dockerFileName = "dockerFile_" + cc.getProjectId().getName();
       DockerFileController.BuildImageDetails customCommandsDockerFile
           = dockerFileController.installLibrary(cwd, dockerFileName, baseImage, cc);
-      dockerImageController.buildImage(nextDockerImageName,
+      buildImage(nextDockerImageName,
           customCommandsDockerFile.dockerFile.getAbsolutePath(),
           cwd,
           customCommandsDockerFile.dockerBuildOpts);
@@ -388,7 +491,7 @@ public class LibraryInstaller {
       DockerFileController.BuildImageDetails installLibraryResult
         = dockerFileController.installLibrary(cwd, dockerFileName, baseImage, cc);
       String nextDockerImageName = getNextDockerImageName(project);
-      dockerImageController.buildImage(nextDockerImageName,
+      buildImage(nextDockerImageName,
         installLibraryResult.dockerFile.getAbsolutePath(),
         cwd,
         installLibraryResult.dockerBuildOpts,
@@ -406,6 +509,72 @@ public class LibraryInstaller {
     }
   }
   
+  private void batchLibraryCommands(List<CondaCommands> commands)
+    throws ServiceException, ServiceDiscoveryException, ProjectException, UserException, PythonException {
+    CondaCommands cc = commands.get(0);
+    Project project = getProject(cc);
+    File cwd = dockerFileController.createTmpDir(cc.getProjectId());
+    try {
+      String baseImage = projectUtils.getFullDockerImageName(project, false);
+      String dockerFileName = "dockerFile_" + cc.getProjectId().getName();
+      DockerFileController.BuildImageDetails batchResult
+        = dockerFileController.batchLibraryCommands(cwd, dockerFileName, baseImage, commands);
+      String nextDockerImageName = getNextDockerImageName(project);
+      buildImage(nextDockerImageName, batchResult.dockerFile.getAbsolutePath(), cwd, batchResult.dockerBuildOpts);
+      batchedCommands.add(commands.size());
+      updateProjectDockerImage(cc, nextDockerImageName);
+    } finally {
+      try {
+        FileUtils.deleteDirectory(cwd);
+      } catch (IOException e) {
+        String errorMsg = "Failed removing docker file";
+        throw new ServiceException(RESTCodes.ServiceErrorCode.LOCAL_FILESYSTEM_ERROR, Level.INFO,
+          errorMsg, errorMsg, e);
+      }
+    }
+  }
+
+  private void buildImage(String dockerImageName, String dockerFilePath, File cwd)
+    throws ServiceException, ServiceDiscoveryException {
+    recordBuild(dockerImageName, () -> dockerImageController.buildImage(dockerImageName, dockerFilePath, cwd));
+  }
+
+  private void buildImage(String dockerImageName, String dockerFilePath, File cwd, ArrayList<String> dockerBuildOpts)
+    throws ServiceException, ServiceDiscoveryException {
+    recordBuild(dockerImageName,
+      () -> dockerImageController.buildImage(dockerImageName, dockerFilePath, cwd, dockerBuildOpts));
+  }
+
+  private void buildImage(String dockerImageName, String dockerFilePath, File cwd, ArrayList<String> dockerBuildOpts,
+                          String gitApiKeyName, String gitApiToken)
+    throws ServiceException, ServiceDiscoveryException {
+    recordBuild(dockerImageName, () -> dockerImageController.buildImage(dockerImageName, dockerFilePath, cwd,
+      dockerBuildOpts, gitApiKeyName, gitApiToken));
+  }
+
+  /**
+   * Runs the image build and records its build time
+   */
+  private void recordBuild(String dockerImageName, ImageBuild build)
+    throws ServiceException, ServiceDiscoveryException {
+    invalidateImageLibraries(projectUtils.getFullDockerImageName(dockerImageName));
+    long start = System.currentTimeMillis();
+    try {
+      build.run();
+    } finally {
+      long buildTime = System.currentTimeMillis() - start;
+      imageBuilds.increment();
+      imageBuildTimeMs.add(buildTime);
+      LOG.log(Level.INFO, "Built image " + dockerImageName + " in " + buildTime + "ms (total builds: "
+        + imageBuilds.sum() + ", mean build time: " + imageBuildTimeMs.sum() / imageBuilds.sum()
+        + "ms, commands applied in batches: " + batchedCommands.sum() + ")");
+    }
+  }
+
+  private interface ImageBuild {
+    void run() throws ServiceException, ServiceDiscoveryException;
+  }
+
   private void uninstallLibrary(CondaCommands cc)
     throws ServiceDiscoveryException, ProjectException, ServiceException, PythonException {
     Project project = getProject(cc);
@@ -414,7 +583,7 @@ public class LibraryInstaller {
       String fullDockerImageName = projectUtils.getFullDockerImageName(project, false);
       File dockerFile = dockerFileController.uninstallLibrary(cwd, fullDockerImageName, cc);
       String nextDockerImageName = getNextDockerImageName(project);
-      dockerImageController.buildImage(nextDockerImageName, dockerFile.getAbsolutePath(), cwd);
+      buildImage(nextDockerImageName, dockerFile.getAbsolutePath(), cwd);
       updateProjectDockerImage(cc, nextDockerImageName);
     } finally {
       try {
@@ -596,6 +765,28 @@ public class LibraryInstaller {
     this.baseImageEnvYaml = baseImageEnvYaml;
   }
   
+  private synchronized ImageLibraries getImageLibraries(String dockerImage) {
+    return imageLibrariesCache.get(dockerImage);
+  }
+
+  private synchronized void putImageLibraries(String dockerImage, ImageLibraries imageLibraries) {
+    imageLibrariesCache.put(dockerImage, imageLibraries);
+  }
+
+  private synchronized void invalidateImageLibraries(String fullDockerImage) {
+    imageLibrariesCache.remove(fullDockerImage);
+  }
+
+  private static class ImageLibraries {
+    private final String condaList;
+    private final String pipConflicts;
+
+    private ImageLibraries(String condaList, String pipConflicts) {
+      this.condaList = condaList;
+      this.pipConflicts = pipConflicts;
+    }
+  }
+
   private static class CommandsComparator<T> implements Comparator<T> {
 
     @Override
@@ -18,6 +18,7 @@ package io.hops.hopsworks.common.security;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.hops.hopsworks.common.dao.jobhistory.ExecutionFacade;
+import io.hops.hopsworks.common.dao.serving.ServingFacade;
 import io.hops.hopsworks.common.featurestore.featuregroup.FeaturegroupFacade;
 import io.hops.hopsworks.common.featurestore.trainingdatasets.TrainingDatasetFacade;
 import io.hops.hopsworks.common.serving.ServingController;
@@ -28,9 +29,6 @@ import io.hops.hopsworks.exceptions.CryptoPasswordNotFoundException;
 import io.hops.hopsworks.exceptions.KafkaException;
 import io.hops.hopsworks.exceptions.ServingException;
 import io.hops.hopsworks.persistence.entity.featurestore.Featurestore;
-import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.Featuregroup;
-import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDataset;
-import io.hops.hopsworks.persistence.entity.jobs.history.Execution;
 import io.hops.hopsworks.persistence.entity.project.Project;
 
 import javax.ejb.EJB;
@@ -42,6 +40,11 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Quotas are checked against the current usage of the project, counted by the database with aggregate queries on
+ * indexed columns in the transaction of the create call, instead of loading the entities. The usage is derived from
+ * the entities themselves so it cannot drift from them.
+ */
 @Stateless
 @TransactionAttribute(TransactionAttributeType.REQUIRED)
 public class QuotasEnforcement {
@@ -59,6 +62,8 @@ public class QuotasEnforcement {
   private TrainingDatasetFacade trainingDatasetFacade;
   @EJB
   private ExecutionFacade executionFacade;
+  @EJB
+  private ServingFacade servingFacade;
 
   private static final String FEATUREGROUPS_QUOTA_EXCEEDED = "Online %s feature groups quota reached for Project %s. " +
           "Current: %d Max: %d";
@@ -70,8 +75,7 @@ public class QuotasEnforcement {
     if (onlineEnabled) {
       long maxFeaturegroups = getMaxNumberOfOnlineEnabledFeaturegroups();
       if (!shouldIgnoreQuota(maxFeaturegroups)) {
-        List<Featuregroup> featuregroups = getFeaturegroups(featurestore);
-        enforceFeaturegroupsQuotaInternal(featurestore, featuregroups, maxFeaturegroups, true);
+        enforceFeaturegroupsQuotaInternal(featurestore, maxFeaturegroups, true);
       } else {
         LOGGER.log(Level.FINE, "Skip quotas enforcement for online enabled feature groups because " +
                 "configured quota is: " + NO_QUOTA);
@@ -79,8 +83,7 @@ public class QuotasEnforcement {
     } else {
       long maxFeaturegroups = getMaxNumberOfOnlineDisabledFeaturegroups();
       if (!shouldIgnoreQuota(maxFeaturegroups)) {
-        List<Featuregroup> featuregroups = getFeaturegroups(featurestore);
-        enforceFeaturegroupsQuotaInternal(featurestore, featuregroups, maxFeaturegroups, false);
+        enforceFeaturegroupsQuotaInternal(featurestore, maxFeaturegroups, false);
       } else {
         LOGGER.log(Level.FINE, "Skip quotas enforcement for online disabled feature groups because " +
                 "configured quota is: " + NO_QUOTA);
@@ -88,8 +91,8 @@ public class QuotasEnforcement {
     }
   }
 
-  private List<Featuregroup> getFeaturegroups(Featurestore featurestore) {
-    return featuregroupFacade.getByFeatureStore(featurestore, null);
+  private long countFeaturegroups(Featurestore featurestore, boolean online) {
+    return featuregroupFacade.countForQuota(featurestore, online);
   }
 
   public void enforceTrainingDatasetsQuota(Featurestore featurestore) throws QuotaEnforcementException {
@@ -99,19 +102,19 @@ public class QuotasEnforcement {
       LOGGER.log(Level.FINE, "Skip quotas enforcement for training datasets because configured quota is " + NO_QUOTA);
       return;
     }
-    List<TrainingDataset> trainingDatasets = getTrainingDatasets(featurestore);
+    long trainingDatasets = countTrainingDatasets(featurestore);
     LOGGER.log(Level.FINE,
             "Enforcing quotas for training datasets. Current number of training datasets: " +
-                    trainingDatasets.size() + " Configured quota: " + maxNumberOfTrainingDatasets);
-    if (quotaExceed(trainingDatasets.size(), maxNumberOfTrainingDatasets)) {
+                    trainingDatasets + " Configured quota: " + maxNumberOfTrainingDatasets);
+    if (quotaExceed(trainingDatasets, maxNumberOfTrainingDatasets)) {
       String exceptionMsg = String.format("Training datasets quota reached for Project %s. Current: %d Max: %d",
-              featurestore.getProject().getName(), trainingDatasets.size(), maxNumberOfTrainingDatasets);
+              featurestore.getProject().getName(), trainingDatasets, maxNumberOfTrainingDatasets);
       throw new QuotaEnforcementException(exceptionMsg);
     }
   }
 
-  private List<TrainingDataset> getTrainingDatasets(Featurestore featurestore) {
-    return trainingDatasetFacade.findByFeaturestore(featurestore);
+  private long countTrainingDatasets(Featurestore featurestore) {
+    return trainingDatasetFacade.countByFeaturestore(featurestore);
   }
 
   public void enforceRunningModelDeploymentsQuota(Project project) throws QuotaEnforcementException {
@@ -143,16 +146,11 @@ public class QuotasEnforcement {
               + NO_QUOTA);
       return;
     }
-    try {
-      List<ServingWrapper> deployments = getAllServings(project);
-      if (quotaExceed(deployments.size(), maxNumberOfModelDeployments)) {
-        throw new QuotaEnforcementException(String.format("Model deployments quota reached for Project: %s. " +
-                "Current: %d Max: %d", project.getName(), deployments.size(), maxNumberOfModelDeployments));
-      }
-    } catch (ServingException | KafkaException | CryptoPasswordNotFoundException ex) {
-      String msg = "Failed to enforce Model Deployments quotas for Project " + project.getName();
-      LOGGER.log(Level.SEVERE, msg, ex);
-      throw new QuotaEnforcementException(msg, ex);
+    // the total number of deployments does not depend on their status, no need to ask the serving tool
+    long deployments = servingFacade.countForProject(project);
+    if (quotaExceed(deployments, maxNumberOfModelDeployments)) {
+      throw new QuotaEnforcementException(String.format("Model deployments quota reached for Project: %s. " +
+              "Current: %d Max: %d", project.getName(), deployments, maxNumberOfModelDeployments));
     }
   }
 
@@ -163,15 +161,15 @@ public class QuotasEnforcement {
       LOGGER.log(Level.FINE, "Skip quotas enforcement for parallel executions because configured quota is " + NO_QUOTA);
       return;
     }
-    long nonFinishedExecutions = getNonFinishedExecutions(project).size();
+    long nonFinishedExecutions = countNonFinishedExecutions(project);
     if (quotaExceed(nonFinishedExecutions, maxParallelExecutions)) {
       throw new QuotaEnforcementException(String.format("Parallel executions quota reached for Project: %s " +
           "Current %d Max: %d", project.getName(), nonFinishedExecutions, maxParallelExecutions));
     }
   }
 
-  private List<Execution> getNonFinishedExecutions(Project project) {
-    return executionFacade.findByProjectAndNotFinished(project);
+  private long countNonFinishedExecutions(Project project) {
+    return executionFacade.countByProjectAndNotFinished(project);
   }
 
   private List<ServingWrapper> getAllServings(Project project) throws ServingException, KafkaException,
@@ -186,8 +184,8 @@ public class QuotasEnforcement {
         && !serving.getStatus().equals(ServingStatusEnum.STOPPED);
   }
 
-  private void enforceFeaturegroupsQuotaInternal(Featurestore featurestore, List<Featuregroup> featuregroups,
-          long maxFeaturegroups, boolean online) throws QuotaEnforcementException {
+  private void enforceFeaturegroupsQuotaInternal(Featurestore featurestore, long maxFeaturegroups, boolean online)
+          throws QuotaEnforcementException {
     String typeForException;
     if (online) {
       typeForException = "enabled";
@@ -195,13 +193,8 @@ public class QuotasEnforcement {
       typeForException = "disabled";
     }
 
-    long numFeaturegroups = featuregroups.stream().filter(fg -> {
-      if (!online && fg.getOnDemandFeaturegroup() != null) {
-        // for backwards compatability we don't count online disabled on-demand feature group
-        return false;
-      }
-      return fg.isOnlineEnabled() == online;
-    }).count();
+    // for backwards compatability online disabled on-demand feature groups are not counted
+    long numFeaturegroups = countFeaturegroups(featurestore, online);
     LOGGER.log(Level.FINE,
             "Enforcing quotas for online " + typeForException + " feature groups. Current number of feature groups:" +
                     numFeaturegroups + " Configured quota: " + maxFeaturegroups);
@@ -266,5 +259,10 @@ public class QuotasEnforcement {
   public void setExecutionFacade(ExecutionFacade executionFacade) {
     this.executionFacade = executionFacade;
   }
+
+  @VisibleForTesting
+  public void setServingFacade(ServingFacade servingFacade) {
+    this.servingFacade = servingFacade;
+  }
 }
 
@@ -15,6 +15,7 @@
  */
 package io.hops.hopsworks.common.user.security.apiKey;
 
+import io.hops.hopsworks.api.auth.key.ApiKeyCache;
 import io.hops.hopsworks.api.auth.key.ApiKeyFacade;
 import io.hops.hopsworks.api.auth.key.ApiKeyScopeFacade;
 import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
@@ -59,6 +60,8 @@ public class ApiKeyController {
   @EJB
   private ApiKeyScopeFacade apiKeyScopeFacade;
   @EJB
+  private ApiKeyCache apiKeyCache;
+  @EJB
   private SecurityUtils securityUtils;
   @EJB
   private EmailBean emailBean;
@@ -154,6 +157,7 @@ public class ApiKeyController {
     ApiKeyHandler.runApiKeyDeleteHandlers(apiKeyHandlers, apiKey);
     
     apiKeyFacade.remove(apiKey);
+    apiKeyCache.invalidate(apiKey.getPrefix());
     sendDeletedEmail(user, keyName);
   }
   
@@ -166,6 +170,7 @@ public class ApiKeyController {
     for (ApiKey key : keys) {
       ApiKeyHandler.runApiKeyDeleteHandlers(apiKeyHandlers, key); // run delete handlers
       apiKeyFacade.remove(key);
+      apiKeyCache.invalidate(key.getPrefix());
     }
     sendDeletedAllEmail(user);
   }
@@ -188,6 +193,7 @@ public class ApiKeyController {
       apiKey.getApiKeyScopeCollection().addAll(newScopes);
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      apiKeyCache.invalidate(apiKey.getPrefix());
       // run api key update handlers
       ApiKeyHandler.runApiKeyCreateHandlers(apiKeyHandlers, apiKey);
     }
@@ -222,6 +228,7 @@ public class ApiKeyController {
       }
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      apiKeyCache.invalidate(apiKey.getPrefix());
       // run api key update handlers
       ApiKeyHandler.runApiKeyDeleteHandlers(apiKeyHandlers, apiKey, toRemove);
     } else if (removed && apiKey.getApiKeyScopeCollection().isEmpty()) {
@@ -276,6 +283,7 @@ public class ApiKeyController {
       apiKey.setApiKeyScopeCollection(toKeep);
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      apiKeyCache.invalidate(apiKey.getPrefix());
       // run api key handlers
       ApiKeyHandler.runApiKeyCreateHandlers(apiKeyHandlers, apiKey, toAdd);
       ApiKeyHandler.runApiKeyDeleteHandlers(apiKeyHandlers, apiKey, toRemove);
@@ -25,6 +25,7 @@ import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.restutils.RESTCodes;
 import io.hops.hopsworks.servicediscovery.HopsworksService;
 import org.apache.hadoop.util.ExponentialBackOff;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.client.ClientProtocolException;
@@ -45,20 +46,40 @@ import javax.ejb.EJB;
 import javax.ejb.Singleton;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import java.net.URISyntaxException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Singleton
 @TransactionAttribute(TransactionAttributeType.NEVER)
 @ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 @DependsOn("Settings")
 public class PrometheusClient {
+  // Instant queries are evaluated at the start of a step of this length, see PrometheusQueryCache
+  private static final long QUERY_STEP_MS = 15000;
+  private static final long MAX_CACHED_CHARS = 32L * 1024 * 1024;
+  private static final long QUERY_WAIT_TIMEOUT_MS = 60000;
+  // Limits on what a single query may cost Prometheus and us
+  static final int MAX_QUERY_LENGTH = 4096;
+  static final long MAX_RANGE_SECONDS = 7L * 24 * 60 * 60;
+  static final int MAX_RESPONSE_BYTES = 8 * 1024 * 1024;
+  private static final String QUERY_TIMEOUT = "10s";
+  private static final Pattern RANGE_SELECTOR = Pattern.compile("\\[\\s*([0-9a-z]+)\\s*(?::\\s*[0-9a-z]*\\s*)?\\]");
+  // a negative offset looks as far ahead as a positive one looks back, cap both
+  private static final Pattern OFFSET_MODIFIER = Pattern.compile("\\boffset\\s+-?\\s*([0-9a-z]+)",
+      Pattern.CASE_INSENSITIVE);
+  private static final Pattern DURATION_PART = Pattern.compile("([0-9]+)(ms|s|m|h|d|w|y)");
+
   @EJB
   private Settings settings;
   @EJB
@@ -67,30 +88,26 @@ public class PrometheusClient {
   private PoolingHttpClientConnectionManager connectionManager;
   private CloseableHttpClient client;
   private ExponentialBackOff.Builder backOffPolicy;
+  private PrometheusQueryCache queryCache;
 
   private String prometheusIP = "";
 
   @PostConstruct
   public void init() throws RuntimeException {
     try {
-      Service prometheusService =
-          serviceDiscoveryController.getAnyAddressOfServiceWithDNS(
-              HopsworksService.PROMETHEUS.getName());
-      prometheusIP = prometheusService.getAddress();
       connectionManager = createConnectionManager();
       client = HttpClients.custom()
           .setConnectionManager(connectionManager)
           .build();
-    } catch (IOException | GeneralSecurityException | ServiceDiscoveryException ex) {
-      if (!(ex instanceof ServiceDiscoveryException)) {
-        throw new RuntimeException(ex);
-      }
+    } catch (IOException | GeneralSecurityException ex) {
+      throw new RuntimeException(ex);
     }
     backOffPolicy = new ExponentialBackOff.Builder()
         .setMaximumRetries(10)
         .setInitialIntervalMillis(500)
         .setMaximumIntervalMillis(3000)
         .setMultiplier(1.5);
+    queryCache = new PrometheusQueryCache(QUERY_STEP_MS, MAX_CACHED_CHARS, QUERY_WAIT_TIMEOUT_MS);
   }
 
   @PreDestroy
@@ -109,23 +126,86 @@ public class PrometheusClient {
   }
 
   public JSONObject execute(String query) throws ServiceException {
-    try {
-      if (Strings.isNullOrEmpty(prometheusIP)) {
-        Service prometheusService =
-            serviceDiscoveryController.getAnyAddressOfServiceWithDNS(
-                HopsworksService.PROMETHEUS.getName());
-        prometheusIP = prometheusService.getAddress();
+    String response = executeRaw(query);
+    return Strings.isNullOrEmpty(response) ? new JSONObject() : new JSONObject(response);
+  }
+
+  /**
+   * Runs an instant query and returns the response of Prometheus as is. Identical queries within the same step share
+   * one request to Prometheus.
+   */
+  public String executeRaw(String query) throws ServiceException {
+    validateQuery(query);
+    return queryCache.get(query, System.currentTimeMillis(), this::fetch);
+  }
+
+  static void validateQuery(String query) throws ServiceException {
+    if (Strings.isNullOrEmpty(query)) {
+      throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_ERROR, Level.FINE, "Query is empty");
+    }
+    if (query.length() > MAX_QUERY_LENGTH) {
+      throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_REJECTED, Level.FINE,
+          "Query is longer than " + MAX_QUERY_LENGTH + " characters");
+    }
+    Matcher range = RANGE_SELECTOR.matcher(query);
+    while (range.find()) {
+      if (durationSeconds(range.group(1)) > MAX_RANGE_SECONDS) {
+        throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_REJECTED, Level.FINE,
+            "Range " + range.group(1) + " is longer than " + MAX_RANGE_SECONDS + " seconds");
+      }
+    }
+    Matcher offset = OFFSET_MODIFIER.matcher(query);
+    while (offset.find()) {
+      if (durationSeconds(offset.group(1).toLowerCase()) > MAX_RANGE_SECONDS) {
+        throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_REJECTED, Level.FINE,
+            "Offset " + offset.group(1) + " is longer than " + MAX_RANGE_SECONDS + " seconds");
       }
-      final HttpUriRequest httpRequest = new HttpGet(getUri(query));
+    }
+  }
+
+  private static long durationSeconds(String duration) {
+    long seconds = 0;
+    Matcher part = DURATION_PART.matcher(duration);
+    while (part.find()) {
+      long value = Long.parseLong(part.group(1));
+      switch (part.group(2)) {
+        case "y":
+          seconds += value * 365 * 24 * 60 * 60;
+          break;
+        case "w":
+          seconds += value * 7 * 24 * 60 * 60;
+          break;
+        case "d":
+          seconds += value * 24 * 60 * 60;
+          break;
+        case "h":
+          seconds += value * 60 * 60;
+          break;
+        case "m":
+          seconds += value * 60;
+          break;
+        case "s":
+          seconds += value;
+          break;
+        default:
+          // milliseconds do not add up to a range worth rejecting
+          break;
+      }
+    }
+    return seconds;
+  }
+
+  private String fetch(String query, long evaluationTimeMillis) throws ServiceException {
+    try {
+      final HttpUriRequest httpRequest = new HttpGet(getUri(query, evaluationTimeMillis));
       httpRequest.setHeader(HttpHeaders.CONTENT_TYPE, "application/json");
-      HttpRetryableAction<JSONObject> retryableAction = new HttpRetryableAction<JSONObject>(backOffPolicy) {
+      HttpRetryableAction<String> retryableAction = new HttpRetryableAction<String>(backOffPolicy) {
         @Override
-        public JSONObject performAction() throws ClientProtocolException, IOException {
+        public String performAction() throws ClientProtocolException, IOException {
           return client.execute(httpRequest, httpResponse -> {
             int statusCode = httpResponse.getStatusLine().getStatusCode();
             if (statusCode / 100 == 2) {
-              String response = EntityUtils.toString(httpResponse.getEntity());
-              return Strings.isNullOrEmpty(response) ? new JSONObject() : new JSONObject(response);
+              return readResponse(httpResponse.getEntity(), MAX_RESPONSE_BYTES);
             } else if (statusCode / 100 == 4) {
               if (statusCode == 404) {
                 //Retry
@@ -141,17 +221,63 @@ public class PrometheusClient {
         }
       };
       return retryableAction.tryAction();
+    } catch (ResponseTooLargeException e) {
+      throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_REJECTED, Level.FINE,
+          "Response of prometheus query is larger than " + MAX_RESPONSE_BYTES + " bytes", e.getMessage());
     } catch (IOException | URISyntaxException | ServiceDiscoveryException e) {
       throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_ERROR, Level.FINE, "Failed to execute " +
           "prometheus query " + query, e.getMessage());
     }
   }
 
-  private String getUri(String query) throws MalformedURLException, URISyntaxException {
-    HttpHost rmHost = new HttpHost(prometheusIP, settings.getPrometheusPort(), "http");
-    URL url= new URL(rmHost.toURI() + "/api/v1/query?query=" + query);
+  /**
+   * Reads the body of a response, failing as soon as it turns out to be larger than maxBytes.
+   */
+  static String readResponse(HttpEntity entity, int maxBytes) throws IOException {
+    if (entity == null) {
+      return "";
+    }
+    if (entity.getContentLength() > maxBytes) {
+      EntityUtils.consumeQuietly(entity);
+      throw new ResponseTooLargeException(entity.getContentLength() + " bytes");
+    }
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (InputStream in = entity.getContent()) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        if (body.size() + read > maxBytes) {
+          throw new ResponseTooLargeException("more than " + maxBytes + " bytes");
+        }
+        body.write(buffer, 0, read);
+      }
+    }
+    return new String(body.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  HttpHost getPrometheusHost() throws ServiceDiscoveryException {
+    if (Strings.isNullOrEmpty(prometheusIP)) {
+      Service prometheusService =
+          serviceDiscoveryController.getAnyAddressOfServiceWithDNS(
+              HopsworksService.PROMETHEUS.getName());
+      prometheusIP = prometheusService.getAddress();
+    }
+    return new HttpHost(prometheusIP, settings.getPrometheusPort(), "http");
+  }
+
+  private String getUri(String query, long evaluationTimeMillis)
+      throws MalformedURLException, URISyntaxException, ServiceDiscoveryException {
+    HttpHost rmHost = getPrometheusHost();
+    URL url= new URL(rmHost.toURI() + "/api/v1/query?query=" + query + "&time=" + evaluationTimeMillis / 1000 +
+        "&timeout=" + QUERY_TIMEOUT);
     URI uri = new URI(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort(), url.getPath(),
         url.getQuery(), url.getRef());
     return uri.toASCIIString();
   }
+
+  private static class ResponseTooLargeException extends NotRetryableClientProtocolException {
+    ResponseTooLargeException(String message) {
+      super(message);
+    }
+  }
 }
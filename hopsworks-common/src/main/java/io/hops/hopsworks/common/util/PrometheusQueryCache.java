@@ -0,0 +1,135 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.hops.hopsworks.exceptions.ServiceException;
+import io.hops.hopsworks.restutils.RESTCodes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Results of Prometheus instant queries. Queries are evaluated at the start of the current step instead of at the
+ * time of the request, so every request for the same query within a step gets the same result and only the first
+ * one reaches Prometheus. Requests arriving while that query is still running wait for it instead of sending their
+ * own.
+ */
+public class PrometheusQueryCache {
+  
+  public interface Fetcher {
+    String fetch(String query, long evaluationTimeMillis) throws ServiceException;
+  }
+  
+  private final long stepMillis;
+  private final long waitTimeoutMillis;
+  private final Cache<String, String> results;
+  // key -> response of the query in flight
+  private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong fetched = new AtomicLong();
+  
+  public PrometheusQueryCache(long stepMillis, long maxCachedChars, long waitTimeoutMillis) {
+    this.stepMillis = stepMillis;
+    this.waitTimeoutMillis = waitTimeoutMillis;
+    // A result is only looked up during its own step, keep it one more step for requests that straddle the boundary
+    this.results = Caffeine.newBuilder()
+      .maximumWeight(maxCachedChars)
+      .weigher((String key, String value) -> key.length() + value.length())
+      .expireAfterWrite(2 * stepMillis, TimeUnit.MILLISECONDS)
+      .build();
+  }
+  
+  /**
+   * @param nowMillis time of the request
+   * @return the response of Prometheus to the query evaluated at the start of the step nowMillis falls in
+   */
+  public String get(String query, long nowMillis, Fetcher fetcher) throws ServiceException {
+    long evaluationTime = alignToStep(nowMillis);
+    String key = evaluationTime + ":" + query;
+    String cached = results.getIfPresent(key);
+    if (cached != null) {
+      hits.incrementAndGet();
+      return cached;
+    }
+    CompletableFuture<String> result = new CompletableFuture<>();
+    CompletableFuture<String> existing = inFlight.putIfAbsent(key, result);
+    if (existing != null) {
+      coalesced.incrementAndGet();
+      return await(existing);
+    }
+    try {
+      // It may have finished between the lookup and taking its place in flight
+      String response = results.getIfPresent(key);
+      if (response == null) {
+        fetched.incrementAndGet();
+        response = fetcher.fetch(query, evaluationTime);
+        results.put(key, response);
+      }
+      result.complete(response);
+      return response;
+    } catch (ServiceException | RuntimeException e) {
+      result.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, result);
+    }
+  }
+  
+  long alignToStep(long timeMillis) {
+    return timeMillis - Math.floorMod(timeMillis, stepMillis);
+  }
+  
+  private String await(CompletableFuture<String> query) throws ServiceException {
+    try {
+      return query.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ServiceException) {
+        ServiceException cause = (ServiceException) e.getCause();
+        throw new ServiceException((RESTCodes.ServiceErrorCode) cause.getErrorCode(), cause.getLevel(),
+          cause.getUsrMsg(), cause.getDevMsg(), cause);
+      }
+      throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_ERROR, Level.SEVERE, null,
+        e.getCause().getMessage(), e.getCause());
+    } catch (TimeoutException e) {
+      throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_ERROR, Level.FINE, null,
+        "Timed out waiting for the same query to finish", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceException(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_ERROR, Level.WARNING, null,
+        "Interrupted while waiting for the same query to finish", e);
+    }
+  }
+  
+  public long getHits() {
+    return hits.get();
+  }
+  
+  public long getCoalesced() {
+    return coalesced.get();
+  }
+  
+  public long getFetched() {
+    return fetched.get();
+  }
+}
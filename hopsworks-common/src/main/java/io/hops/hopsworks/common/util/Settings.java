@@ -298,6 +298,7 @@ public class Settings {
   private static final String VARIABLE_JWT_EXP_LEEWAY_SEC = "jwt_exp_leeway_sec";
   private static final String VARIABLE_JWT_SIGNING_KEY_NAME = "jwt_signing_key_name";
   private static final String VARIABLE_JWT_ISSUER_KEY = "jwt_issuer";
+  private static final String VARIABLE_JUPYTER_JWT_RENEWAL_MAX_CONCURRENT = "jupyter_jwt_renewal_max_concurrent";
 
   private static final String VARIABLE_SERVICE_JWT_LIFETIME_MS = "service_jwt_lifetime_ms";
   private static final String VARIABLE_SERVICE_JWT_EXP_LEEWAY_SEC = "service_jwt_exp_leeway_sec";
@@ -338,9 +339,17 @@ public class Settings {
   /* -------------------- Statistics --------------- */
   private final static String VARIABLE_STATISTICS_CLEANER_BATCH_SIZE = "statistics_cleaner_batch_size";
   private final static String VARIABLE_STATISTICS_CLEANER_INTERVAL_MS = "statistics_cleaner_interval_ms";
+
+  /* -------------------- Data validation --------------- */
+  private final static String VARIABLE_VALIDATION_REPORTS_RETENTION_DAYS = "validation_reports_retention_days";
+  private final static String VARIABLE_VALIDATION_REPORTS_MAX_PER_FEATURE_GROUP =
+    "validation_reports_max_per_feature_group";
+  private final static String VARIABLE_VALIDATION_REPORT_CLEANER_INTERVAL_MS = "validation_report_cleaner_interval_ms";
   
   /* -------------------- Feature monitoring --------------- */
   private static final String VARIABLE_ENABLE_FEATURE_MONITORING = "enable_feature_monitoring";
+  private static final String VARIABLE_FEATURE_MONITORING_RESULTS_RETENTION_DAYS =
+    "feature_monitoring_results_retention_days";
   
   /* -------------------- OpenSearch security --------------- */
   private static final String VARIABLE_OPENSEARCH_SECURITY_ENABLED = "elastic_opendistro_security_enabled";
@@ -390,6 +399,12 @@ public class Settings {
 
   /*----------------------- Python ------------------------*/
   private final static String VARIABLE_MAX_ENV_YML_BYTE_SIZE = "max_env_yml_byte_size";
+  private final static String VARIABLE_MAX_CONCURRENT_ENV_BUILDS = "max_concurrent_env_builds";
+  private final static String VARIABLE_MAX_ENV_BUILD_BATCH_SIZE = "max_env_build_batch_size";
+
+  /*----------------------- Job scheduler ------------------------*/
+  private final static String VARIABLE_JOB_SCHEDULER_MAX_CONCURRENT_SUBMISSIONS =
+      "job_scheduler_max_concurrent_submissions";
 
   /*----------------------- Flyingduck ------------------------*/
   private final static String VARIABLE_ENABLE_FLYINGDUCK = "enable_flyingduck";
@@ -820,6 +835,8 @@ public class Settings {
       JWT_EXP_LEEWAY_SEC = setIntVar(VARIABLE_JWT_EXP_LEEWAY_SEC, JWT_EXP_LEEWAY_SEC);
       JWT_SIGNING_KEY_NAME = setStrVar(VARIABLE_JWT_SIGNING_KEY_NAME, JWT_SIGNING_KEY_NAME);
       JWT_ISSUER = setStrVar(VARIABLE_JWT_ISSUER_KEY, JWT_ISSUER);
+      JUPYTER_JWT_RENEWAL_MAX_CONCURRENT = setIntVar(VARIABLE_JUPYTER_JWT_RENEWAL_MAX_CONCURRENT,
+          JUPYTER_JWT_RENEWAL_MAX_CONCURRENT);
 
       SERVICE_JWT_LIFETIME_MS = setLongVar(VARIABLE_SERVICE_JWT_LIFETIME_MS, SERVICE_JWT_LIFETIME_MS);
       SERVICE_JWT_EXP_LEEWAY_SEC = setIntVar(VARIABLE_SERVICE_JWT_EXP_LEEWAY_SEC, SERVICE_JWT_EXP_LEEWAY_SEC);
@@ -879,10 +896,20 @@ public class Settings {
       STATISTICS_CLEANER_BATCH_SIZE =  setIntVar(VARIABLE_STATISTICS_CLEANER_BATCH_SIZE, STATISTICS_CLEANER_BATCH_SIZE);
       STATISTICS_CLEANER_INTERVAL_MS = setIntVar(VARIABLE_STATISTICS_CLEANER_INTERVAL_MS,
         STATISTICS_CLEANER_INTERVAL_MS);
+
+      // Data validation
+      VALIDATION_REPORTS_RETENTION_DAYS = setIntVar(VARIABLE_VALIDATION_REPORTS_RETENTION_DAYS,
+        VALIDATION_REPORTS_RETENTION_DAYS);
+      VALIDATION_REPORTS_MAX_PER_FEATURE_GROUP = setIntVar(VARIABLE_VALIDATION_REPORTS_MAX_PER_FEATURE_GROUP,
+        VALIDATION_REPORTS_MAX_PER_FEATURE_GROUP);
+      VALIDATION_REPORT_CLEANER_INTERVAL_MS = setIntVar(VARIABLE_VALIDATION_REPORT_CLEANER_INTERVAL_MS,
+        VALIDATION_REPORT_CLEANER_INTERVAL_MS);
       
       // Feature monitoring
       ENABLE_FEATURE_MONITORING = setBoolVar(VARIABLE_ENABLE_FEATURE_MONITORING,
         ENABLE_FEATURE_MONITORING);
+      FEATURE_MONITORING_RESULTS_RETENTION_DAYS = setIntVar(VARIABLE_FEATURE_MONITORING_RESULTS_RETENTION_DAYS,
+        FEATURE_MONITORING_RESULTS_RETENTION_DAYS);
       
       TESTCONNECTOR_IMAGE_VERSION = setStrVar(VARIABLE_CONNECTOR_IMAGE_VERSION, "0.1");
       YARN_RUNTIME = setStrVar(VARIABLE_YARN_RUNTIME, YARN_RUNTIME);
@@ -910,6 +937,10 @@ public class Settings {
           MANAGED_DOCKER_REGISTRY);
 
       MAX_ENV_YML_BYTE_SIZE = setIntVar(VARIABLE_MAX_ENV_YML_BYTE_SIZE, MAX_ENV_YML_BYTE_SIZE);
+      MAX_CONCURRENT_ENV_BUILDS = setIntVar(VARIABLE_MAX_CONCURRENT_ENV_BUILDS, MAX_CONCURRENT_ENV_BUILDS);
+      MAX_ENV_BUILD_BATCH_SIZE = setIntVar(VARIABLE_MAX_ENV_BUILD_BATCH_SIZE, MAX_ENV_BUILD_BATCH_SIZE);
+      JOB_SCHEDULER_MAX_CONCURRENT_SUBMISSIONS = setIntVar(VARIABLE_JOB_SCHEDULER_MAX_CONCURRENT_SUBMISSIONS,
+          JOB_SCHEDULER_MAX_CONCURRENT_SUBMISSIONS);
       SPARK_EXECUTOR_MIN_MEMORY = setIntVar(VARIABLE_SPARK_EXECUTOR_MIN_MEMORY, SPARK_EXECUTOR_MIN_MEMORY);
       
       LIVY_STARTUP_TIMEOUT = setIntVar(VARIABLE_LIVY_STARTUP_TIMEOUT, LIVY_STARTUP_TIMEOUT);
@@ -1647,6 +1678,12 @@ public class Settings {
   }
 
   public static final long JOB_LOGS_DISPLAY_SIZE = 1000000;
+  // Job log reads: line limits, how long a follow request waits for new output and the longest filter expression
+  public static final int JOB_LOGS_DEFAULT_LINES = 1000;
+  public static final int JOB_LOGS_MAX_LINES = 10000;
+  public static final long JOB_LOGS_FOLLOW_TIMEOUT_MS = 10000;
+  public static final long JOB_LOGS_FOLLOW_POLL_MS = 1000;
+  public static final int JOB_LOGS_MAX_FILTER_LENGTH = 256;
 
   // CertificateMaterializer service. Delay for deleting crypto material from
   // the local filesystem. The lower the value the more frequent we reach DB
@@ -2043,6 +2080,11 @@ public class Settings {
   public static final String FILE_PREVIEW_TEXT_TYPE = "text";
   public static final String FILE_PREVIEW_HTML_TYPE = "html";
   public static final String FILE_PREVIEW_IMAGE_TYPE = "image";
+  public static final String FILE_PREVIEW_TABLE_TYPE = "table";
+  public static final int FILE_PREVIEW_TABLE_DEFAULT_ROWS = 100;
+  public static final int FILE_PREVIEW_TABLE_MAX_ROWS = 1000;
+  // Upper bound on the bytes read for a tabular preview, including footers, whatever the size of the file
+  public static final int FILE_PREVIEW_TABLE_MAX_BYTES = 1024 * 1024 * 4;
 
   //OpenSearch
   // log index pattern
@@ -3272,6 +3314,12 @@ public class Settings {
     return JWT_LIFETIME_MS + (JWT_EXP_LEEWAY_SEC * 1000L);
   }
 
+  private int JUPYTER_JWT_RENEWAL_MAX_CONCURRENT = 8;
+  public synchronized int getJupyterJWTRenewalMaxConcurrent() {
+    checkCache();
+    return JUPYTER_JWT_RENEWAL_MAX_CONCURRENT;
+  }
+
   public synchronized long getServiceJWTLifetimeMS() {
     checkCache();
     return SERVICE_JWT_LIFETIME_MS;
@@ -3418,6 +3466,13 @@ public class Settings {
     return ENABLE_FEATURE_MONITORING;
   }
   
+  // -1 to keep feature monitoring results forever
+  private int FEATURE_MONITORING_RESULTS_RETENTION_DAYS = -1;
+  public synchronized int getFeatureMonitoringResultsRetentionDays() {
+    checkCache();
+    return FEATURE_MONITORING_RESULTS_RETENTION_DAYS;
+  }
+  
   private Boolean LOCALHOST = false;
 
   public synchronized Boolean isLocalHost() {
@@ -3714,12 +3769,53 @@ public class Settings {
     checkCache();
     return STATISTICS_CLEANER_INTERVAL_MS;
   }
+  
+  // -1 to keep validation reports forever
+  private int VALIDATION_REPORTS_RETENTION_DAYS = -1;
+  public synchronized int getValidationReportsRetentionDays(){
+    checkCache();
+    return VALIDATION_REPORTS_RETENTION_DAYS;
+  }
+  
+  // -1 to keep all the validation reports of a feature group
+  private int VALIDATION_REPORTS_MAX_PER_FEATURE_GROUP = -1;
+  public synchronized int getValidationReportsMaxPerFeatureGroup(){
+    checkCache();
+    return VALIDATION_REPORTS_MAX_PER_FEATURE_GROUP;
+  }
+  
+  private int VALIDATION_REPORT_CLEANER_INTERVAL_MS = 3600000;
+  public synchronized int getValidationReportCleanerInterval(){
+    checkCache();
+    return VALIDATION_REPORT_CLEANER_INTERVAL_MS;
+  }
 
   private int MAX_ENV_YML_BYTE_SIZE = 20000;
   public synchronized int getMaxEnvYmlByteSize() {
     checkCache();
     return MAX_ENV_YML_BYTE_SIZE;
   }
+
+  // Max number of python environment image builds (one per project) running at the same time
+  private int MAX_CONCURRENT_ENV_BUILDS = 4;
+  public synchronized int getMaxConcurrentEnvBuilds() {
+    checkCache();
+    return MAX_CONCURRENT_ENV_BUILDS;
+  }
+
+  // Max number of queued library install/uninstall commands of a project collapsed into a single image build
+  private int MAX_ENV_BUILD_BATCH_SIZE = 10;
+  public synchronized int getMaxEnvBuildBatchSize() {
+    checkCache();
+    return MAX_ENV_BUILD_BATCH_SIZE;
+  }
+
+  // Max number of scheduled job executions started at the same time by the job scheduler
+  private int JOB_SCHEDULER_MAX_CONCURRENT_SUBMISSIONS = 8;
+  public synchronized int getJobSchedulerMaxConcurrentSubmissions() {
+    checkCache();
+    return JOB_SCHEDULER_MAX_CONCURRENT_SUBMISSIONS;
+  }
   
   private int LIVY_STARTUP_TIMEOUT = 240;
   public synchronized int getLivyStartupTimeout() {
@@ -0,0 +1,177 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.alert;
+
+import io.hops.hopsworks.alert.AMClient;
+import io.hops.hopsworks.alert.exception.AlertManagerAccessControlException;
+import io.hops.hopsworks.alert.exception.AlertManagerUnreachableException;
+import io.hops.hopsworks.alerting.api.alert.dto.PostableAlert;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestAlertDispatcher {
+
+  private static final long WINDOW = 2000L;
+  private static final int MAX_ATTEMPTS = 4;
+  private static final long INITIAL_BACKOFF = 1000L;
+  private static final long MAX_BACKOFF = 4000L;
+
+  private LocalAlertManager alertManager;
+  private AlertBatcher batcher;
+  private AlertDispatcher dispatcher;
+  private Project project;
+
+  @Before
+  public void setup() {
+    alertManager = new LocalAlertManager();
+    batcher = new AlertBatcher(100, WINDOW, MAX_ATTEMPTS, INITIAL_BACKOFF, MAX_BACKOFF);
+    dispatcher = new AlertDispatcher(alertManager, batcher);
+    project = new Project("project");
+  }
+
+  @Test
+  public void testCoalesceAndDeduplicate() {
+    batcher.add(project, Arrays.asList(alert("fg1", "first"), alert("fg2", "first")), 0);
+    batcher.add(project, Collections.singletonList(alert("fg1", "second")), 500);
+    batcher.add(new Project("other"), Collections.singletonList(alert("fg1", "first")), 500);
+    Assert.assertEquals(3, batcher.size());
+
+    dispatcher.flush(WINDOW - 1);
+    Assert.assertTrue(alertManager.received.isEmpty());
+
+    dispatcher.flush(WINDOW);
+    // one batch for project, the second window of other did not elapse yet
+    Assert.assertEquals(1, alertManager.received.size());
+    List<PostableAlert> batch = alertManager.received.get(0);
+    Assert.assertEquals(2, batch.size());
+    Assert.assertEquals("second", batch.get(0).getAnnotations().get("summary"));
+    Assert.assertEquals(1, batcher.size());
+
+    dispatcher.flush(WINDOW + 500);
+    Assert.assertEquals(2, alertManager.received.size());
+    Assert.assertEquals(0, batcher.size());
+  }
+
+  @Test
+  public void testRetryWithBackoff() {
+    alertManager.failures = 2;
+    dispatcher.dispatch(Collections.singletonList(alert("fg1", "first")), project, "fg1");
+    long now = System.currentTimeMillis() + WINDOW;
+
+    dispatcher.flush(now);
+    Assert.assertEquals(1, alertManager.calls);
+    // first retry after the initial backoff
+    dispatcher.flush(now + INITIAL_BACKOFF - 1);
+    Assert.assertEquals(1, alertManager.calls);
+    // a newer version of the alert arriving during the backoff replaces the failed one
+    batcher.add(project, Collections.singletonList(alert("fg1", "second")), now + 100);
+    dispatcher.flush(now + INITIAL_BACKOFF);
+    Assert.assertEquals(2, alertManager.calls);
+
+    now = now + INITIAL_BACKOFF;
+    dispatcher.flush(now + 2 * INITIAL_BACKOFF - 1);
+    Assert.assertEquals(2, alertManager.calls);
+    dispatcher.flush(now + 2 * INITIAL_BACKOFF);
+    Assert.assertEquals(3, alertManager.calls);
+    Assert.assertEquals(1, alertManager.received.size());
+    Assert.assertEquals(1, alertManager.received.get(0).size());
+    Assert.assertEquals("second", alertManager.received.get(0).get(0).getAnnotations().get("summary"));
+    Assert.assertEquals(0, batcher.size());
+  }
+
+  @Test
+  public void testGiveUpAfterMaxAttempts() {
+    alertManager.failures = Integer.MAX_VALUE;
+    batcher.add(project, Collections.singletonList(alert("fg1", "first")), 0);
+    for (long now = WINDOW; now < WINDOW + 60000; now += 100) {
+      dispatcher.flush(now);
+    }
+    Assert.assertEquals(MAX_ATTEMPTS, alertManager.calls);
+    Assert.assertEquals(0, batcher.size());
+  }
+
+  @Test
+  public void testNotRetriedOnAccessControlError() {
+    alertManager.forbidden = true;
+    batcher.add(project, Collections.singletonList(alert("fg1", "first")), 0);
+    dispatcher.flush(WINDOW);
+    dispatcher.flush(WINDOW + MAX_BACKOFF);
+    Assert.assertEquals(1, alertManager.calls);
+    Assert.assertEquals(0, batcher.size());
+  }
+
+  @Test
+  public void testBoundedQueue() {
+    AlertBatcher small = new AlertBatcher(2, WINDOW, MAX_ATTEMPTS, INITIAL_BACKOFF, MAX_BACKOFF);
+    Assert.assertEquals(1, small.add(project, Arrays.asList(alert("fg1", "a"), alert("fg2", "a"), alert("fg3", "a")),
+        0));
+    // duplicates of queued alerts are still accepted
+    Assert.assertEquals(0, small.add(project, Collections.singletonList(alert("fg1", "b")), 0));
+    Assert.assertEquals(2, small.size());
+  }
+
+  @Test
+  public void testBackoffIsCapped() {
+    Assert.assertEquals(INITIAL_BACKOFF, batcher.backoff(1));
+    Assert.assertEquals(2 * INITIAL_BACKOFF, batcher.backoff(2));
+    Assert.assertEquals(MAX_BACKOFF, batcher.backoff(3));
+    Assert.assertEquals(MAX_BACKOFF, batcher.backoff(100));
+  }
+
+  private PostableAlert alert(String featureGroup, String summary) {
+    Map<String, String> labels = new HashMap<>();
+    labels.put("featureGroup", featureGroup);
+    labels.put("severity", "warning");
+    Map<String, String> annotations = new HashMap<>();
+    annotations.put("summary", summary);
+    return new PostableAlert(labels, annotations);
+  }
+
+  /**
+   * Stand-in for alertmanager that is unreachable for the configured number of calls.
+   */
+  private static class LocalAlertManager extends AMClient {
+    private final List<List<PostableAlert>> received = new ArrayList<>();
+    private int failures = 0;
+    private boolean forbidden = false;
+    private int calls = 0;
+
+    @Override
+    public Response postAlerts(List<PostableAlert> postableAlerts, Project project)
+        throws AlertManagerUnreachableException, AlertManagerAccessControlException {
+      calls++;
+      if (forbidden) {
+        throw new AlertManagerAccessControlException("forbidden");
+      }
+      if (failures > 0) {
+        failures--;
+        throw new AlertManagerUnreachableException("Alertmanager not reachable.");
+      }
+      received.add(new ArrayList<>(postableAlerts));
+      return null;
+    }
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.preview;
+
+import io.hops.hopsworks.common.dataset.FilePreviewMode;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TList;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TStruct;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TIOStreamTransport;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TestTablePreviewers {
+  
+  private static final String CSV = "id,name,score,active\n" +
+    "1,alice,1.5,true\n" +
+    "2,\"smith, bob\",2,false\n" +
+    "3,\"multi\nline \"\"quoted\"\"\",,true\n";
+  
+  @Test
+  public void testCsvIsTypedAndQuoted() throws IOException {
+    TablePreview preview = new DelimitedPreviewer("csv", ',').preview(source(CSV), null, 10, 1024);
+    Assert.assertEquals("[id:long, name:string, score:double, active:boolean]", preview.getColumns().toString());
+    Assert.assertEquals(3, preview.getRows().size());
+    Assert.assertEquals(Arrays.asList("2", "smith, bob", "2", "false"), preview.getRows().get(1));
+    Assert.assertEquals(Arrays.asList("3", "multi\nline \"quoted\"", "", "true"), preview.getRows().get(2));
+    Assert.assertFalse(preview.isTruncated());
+  }
+  
+  @Test
+  public void testCsvProjectionAndRowLimit() throws IOException {
+    TablePreview preview = new DelimitedPreviewer("csv", ',')
+      .preview(source(CSV), Arrays.asList("active", "id"), 2, 1024);
+    Assert.assertEquals("[active:boolean, id:long]", preview.getColumns().toString());
+    Assert.assertEquals(Arrays.asList(Arrays.asList("true", "1"), Arrays.asList("false", "2")), preview.getRows());
+    Assert.assertTrue(preview.isTruncated());
+  }
+  
+  @Test
+  public void testCsvByteLimitDropsPartialRecord() throws IOException {
+    int maxBytes = CSV.indexOf("2,\"smith") + 5;
+    TablePreview preview = new DelimitedPreviewer("csv", ',').preview(source(CSV), null, 10, maxBytes);
+    Assert.assertEquals(1, preview.getRows().size());
+    Assert.assertEquals("1", preview.getRows().get(0).get(0));
+    Assert.assertTrue(preview.isTruncated());
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownColumnIsRejected() throws IOException {
+    new DelimitedPreviewer("csv", ',').preview(source(CSV), Collections.singletonList("missing"), 10, 1024);
+  }
+  
+  @Test
+  public void testPreviewerSelection() throws IOException {
+    Assert.assertTrue(TablePreviewers.get("CSV", source(CSV), FilePreviewMode.HEAD) instanceof DelimitedPreviewer);
+    Assert.assertNull(TablePreviewers.get("CSV", source(CSV), FilePreviewMode.TAIL));
+    Assert.assertNull(TablePreviewers.get("txt", source(CSV), FilePreviewMode.HEAD));
+    Assert.assertTrue(TablePreviewers.get("snappy", source("PAR1...."), FilePreviewMode.TAIL)
+      instanceof ParquetPreviewer);
+    // ORC has no table preview and is shown as text
+    Assert.assertNull(TablePreviewers.get("orc", source("ORC....."), FilePreviewMode.HEAD));
+    Assert.assertTrue(TablePreviewers.get("", source("Obj\u0001..."), FilePreviewMode.HEAD) instanceof AvroPreviewer);
+  }
+  
+  @Test
+  public void testAvroRowsAreProjectedAndLimited() throws IOException {
+    Schema schema = SchemaBuilder.record("test").fields()
+      .requiredLong("id")
+      .optionalString("name")
+      .requiredDouble("score")
+      .endRecord();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema))) {
+      writer.create(schema, out);
+      for (long i = 0; i < 20; i++) {
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("id", i);
+        record.put("name", i % 2 == 0 ? "row" + i : null);
+        record.put("score", i / 2.0);
+        writer.append(record);
+      }
+    }
+    TablePreview preview = new AvroPreviewer().preview(source(out.toByteArray()), Arrays.asList("name", "id"), 3,
+      1024 * 1024);
+    Assert.assertEquals("[name:string, id:long]", preview.getColumns().toString());
+    Assert.assertEquals(Arrays.asList(Arrays.asList("row0", "0"), Arrays.asList(null, "1"),
+      Arrays.asList("row2", "2")), preview.getRows());
+    Assert.assertTrue(preview.isTruncated());
+  }
+  
+  @Test
+  public void testAvroBlockLargerThanLimitIsNotDecoded() throws IOException {
+    Schema schema = SchemaBuilder.record("test").fields().requiredLong("id").endRecord();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema))) {
+      writer.create(schema, out);
+      for (long i = 0; i < 3; i++) {
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("id", i);
+        writer.append(record);
+      }
+    }
+    // a block of one row declaring 1 GB, zig-zag encoded
+    out.write(new byte[]{2, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 8, 0, 0, 0});
+    TablePreview preview = new AvroPreviewer().preview(source(out.toByteArray()), null, 10, 1024 * 1024);
+    Assert.assertEquals(Arrays.asList(Collections.singletonList("0"), Collections.singletonList("1"),
+      Collections.singletonList("2")), preview.getRows());
+    Assert.assertTrue(preview.isTruncated());
+  }
+  
+  @Test
+  public void testParquetSchemaIsReadFromFooter() throws Exception {
+    ByteArrayOutputStream footer = new ByteArrayOutputStream();
+    TProtocol protocol = new TCompactProtocol(new TIOStreamTransport(footer));
+    protocol.writeStructBegin(new TStruct("FileMetaData"));
+    protocol.writeFieldBegin(new TField("version", TType.I32, (short) 1));
+    protocol.writeI32(1);
+    protocol.writeFieldEnd();
+    protocol.writeFieldBegin(new TField("schema", TType.LIST, (short) 2));
+    protocol.writeListBegin(new TList(TType.STRUCT, 5));
+    writeSchemaElement(protocol, "schema", null, 3, null);
+    writeSchemaElement(protocol, "id", 2, null, null);
+    writeSchemaElement(protocol, "name", 6, null, 0);
+    writeSchemaElement(protocol, "location", null, 1, null);
+    writeSchemaElement(protocol, "lat", 5, null, null);
+    protocol.writeListEnd();
+    protocol.writeFieldEnd();
+    protocol.writeFieldBegin(new TField("num_rows", TType.I64, (short) 3));
+    protocol.writeI64(42);
+    protocol.writeFieldEnd();
+    protocol.writeFieldBegin(new TField("row_groups", TType.LIST, (short) 4));
+    protocol.writeListBegin(new TList(TType.STRUCT, 2));
+    for (int i = 0; i < 2; i++) {
+      protocol.writeStructBegin(new TStruct("RowGroup"));
+      protocol.writeFieldBegin(new TField("num_rows", TType.I64, (short) 3));
+      protocol.writeI64(21);
+      protocol.writeFieldEnd();
+      protocol.writeFieldStop();
+      protocol.writeStructEnd();
+    }
+    protocol.writeListEnd();
+    protocol.writeFieldEnd();
+    protocol.writeFieldBegin(new TField("created_by", TType.STRING, (short) 6));
+    protocol.writeString("test");
+    protocol.writeFieldEnd();
+    protocol.writeFieldStop();
+    protocol.writeStructEnd();
+    
+    ByteArrayOutputStream file = new ByteArrayOutputStream();
+    file.write(ParquetPreviewer.MAGIC);
+    // Column chunks that must not be read
+    file.write(new byte[4096]);
+    footer.writeTo(file);
+    int length = footer.size();
+    file.write(new byte[]{(byte) length, (byte) (length >>> 8), (byte) (length >>> 16), (byte) (length >>> 24)});
+    file.write(ParquetPreviewer.MAGIC);
+    
+    CountingSource source = source(file.toByteArray());
+    TablePreview preview = new ParquetPreviewer().preview(source, null, 10, 1024 * 1024);
+    Assert.assertEquals("[id:int64, name:string, location:struct]", preview.getColumns().toString());
+    Assert.assertEquals(Long.valueOf(42), preview.getNumRows());
+    Assert.assertEquals(Integer.valueOf(2), preview.getNumRowGroups());
+    Assert.assertTrue(preview.getRows().isEmpty());
+    Assert.assertEquals(8 + length, source.bytesRead);
+    
+    preview = new ParquetPreviewer().preview(source, Collections.singletonList("location"), 10, 1024 * 1024);
+    Assert.assertEquals("[location:struct]", preview.getColumns().toString());
+  }
+  
+  @Test
+  public void testInvalidParquetIsRejectedAsFormatError() throws IOException {
+    byte[] corruptFooter = new byte[64];
+    Arrays.fill(corruptFooter, (byte) 0xff);
+    ByteArrayOutputStream file = new ByteArrayOutputStream();
+    file.write(ParquetPreviewer.MAGIC);
+    file.write(corruptFooter);
+    file.write(new byte[]{64, 0, 0, 0});
+    file.write(ParquetPreviewer.MAGIC);
+    for (CountingSource source : Arrays.asList(source(CSV), source(file.toByteArray()))) {
+      try {
+        new ParquetPreviewer().preview(source, null, 10, 1024 * 1024);
+        Assert.fail("Expected the file to be rejected");
+      } catch (PreviewFormatException e) {
+        // expected
+      }
+    }
+    // footer larger than the preview limit
+    try {
+      new ParquetPreviewer().preview(source(file.toByteArray()), null, 10, 32);
+      Assert.fail("Expected the footer to be rejected");
+    } catch (PreviewFormatException e) {
+      // expected
+    }
+  }
+  
+  @Test(expected = PreviewFormatException.class)
+  public void testInvalidAvroIsRejectedAsFormatError() throws IOException {
+    // a metadata map of one entry with a negative key length
+    new AvroPreviewer().preview(source(new byte[]{'O', 'b', 'j', 1, 2, 1}), null, 10, 1024);
+  }
+  
+  private static void writeSchemaElement(TProtocol protocol, String name, Integer type, Integer numChildren,
+    Integer convertedType) throws Exception {
+    protocol.writeStructBegin(new TStruct("SchemaElement"));
+    if (type != null) {
+      protocol.writeFieldBegin(new TField("type", TType.I32, (short) 1));
+      protocol.writeI32(type);
+      protocol.writeFieldEnd();
+    }
+    protocol.writeFieldBegin(new TField("name", TType.STRING, (short) 4));
+    protocol.writeString(name);
+    protocol.writeFieldEnd();
+    if (numChildren != null) {
+      protocol.writeFieldBegin(new TField("num_children", TType.I32, (short) 5));
+      protocol.writeI32(numChildren);
+      protocol.writeFieldEnd();
+    }
+    if (convertedType != null) {
+      protocol.writeFieldBegin(new TField("converted_type", TType.I32, (short) 6));
+      protocol.writeI32(convertedType);
+      protocol.writeFieldEnd();
+    }
+    protocol.writeFieldStop();
+    protocol.writeStructEnd();
+  }
+  
+  private static CountingSource source(String content) {
+    return source(content.getBytes(StandardCharsets.UTF_8));
+  }
+  
+  private static CountingSource source(byte[] content) {
+    return new CountingSource(content);
+  }
+  
+  private static class CountingSource implements PreviewSource {
+    private final byte[] content;
+    private long bytesRead;
+    
+    CountingSource(byte[] content) {
+      this.content = content;
+    }
+    
+    @Override
+    public long getLength() {
+      return content.length;
+    }
+    
+    @Override
+    public void readFully(long position, byte[] buffer) {
+      System.arraycopy(content, (int) position, buffer, 0, buffer.length);
+      bytesRead += buffer.length;
+    }
+    
+    @Override
+    public InputStream open(long position) {
+      return new ByteArrayInputStream(content, (int) position, content.length - (int) position);
+    }
+  }
+}
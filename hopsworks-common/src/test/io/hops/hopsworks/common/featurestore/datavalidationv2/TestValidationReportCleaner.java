@@ -0,0 +1,152 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.datavalidationv2;
+
+import io.hops.hopsworks.common.featurestore.datavalidationv2.reports.ValidationReportCleaner;
+import io.hops.hopsworks.common.featurestore.datavalidationv2.reports.ValidationReportController;
+import io.hops.hopsworks.common.featurestore.datavalidationv2.reports.ValidationReportFacade;
+import io.hops.hopsworks.common.util.PayaraClusterManager;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.Featuregroup;
+import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.datavalidationv2.ValidationReport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class TestValidationReportCleaner {
+
+  private static final int BATCH_SIZE = 500;
+
+  @InjectMocks
+  private ValidationReportCleaner target = new ValidationReportCleaner();
+
+  @Mock
+  private Settings settings;
+  @Mock
+  private ValidationReportFacade validationReportFacade;
+  @Mock
+  private ValidationReportController validationReportController;
+  @Mock
+  private PayaraClusterManager payaraClusterManager;
+
+  private int nextId = 0;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    Mockito.when(payaraClusterManager.amIThePrimary()).thenReturn(true);
+    Mockito.when(settings.getValidationReportsRetentionDays()).thenReturn(-1);
+    Mockito.when(settings.getValidationReportsMaxPerFeatureGroup()).thenReturn(-1);
+  }
+
+  @Test
+  public void testKeepsEverythingByDefault() {
+    target.deleteExpiredValidationReports(null);
+
+    Mockito.verifyNoInteractions(validationReportFacade, validationReportController);
+  }
+
+  @Test
+  public void testOnlyPrimaryDeletes() {
+    Mockito.when(payaraClusterManager.amIThePrimary()).thenReturn(false);
+    Mockito.when(settings.getValidationReportsRetentionDays()).thenReturn(1);
+
+    target.deleteExpiredValidationReports(null);
+
+    Mockito.verifyNoInteractions(validationReportFacade, validationReportController);
+  }
+
+  @Test
+  public void testRetentionDeletesInBatches() {
+    Mockito.when(settings.getValidationReportsRetentionDays()).thenReturn(30);
+    List<ValidationReport> first = reports(BATCH_SIZE);
+    List<ValidationReport> second = reports(BATCH_SIZE);
+    List<ValidationReport> last = reports(1);
+    Mockito.when(validationReportFacade.findValidatedBefore(Mockito.any(Date.class), Mockito.eq(BATCH_SIZE)))
+      .thenReturn(first, second, last, Collections.emptyList());
+
+    long now = System.currentTimeMillis();
+    target.deleteExpiredValidationReports(null);
+
+    ArgumentCaptor<Date> before = ArgumentCaptor.forClass(Date.class);
+    Mockito.verify(validationReportFacade, Mockito.times(4)).findValidatedBefore(before.capture(),
+      Mockito.eq(BATCH_SIZE));
+    long expected = now - TimeUnit.DAYS.toMillis(30);
+    Assert.assertTrue(Math.abs(before.getValue().getTime() - expected) < TimeUnit.MINUTES.toMillis(1));
+    Mockito.verify(validationReportController).deleteValidationReports(first);
+    Mockito.verify(validationReportController).deleteValidationReports(second);
+    Mockito.verify(validationReportController).deleteValidationReports(last);
+    Mockito.verifyNoMoreInteractions(validationReportController);
+  }
+
+  @Test
+  public void testRetentionStopsAfterEmptyBatch() {
+    Mockito.when(settings.getValidationReportsRetentionDays()).thenReturn(0);
+    List<ValidationReport> full = reports(BATCH_SIZE);
+    Mockito.when(validationReportFacade.findValidatedBefore(Mockito.any(Date.class), Mockito.eq(BATCH_SIZE)))
+      .thenReturn(full, Collections.emptyList());
+
+    target.deleteExpiredValidationReports(null);
+
+    Mockito.verify(validationReportFacade, Mockito.times(2)).findValidatedBefore(Mockito.any(Date.class),
+      Mockito.eq(BATCH_SIZE));
+    Mockito.verify(validationReportController).deleteValidationReports(full);
+    Mockito.verifyNoMoreInteractions(validationReportController);
+  }
+
+  @Test
+  public void testMaxPerFeatureGroupDeletesInBatches() {
+    Mockito.when(settings.getValidationReportsMaxPerFeatureGroup()).thenReturn(10);
+    Featuregroup fg1 = new Featuregroup(1);
+    Featuregroup fg2 = new Featuregroup(2);
+    Mockito.when(validationReportFacade.findFeaturegroupsWithMoreReportsThan(10L))
+      .thenReturn(Arrays.asList(fg1, fg2));
+    Mockito.when(validationReportFacade.findFeaturegroupReportsBeyondLatest(fg1, 10, BATCH_SIZE))
+      .thenReturn(reports(BATCH_SIZE), reports(3), Collections.emptyList());
+    Mockito.when(validationReportFacade.findFeaturegroupReportsBeyondLatest(fg2, 10, BATCH_SIZE))
+      .thenReturn(reports(1), Collections.emptyList());
+
+    target.deleteExpiredValidationReports(null);
+
+    Mockito.verify(validationReportFacade, Mockito.times(3)).findFeaturegroupReportsBeyondLatest(fg1, 10, BATCH_SIZE);
+    Mockito.verify(validationReportFacade, Mockito.times(2)).findFeaturegroupReportsBeyondLatest(fg2, 10, BATCH_SIZE);
+    Mockito.verify(validationReportController, Mockito.times(3)).deleteValidationReports(Mockito.anyList());
+    Mockito.verify(validationReportFacade, Mockito.never()).findValidatedBefore(Mockito.any(), Mockito.anyInt());
+  }
+
+  // reports are equal by value, give every batch its own ids
+  private List<ValidationReport> reports(int n) {
+    List<ValidationReport> reports = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      ValidationReport report = new ValidationReport();
+      report.setId(nextId++);
+      reports.add(report);
+    }
+    return reports;
+  }
+}
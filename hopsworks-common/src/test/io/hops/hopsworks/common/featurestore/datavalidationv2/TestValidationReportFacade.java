@@ -0,0 +1,216 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.datavalidationv2;
+
+import io.hops.hopsworks.common.dao.AbstractFacade;
+import io.hops.hopsworks.common.featurestore.datavalidationv2.reports.ValidationReportFacade;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.Featuregroup;
+import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.datavalidationv2.ValidationReport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestValidationReportFacade {
+
+  @InjectMocks
+  private ValidationReportFacade target = new ValidationReportFacade();
+
+  @Mock
+  private EntityManager em;
+  @Mock
+  private Settings settings;
+
+  private Query deleteResults;
+  private Query deleteReports;
+  private int deletedReports;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    Mockito.when(settings.getSQLMaxSelectIn()).thenReturn(100);
+    deleteResults = Mockito.mock(Query.class, Mockito.RETURNS_SELF);
+    deleteReports = Mockito.mock(Query.class, Mockito.RETURNS_SELF);
+    Mockito.when(em.createNamedQuery("ValidationResult.deleteByValidationReports")).thenReturn(deleteResults);
+    Mockito.when(em.createNamedQuery("ValidationReport.deleteBatch")).thenReturn(deleteReports);
+    // a delete removes as many reports as it is given ids
+    Mockito.when(deleteReports.setParameter(Mockito.eq("ids"), Mockito.any())).thenAnswer(invocation -> {
+      deletedReports = ((List<?>) invocation.getArgument(1)).size();
+      return deleteReports;
+    });
+    Mockito.when(deleteReports.executeUpdate()).thenAnswer(invocation -> deletedReports);
+  }
+
+  @Test
+  public void testDeleteBatchEmpty() {
+    Assert.assertEquals(0, target.deleteBatch(Collections.emptyList()));
+    Mockito.verifyNoInteractions(em);
+  }
+
+  @Test
+  public void testDeleteBatchSingleInList() {
+    Assert.assertEquals(100, target.deleteBatch(reports(100)));
+
+    Mockito.verify(deleteResults).setParameter("ids", ids(0, 100));
+    Mockito.verify(deleteReports).setParameter("ids", ids(0, 100));
+  }
+
+  @Test
+  public void testDeleteBatchSplitsInLists() {
+    Assert.assertEquals(201, target.deleteBatch(reports(201)));
+
+    // the results of a partition are deleted before its reports
+    InOrder inOrder = Mockito.inOrder(deleteResults, deleteReports);
+    for (List<Integer> partition : Arrays.asList(ids(0, 100), ids(100, 200), ids(200, 201))) {
+      inOrder.verify(deleteResults).setParameter("ids", partition);
+      inOrder.verify(deleteResults).executeUpdate();
+      inOrder.verify(deleteReports).setParameter("ids", partition);
+      inOrder.verify(deleteReports).executeUpdate();
+    }
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  public void testFindLatestValidationReports() {
+    Featuregroup featuregroup = new Featuregroup(1);
+    TypedQuery<ValidationReport> query = latestQuery(reports(3));
+
+    List<ValidationReport> latest = target.findFeaturegroupLatestValidationReports(featuregroup, 3);
+
+    Assert.assertEquals(3, latest.size());
+    Mockito.verify(query).setParameter("featuregroup", featuregroup);
+    Mockito.verify(query).setMaxResults(3);
+  }
+
+  @Test
+  public void testFindLatestValidationReport() {
+    Featuregroup featuregroup = new Featuregroup(1);
+    List<ValidationReport> reports = reports(1);
+    TypedQuery<ValidationReport> query = latestQuery(reports);
+
+    Optional<ValidationReport> latest = target.findFeaturegroupLatestValidationReport(featuregroup);
+
+    Assert.assertEquals(Optional.of(reports.get(0)), latest);
+    Mockito.verify(query).setMaxResults(1);
+  }
+
+  @Test
+  public void testFindLatestValidationReportNone() {
+    latestQuery(Collections.emptyList());
+
+    Assert.assertFalse(target.findFeaturegroupLatestValidationReport(new Featuregroup(1)).isPresent());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testValidationTimeRangeFilter() {
+    TypedQuery<ValidationReport> query = Mockito.mock(TypedQuery.class, Mockito.RETURNS_SELF);
+    Mockito.doReturn(0L).when(query).getSingleResult();
+    Mockito.when(query.getResultList()).thenReturn(Collections.emptyList());
+    Mockito.when(em.createQuery(Mockito.anyString(), Mockito.eq(ValidationReport.class))).thenReturn(query);
+    Set<AbstractFacade.FilterBy> filters = new HashSet<>(Arrays.asList(
+      filter(ValidationReportFacade.Filters.VALIDATION_TIME_GT, 1000L),
+      filter(ValidationReportFacade.Filters.VALIDATION_TIME_LT, 2000L)));
+
+    target.findByFeaturegroup(0, 10, null, filters, new Featuregroup(1));
+
+    ArgumentCaptor<String> queryStr = ArgumentCaptor.forClass(String.class);
+    Mockito.verify(em, Mockito.times(2)).createQuery(queryStr.capture(), Mockito.eq(ValidationReport.class));
+    Assert.assertTrue(queryStr.getValue().contains(":validationTimeGt"));
+    Assert.assertTrue(queryStr.getValue().contains(":validationTimeLt"));
+    // the query and its count query
+    Mockito.verify(query, Mockito.times(2)).setParameter("validationTimeGt", new Timestamp(1000L));
+    Mockito.verify(query, Mockito.times(2)).setParameter("validationTimeLt", new Timestamp(2000L));
+  }
+
+  @Test
+  public void testValidationTimeFiltersHaveOwnParameters() {
+    Set<String> fields = Arrays.stream(ValidationReportFacade.Filters.values())
+      .map(ValidationReportFacade.Filters::getField)
+      .collect(Collectors.toSet());
+    Assert.assertEquals(ValidationReportFacade.Filters.values().length, fields.size());
+    for (ValidationReportFacade.Filters filter : ValidationReportFacade.Filters.values()) {
+      Assert.assertTrue(filter.getSql().contains(":" + filter.getField() + " "));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private TypedQuery<ValidationReport> latestQuery(List<ValidationReport> result) {
+    TypedQuery<ValidationReport> query = Mockito.mock(TypedQuery.class, Mockito.RETURNS_SELF);
+    Mockito.when(query.getResultList()).thenReturn(result);
+    Mockito.when(em.createNamedQuery("ValidationReport.findByFeaturegroupOrderedByDescDate",
+      ValidationReport.class)).thenReturn(query);
+    return query;
+  }
+
+  private static List<ValidationReport> reports(int n) {
+    List<ValidationReport> reports = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      ValidationReport report = new ValidationReport();
+      report.setId(i);
+      reports.add(report);
+    }
+    return reports;
+  }
+
+  private static List<Integer> ids(int from, int to) {
+    return IntStream.range(from, to).boxed().collect(Collectors.toList());
+  }
+
+  private static AbstractFacade.FilterBy filter(ValidationReportFacade.Filters filter, long time) {
+    return new AbstractFacade.FilterBy() {
+      @Override
+      public String getValue() {
+        return filter.getValue();
+      }
+
+      @Override
+      public String getParam() {
+        return String.valueOf(time);
+      }
+
+      @Override
+      public String getSql() {
+        return filter.getSql();
+      }
+
+      @Override
+      public String getField() {
+        return filter.getField();
+      }
+    };
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.embedding;
+
+import io.hops.hopsworks.vectordb.Field;
+import io.hops.hopsworks.vectordb.Index;
+import io.hops.hopsworks.vectordb.VectorDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VectorIndexRegistryTest {
+
+  private static final String INDEX = "index";
+
+  private VectorDatabase vectorDatabase;
+  private VectorIndexRegistry target;
+
+  @Before
+  public void setup() throws Exception {
+    VectorDatabaseClient vectorDatabaseClient = mock(VectorDatabaseClient.class);
+    vectorDatabase = mock(VectorDatabase.class);
+    when(vectorDatabaseClient.getClient()).thenReturn(vectorDatabase);
+    target = new VectorIndexRegistry(vectorDatabaseClient);
+  }
+
+  @Test
+  public void testExistsIsLoadedOnce() throws Exception {
+    when(vectorDatabase.getIndex(INDEX)).thenReturn(Optional.of(new Index(INDEX)));
+
+    assertTrue(target.exists(INDEX));
+    assertTrue(target.exists(INDEX));
+
+    verify(vectorDatabase, times(1)).getIndex(INDEX);
+  }
+
+  @Test
+  public void testMissingIndexIsCached() throws Exception {
+    when(vectorDatabase.getIndex(INDEX)).thenReturn(Optional.empty());
+
+    assertFalse(target.exists(INDEX));
+    assertFalse(target.exists(INDEX));
+
+    verify(vectorDatabase, times(1)).getIndex(INDEX);
+  }
+
+  @Test
+  public void testSchemaIsLoadedOnce() throws Exception {
+    List<Field> fields = Arrays.asList(new Field("id", "long"),
+        new Field("name", Collections.singletonMap("fields", Collections.emptyMap())));
+    when(vectorDatabase.getSchema(any())).thenReturn(fields);
+
+    assertEquals(fields, target.getSchema(INDEX));
+    assertEquals(3, target.getMappingSize(INDEX));
+
+    verify(vectorDatabase, times(1)).getSchema(any());
+  }
+
+  @Test
+  public void testInvalidateReloads() throws Exception {
+    when(vectorDatabase.getIndex(INDEX)).thenReturn(Optional.empty(), Optional.of(new Index(INDEX)));
+
+    assertFalse(target.exists(INDEX));
+    target.invalidate(INDEX);
+    assertTrue(target.exists(INDEX));
+
+    verify(vectorDatabase, times(2)).getIndex(INDEX);
+  }
+
+  @Test
+  public void testInvalidateDuringExistsLoad() throws Exception {
+    // the index is created while its absence is being loaded, the stale result must not be cached
+    when(vectorDatabase.getIndex(INDEX)).thenAnswer(invocation -> {
+      target.invalidate(INDEX);
+      return Optional.empty();
+    }).thenReturn(Optional.of(new Index(INDEX)));
+
+    assertFalse(target.exists(INDEX));
+    assertTrue(target.exists(INDEX));
+    assertTrue(target.exists(INDEX));
+
+    verify(vectorDatabase, times(2)).getIndex(INDEX);
+  }
+
+  @Test
+  public void testInvalidateDuringSchemaLoad() throws Exception {
+    List<Field> before = Collections.singletonList(new Field("id", "long"));
+    List<Field> after = Arrays.asList(new Field("id", "long"), new Field("name", "text"));
+    when(vectorDatabase.getSchema(any())).thenAnswer(invocation -> {
+      target.invalidate(INDEX);
+      return before;
+    }).thenReturn(after);
+
+    assertEquals(before, target.getSchema(INDEX));
+    assertEquals(after, target.getSchema(INDEX));
+    assertEquals(2, target.getMappingSize(INDEX));
+
+    verify(vectorDatabase, times(2)).getSchema(any());
+  }
+
+  @Test
+  public void testDeletedDuringExistsLoad() throws Exception {
+    when(vectorDatabase.getIndex(INDEX)).thenAnswer(invocation -> {
+      target.deleted(INDEX);
+      return Optional.of(new Index(INDEX));
+    });
+
+    assertTrue(target.exists(INDEX));
+    // the deletion recorded during the load wins
+    assertFalse(target.exists(INDEX));
+
+    verify(vectorDatabase, times(1)).getIndex(INDEX);
+  }
+
+  @Test
+  public void testDeletedIsNotReloaded() throws Exception {
+    target.deleted(INDEX);
+
+    assertFalse(target.exists(INDEX));
+
+    verify(vectorDatabase, never()).getIndex(INDEX);
+  }
+}
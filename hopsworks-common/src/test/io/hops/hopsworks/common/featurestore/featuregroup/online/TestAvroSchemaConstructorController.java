@@ -17,6 +17,7 @@
 package io.hops.hopsworks.common.featurestore.featuregroup.online;
 
 import io.hops.hopsworks.common.featurestore.feature.FeatureGroupFeatureDTO;
+import io.hops.hopsworks.common.kafka.AvroSchemaCache;
 import io.hops.hopsworks.exceptions.FeaturestoreException;
 import io.hops.hopsworks.persistence.entity.featurestore.Featurestore;
 import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.Featuregroup;
@@ -40,7 +41,7 @@ public class TestAvroSchemaConstructorController {
   
   @Before
   public void setup() {
-    avroSchemaConstructorController = new AvroSchemaConstructorController();
+    avroSchemaConstructorController = new AvroSchemaConstructorController(new AvroSchemaCache(100));
   }
   
   @Test
@@ -327,4 +328,34 @@ public class TestAvroSchemaConstructorController {
         "}",
       result);
   }
+
+  @Test
+  public void testConstructSchemaNewVersionReusesTypes() throws Exception {
+    Project project = new Project();
+    project.setName("project_name");
+
+    Featurestore featureStore = new Featurestore();
+    featureStore.setProject(project);
+
+    Featuregroup featuregroup = new Featuregroup();
+    featuregroup.setName("fg");
+    featuregroup.setVersion(1);
+    featuregroup.setFeaturestore(featureStore);
+
+    List<FeatureGroupFeatureDTO> schema = new ArrayList<>();
+    schema.add(new FeatureGroupFeatureDTO("feature0", "int", ""));
+    schema.add(new FeatureGroupFeatureDTO("feature1", "struct<label:int,value:array<string>>", ""));
+    String first = avroSchemaConstructorController.constructSchema(featuregroup, schema);
+
+    featuregroup.setVersion(2);
+    schema.add(new FeatureGroupFeatureDTO("feature2", "map<string,int>", ""));
+    String second = avroSchemaConstructorController.constructSchema(featuregroup, schema);
+
+    Schema firstSchema = new Schema.Parser().parse(first);
+    Schema secondSchema = new Schema.Parser().parse(second);
+    Assert.assertEquals("fg_2", secondSchema.getName());
+    Assert.assertEquals(firstSchema.getField("feature1").schema(), secondSchema.getField("feature1").schema());
+    Assert.assertEquals(new AvroSchemaConstructorController(new AvroSchemaCache(100))
+      .constructSchema(featuregroup, schema), second);
+  }
 }
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.featuremonitoring;
+
+import io.hops.hopsworks.common.featurestore.featuremonitoring.config.FeatureMonitoringConfigurationController;
+import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultController;
+import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultFacade;
+import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultSeriesDTO;
+import io.hops.hopsworks.common.featurestore.featuremonitoring.result.FeatureMonitoringResultSeriesPointDTO;
+import io.hops.hopsworks.exceptions.FeaturestoreException;
+import io.hops.hopsworks.persistence.entity.featurestore.featuremonitoring.config.FeatureMonitoringConfiguration;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+
+public class TestFeatureMonitoringResultSeries {
+  @InjectMocks
+  private FeatureMonitoringResultController featureMonitoringResultController =
+    new FeatureMonitoringResultController();
+  
+  @Mock
+  private FeatureMonitoringResultFacade featureMonitoringResultFacade;
+  @Mock
+  private FeatureMonitoringConfigurationController featureMonitoringConfigurationController;
+  
+  private final Integer configId = 22;
+  private final FeatureMonitoringConfiguration config = new FeatureMonitoringConfiguration();
+  
+  @Before
+  public void setup() throws FeaturestoreException {
+    MockitoAnnotations.openMocks(this);
+    config.setId(configId);
+    Mockito.when(featureMonitoringConfigurationController.getFeatureMonitoringConfigurationByConfigId(configId))
+      .thenReturn(config);
+  }
+  
+  @Test
+  public void testSeriesBuckets() throws FeaturestoreException {
+    long start = 1700000000000L;
+    long hour = 3600 * 1000L;
+    long end = start + 30 * 24 * hour;
+    Object[] first = new Object[]{BigInteger.valueOf(0), 3L, new BigDecimal(1), 0.1, 0.3, 0.2, "0.3",
+      new Timestamp(start + 2 * hour)};
+    Object[] last = new Object[]{BigInteger.valueOf(99), 2L, null, 0.5, 0.7, 0.6, "0.5",
+      new Timestamp(end - hour)};
+    Mockito.when(featureMonitoringResultFacade.findSeries(ArgumentMatchers.eq(config),
+      ArgumentMatchers.eq(FeatureMonitoringResultFacade.SeriesMetric.DIFFERENCE), ArgumentMatchers.any(Date.class),
+      ArgumentMatchers.any(Date.class), ArgumentMatchers.anyLong())).thenReturn(Arrays.asList(first, last));
+    
+    FeatureMonitoringResultSeriesDTO series = featureMonitoringResultController.getFeatureMonitoringResultSeries(
+      configId, FeatureMonitoringResultFacade.SeriesMetric.DIFFERENCE, start, end, 100);
+    
+    long bucketSize = 30 * 24 * hour / 100;
+    Mockito.verify(featureMonitoringResultFacade).findSeries(config,
+      FeatureMonitoringResultFacade.SeriesMetric.DIFFERENCE, new Date(start), new Date(end), bucketSize);
+    Assert.assertEquals(Long.valueOf(bucketSize), series.getBucketSize());
+    Assert.assertEquals(2, series.getPoints().size());
+    FeatureMonitoringResultSeriesPointDTO firstPoint = series.getPoints().get(0);
+    Assert.assertEquals(Long.valueOf(start), firstPoint.getTime());
+    Assert.assertEquals(Long.valueOf(3), firstPoint.getCount());
+    Assert.assertEquals(Long.valueOf(1), firstPoint.getShiftDetectedCount());
+    Assert.assertEquals(0.2, firstPoint.getAvg(), 0.0001);
+    Assert.assertEquals(0.3, firstPoint.getLast(), 0.0001);
+    Assert.assertEquals(Long.valueOf(start + 2 * hour), firstPoint.getLastMonitoringTime());
+    FeatureMonitoringResultSeriesPointDTO lastPoint = series.getPoints().get(1);
+    Assert.assertEquals(Long.valueOf(start + 99 * bucketSize), lastPoint.getTime());
+    Assert.assertEquals(Long.valueOf(0), lastPoint.getShiftDetectedCount());
+  }
+  
+  @Test
+  public void testSeriesMinBucketSize() throws FeaturestoreException {
+    long start = 1700000000000L;
+    featureMonitoringResultController.getFeatureMonitoringResultSeries(configId,
+      FeatureMonitoringResultFacade.SeriesMetric.SPECIFIC_VALUE, start, start + 1000L, 100);
+    
+    Mockito.verify(featureMonitoringResultFacade).findSeries(config,
+      FeatureMonitoringResultFacade.SeriesMetric.SPECIFIC_VALUE, new Date(start), new Date(start + 1000L),
+      60 * 1000L);
+  }
+  
+  @Test
+  public void testSeriesWithoutResults() throws FeaturestoreException {
+    Mockito.when(featureMonitoringResultFacade.findFirstMonitoringTime(config)).thenReturn(Optional.empty());
+    
+    FeatureMonitoringResultSeriesDTO series = featureMonitoringResultController.getFeatureMonitoringResultSeries(
+      configId, FeatureMonitoringResultFacade.SeriesMetric.DIFFERENCE, null, null, null);
+    
+    Assert.assertTrue(series.getPoints().isEmpty());
+    Mockito.verify(featureMonitoringResultFacade, Mockito.never()).findSeries(ArgumentMatchers.any(),
+      ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyLong());
+  }
+  
+  @Test
+  public void testSeriesInvalidPoints() {
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+      featureMonitoringResultController.getFeatureMonitoringResultSeries(configId,
+        FeatureMonitoringResultFacade.SeriesMetric.DIFFERENCE, 0L, 1000L, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+      featureMonitoringResultController.getFeatureMonitoringResultSeries(configId,
+        FeatureMonitoringResultFacade.SeriesMetric.DIFFERENCE, 1000L, 1000L, 10));
+  }
+}
@@ -37,11 +37,15 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class FeatureViewControllerTest {
   private FeatureViewController target = new FeatureViewController();
   private FeaturegroupController featuregroupController = Mockito.mock(FeaturegroupController.class);
+  private ServingMetadataCache servingMetadataCache = new ServingMetadataCache(100);
   private Featuregroup fgOneKey1;
   private Featuregroup fgOneKey2;
   private Featuregroup fgOneKeyDiffName;
@@ -63,6 +67,7 @@ public class FeatureViewControllerTest {
   @Before
   public void before() {
     target.setFeaturegroupController(featuregroupController);
+    target.setServingMetadataCache(servingMetadataCache);
     fgOneKey1 = createFg(1, "", 1);
     fgOneKey2 = createFg(1, "", 2);
     fgOneKeyDiffName = createFg(1, "diff_", 3);
@@ -614,6 +619,70 @@ public class FeatureViewControllerTest {
     validate(actual.get(0), true, "pk1", fgOneKey2, "", "feature1");
   }
 
+  @Test
+  public void getServingKeys_cached() throws Exception {
+    doReturn(getFgFeature(fgOneKey1)).when(featuregroupController).getFeatures(eq(fgOneKey1), any(), any());
+    FeatureView fv = new FeatureView();
+    fv.setId(1);
+    fv.setFeatures(Lists.newArrayList(tdf1));
+    join1.setConditions(Lists.newArrayList());
+    join1.setPrefix("");
+    join1.setIdx(0);
+    fv.setJoins(Lists.newArrayList(join1));
+
+    List<ServingKey> first = target.getServingKeys(null, null, fv);
+    List<ServingKey> second = target.getServingKeys(null, null, fv);
+    verify(featuregroupController, times(1)).getFeatures(eq(fgOneKey1), any(), any());
+    validate(second.get(0), true, "pk1", fgOneKey1, "", null);
+    // callers get their own copy of the keys
+    Assert.assertNotSame(first.get(0), second.get(0));
+
+    // a change to another feature group keeps the snapshot
+    servingMetadataCache.invalidateFeatureGroup(fgOneKey2.getId());
+    target.getServingKeys(null, null, fv);
+    verify(featuregroupController, times(1)).getFeatures(eq(fgOneKey1), any(), any());
+
+    servingMetadataCache.invalidateFeatureGroup(fgOneKey1.getId());
+    target.getServingKeys(null, null, fv);
+    verify(featuregroupController, times(2)).getFeatures(eq(fgOneKey1), any(), any());
+
+    servingMetadataCache.invalidateFeatureView(fv.getId());
+    Assert.assertEquals(0, servingMetadataCache.size());
+  }
+
+  @Test
+  public void getServingKeys_notCachedIfInvalidatedWhileBuilding() throws Exception {
+    doAnswer(invocation -> {
+      servingMetadataCache.invalidateFeatureGroup(fgOneKey1.getId());
+      return getFgFeature(fgOneKey1);
+    }).when(featuregroupController).getFeatures(eq(fgOneKey1), any(), any());
+    FeatureView fv = new FeatureView();
+    fv.setId(1);
+    fv.setFeatures(Lists.newArrayList(tdf1));
+    join1.setConditions(Lists.newArrayList());
+    join1.setPrefix("");
+    join1.setIdx(0);
+    fv.setJoins(Lists.newArrayList(join1));
+
+    Assert.assertEquals(1, target.getServingKeys(null, null, fv).size());
+    Assert.assertEquals(0, servingMetadataCache.size());
+  }
+
+  @Test
+  public void getServingKeys_newFeatureViewNotCached() throws Exception {
+    doReturn(getFgFeature(fgOneKey1)).when(featuregroupController).getFeatures(eq(fgOneKey1), any(), any());
+    FeatureView fv = new FeatureView();
+    fv.setFeatures(Lists.newArrayList(tdf1));
+    join1.setConditions(Lists.newArrayList());
+    join1.setPrefix("");
+    join1.setIdx(0);
+    fv.setJoins(Lists.newArrayList(join1));
+
+    List<ServingKey> actual = target.getServingKeys(null, null, fv);
+    Assert.assertSame(fv, actual.get(0).getFeatureView());
+    Assert.assertEquals(0, servingMetadataCache.size());
+  }
+
   private void validate(ServingKey servingKey, Boolean required, String featureName, Featuregroup fg, String prefix,
       String joinOn) {
     Assert.assertEquals(required, servingKey.getRequired());
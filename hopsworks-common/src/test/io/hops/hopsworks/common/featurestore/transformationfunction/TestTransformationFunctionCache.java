@@ -0,0 +1,87 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.transformationfunction;
+
+import io.hops.hopsworks.common.featurestore.FeaturestoreConstants;
+import io.hops.hopsworks.common.featurestore.transformationFunction.CachedTransformationFunction;
+import io.hops.hopsworks.common.featurestore.transformationFunction.TransformationFunctionCache;
+import io.hops.hopsworks.persistence.entity.featurestore.transformationFunction.TransformationFunction;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTransformationFunctionCache {
+
+  private TransformationFunctionCache cache;
+
+  @Before
+  public void setup() {
+    cache = new TransformationFunctionCache(100);
+  }
+
+  @Test
+  public void testKeyedByIdAndVersion() {
+    TransformationFunction v1 = transformationFunction(1, "plus_one", 1);
+    cache.put(v1, "def plus_one(value):\n    return value + 1\n");
+
+    CachedTransformationFunction cached = cache.get(v1);
+    Assert.assertNotNull(cached);
+    Assert.assertEquals("plus_one", cached.getName());
+    Assert.assertEquals("def plus_one(value):\n    return value + 1\n", cached.getSourceCode());
+    Assert.assertNull(cache.get(transformationFunction(1, "plus_one", 2)));
+    Assert.assertNull(cache.get(transformationFunction(2, "plus_one", 1)));
+  }
+
+  @Test
+  public void testReusedIdIsNotServed() {
+    cache.put(transformationFunction(1, "plus_one", 1), "def plus_one(value):\n    return value + 1\n");
+    Assert.assertNull(cache.get(transformationFunction(1, "plus_two", 1)));
+  }
+
+  @Test
+  public void testIdenticalSourcesAreShared() {
+    String source = FeaturestoreConstants.BUILT_IN_TRANSFORMATION_FUNCTION_SOURCE_CODE_MIN_MAX_SCALER;
+    // built-in functions are registered in every feature store with the same source
+    CachedTransformationFunction first = cache.put(transformationFunction(1, "min_max_scaler", 1),
+        new String(source));
+    CachedTransformationFunction second = cache.put(transformationFunction(2, "min_max_scaler", 1),
+        new String(source));
+
+    Assert.assertEquals(first.getDigest(), second.getDigest());
+    Assert.assertSame(first.getSourceCode(), second.getSourceCode());
+    Assert.assertNotEquals(first.getDigest(),
+        cache.put(transformationFunction(3, "other", 1), "def other(value):\n    return value\n").getDigest());
+  }
+
+  @Test
+  public void testEvict() {
+    TransformationFunction first = transformationFunction(1, "plus_one", 1);
+    TransformationFunction second = transformationFunction(2, "plus_one", 2);
+    cache.put(first, "def plus_one(value):\n    return value + 1\n");
+    cache.put(second, "def plus_one(value):\n    return value + 1.0\n");
+
+    cache.evict(first.getId());
+    Assert.assertNull(cache.get(first));
+    Assert.assertNotNull(cache.get(second));
+  }
+
+  private TransformationFunction transformationFunction(Integer id, String name, Integer version) {
+    TransformationFunction transformationFunction = new TransformationFunction(name, version);
+    transformationFunction.setId(id);
+    transformationFunction.setOutputType("DOUBLE");
+    return transformationFunction;
+  }
+}
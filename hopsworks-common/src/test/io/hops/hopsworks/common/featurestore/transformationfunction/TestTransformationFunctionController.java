@@ -17,8 +17,10 @@
 package io.hops.hopsworks.common.featurestore.transformationfunction;
 
 import io.hops.hopsworks.common.featurestore.FeaturestoreConstants;
+import io.hops.hopsworks.common.featurestore.transformationFunction.TransformationFunctionCache;
 import io.hops.hopsworks.common.featurestore.transformationFunction.TransformationFunctionController;
 import io.hops.hopsworks.common.featurestore.transformationFunction.TransformationFunctionFacade;
+import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.exceptions.FeaturestoreException;
 import io.hops.hopsworks.persistence.entity.featurestore.Featurestore;
 import io.hops.hopsworks.persistence.entity.featurestore.transformationFunction.TransformationFunction;
@@ -69,5 +71,22 @@ public class TestTransformationFunctionController {
     Assert.assertThrows(FeaturestoreException.class, () -> transformationFunctionController.delete(project, fs, user,
       1));
   }
+
+  @Test
+  public void testReadContent_cached() throws Exception {
+    DistributedFsService dfs = Mockito.mock(DistributedFsService.class);
+    TransformationFunctionCache cache = new TransformationFunctionCache(100);
+    TransformationFunctionController controller =
+      new TransformationFunctionController(transformationFunctionFacade, cache, dfs);
+    TransformationFunction transformationFunction = new TransformationFunction("plus_one", 1);
+    transformationFunction.setId(1);
+    cache.put(transformationFunction, "def plus_one(value):\n    return value + 1\n");
+
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals("def plus_one(value):\n    return value + 1\n",
+        controller.readContent(user, project, transformationFunction));
+    }
+    Mockito.verify(dfs, Mockito.never()).getDfsOps(Mockito.anyString());
+  }
   
 }
@@ -0,0 +1,192 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.hdfs;
+
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestDfsClientPool {
+
+  private static final long IDLE_TIMEOUT = 60000L;
+  private static final long LEAK_THRESHOLD = 600000L;
+
+  private List<DistributedFileSystemOps> closed;
+  private DfsClientPool pool;
+
+  @Before
+  public void setup() {
+    closed = Collections.synchronizedList(new ArrayList<>());
+    pool = new DfsClientPool(2, 3, IDLE_TIMEOUT, LEAK_THRESHOLD, closed::add);
+  }
+
+  @Test
+  public void testClientIsReused() {
+    DistributedFileSystemOps first = pool.borrow("project__user", () -> client("project__user"), 0);
+    first.close();
+    DistributedFileSystemOps second = pool.borrow("project__user", () -> client("project__user"), 1);
+
+    // a new handle of the same client
+    Assert.assertNotSame(first, second);
+    Assert.assertSame(first.getFilesystem(), second.getFilesystem());
+    Assert.assertEquals(1, pool.getCreated());
+    Assert.assertEquals(1, pool.getReused());
+    Assert.assertEquals(1, pool.getBorrowed());
+    Assert.assertTrue(closed.isEmpty());
+  }
+
+  @Test
+  public void testClientsAreNotSharedBetweenUsers() {
+    DistributedFileSystemOps first = pool.borrow("project__user", () -> client("project__user"), 0);
+    first.close();
+    DistributedFileSystemOps other = pool.borrow("project__other", () -> client("project__other"), 1);
+
+    Assert.assertNotSame(first.getFilesystem(), other.getFilesystem());
+    Assert.assertEquals("project__other", other.getEffectiveUser());
+  }
+
+  @Test
+  public void testClosedTwiceIsPooledOnce() {
+    DistributedFileSystemOps client = pool.borrow("project__user", () -> client("project__user"), 0);
+    client.close();
+    client.close();
+
+    Assert.assertEquals(1, pool.getIdle());
+    Assert.assertTrue(closed.isEmpty());
+  }
+
+  @Test
+  public void testClosedAfterReborrowKeepsClientBorrowed() {
+    DistributedFileSystemOps first = pool.borrow("project__user", () -> client("project__user"), 0);
+    first.close();
+    DistributedFileSystemOps second = pool.borrow("project__user", () -> client("project__user"), 1);
+    // a late second close of the first handle must not return the client lent to the second caller
+    first.close();
+
+    Assert.assertEquals(1, pool.getBorrowed());
+    Assert.assertEquals(0, pool.getIdle());
+    DistributedFileSystemOps third = pool.borrow("project__user", () -> client("project__user"), 2);
+    Assert.assertNotSame(second.getFilesystem(), third.getFilesystem());
+    Assert.assertEquals(2, pool.getCreated());
+    Assert.assertTrue(closed.isEmpty());
+  }
+
+  @Test
+  public void testBounded() {
+    List<DistributedFileSystemOps> clients = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      clients.add(pool.borrow("project__user", () -> client("project__user"), 0));
+    }
+    clients.add(pool.borrow("project__other", () -> client("project__other"), 0));
+    clients.add(pool.borrow("project__third", () -> client("project__third"), 0));
+    clients.forEach(DistributedFileSystemOps::close);
+
+    // two idle clients per user, three in total
+    Assert.assertEquals(3, pool.getIdle());
+    Assert.assertEquals(2, closed.size());
+  }
+
+  @Test
+  public void testIdleEviction() {
+    DistributedFileSystemOps client = pool.borrow("project__user", () -> client("project__user"), 0);
+    pool.release(client, 0);
+
+    pool.maintain(IDLE_TIMEOUT - 1);
+    Assert.assertEquals(1, pool.getIdle());
+    pool.maintain(IDLE_TIMEOUT);
+    Assert.assertEquals(0, pool.getIdle());
+    Assert.assertEquals(1, pool.getEvicted());
+    Assert.assertEquals(1, closed.size());
+    Assert.assertSame(client.getFilesystem(), closed.get(0).getFilesystem());
+  }
+
+  @Test
+  public void testLeakDetection() {
+    DistributedFileSystemOps client = pool.borrow("project__user", () -> client("project__user"), 0);
+
+    pool.maintain(LEAK_THRESHOLD);
+    Assert.assertEquals(1, pool.getLeaked());
+    Assert.assertEquals(0, pool.getBorrowed());
+    // a late close does not return the client to the pool
+    client.close();
+    Assert.assertEquals(0, pool.getIdle());
+    Assert.assertEquals(Collections.singletonList(client), closed);
+  }
+
+  @Test
+  public void testConcurrentUsers() throws Exception {
+    int threads = 16;
+    int users = 4;
+    int iterations = 2000;
+    DfsClientPool concurrentPool = new DfsClientPool(threads, threads * users, IDLE_TIMEOUT, LEAK_THRESHOLD,
+        closed::add);
+    Set<DistributedFileSystem> inUse = ConcurrentHashMap.newKeySet();
+    AtomicInteger errors = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      String user = "project__user" + (t % users);
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < iterations; i++) {
+          DistributedFileSystemOps client = concurrentPool.borrow(user, () -> client(user), 0);
+          if (!user.equals(client.getEffectiveUser()) || !inUse.add(client.getFilesystem())) {
+            // handed to another user or to two callers at the same time
+            errors.incrementAndGet();
+          }
+          inUse.remove(client.getFilesystem());
+          client.close();
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    Assert.assertEquals(0, errors.get());
+    Assert.assertEquals(0, concurrentPool.getBorrowed());
+    Assert.assertTrue(closed.isEmpty());
+    // at most one client per thread was ever created
+    Assert.assertTrue(concurrentPool.getCreated() <= threads);
+    Assert.assertEquals(threads * iterations, concurrentPool.getCreated() + concurrentPool.getReused());
+  }
+
+  private DistributedFileSystemOps client(String user) {
+    DistributedFileSystemOps client = Mockito.mock(DistributedFileSystemOps.class, Mockito.CALLS_REAL_METHODS);
+    Mockito.doReturn(user).when(client).getEffectiveUser();
+    Mockito.doReturn(Mockito.mock(DistributedFileSystem.class)).when(client).getFilesystem();
+    Mockito.doNothing().when(client).closeFileSystem();
+    return client;
+  }
+}
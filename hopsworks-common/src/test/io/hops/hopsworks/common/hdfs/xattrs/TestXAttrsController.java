@@ -0,0 +1,145 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.hdfs.xattrs;
+
+import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import io.hops.hopsworks.common.hdfs.inode.InodeController;
+import io.hops.hopsworks.exceptions.MetadataException;
+import io.hops.hopsworks.restutils.RESTCodes;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.XAttrSetFlag;
+import org.apache.hadoop.ipc.RemoteException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestXAttrsController {
+  
+  private static final String PATH = "/Projects/project/Experiments/application_1_0001_1";
+  private static final byte[] VALUE = "value".getBytes(StandardCharsets.UTF_8);
+  
+  @InjectMocks
+  private XAttrsController xattrsController = new XAttrsController();
+  @Mock
+  private InodeController inodeController;
+  @Mock
+  private DistributedFileSystemOps udfso;
+  
+  @Before
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    Mockito.when(inodeController.existsPath(Mockito.anyString())).thenReturn(true);
+  }
+  
+  @Test
+  public void testModifyReadsOnceAndWritesWithFlags() throws Exception {
+    Map<String, byte[]> stored = new HashMap<>();
+    stored.put("provenance.existing", VALUE);
+    stored.put("user.other", VALUE);
+    Mockito.when(udfso.getXAttrs(Mockito.any(Path.class))).thenReturn(stored);
+    
+    Map<String, byte[]> changes = new HashMap<>();
+    changes.put("existing", VALUE);
+    changes.put("new", VALUE);
+    Map<String, Map<String, byte[]>> previous = xattrsController.modifyProvXAttrs(udfso,
+      Collections.singletonMap(PATH, current -> changes));
+    
+    Assert.assertEquals(Collections.singleton("existing"), previous.get(PATH).keySet());
+    Mockito.verify(udfso, Mockito.times(1)).getXAttrs(Mockito.any(Path.class));
+    Mockito.verify(udfso).setXAttr(new Path(PATH), "provenance.existing", VALUE, EnumSet.of(XAttrSetFlag.REPLACE));
+    Mockito.verify(udfso).setXAttr(new Path(PATH), "provenance.new", VALUE, EnumSet.of(XAttrSetFlag.CREATE));
+  }
+  
+  @Test
+  public void testModifyRemovesOnlyExistingAttributes() throws Exception {
+    Mockito.when(udfso.getXAttrs(Mockito.any(Path.class)))
+      .thenReturn(Collections.singletonMap("provenance.existing", VALUE));
+    
+    Map<String, byte[]> changes = new HashMap<>();
+    changes.put("existing", null);
+    changes.put("missing", null);
+    xattrsController.modifyProvXAttrs(udfso, Collections.singletonMap(PATH, current -> changes));
+    
+    Mockito.verify(udfso).removeXAttr(new Path(PATH), "provenance.existing");
+    Mockito.verify(udfso, Mockito.never()).removeXAttr(new Path(PATH), "provenance.missing");
+  }
+  
+  @Test
+  public void testModifyIsReappliedAfterConcurrentCreate() throws Exception {
+    Mockito.when(udfso.getXAttrs(Mockito.any(Path.class)))
+      .thenReturn(Collections.emptyMap())
+      .thenReturn(Collections.singletonMap("provenance.counter", "1".getBytes(StandardCharsets.UTF_8)));
+    Mockito.doThrow(new RemoteException("java.io.IOException",
+        "XAttr: provenance.counter already exists. The REPLACE flag must be specified."))
+      .when(udfso).setXAttr(new Path(PATH), "provenance.counter", "1".getBytes(StandardCharsets.UTF_8),
+        EnumSet.of(XAttrSetFlag.CREATE));
+    
+    // Increments the counter, so the second attempt has to see what the concurrent writer stored
+    XAttrModification<MetadataException> increment = current -> {
+      byte[] counter = current.get("counter");
+      int next = counter == null ? 1 : Integer.parseInt(new String(counter, StandardCharsets.UTF_8)) + 1;
+      return Collections.singletonMap("counter", Integer.toString(next).getBytes(StandardCharsets.UTF_8));
+    };
+    xattrsController.modifyProvXAttrs(udfso, Collections.singletonMap(PATH, increment));
+    
+    Mockito.verify(udfso, Mockito.times(2)).getXAttrs(Mockito.any(Path.class));
+    Mockito.verify(udfso).setXAttr(new Path(PATH), "provenance.counter", "2".getBytes(StandardCharsets.UTF_8),
+      EnumSet.of(XAttrSetFlag.REPLACE));
+  }
+  
+  @Test
+  public void testModifyGivesUpOnPersistentConflict() throws Exception {
+    Mockito.when(udfso.getXAttrs(Mockito.any(Path.class))).thenReturn(Collections.emptyMap());
+    Mockito.doThrow(new RemoteException("java.io.IOException",
+        "XAttr: provenance.summary already exists. The REPLACE flag must be specified."))
+      .when(udfso).setXAttr(Mockito.any(Path.class), Mockito.anyString(), Mockito.any(), Mockito.any());
+    
+    try {
+      xattrsController.modifyProvXAttrs(udfso,
+        Collections.singletonMap(PATH, current -> Collections.singletonMap("summary", VALUE)));
+      Assert.fail("Expected a conflict");
+    } catch (MetadataException e) {
+      Assert.assertEquals(RESTCodes.MetadataErrorCode.METADATA_CONFLICT, e.getErrorCode());
+    }
+  }
+  
+  @Test
+  public void testUpsertCreatesWithSingleCall() throws Exception {
+    Assert.assertFalse(xattrsController.upsertProvXAttr(udfso, PATH, "model", VALUE));
+    Mockito.verify(udfso).setXAttr(new Path(PATH), "provenance.model", VALUE, EnumSet.of(XAttrSetFlag.CREATE));
+    Mockito.verify(udfso, Mockito.never()).getXAttr(Mockito.any(Path.class), Mockito.anyString());
+  }
+  
+  @Test
+  public void testUpsertReplacesExisting() throws Exception {
+    Mockito.doThrow(new RemoteException("java.io.IOException",
+        "XAttr: provenance.model already exists. The REPLACE flag must be specified."))
+      .when(udfso).setXAttr(new Path(PATH), "provenance.model", VALUE, EnumSet.of(XAttrSetFlag.CREATE));
+    
+    Assert.assertTrue(xattrsController.upsertProvXAttr(udfso, PATH, "model", VALUE));
+    Mockito.verify(udfso).setXAttr(new Path(PATH), "provenance.model", VALUE, EnumSet.of(XAttrSetFlag.REPLACE));
+  }
+}
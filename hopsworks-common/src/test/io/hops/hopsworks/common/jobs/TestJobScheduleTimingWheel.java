@@ -0,0 +1,138 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jobs;
+
+import io.hops.hopsworks.common.jobs.scheduler.JobScheduleTimingWheel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestJobScheduleTimingWheel {
+
+  private static final long TICK_MS = 60 * 1000L;
+  private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+  @Test
+  public void testFireAfterManyRevolutions() {
+    JobScheduleTimingWheel wheel = new JobScheduleTimingWheel(TICK_MS, 8, START);
+    Instant fireTime = START.plus(Duration.ofMinutes(30));
+    wheel.schedule(1, fireTime);
+
+    for (int minute = 0; minute < 30; minute++) {
+      Assert.assertTrue(wheel.advance(START.plus(Duration.ofMinutes(minute))).isEmpty());
+    }
+    Assert.assertEquals(Collections.singletonList(1), wheel.advance(fireTime));
+    Assert.assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void testFireLaterInCurrentTick() {
+    JobScheduleTimingWheel wheel = new JobScheduleTimingWheel(TICK_MS, 8, START);
+    wheel.schedule(1, START.plusSeconds(30));
+
+    Assert.assertTrue(wheel.advance(START.plusSeconds(10)).isEmpty());
+    Assert.assertEquals(Collections.singletonList(1), wheel.advance(START.plusSeconds(40)));
+  }
+
+  @Test
+  public void testOverdueAndCancel() {
+    JobScheduleTimingWheel wheel = new JobScheduleTimingWheel(TICK_MS, 8, START);
+    wheel.advance(START.plus(Duration.ofMinutes(5)));
+    wheel.schedule(1, START);
+    wheel.schedule(2, START.plus(Duration.ofMinutes(10)));
+    wheel.schedule(3, START.plus(Duration.ofMinutes(10)));
+    wheel.cancel(3);
+    // rescheduling replaces the previous fire time
+    wheel.schedule(2, START.plus(Duration.ofMinutes(7)));
+
+    Assert.assertEquals(Collections.singletonList(1), wheel.advance(START.plus(Duration.ofMinutes(6))));
+    Assert.assertEquals(Collections.singletonList(2), wheel.advance(START.plus(Duration.ofMinutes(20))));
+    Assert.assertEquals(0, wheel.size());
+  }
+
+  /**
+   * Simulates 10k schedules firing for three days on a virtual clock, with a primary failover in the middle. The map
+   * of next execution times plays the role of the database, the wheel is rebuilt from it by the new primary.
+   * Every execution time of every schedule has to fire exactly once, in order and never early.
+   */
+  @Test
+  public void testTenThousandSchedulesWithFailover() {
+    int numSchedules = 10000;
+    int minutes = 3 * 24 * 60;
+    int failoverMinute = 1000;
+    int failoverGapMinutes = 10;
+    List<Integer> periods = Arrays.asList(15, 30, 60, 120, 240, 720, 1440, 2880);
+    Random random = new Random(42);
+
+    Map<Integer, Duration> period = new HashMap<>();
+    Map<Integer, Instant> database = new HashMap<>();
+    Map<Integer, Integer> fired = new HashMap<>();
+    JobScheduleTimingWheel wheel = new JobScheduleTimingWheel(TICK_MS, 512, START);
+    for (int id = 0; id < numSchedules; id++) {
+      Duration p = Duration.ofMinutes(periods.get(random.nextInt(periods.size())));
+      Instant first = START.plusSeconds(random.nextInt((int) p.getSeconds()));
+      period.put(id, p);
+      database.put(id, first);
+      fired.put(id, 0);
+      wheel.schedule(id, first);
+    }
+
+    Instant now = START;
+    for (int minute = 0; minute <= minutes; minute++) {
+      // the timer does not fire exactly at the start of the minute
+      now = START.plus(Duration.ofMinutes(minute)).plusMillis(random.nextInt(5000));
+      if (minute >= failoverMinute && minute < failoverMinute + failoverGapMinutes) {
+        // no primary
+        wheel = null;
+        continue;
+      }
+      if (wheel == null) {
+        wheel = new JobScheduleTimingWheel(TICK_MS, 512, now);
+        for (Map.Entry<Integer, Instant> entry : database.entrySet()) {
+          wheel.schedule(entry.getKey(), entry.getValue());
+        }
+      }
+      for (Integer id : wheel.advance(now)) {
+        Instant fireTime = database.get(id);
+        Assert.assertFalse("Schedule " + id + " fired early", fireTime.isAfter(now));
+        if (minute < failoverMinute || minute >= failoverMinute + failoverGapMinutes + 1) {
+          Assert.assertTrue("Schedule " + id + " fired late",
+              Duration.between(fireTime, now).toMillis() < TICK_MS + 5000);
+        }
+        fired.put(id, fired.get(id) + 1);
+        Instant next = fireTime.plus(period.get(id));
+        database.put(id, next);
+        wheel.schedule(id, next);
+      }
+    }
+
+    for (int id = 0; id < numSchedules; id++) {
+      // first execution time was at most one period after START, all the ones up to the last tick should have fired
+      Instant first = database.get(id).minus(period.get(id).multipliedBy(fired.get(id)));
+      long expected = Duration.between(first, now).toMillis() / period.get(id).toMillis() + 1;
+      Assert.assertEquals("Wrong number of executions for schedule " + id, expected, (long) fired.get(id));
+      Assert.assertTrue(database.get(id).isAfter(now));
+    }
+  }
+}
@@ -21,6 +21,7 @@ import io.hops.hopsworks.common.dao.jobs.description.JobScheduleV2Facade;
 import io.hops.hopsworks.common.jobs.execution.ExecutionController;
 import io.hops.hopsworks.common.jobs.scheduler.JobScheduleV2Controller;
 import io.hops.hopsworks.common.jobs.scheduler.JobScheduleV2DTO;
+import io.hops.hopsworks.common.jobs.scheduler.JobScheduleV2Timer;
 import io.hops.hopsworks.exceptions.GenericException;
 import io.hops.hopsworks.exceptions.JobException;
 import io.hops.hopsworks.exceptions.ProjectException;
@@ -28,7 +29,6 @@ import io.hops.hopsworks.exceptions.ServiceException;
 import io.hops.hopsworks.persistence.entity.jobs.configuration.JobConfiguration;
 import io.hops.hopsworks.persistence.entity.jobs.configuration.spark.SparkJobConfiguration;
 import io.hops.hopsworks.persistence.entity.jobs.description.Jobs;
-import io.hops.hopsworks.persistence.entity.jobs.history.Execution;
 import io.hops.hopsworks.persistence.entity.jobs.scheduler.JobScheduleV2;
 import org.junit.Assert;
 import org.junit.Before;
@@ -42,8 +42,8 @@ import org.mockito.MockitoAnnotations;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
-import java.util.List;
 import java.util.Optional;
 import java.util.TimeZone;
 
@@ -61,6 +61,9 @@ public class TestJobSchedulerV2Controller {
   @Mock
   private ExecutionFacade executionFacade;
 
+  @Mock
+  private JobScheduleV2Timer jobScheduleV2Timer;
+
   // This is used within the tests and it needs to be mocked
   // otherwise a NullPointerException will be thrown.
   @Mock
@@ -174,7 +177,7 @@ public class TestJobSchedulerV2Controller {
     ArrayList<JobScheduleV2> schedulers = new ArrayList<>();
     schedulers.add(scheduler);
 
-    Mockito.when(executionFacade.findByJobAndNotFinished(any(Jobs.class))).thenReturn(new ArrayList<>());
+    Mockito.when(executionFacade.findJobIdsNotFinished(any())).thenReturn(Collections.emptySet());
     Mockito.when(jobScheduleV2Facade.getActiveWithCurrentExecutionTime(any())).thenReturn(schedulers);
     Mockito.when(jobScheduleV2Facade.update(any(JobScheduleV2.class))).thenReturn(scheduler);
     ArgumentCaptor<JobScheduleV2> argumentCaptor = ArgumentCaptor.forClass(JobScheduleV2.class);
@@ -196,6 +199,7 @@ public class TestJobSchedulerV2Controller {
     scheduler.setCronExpression("0 0 0 1 1 ? *");
     scheduler.setStartDateTime(currentTime);
     Jobs the_job = new Jobs();
+    the_job.setId(1);
     scheduler.setJob(the_job);
     JobConfiguration jobConfig = new SparkJobConfiguration();
     the_job.setJobConfig(jobConfig);
@@ -203,9 +207,7 @@ public class TestJobSchedulerV2Controller {
     ArrayList<JobScheduleV2> schedulers = new ArrayList<>();
     schedulers.add(scheduler);
 
-    List<Execution> existingExecutions = new ArrayList<>();
-    existingExecutions.add(new Execution());
-    Mockito.when(executionFacade.findByJobAndNotFinished(any(Jobs.class))).thenReturn(existingExecutions);
+    Mockito.when(executionFacade.findJobIdsNotFinished(any())).thenReturn(Collections.singleton(the_job.getId()));
 
     Mockito.when(jobScheduleV2Facade.getActiveWithCurrentExecutionTime(any())).thenReturn(schedulers);
     // Exception should not be thrown as the method should not be invoked.
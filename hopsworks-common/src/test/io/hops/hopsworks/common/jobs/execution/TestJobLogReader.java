@@ -0,0 +1,118 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jobs.execution;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class TestJobLogReader {
+  
+  private static final String LOG = "first\nsecond\nERROR third\nfourth\nERROR fifth\n";
+  
+  @Test
+  public void testReadWholeLog() throws IOException {
+    JobLogReader.Chunk chunk = JobLogReader.readRange(stream(LOG, 0), 0, 1000, null, false);
+    Assert.assertEquals(LOG, chunk.getLog());
+    Assert.assertEquals(LOG.length(), chunk.getNextOffset());
+    Assert.assertTrue(chunk.isEnd());
+  }
+  
+  @Test
+  public void testReadRangeStopsAtLineBoundary() throws IOException {
+    JobLogReader.Chunk chunk = JobLogReader.readRange(stream(LOG, 0), 0, 10, null, false);
+    Assert.assertEquals("first\n", chunk.getLog());
+    Assert.assertEquals(6, chunk.getNextOffset());
+    Assert.assertFalse(chunk.isEnd());
+    
+    chunk = JobLogReader.readRange(stream(LOG, 6), 6, 1000, null, false);
+    Assert.assertEquals(LOG.substring(6), chunk.getLog());
+  }
+  
+  @Test
+  public void testReadRangeHoldsPartialLineOfRunningExecution() throws IOException {
+    String log = "done\nstill writ";
+    JobLogReader.Chunk chunk = JobLogReader.readRange(stream(log, 0), 0, 1000, null, true);
+    Assert.assertEquals("done\n", chunk.getLog());
+    Assert.assertEquals(5, chunk.getNextOffset());
+    Assert.assertTrue(chunk.isEnd());
+    
+    chunk = JobLogReader.readRange(stream(log, 0), 0, 1000, null, false);
+    Assert.assertEquals("done\nstill writ\n", chunk.getLog());
+    Assert.assertEquals(log.length(), chunk.getNextOffset());
+  }
+  
+  @Test
+  public void testLineLongerThanBudgetIsReturnedInPieces() throws IOException {
+    JobLogReader.Chunk chunk = JobLogReader.readRange(stream("abcdefghij\n", 0), 0, 4, null, false);
+    Assert.assertEquals("abcd\n", chunk.getLog());
+    Assert.assertEquals(4, chunk.getNextOffset());
+  }
+  
+  @Test
+  public void testReadLines() throws IOException {
+    JobLogReader.Chunk chunk = JobLogReader.readLines(stream(LOG, 0), 1, 2, 1000, null, false);
+    Assert.assertEquals("second\nERROR third\n", chunk.getLog());
+    Assert.assertEquals(6, chunk.getOffset());
+    Assert.assertEquals(3, chunk.getNextLine());
+    Assert.assertEquals(25, chunk.getNextOffset());
+  }
+  
+  @Test
+  public void testReadLinesWithFilter() throws IOException {
+    JobLogReader.Chunk chunk = JobLogReader.readLines(stream(LOG, 0), 0, 1, 1000, "ERROR", false);
+    Assert.assertEquals("ERROR third\n", chunk.getLog());
+    Assert.assertEquals(3, chunk.getNextLine());
+  }
+  
+  @Test
+  public void testReadTail() throws IOException {
+    JobLogReader.Chunk chunk = JobLogReader.readTail(stream(LOG, 0), 0, 2, null, false);
+    Assert.assertEquals("fourth\nERROR fifth\n", chunk.getLog());
+    Assert.assertEquals(LOG.length(), chunk.getNextOffset());
+  }
+  
+  @Test
+  public void testReadTailDropsPartialFirstLine() throws IOException {
+    // Starting one byte before "second" drops only the line break of "first"
+    JobLogReader.Chunk chunk = JobLogReader.readTail(stream(LOG, 5), 5, 100, "o", false);
+    Assert.assertEquals("second\nfourth\n", chunk.getLog());
+    
+    chunk = JobLogReader.readTail(stream(LOG, 8), 8, 100, null, false);
+    Assert.assertEquals("ERROR third\nfourth\nERROR fifth\n", chunk.getLog());
+  }
+  
+  @Test
+  public void testLongLineIsSplit() throws IOException {
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < JobLogReader.MAX_LINE_BYTES + 10; i++) {
+      line.append('x');
+    }
+    String log = line + "\nnext\n";
+    JobLogReader.Chunk chunk = JobLogReader.readLines(stream(log, 0), 1, 10, Long.MAX_VALUE, null, false);
+    Assert.assertEquals(JobLogReader.MAX_LINE_BYTES, chunk.getOffset());
+    Assert.assertEquals("xxxxxxxxxx\nnext\n", chunk.getLog());
+  }
+  
+  private InputStream stream(String log, int offset) {
+    byte[] bytes = log.getBytes(StandardCharsets.UTF_8);
+    return new ByteArrayInputStream(bytes, offset, bytes.length - offset);
+  }
+}
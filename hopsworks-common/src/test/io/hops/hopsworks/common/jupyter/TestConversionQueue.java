@@ -0,0 +1,173 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jupyter;
+
+import io.hops.hopsworks.exceptions.ServiceException;
+import io.hops.hopsworks.restutils.RESTCodes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+public class TestConversionQueue {
+
+  @Test
+  public void testConcurrentConversionsCollapsed() throws Exception {
+    ConversionQueue queue = new ConversionQueue(2, 10, 5000L);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger conversions = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      results.add(executor.submit(() -> queue.run("nb", () -> {
+        conversions.incrementAndGet();
+        started.countDown();
+        await(release);
+        return "<html/>";
+      })));
+      Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+      for (int i = 0; i < 3; i++) {
+        results.add(executor.submit(() -> queue.run("nb", () -> {
+          conversions.incrementAndGet();
+          return "<other/>";
+        })));
+      }
+      while (queue.getCollapsed() < 3) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+      for (Future<String> result : results) {
+        Assert.assertEquals("<html/>", result.get(5, TimeUnit.SECONDS));
+      }
+      Assert.assertEquals(1, conversions.get());
+      Assert.assertEquals(0, queue.getInProgress());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFailureHandedToCollapsedRequests() throws Exception {
+    ConversionQueue queue = new ConversionQueue(1, 10, 5000L);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> queue.run("nb", () -> {
+        started.countDown();
+        await(release);
+        throw new ServiceException(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_ERROR, Level.SEVERE, null);
+      }));
+      Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+      Future<String> second = executor.submit(() -> queue.run("nb", () -> "<html/>"));
+      while (queue.getCollapsed() < 1) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+      assertConversionError(first, RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_ERROR);
+      assertConversionError(second, RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_ERROR);
+      // a failed conversion is not remembered
+      Assert.assertEquals("<html/>", queue.run("nb", () -> "<html/>"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRejectedWhenQueueFull() throws Exception {
+    ConversionQueue queue = new ConversionQueue(1, 1, 5000L);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> running = executor.submit(() -> queue.run("a", () -> {
+        started.countDown();
+        await(release);
+        return "a";
+      }));
+      Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+      Future<String> queued = executor.submit(() -> queue.run("b", () -> "b"));
+      while (queue.getInProgress() < 2) {
+        Thread.sleep(10);
+      }
+      try {
+        queue.run("c", () -> "c");
+        Assert.fail("Conversion should have been rejected");
+      } catch (ServiceException e) {
+        Assert.assertEquals(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_BUSY, e.getErrorCode());
+      }
+      Assert.assertEquals(1, queue.getRejected());
+      release.countDown();
+      Assert.assertEquals("a", running.get(5, TimeUnit.SECONDS));
+      Assert.assertEquals("b", queued.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRejectedWhenWaitTimesOut() throws Exception {
+    ConversionQueue queue = new ConversionQueue(1, 10, 50L);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> queue.run("a", () -> {
+        started.countDown();
+        await(release);
+        return "a";
+      }));
+      Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+      try {
+        queue.run("b", () -> "b");
+        Assert.fail("Conversion should have timed out");
+      } catch (ServiceException e) {
+        Assert.assertEquals(RESTCodes.ServiceErrorCode.IPYTHON_CONVERT_BUSY, e.getErrorCode());
+      }
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  private void assertConversionError(Future<String> result, RESTCodes.ServiceErrorCode errorCode) throws Exception {
+    try {
+      result.get(5, TimeUnit.SECONDS);
+      Assert.fail("Conversion should have failed");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof ServiceException);
+      Assert.assertEquals(errorCode, ((ServiceException) e.getCause()).getErrorCode());
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
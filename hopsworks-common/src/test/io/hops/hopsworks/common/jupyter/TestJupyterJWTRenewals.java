@@ -0,0 +1,101 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jupyter;
+
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.user.Users;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TestJupyterJWTRenewals {
+  
+  private static final long LIFETIME_MS = 30 * 60 * 1000L;
+  private static final long MIN_LEAD_MS = 30 * 1000L;
+  private static final LocalDateTime EXPIRATION = LocalDateTime.of(2024, 1, 1, 12, 0);
+  
+  @Test
+  public void testRenewalIsDueAheadOfExpiration() {
+    Set<LocalDateTime> renewalTimes = new HashSet<>();
+    for (int port = 8888; port < 8988; port++) {
+      LocalDateTime renewAt = JupyterJWTRenewals.renewAt(EXPIRATION, new CidAndPort("cid", port), LIFETIME_MS,
+        MIN_LEAD_MS);
+      long lead = Duration.between(renewAt, EXPIRATION).toMillis();
+      Assert.assertTrue("Lead " + lead, lead >= LIFETIME_MS / 10 && lead < LIFETIME_MS / 5);
+      renewalTimes.add(renewAt);
+    }
+    // Tokens expiring together are spread over the renewal window
+    Assert.assertTrue(renewalTimes.size() > 90);
+  }
+  
+  @Test
+  public void testRenewalTimeIsStable() {
+    CidAndPort pidAndPort = new CidAndPort("4b1c3f0e", 8890);
+    Assert.assertEquals(JupyterJWTRenewals.renewAt(EXPIRATION, pidAndPort, LIFETIME_MS, MIN_LEAD_MS),
+      JupyterJWTRenewals.renewAt(EXPIRATION, new CidAndPort("4b1c3f0e", 8890), LIFETIME_MS, MIN_LEAD_MS));
+  }
+  
+  @Test
+  public void testShortLifetimeKeepsMinimumLead() {
+    long lifetimeMs = 60 * 1000L;
+    for (int port = 8888; port < 8988; port++) {
+      LocalDateTime renewAt = JupyterJWTRenewals.renewAt(EXPIRATION, new CidAndPort("cid", port), lifetimeMs,
+        MIN_LEAD_MS);
+      Assert.assertEquals(MIN_LEAD_MS, Duration.between(renewAt, EXPIRATION).toMillis());
+    }
+  }
+  
+  @Test
+  public void testDueBeforeExpiration() {
+    JupyterJWTDTO jwt = jwt(1, 1, EXPIRATION, EXPIRATION.minusMinutes(5));
+    Assert.assertFalse(jwt.maybeRenew(EXPIRATION.minusMinutes(6)));
+    Assert.assertTrue(jwt.maybeRenew(EXPIRATION.minusMinutes(5)));
+    Assert.assertTrue(jwt.maybeRenew(EXPIRATION.minusMinutes(1)));
+  }
+  
+  @Test
+  public void testMostUrgentFirst() {
+    List<JupyterJWTDTO> due = new ArrayList<>();
+    due.add(jwt(1, 1, EXPIRATION.plusMinutes(3), EXPIRATION));
+    due.add(jwt(2, 1, EXPIRATION.plusMinutes(1), EXPIRATION));
+    due.add(jwt(3, 1, EXPIRATION.plusMinutes(2), EXPIRATION));
+    // Same expiration as the previous one, must not be dropped
+    due.add(jwt(3, 2, EXPIRATION.plusMinutes(2), EXPIRATION));
+    
+    List<JupyterJWTDTO> batch = JupyterJWTRenewals.mostUrgent(due, 3);
+    Assert.assertEquals(3, batch.size());
+    Assert.assertEquals(Integer.valueOf(2), batch.get(0).getProjectId());
+    Assert.assertEquals(Integer.valueOf(3), batch.get(1).getProjectId());
+    Assert.assertEquals(Integer.valueOf(3), batch.get(2).getProjectId());
+    Assert.assertEquals(Integer.valueOf(2), batch.get(2).getUserId());
+    Assert.assertEquals(4, JupyterJWTRenewals.mostUrgent(due, 10).size());
+    Assert.assertTrue(JupyterJWTRenewals.mostUrgent(new ArrayList<>(), 10).isEmpty());
+  }
+  
+  private static JupyterJWTDTO jwt(int projectId, int userId, LocalDateTime expiration, LocalDateTime renewAt) {
+    JupyterJWT jupyterJWT = new JupyterJWT(new Project(projectId), new Users(userId), expiration,
+      new CidAndPort("cid" + projectId + "-" + userId, 8888), "token", Paths.get("/tmp/token.jwt"));
+    jupyterJWT.renewAt = renewAt;
+    return new JupyterJWTDTO(jupyterJWT);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.kafka;
+
+import io.hops.hopsworks.persistence.entity.kafka.schemas.SchemaCompatibility;
+import org.apache.avro.SchemaParseException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestAvroSchemaCache {
+
+  private static final String V1 = "{\"type\":\"record\",\"name\":\"r\",\"fields\":[" +
+    "{\"name\":\"a\",\"type\":\"int\"}]}";
+  // adds a field with a default, readers of v2 can read v1
+  private static final String V2 = "{\"type\":\"record\",\"name\":\"r\",\"fields\":[" +
+    "{\"name\":\"a\",\"type\":\"int\"},{\"name\":\"b\",\"type\":\"string\",\"default\":\"\"}]}";
+  // adds a field without a default, readers of v3 cannot read v1
+  private static final String V3 = "{\"type\":\"record\",\"name\":\"r\",\"fields\":[" +
+    "{\"name\":\"a\",\"type\":\"int\"},{\"name\":\"c\",\"type\":\"long\"}]}";
+
+  private AvroSchemaCache avroSchemaCache;
+
+  @Before
+  public void setup() {
+    avroSchemaCache = new AvroSchemaCache(100);
+  }
+
+  @Test
+  public void testParseIsCached() {
+    AvroSchemaCache.ParsedSchema first = avroSchemaCache.parse(V1);
+    Assert.assertSame(first, avroSchemaCache.parse(V1));
+    Assert.assertEquals("r", first.getSchema().getName());
+  }
+
+  @Test
+  public void testFingerprintIgnoresFormatting() {
+    AvroSchemaCache.ParsedSchema compact = avroSchemaCache.parse(V1);
+    AvroSchemaCache.ParsedSchema pretty = avroSchemaCache.parse(compact.getSchema().toString(true));
+    Assert.assertNotSame(compact, pretty);
+    Assert.assertEquals(compact.getFingerprint(), pretty.getFingerprint());
+    Assert.assertEquals(compact.getJson(), pretty.getJson());
+  }
+
+  @Test(expected = SchemaParseException.class)
+  public void testInvalidSchema() {
+    avroSchemaCache.parse("{\"type\":\"record\"}");
+  }
+
+  @Test
+  public void testCompatibility() {
+    AvroSchemaCache.ParsedSchema v1 = avroSchemaCache.parse(V1);
+    AvroSchemaCache.ParsedSchema v2 = avroSchemaCache.parse(V2);
+    AvroSchemaCache.ParsedSchema v3 = avroSchemaCache.parse(V3);
+    Assert.assertTrue(avroSchemaCache.isCompatible(v2, v1, SchemaCompatibility.BACKWARD));
+    Assert.assertFalse(avroSchemaCache.isCompatible(v3, v1, SchemaCompatibility.BACKWARD));
+    Assert.assertTrue(avroSchemaCache.isCompatible(v3, v1, SchemaCompatibility.FORWARD));
+    Assert.assertTrue(avroSchemaCache.isCompatible(v2, v1, SchemaCompatibility.FULL_TRANSITIVE));
+    Assert.assertFalse(avroSchemaCache.isCompatible(v3, v1, SchemaCompatibility.FULL));
+    Assert.assertTrue(avroSchemaCache.isCompatible(v3, v1, SchemaCompatibility.NONE));
+    // the same pair with another level of the same strategy reuses the result
+    long size = avroSchemaCache.size();
+    Assert.assertFalse(avroSchemaCache.isCompatible(v3, v1, SchemaCompatibility.BACKWARD_TRANSITIVE));
+    Assert.assertEquals(size, avroSchemaCache.size());
+  }
+
+  @Test
+  public void testTransitive() {
+    Assert.assertTrue(avroSchemaCache.isTransitive(SchemaCompatibility.BACKWARD_TRANSITIVE));
+    Assert.assertTrue(avroSchemaCache.isTransitive(SchemaCompatibility.FULL_TRANSITIVE));
+    Assert.assertFalse(avroSchemaCache.isTransitive(SchemaCompatibility.FORWARD));
+    Assert.assertFalse(avroSchemaCache.isTransitive(SchemaCompatibility.NONE));
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.opensearch;
+
+import io.hops.hopsworks.exceptions.OpenSearchException;
+import io.hops.hopsworks.exceptions.ServiceException;
+import io.hops.hopsworks.restutils.RESTCodes;
+import org.apache.lucene.search.TotalHits;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.search.SearchResponseSections;
+import org.opensearch.action.search.ShardSearchFailure;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class TestFeaturestoreSearch {
+
+  private static final Logger LOGGER = Logger.getLogger(TestFeaturestoreSearch.class.getName());
+
+  private LocalOpenSearch openSearch;
+  private OpenSearchController controller;
+
+  @Before
+  public void setup() {
+    openSearch = new LocalOpenSearch();
+    controller = new OpenSearchController(openSearch, new FeaturestoreSearchCache(openSearch));
+  }
+
+  @Test
+  public void testIndexExistenceCheckedOnce() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      controller.featurestoreSearch("fg" + i, projects(1), 0, 10);
+    }
+    Assert.assertEquals(1, openSearch.indexChecks);
+    Assert.assertEquals(10, openSearch.searches);
+  }
+
+  @Test
+  public void testMissingIndexCheckedAgain() throws Exception {
+    openSearch.indexExists = false;
+    Assert.assertThrows(ServiceException.class, () -> controller.featurestoreSearch("fg", projects(1), 0, 10));
+    openSearch.indexExists = true;
+    controller.featurestoreSearch("fg", projects(1), 0, 10);
+    Assert.assertEquals(2, openSearch.indexChecks);
+  }
+
+  @Test
+  public void testIdenticalSearchesCached() throws Exception {
+    Map<FeaturestoreDocType, SearchResponse> first = controller.featurestoreSearch("fg", projects(1, 2), 0, 10);
+    Map<FeaturestoreDocType, SearchResponse> second = controller.featurestoreSearch("fg", projects(2, 1), 0, 10);
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, openSearch.searches);
+
+    // other projects, page or term are searched again
+    controller.featurestoreSearch("fg", projects(1), 0, 10);
+    controller.featurestoreSearch("fg", projects(1, 2), 10, 10);
+    controller.featurestoreSearch("fg1", projects(1, 2), 0, 10);
+    Assert.assertEquals(4, openSearch.searches);
+  }
+
+  @Test
+  public void testFailedSearchChecksIndexAgain() throws Exception {
+    controller.featurestoreSearch("fg", projects(1), 0, 10);
+    openSearch.fail = true;
+    Assert.assertThrows(OpenSearchException.class, () -> controller.featurestoreSearch("fg1", projects(1), 0, 10));
+    openSearch.fail = false;
+    controller.featurestoreSearch("fg1", projects(1), 0, 10);
+    Assert.assertEquals(2, openSearch.indexChecks);
+  }
+
+  /**
+   * Users of the same projects typing the same term, one search per keystroke. Logs the p50 and p99 latency of the
+   * searches against a local stand-in with a fixed round trip.
+   */
+  @Test
+  public void testKeystrokeSearchLatency() throws Exception {
+    openSearch.latencyNanos = TimeUnit.MILLISECONDS.toNanos(2);
+    String term = "transactions_features";
+    int users = 10;
+    List<Long> latencies = new ArrayList<>();
+    for (int user = 0; user < users; user++) {
+      for (int i = 1; i <= term.length(); i++) {
+        long start = System.nanoTime();
+        controller.featurestoreSearch(term.substring(0, i), projects(1, 2), 0, 10);
+        latencies.add(System.nanoTime() - start);
+      }
+    }
+    Collections.sort(latencies);
+    long p50 = latencies.get(latencies.size() / 2);
+    long p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+    LOGGER.log(Level.INFO, "Feature store search latency p50: {0} us, p99: {1} us, opensearch searches: {2}/{3}",
+        new Object[]{p50 / 1000, p99 / 1000, openSearch.searches, latencies.size()});
+
+    Assert.assertEquals(term.length(), openSearch.searches);
+    Assert.assertEquals(1, openSearch.indexChecks);
+    Assert.assertTrue(p50 < openSearch.latencyNanos);
+  }
+
+  private Map<FeaturestoreDocType, Set<Integer>> projects(Integer... projectIds) {
+    Map<FeaturestoreDocType, Set<Integer>> docProjectIds = new HashMap<>();
+    Set<Integer> ids = new HashSet<>();
+    Collections.addAll(ids, projectIds);
+    docProjectIds.put(FeaturestoreDocType.FEATUREGROUP, ids);
+    return docProjectIds;
+  }
+
+  /**
+   * Stand-in for opensearch that counts the requests and answers every search with an empty page after a fixed
+   * latency.
+   */
+  private static class LocalOpenSearch extends OpenSearchClientController {
+    private boolean indexExists = true;
+    private boolean fail = false;
+    private long latencyNanos = 0;
+    private int indexChecks = 0;
+    private int searches = 0;
+
+    @Override
+    public boolean mngIndexExists(String indexName) {
+      indexChecks++;
+      return indexExists;
+    }
+
+    @Override
+    public MultiSearchResponse multiSearch(MultiSearchRequest request) throws OpenSearchException {
+      searches++;
+      if (latencyNanos > 0) {
+        LockSupport.parkNanos(latencyNanos);
+      }
+      if (fail) {
+        throw new OpenSearchException(RESTCodes.OpenSearchErrorCode.OPENSEARCH_QUERY_ERROR, Level.WARNING,
+            "index not found");
+      }
+      MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[request.requests().size()];
+      for (int i = 0; i < items.length; i++) {
+        items[i] = new MultiSearchResponse.Item(emptyResponse(), null);
+      }
+      return new MultiSearchResponse(items, 1);
+    }
+
+    private SearchResponse emptyResponse() {
+      SearchHits hits = new SearchHits(new SearchHit[0], new TotalHits(0, TotalHits.Relation.EQUAL_TO), 0);
+      SearchResponseSections sections = new SearchResponseSections(hits, null, null, false, null, null, 1);
+      return new SearchResponse(sections, null, 1, 1, 0, 1L, new ShardSearchFailure[]{},
+          new SearchResponse.Clusters(0, 0, 0));
+    }
+  }
+}
@@ -26,6 +26,7 @@ import org.opensearch.action.search.SearchResponseSections;
 import org.opensearch.action.search.ShardSearchFailure;
 import org.opensearch.common.bytes.BytesArray;
 import org.opensearch.common.bytes.BytesReference;
+import org.opensearch.search.DocValueFormat;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
@@ -35,6 +36,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class TestOpenSearchClientController {
 
   private OpenSearchHits.Handler handler;
@@ -227,4 +232,103 @@ public class TestOpenSearchClientController {
     Mockito.verify(client, Mockito.times(1)).searchScrollingInt(Mockito.any());
     Mockito.verify(client, Mockito.times(1)).clearScrollingContext(Mockito.any());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testSearchAfterFirstPage() throws OpenSearchException {
+    //arrange
+    SearchRequest request = sortedRequest();
+    List<Object[]> pages = mockSearchAfterPages(sortedHits(1, 2), sortedHits(3));
+
+    //act
+    Pair<Long, Try<Object>> result = client.searchAfter(request, handler, 0, 2, 5);
+
+    //assert
+    Assert.assertEquals(3, result.getValue0().intValue());
+    Assert.assertEquals(1, pages.size());
+    assertPage(pages.get(0), 0, 2, null);
+    Mockito.verify(handler, Mockito.times(1)).apply(Mockito.any());
+  }
+
+  @Test
+  public void testSearchAfterNextPageContinuesFromLastHit() throws OpenSearchException {
+    //arrange
+    SearchRequest request = sortedRequest();
+    List<Object[]> pages = mockSearchAfterPages(sortedHits(1, 2), sortedHits(3, 4), sortedHits(5));
+
+    //act
+    Pair<Long, Try<Object>> result = client.searchAfter(request, handler, 1, 5, 2);
+
+    //assert
+    Assert.assertEquals(5, result.getValue0().intValue());
+    Assert.assertEquals(3, pages.size());
+    // the offset only applies to the first page, the next ones continue after the last hit of the previous page
+    assertPage(pages.get(0), 1, 2, null);
+    assertPage(pages.get(1), 0, 2, new Object[]{2L});
+    assertPage(pages.get(2), 0, 1, new Object[]{4L});
+    Mockito.verify(handler, Mockito.times(3)).apply(Mockito.any());
+  }
+
+  @Test
+  public void testSearchAfterStopsAtEndOfResults() throws OpenSearchException {
+    //arrange
+    List<Object[]> pages = mockSearchAfterPages(sortedHits(1, 2), sortedHits(3));
+
+    //act
+    client.searchAfter(sortedRequest(), handler, 0, 10, 2);
+
+    //assert
+    // the short page is the last one
+    Assert.assertEquals(2, pages.size());
+    assertPage(pages.get(1), 0, 2, new Object[]{2L});
+  }
+
+  @Test
+  public void testSearchAfterStopsOnEmptyPage() throws OpenSearchException {
+    //arrange
+    List<Object[]> pages = mockSearchAfterPages(sortedHits(1, 2), sortedHits());
+
+    //act
+    Pair<Long, Try<Object>> result = client.searchAfter(sortedRequest(), handler, 0, 10, 2);
+
+    //assert
+    Assert.assertEquals(2, pages.size());
+    Assert.assertTrue(result.getValue1().isSuccess());
+    Mockito.verify(handler, Mockito.times(2)).apply(Mockito.any());
+  }
+
+  private SearchRequest sortedRequest() {
+    SearchRequest request = new SearchRequest();
+    request.source(new SearchSourceBuilder());
+    return request;
+  }
+
+  private SearchHit[] sortedHits(long... ids) {
+    SearchHit[] hits = new SearchHit[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      hits[i] = new SearchHit((int) ids[i]);
+      hits[i].sortValues(new Object[]{ids[i]}, new DocValueFormat[]{DocValueFormat.RAW});
+    }
+    return hits;
+  }
+
+  /**
+   * Returns the pages in order and records from, size and search_after of each request, as the request is reused
+   * from one page to the next.
+   */
+  private List<Object[]> mockSearchAfterPages(SearchHit[]... pages) throws OpenSearchException {
+    int totalHits = Arrays.stream(pages).mapToInt(page -> page.length).sum();
+    List<Object[]> requested = new ArrayList<>();
+    Mockito.doAnswer(invocation -> {
+      SearchSourceBuilder source = ((SearchRequest) invocation.getArgument(0)).source();
+      requested.add(new Object[]{source.from(), source.size(), source.searchAfter()});
+      return createResponse(pages[requested.size() - 1], totalHits, null);
+    }).when(client).baseSearch(Mockito.any());
+    return requested;
+  }
+
+  private void assertPage(Object[] page, int from, int size, Object[] searchAfter) {
+    Assert.assertEquals(from, page[0]);
+    Assert.assertEquals(size, page[1]);
+    Assert.assertArrayEquals(searchAfter, (Object[]) page[2]);
+  }
+}
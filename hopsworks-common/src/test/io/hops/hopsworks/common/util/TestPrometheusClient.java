@@ -0,0 +1,196 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.util;
+
+import com.sun.net.httpserver.HttpServer;
+import io.hops.hopsworks.exceptions.ServiceException;
+import io.hops.hopsworks.restutils.RESTCodes;
+import org.apache.http.HttpHost;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs PrometheusClient against a local stub of the Prometheus query API.
+ */
+public class TestPrometheusClient {
+
+  private static final String RESPONSE = "{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[]}}";
+
+  private HttpServer prometheus;
+  private final List<String> requests = new CopyOnWriteArrayList<>();
+  private volatile CountDownLatch release = new CountDownLatch(0);
+  private volatile int responseSize = -1;
+  private PrometheusClient client;
+
+  @Before
+  public void setup() throws IOException {
+    prometheus = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    prometheus.setExecutor(Executors.newCachedThreadPool());
+    prometheus.createContext("/api/v1/query", exchange -> {
+      requests.add(exchange.getRequestURI().getQuery());
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = responseSize < 0 ? RESPONSE.getBytes(StandardCharsets.UTF_8) : new byte[responseSize];
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    prometheus.start();
+    final int port = prometheus.getAddress().getPort();
+    client = new PrometheusClient() {
+      @Override
+      HttpHost getPrometheusHost() {
+        return new HttpHost("127.0.0.1", port, "http");
+      }
+    };
+    client.init();
+  }
+
+  @After
+  public void tearDown() {
+    client.destroy();
+    prometheus.stop(0);
+  }
+
+  @Test
+  public void testQueryIsEvaluatedAtStepStart() throws Exception {
+    Assert.assertEquals(RESPONSE, client.executeRaw("up"));
+    Assert.assertEquals(1, requests.size());
+    String query = requests.get(0);
+    Assert.assertTrue(query, query.startsWith("query=up&time="));
+    long time = Long.parseLong(query.substring("query=up&time=".length(), query.indexOf("&timeout=")));
+    Assert.assertEquals(0, time % 15);
+  }
+
+  @Test
+  public void testRepeatedQueryIsServedFromCache() throws Exception {
+    long step = System.currentTimeMillis() / 15000;
+    client.executeRaw("up");
+    client.executeRaw("up");
+    client.execute("up");
+    if (step == System.currentTimeMillis() / 15000) {
+      Assert.assertEquals(1, requests.size());
+    }
+    client.executeRaw("sum(up)");
+    Assert.assertTrue(requests.get(requests.size() - 1).startsWith("query=sum(up)"));
+  }
+
+  @Test
+  public void testConcurrentQueriesAreCoalesced() throws Exception {
+    release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> client.executeRaw("rate(node_cpu_seconds_total[5m])")));
+      }
+      long deadline = System.currentTimeMillis() + 5000;
+      while (requests.isEmpty() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      // Give the other callers time to pile up behind the first request
+      Thread.sleep(200);
+      release.countDown();
+      for (Future<String> result : results) {
+        Assert.assertEquals(RESPONSE, result.get(10, TimeUnit.SECONDS));
+      }
+      Assert.assertEquals(1, requests.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testLargeResponseIsRejected() {
+    responseSize = PrometheusClient.MAX_RESPONSE_BYTES + 1;
+    try {
+      client.executeRaw("up");
+      Assert.fail("Expected the response to be rejected");
+    } catch (ServiceException e) {
+      Assert.assertEquals(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_REJECTED, e.getErrorCode());
+    }
+    Assert.assertEquals(1, requests.size());
+  }
+
+  @Test
+  public void testExpensiveQueriesAreRejected() {
+    StringBuilder longQuery = new StringBuilder("up");
+    while (longQuery.length() <= PrometheusClient.MAX_QUERY_LENGTH) {
+      longQuery.append(" or up");
+    }
+    String[] queries = {longQuery.toString(), "rate(node_cpu_seconds_total[8d])",
+      "max_over_time(up[1w1d:1m])", "avg_over_time(up[1y])", "up offset 1y", "sum(up OFFSET 8d)",
+      "rate(up[5m] offset -2w)"};
+    for (String query : queries) {
+      try {
+        client.executeRaw(query);
+        Assert.fail("Expected " + query + " to be rejected");
+      } catch (ServiceException e) {
+        Assert.assertEquals(RESTCodes.ServiceErrorCode.PROMETHEUS_QUERY_REJECTED, e.getErrorCode());
+      }
+    }
+    Assert.assertTrue(requests.isEmpty());
+  }
+
+  @Test
+  public void testShortOffsetIsAccepted() throws Exception {
+    client.executeRaw("rate(up[5m] offset 1d)");
+    client.executeRaw("up offset -1h");
+    Assert.assertEquals(2, requests.size());
+  }
+
+  @Test
+  public void testStepAlignment() {
+    PrometheusQueryCache cache = new PrometheusQueryCache(15000, 1024, 1000);
+    Assert.assertEquals(30000, cache.alignToStep(30000));
+    Assert.assertEquals(30000, cache.alignToStep(44999));
+    Assert.assertEquals(45000, cache.alignToStep(45000));
+  }
+
+  @Test
+  public void testResultIsSharedWithinStepOnly() throws ServiceException {
+    PrometheusQueryCache cache = new PrometheusQueryCache(15000, 1024, 1000);
+    List<Long> evaluated = new ArrayList<>();
+    PrometheusQueryCache.Fetcher fetcher = (query, time) -> {
+      evaluated.add(time);
+      return query + "@" + time;
+    };
+    Assert.assertEquals("up@30000", cache.get("up", 31000, fetcher));
+    Assert.assertEquals("up@30000", cache.get("up", 44000, fetcher));
+    Assert.assertEquals("up@45000", cache.get("up", 45000, fetcher));
+    Assert.assertEquals(2, evaluated.size());
+    Assert.assertEquals(1, cache.getHits());
+  }
+}
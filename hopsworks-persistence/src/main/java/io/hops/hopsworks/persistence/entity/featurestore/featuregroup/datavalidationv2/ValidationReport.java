@@ -53,7 +53,17 @@ import java.util.Objects;
   @NamedQuery(
     name = "ValidationReport.findByFeaturegroupOrderedByDescDate",
     query = "SELECT vr FROM ValidationReport vr WHERE vr.featuregroup=:featuregroup ORDER BY vr.validationTime DESC"
-  )})
+  ),
+  @NamedQuery(
+    name = "ValidationReport.findValidatedBefore",
+    query = "SELECT vr FROM ValidationReport vr WHERE vr.validationTime < :validationTime " +
+      "ORDER BY vr.validationTime ASC"
+  ),
+  @NamedQuery(
+    name = "ValidationReport.findFeaturegroupsWithMoreReportsThan",
+    query = "SELECT vr.featuregroup FROM ValidationReport vr GROUP BY vr.featuregroup HAVING COUNT(vr.id) > :count"
+  ),
+  @NamedQuery(name = "ValidationReport.deleteBatch", query = "DELETE FROM ValidationReport vr WHERE vr.id IN :ids")})
 @XmlRootElement
 public class ValidationReport implements Serializable {
   private static final long serialVersionUID = 1L;
@@ -26,6 +26,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
@@ -37,6 +39,11 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "validation_result", catalog = "hopsworks")
+@NamedQueries({
+  @NamedQuery(
+    name = "ValidationResult.deleteByValidationReports",
+    query = "DELETE FROM ValidationResult vr WHERE vr.validationReport.id IN :ids"
+  )})
 @XmlRootElement
 public class ValidationResult implements Serializable {
   private static final long serialVersionUID = 1L;
@@ -99,6 +99,9 @@ import java.util.List;
   @NamedQuery(name = "Execution.findByStates",
           query
           = "SELECT e FROM Execution e WHERE e.state in :states"),
+  @NamedQuery(name = "Execution.findJobIdsByJobsAndStates",
+          query
+          = "SELECT DISTINCT e.job.id FROM Execution e WHERE e.job IN :jobs AND e.state in :states"),
   @NamedQuery(name = "Execution.findByJobAndStates",
           query
           = "SELECT e FROM Execution e WHERE e.job = :job AND e.state in :states ORDER BY e.submissionTime DESC"),
@@ -121,6 +124,9 @@ import java.util.List;
   @NamedQuery(name = "Execution.findByProjectAndStates",
           query
           = "SELECT e FROM Execution e WHERE e.job.project = :project AND e.state in :states"),
+  @NamedQuery(name = "Execution.countByProjectAndStates",
+          query
+          = "SELECT COUNT(e.id) FROM Execution e WHERE e.job.project = :project AND e.state in :states"),
   @NamedQuery(name = "Execution.findByTypesAndStates",
           query
           = "SELECT e FROM Execution e WHERE e.job.type in :types AND e.state in :states"),
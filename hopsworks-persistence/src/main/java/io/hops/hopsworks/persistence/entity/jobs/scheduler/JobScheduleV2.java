@@ -51,6 +51,10 @@ import java.util.Objects;
     @NamedQuery(name = "JobSchedule.getActiveWithCurrentExecutionTime",
         query = "SELECT j FROM JobScheduleV2 j WHERE j.enabled = true "
             + "AND j.nextExecutionDateTime <= :currentDateTime"),
+    @NamedQuery(name = "JobSchedule.getActive",
+        query = "SELECT j FROM JobScheduleV2 j WHERE j.enabled = true AND j.nextExecutionDateTime IS NOT NULL"),
+    @NamedQuery(name = "JobSchedule.getByIds",
+        query = "SELECT j FROM JobScheduleV2 j WHERE j.id IN :ids"),
   })
 public class JobScheduleV2 implements Serializable {
 
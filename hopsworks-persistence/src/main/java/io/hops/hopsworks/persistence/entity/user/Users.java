@@ -85,6 +85,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
   @NamedQuery(name = "Users.findByUid",
       query = "SELECT u FROM Users u WHERE u.uid = :uid")
   ,
+  @NamedQuery(name = "Users.findByUids",
+      query = "SELECT u FROM Users u WHERE u.uid IN :uids")
+  ,
   @NamedQuery(name = "Users.findByUsername",
       query = "SELECT u FROM Users u WHERE u.username = :username")
   ,
@@ -19,13 +19,17 @@ import io.hops.hopsworks.persistence.InvalidQueryException;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 public abstract class AbstractFacade<T> {
 
@@ -104,6 +108,87 @@ public abstract class AbstractFacade<T> {
     }
   }
 
+  /**
+   * Keyset (seek) pagination condition: only rows strictly after the cursor position in the (sort key, id) order.
+   * Needs to be combined with {@link #keysetSortString(String, String, OrderBy)} and
+   * {@link #setKeyset(Cursor, String, String, Class, Query)}. Null sort keys are ordered as the database does, first in
+   * ascending and last in descending order.
+   * @param sortSql sort key column, should be indexed together with the id
+   * @param idSql unique id column used as tiebreaker
+   * @param order order of the sort key and the id
+   * @param cursor position to continue from
+   * @return jpql condition
+   */
+  public String keysetCondition(String sortSql, String idSql, OrderBy order, Cursor cursor) {
+    String op = order == OrderBy.DESC ? " < " : " > ";
+    String afterId = idSql + op + ":keysetId";
+    if (isIdSort(sortSql, idSql)) {
+      return afterId + " ";
+    }
+    if (cursor.getSortValue() == null) {
+      // rows with a null sort key are followed by all the others in ascending order, and by none in descending order
+      String nullsAfter = "(" + sortSql + " IS NULL AND " + afterId + ")";
+      return (order == OrderBy.DESC ? nullsAfter : "(" + nullsAfter + " OR " + sortSql + " IS NOT NULL)") + " ";
+    }
+    String after = sortSql + op + ":keysetSort OR (" + sortSql + " = :keysetSort AND " + afterId + ")";
+    return "(" + after + (order == OrderBy.DESC ? " OR " + sortSql + " IS NULL" : "") + ") ";
+  }
+
+  public String keysetSortString(String sortSql, String idSql, OrderBy order) {
+    if (isIdSort(sortSql, idSql)) {
+      return " ORDER BY " + idSql + " " + order.getSql();
+    }
+    return " ORDER BY " + sortSql + " " + order.getSql() + ", " + idSql + " " + order.getSql();
+  }
+
+  /**
+   * Sets the parameters of {@link #keysetCondition(String, String, OrderBy, Cursor)}.
+   * @param cursor position to continue from
+   * @param sortSql sort key column
+   * @param idSql unique id column used as tiebreaker
+   * @param idType type of the id column, Integer or Long
+   * @param q keyset query
+   */
+  public void setKeyset(Cursor cursor, String sortSql, String idSql, Class<? extends Number> idType, Query q) {
+    if (cursor == null) {
+      return;
+    }
+    if (!isIdSort(sortSql, idSql) && cursor.getSortValue() != null) {
+      q.setParameter("keysetSort", cursor.getSortValue());
+    }
+    q.setParameter("keysetId", cursor.getId(idType));
+  }
+
+  private boolean isIdSort(String sortSql, String idSql) {
+    return sortSql == null || sortSql.trim().equals(idSql.trim());
+  }
+
+  /**
+   * Keyset pages fetch one extra row to know if there is a next page without counting.
+   */
+  public void setKeysetLimit(Integer limit, Query q) {
+    if (limit != null && limit > 0) {
+      q.setMaxResults(limit + 1);
+    }
+  }
+
+  /**
+   * @param results query results, fetched with {@link #setKeysetLimit(Integer, Query)}
+   * @param limit requested page size
+   * @param cursorOf builds the cursor of an item
+   * @param count total count or null if it was not requested
+   * @return the page with the continuation token of the next page, if any
+   */
+  public <A> CollectionInfo<A> keysetPage(List<A> results, Integer limit, Function<A, Cursor> cursorOf, Long count) {
+    CollectionInfo<A> page = new CollectionInfo<>(count, results);
+    if (limit != null && limit > 0 && results.size() > limit) {
+      List<A> items = new ArrayList<>(results.subList(0, limit));
+      page.setItems(items);
+      page.setNext(cursorOf.apply(items.get(items.size() - 1)).encode());
+    }
+    return page;
+  }
+
   public String orderBy(SortBy sortBy) {
     return sortBy.getSql() + " " +  sortBy.getParam().getSql();
   }
@@ -275,9 +360,134 @@ public abstract class AbstractFacade<T> {
 
   }
 
+  /**
+   * Position of a row in a keyset paginated query. Encoded as an opaque continuation token for the REST clients. The
+   * token records the sort it was issued for, a token can only continue a query sorted the same way.
+   */
+  public static class Cursor {
+    // token requesting the first page in keyset pagination mode
+    public static final String FIRST = "*";
+    private static final String SEPARATOR = "|";
+    private final String sort;
+    private final OrderBy order;
+    private final Object sortValue;
+    private final Long id;
+
+    /**
+     * @param sort name of the sort field of the query
+     * @param order order of the query
+     * @param sortValue sort key of the row, null when sorting only by id
+     * @param id id of the row
+     */
+    public Cursor(String sort, OrderBy order, Object sortValue, Long id) {
+      this.sort = sort;
+      this.order = order;
+      this.sortValue = sortValue;
+      this.id = id;
+    }
+
+    public String getSort() {
+      return sort;
+    }
+
+    public OrderBy getOrder() {
+      return order;
+    }
+
+    public Object getSortValue() {
+      return sortValue;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    /**
+     * @param idType type of the id column of the query, Integer or Long
+     * @return the id parameter matching the column type
+     */
+    public Number getId(Class<? extends Number> idType) {
+      if (Integer.class.equals(idType)) {
+        return id.intValue();
+      }
+      return id;
+    }
+
+    /**
+     * @param sort name of the sort field of the query the cursor continues
+     * @param order order of the query the cursor continues
+     * @throws InvalidQueryException if the cursor was issued for a different sort
+     */
+    public void checkSort(String sort, OrderBy order) {
+      if (!this.sort.equals(sort) || this.order != order) {
+        throw new InvalidQueryException("Pagination cursor was issued for sort_by " + this.sort + ":" +
+          this.order.getValue() + " and cannot continue sort_by " + sort + ":" + order.getValue());
+      }
+    }
+
+    public String encode() {
+      String type;
+      String value;
+      if (sortValue == null) {
+        type = "N";
+        value = "";
+      } else if (sortValue instanceof Date) {
+        type = "D";
+        value = Long.toString(((Date) sortValue).getTime());
+      } else if (sortValue instanceof Integer) {
+        type = "I";
+        value = sortValue.toString();
+      } else if (sortValue instanceof Number) {
+        type = "L";
+        value = Long.toString(((Number) sortValue).longValue());
+      } else {
+        type = "S";
+        value = sortValue.toString();
+      }
+      String raw = String.join(SEPARATOR, sort, order.getValue(), id.toString(), type, value);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String token) {
+      if (token == null || token.isEmpty() || FIRST.equals(token)) {
+        return null;
+      }
+      try {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        // the sort value is last and may contain the separator
+        String[] parts = raw.split(Pattern.quote(SEPARATOR), 5);
+        if (parts.length != 5) {
+          throw new InvalidQueryException("Invalid pagination cursor: " + token);
+        }
+        String sort = parts[0];
+        OrderBy order = OrderBy.valueOf(parts[1]);
+        Long id = Long.parseLong(parts[2]);
+        String value = parts[4];
+        switch (parts[3]) {
+          case "N":
+            return new Cursor(sort, order, null, id);
+          case "D":
+            return new Cursor(sort, order, new Date(Long.parseLong(value)), id);
+          case "I":
+            return new Cursor(sort, order, Integer.parseInt(value), id);
+          case "L":
+            return new Cursor(sort, order, Long.parseLong(value), id);
+          case "S":
+            return new Cursor(sort, order, value, id);
+          default:
+            throw new InvalidQueryException("Invalid pagination cursor: " + token);
+        }
+      } catch (IllegalArgumentException e) {
+        throw new InvalidQueryException("Invalid pagination cursor: " + token, e);
+      }
+    }
+  }
+
   public static class CollectionInfo<A> {
     private Long count;
     private List<A> items;
+    // continuation token of the next page when using keyset pagination, null if this is the last page
+    private String next;
 
     public CollectionInfo(Long count, List<A> items) {
       this.count = count;
@@ -299,5 +509,13 @@ public abstract class AbstractFacade<T> {
     public void setCount(Long count) {
       this.count = count;
     }
+
+    public String getNext() {
+      return next;
+    }
+
+    public void setNext(String next) {
+      this.next = next;
+    }
   }
 }
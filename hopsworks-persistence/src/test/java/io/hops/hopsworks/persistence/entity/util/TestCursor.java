@@ -0,0 +1,104 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.persistence.entity.util;
+
+import io.hops.hopsworks.persistence.InvalidQueryException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.Date;
+
+public class TestCursor {
+
+  private final AbstractFacade<Object> facade = new AbstractFacade<Object>(Object.class) {
+    @Override
+    protected EntityManager getEntityManager() {
+      return null;
+    }
+  };
+
+  @Test
+  public void testRoundTrip() {
+    Date submitted = new Date(1672531200000L);
+    AbstractFacade.Cursor cursor = AbstractFacade.Cursor.decode(
+      new AbstractFacade.Cursor("SUBMISSIONTIME", AbstractFacade.OrderBy.DESC, submitted, 42L).encode());
+    Assert.assertEquals("SUBMISSIONTIME", cursor.getSort());
+    Assert.assertEquals(AbstractFacade.OrderBy.DESC, cursor.getOrder());
+    Assert.assertEquals(submitted, cursor.getSortValue());
+    Assert.assertEquals(Integer.valueOf(42), cursor.getId(Integer.class));
+
+    cursor = AbstractFacade.Cursor.decode(
+      new AbstractFacade.Cursor("NAME", AbstractFacade.OrderBy.ASC, "a|b", 7L).encode());
+    Assert.assertEquals("a|b", cursor.getSortValue());
+    Assert.assertEquals(Long.valueOf(7), cursor.getId());
+
+    cursor = AbstractFacade.Cursor.decode(new AbstractFacade.Cursor("ID", AbstractFacade.OrderBy.ASC, null, 3L)
+      .encode());
+    Assert.assertNull(cursor.getSortValue());
+  }
+
+  @Test
+  public void testFirstPage() {
+    Assert.assertNull(AbstractFacade.Cursor.decode(AbstractFacade.Cursor.FIRST));
+  }
+
+  @Test(expected = InvalidQueryException.class)
+  public void testInvalidToken() {
+    AbstractFacade.Cursor.decode("not-a-cursor");
+  }
+
+  @Test
+  public void testSortMismatchIsRejected() {
+    AbstractFacade.Cursor cursor = new AbstractFacade.Cursor("ID", AbstractFacade.OrderBy.DESC, null, 3L);
+    cursor.checkSort("ID", AbstractFacade.OrderBy.DESC);
+    try {
+      cursor.checkSort("SUBMISSIONTIME", AbstractFacade.OrderBy.DESC);
+      Assert.fail("Expected a cursor issued for another sort to be rejected");
+    } catch (InvalidQueryException e) {
+      // expected
+    }
+    try {
+      cursor.checkSort("ID", AbstractFacade.OrderBy.ASC);
+      Assert.fail("Expected a cursor issued for another order to be rejected");
+    } catch (InvalidQueryException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testKeysetCondition() {
+    AbstractFacade.Cursor byId = new AbstractFacade.Cursor("ID", AbstractFacade.OrderBy.DESC, null, 3L);
+    Assert.assertEquals("e.id < :keysetId ", facade.keysetCondition("e.id", "e.id", AbstractFacade.OrderBy.DESC, byId));
+
+    AbstractFacade.Cursor byTime = new AbstractFacade.Cursor("TIME", AbstractFacade.OrderBy.ASC, new Date(0), 3L);
+    Assert.assertEquals("(e.time > :keysetSort OR (e.time = :keysetSort AND e.id > :keysetId)) ",
+      facade.keysetCondition("e.time", "e.id", AbstractFacade.OrderBy.ASC, byTime));
+    // null sort keys come last in descending order
+    Assert.assertEquals("(e.time < :keysetSort OR (e.time = :keysetSort AND e.id < :keysetId) OR e.time IS NULL) ",
+      facade.keysetCondition("e.time", "e.id", AbstractFacade.OrderBy.DESC, byTime));
+  }
+
+  @Test
+  public void testKeysetConditionNullSortValue() {
+    AbstractFacade.Cursor cursor = new AbstractFacade.Cursor("TIME", AbstractFacade.OrderBy.ASC, null, 3L);
+    Assert.assertEquals("((e.time IS NULL AND e.id > :keysetId) OR e.time IS NOT NULL) ",
+      facade.keysetCondition("e.time", "e.id", AbstractFacade.OrderBy.ASC, cursor));
+    Assert.assertEquals("(e.time IS NULL AND e.id < :keysetId) ",
+      facade.keysetCondition("e.time", "e.id", AbstractFacade.OrderBy.DESC, cursor));
+  }
+}
@@ -58,6 +58,7 @@ import org.jvnet.hk2.annotations.Service;
 
 import javax.security.auth.login.LoginException;
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.io.Reader;
 import java.nio.charset.CharacterCodingException;
 import java.security.MessageDigest;
@@ -70,11 +71,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 import static java.lang.Character.toLowerCase;
@@ -105,16 +106,28 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
   public static final String DEFAULT_GROUP_QUERY =
     "SELECT G.group_name from hopsworks.bbc_group AS G, hopsworks.user_group AS UG, " +
       "hopsworks.users AS U WHERE U.email=? AND UG.gid = G.gid AND UG.uid = U.uid";
+  public static final String PARAM_GROUP_CACHE_TTL = "group-cache-ttl";
+  public static final String PARAM_CREDENTIAL_CACHE_TTL = "credential-cache-ttl";
+  public static final String PARAM_CACHE_MAX_SIZE = "cache-max-size";
+  public static final long DEFAULT_GROUP_CACHE_TTL = 300; // seconds
+  public static final long DEFAULT_CREDENTIAL_CACHE_TTL = 0; // seconds, disabled
+  public static final int DEFAULT_CACHE_MAX_SIZE = 10000;
 
   private static final char[] HEXADECIMAL =
     {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
 
   private String passwordQuery;
   private String groupQuery;
-  private Map<String, Vector<String>> groupCache;
+  private RealmCache<Vector<String>> groupCache;
+  private RealmCache<char[]> credentialCache;
   private Vector<String> emptyVector;
   private MessageDigest md = null;
   private ActiveDescriptor<ConnectorRuntime> connectorRuntimeDescriptor;
+  private volatile DataSource dataSource;
+
+  private final LongAdder authentications = new LongAdder();
+  private final LongAdder failedAuthentications = new LongAdder();
+  private final LongAdder authenticationNanos = new LongAdder();
 
 
   @Override
@@ -127,6 +140,10 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
     final String digestAlgorithm = props.getProperty(PARAM_DIGEST_ALGORITHM, getDefaultDigestAlgorithm());
     final String charset = props.getProperty(PARAM_CHARSET);
     String encoding = props.getProperty(PARAM_ENCODING);
+    final long groupCacheTtl = getLongProperty(props, PARAM_GROUP_CACHE_TTL, DEFAULT_GROUP_CACHE_TTL);
+    final long credentialCacheTtl =
+      getLongProperty(props, PARAM_CREDENTIAL_CACHE_TTL, DEFAULT_CREDENTIAL_CACHE_TTL);
+    final int cacheMaxSize = (int) getLongProperty(props, PARAM_CACHE_MAX_SIZE, DEFAULT_CACHE_MAX_SIZE);
 
     connectorRuntimeDescriptor = getConnectorRuntimeDescriptor();
 
@@ -173,11 +190,33 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
         PARAM_DB_USER + " = " + dbUser + ", " +
         PARAM_DIGEST_ALGORITHM + " = " + digestAlgorithm + ", " +
         PARAM_ENCODING + " = " + encoding + ", " +
-        PARAM_CHARSET + " = " + charset);
+        PARAM_CHARSET + " = " + charset + ", " +
+        PARAM_GROUP_CACHE_TTL + " = " + groupCacheTtl + ", " +
+        PARAM_CREDENTIAL_CACHE_TTL + " = " + credentialCacheTtl + ", " +
+        PARAM_CACHE_MAX_SIZE + " = " + cacheMaxSize);
     }
 
-    groupCache = new HashMap<>();
+    groupCache = new RealmCache<>(groupCacheTtl, TimeUnit.SECONDS, cacheMaxSize);
+    credentialCache = new RealmCache<>(credentialCacheTtl, TimeUnit.SECONDS, cacheMaxSize);
     emptyVector = new Vector<>();
+    dataSource = null;
+  }
+
+  private long getLongProperty(Properties props, String name, long defaultValue) throws BadRealmException {
+    String value = props.getProperty(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      long parsed = Long.parseLong(value.trim());
+      if (parsed < 0) {
+        throw new BadRealmException("Realm property " + name + " cannot be negative: " + value);
+      }
+      this.setProperty(name, value.trim());
+      return parsed;
+    } catch (NumberFormatException e) {
+      throw new BadRealmException("Realm property " + name + " is not a number: " + value);
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -205,13 +244,12 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
     Vector<String> vector = groupCache.get(username);
     if (vector == null) {
       String[] grps = findGroups(username);
-      setGroupNames(username, grps);
-      vector = groupCache.get(username);
+      vector = setGroupNames(username, grps);
     }
     return vector.elements();
   }
 
-  private void setGroupNames(String username, String[] groups) {
+  private Vector<String> setGroupNames(String username, String[] groups) {
     Vector<String> v = null;
 
     if (groups == null) {
@@ -224,25 +262,77 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
       }
     }
 
-    synchronized (this) {
-      groupCache.put(username, v);
-    }
+    groupCache.put(username, v);
+    return v;
+  }
+
+  /**
+   * Called by the server when the realm is refreshed (e.g. asadmin or realm configuration change).
+   */
+  @Override
+  public void refresh() throws BadRealmException {
+    groupCache.invalidateAll();
+    credentialCache.invalidateAll();
+    dataSource = null;
+  }
+
+  public long getAuthenticationCount() {
+    return authentications.sum();
+  }
+
+  public long getFailedAuthenticationCount() {
+    return failedAuthentications.sum();
   }
 
   /**
-   * Invoke the native authentication call.
+   * @return mean authentication latency in milliseconds
+   */
+  public double getMeanAuthenticationLatency() {
+    long count = authentications.sum();
+    return count == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(authenticationNanos.sum()) / count / 1000;
+  }
+
+  public double getGroupCacheHitRatio() {
+    return hitRatio(groupCache);
+  }
+
+  public double getCredentialCacheHitRatio() {
+    return hitRatio(credentialCache);
+  }
+
+  private double hitRatio(RealmCache<?> cache) {
+    long hits = cache.getHits();
+    long total = hits + cache.getMisses();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /**
+   * Invoke the native authentication call. The groups are always read from the database, so that role and status
+   * changes apply on the next login, and the group cache used by {@link #getGroupNames(String)} is refreshed.
    *
    * @param username User to authenticate.
    * @param password Given password.
    * @return groups of valid user or null.
    */
   public String[] authenticate(String username, char[] password) {
+    long start = System.nanoTime();
     String[] groups = null;
     if (isUserValid(username, password)) {
       groups = findGroups(username);
       groups = addAssignGroups(groups);
       setGroupNames(username, groups);
     }
+    long elapsed = System.nanoTime() - start;
+    authentications.increment();
+    authenticationNanos.add(elapsed);
+    if (groups == null) {
+      failedAuthentications.increment();
+    }
+    if (_logger.isLoggable(FINE)) {
+      _logger.log(FINE, "Authentication of {0} took {1}ms - group cache hit ratio {2}, credential cache hit ratio {3}",
+        new Object[]{username, TimeUnit.NANOSECONDS.toMillis(elapsed), getGroupCacheHitRatio(),
+          getCredentialCacheHitRatio()});
+    }
     return groups;
   }
 
@@ -309,27 +399,78 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
   }
 
   /**
-   * Test if a user is valid
+   * Test if a user is valid. The stored password is served from the credential cache when possible. On a mismatch
+   * against a cached value the password is reloaded from the database, since it might have changed in the meantime.
    *
    * @param user user's identifier
    * @param userPassword user's password
    * @return true if valid
    */
   private boolean isUserValid(String user, char[] userPassword) {
+    boolean valid = false;
+    try {
+      char[] hashedUserPassword = hashPassword(userPassword);
+      char[] dbPassword = credentialCache.get(user);
+      if (dbPassword != null) {
+        if (passwordMatches(dbPassword, hashedUserPassword)) {
+          return true;
+        }
+        credentialCache.invalidate(user);
+      }
+      dbPassword = findPassword(user);
+      if (dbPassword != null) {
+        credentialCache.put(user, dbPassword);
+        valid = passwordMatches(dbPassword, hashedUserPassword);
+        if (!valid) {
+          _logger.finest(() -> "User '" + user + "' password mismatch!");
+        }
+      } else {
+        _logger.finest(() -> "User '" + user + "' not found in the database!");
+      }
+    } catch (SQLException ex) {
+      _logger.log(Level.SEVERE, "jdbcrealm.invaliduserreason", new String[] { user, ex.toString() });
+      _logger.log(FINE, "Cannot validate user", ex);
+    } catch (Exception ex) {
+      _logger.log(Level.SEVERE, "jdbcrealm.invaliduser", user);
+      _logger.log(FINE, "Cannot validate user", ex);
+    }
+
+    return valid;
+  }
+
+  private boolean passwordMatches(char[] dbPassword, char[] hashedUserPassword) {
+    if (HEX.equalsIgnoreCase(getProperty(PARAM_ENCODING))) {
+      if (dbPassword.length != hashedUserPassword.length) {
+        return false;
+      }
+      // Do a case-insensitive equals
+      for (int i = 0; i < dbPassword.length; i++) {
+        if (!(toLowerCase(dbPassword[i]) == toLowerCase(hashedUserPassword[i]))) {
+          return false;
+        }
+      }
+      return true;
+    } else {
+      return Arrays.equals(dbPassword, hashedUserPassword);
+    }
+  }
+
+  /**
+   * @param user user's identifier
+   * @return the stored password of the user or null if the user does not exist
+   */
+  private char[] findPassword(String user) throws SQLException, LoginException, IOException {
     Connection connection = null;
     PreparedStatement statement = null;
     ResultSet resultSet = null;
-    boolean valid = false;
-
     try {
-      char[] hashedUserPassword = hashPassword(userPassword);
       connection = getConnection();
       statement = connection.prepareStatement(passwordQuery);
       statement.setString(1, user);
       resultSet = statement.executeQuery();
 
       if (resultSet.next()) {
-        // Obtain the password as a char[] with a max size of 50
+        // Obtain the password as a char[] with a max size of 1024
         try (Reader reader = resultSet.getCharacterStream(1)) {
           char[] pwd = new char[1024];
           int noOfChars = reader.read(pwd);
@@ -344,36 +485,13 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
 
           char[] dbPassword = new char[noOfChars];
           System.arraycopy(pwd, 0, dbPassword, 0, noOfChars);
-          if (HEX.equalsIgnoreCase(getProperty(PARAM_ENCODING))) {
-            valid = true;
-            // Do a case-insensitive equals
-            for (int i = 0; i < noOfChars; i++) {
-              if (!(toLowerCase(dbPassword[i]) == toLowerCase(hashedUserPassword[i]))) {
-                valid = false;
-                break;
-              }
-            }
-          } else {
-            valid = Arrays.equals(dbPassword, hashedUserPassword);
-          }
-          if (!valid) {
-            _logger.finest(() -> "User '" + user + "' password mismatch!");
-          }
+          return dbPassword;
         }
-      } else {
-        _logger.finest(() -> "User '" + user + "' not found in the database!");
       }
-    } catch (SQLException ex) {
-      _logger.log(Level.SEVERE, "jdbcrealm.invaliduserreason", new String[] { user, ex.toString() });
-      _logger.log(FINE, "Cannot validate user", ex);
-    } catch (Exception ex) {
-      _logger.log(Level.SEVERE, "jdbcrealm.invaliduser", user);
-      _logger.log(FINE, "Cannot validate user", ex);
+      return null;
     } finally {
       close(connection, statement, resultSet);
     }
-
-    return valid;
   }
 
   private char[] hashPassword(char[] password) throws CharacterCodingException {
@@ -474,7 +592,9 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
 
 
   /**
-   * Return a connection from the properties configured
+   * Return a connection from the properties configured. The datasource is looked up once and reused, statement
+   * caching is left to the connection pool behind it (statement-cache-size property of the jdbc pool), so the
+   * prepared statements of the realm are reused across authentications.
    * @return a connection
    */
   private Connection getConnection() throws LoginException {
@@ -483,9 +603,13 @@ public class HopsworksJDBCRealm extends DigestRealmBase {
     final String dbUser = this.getProperty(PARAM_DB_USER);
     final String dbPassword = this.getProperty(PARAM_DB_PASSWORD);
     try{
-      final ConnectorRuntime connectorRuntime = Globals.getStaticHabitat()
-        .getServiceHandle(connectorRuntimeDescriptor).getService();
-      final DataSource dataSource = (DataSource) connectorRuntime.lookupNonTxResource(dsJndi,false);
+      DataSource dataSource = this.dataSource;
+      if (dataSource == null) {
+        final ConnectorRuntime connectorRuntime = Globals.getStaticHabitat()
+          .getServiceHandle(connectorRuntimeDescriptor).getService();
+        dataSource = (DataSource) connectorRuntime.lookupNonTxResource(dsJndi,false);
+        this.dataSource = dataSource;
+      }
       Connection connection;
       if (dbUser != null && dbPassword != null) {
         connection = dataSource.getConnection(dbUser, dbPassword);
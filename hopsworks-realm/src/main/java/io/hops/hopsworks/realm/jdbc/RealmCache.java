@@ -0,0 +1,135 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.realm.jdbc;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread safe, size bounded cache with a fixed time to live per entry.
+ * The realm is loaded in the server classpath with only payara available, hence no caching library is used.
+ * A ttl of 0 disables the cache.
+ * Entries are kept in insertion order. As every entry lives for the same ttl this is also the expiry order, so
+ * expired entries and, when full, the entry closest to expiring are removed from the head without a scan.
+ */
+class RealmCache<V> {
+  // guarded by this
+  private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+  private final long ttlNanos;
+  private final int maxSize;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongSupplier nanoTime;
+
+  RealmCache(long ttl, TimeUnit unit, int maxSize) {
+    this(ttl, unit, maxSize, System::nanoTime);
+  }
+
+  // For testing
+  RealmCache(long ttl, TimeUnit unit, int maxSize, LongSupplier nanoTime) {
+    this.ttlNanos = unit.toNanos(ttl);
+    this.maxSize = maxSize;
+    this.nanoTime = nanoTime;
+  }
+
+  boolean isEnabled() {
+    return ttlNanos > 0 && maxSize > 0;
+  }
+
+  V get(String key) {
+    if (!isEnabled()) {
+      return null;
+    }
+    Entry<V> entry;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry != null && entry.isExpired(nanoTime.getAsLong())) {
+        entries.remove(key);
+        entry = null;
+      }
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.value;
+  }
+
+  void put(String key, V value) {
+    if (!isEnabled() || value == null) {
+      return;
+    }
+    long now = nanoTime.getAsLong();
+    synchronized (this) {
+      // removed first so that the entry moves to the tail, keeping the map in expiry order
+      entries.remove(key);
+      evict(now);
+      entries.put(key, new Entry<>(value, now + ttlNanos));
+    }
+  }
+
+  synchronized void invalidate(String key) {
+    entries.remove(key);
+  }
+
+  synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  long getHits() {
+    return hits.sum();
+  }
+
+  long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Drop expired entries and, if still full, the entries closest to expiring, all of them at the head of the map.
+   */
+  private void evict(long now) {
+    Iterator<Entry<V>> it = entries.values().iterator();
+    while (it.hasNext()) {
+      Entry<V> oldest = it.next();
+      if (entries.size() < maxSize && !oldest.isExpired(now)) {
+        return;
+      }
+      it.remove();
+    }
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2024, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.realm.jdbc;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestRealmCache {
+
+  private long now;
+  private RealmCache<String> cache;
+
+  @Before
+  public void setup() {
+    now = 0;
+    cache = new RealmCache<>(60, TimeUnit.SECONDS, 3, () -> now);
+  }
+
+  @Test
+  public void testHitAndMiss() {
+    Assert.assertNull(cache.get("a"));
+    cache.put("a", "1");
+    Assert.assertEquals("1", cache.get("a"));
+    Assert.assertNull(cache.get("b"));
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void testExpiredEntryIsAMiss() {
+    cache.put("a", "1");
+    now += TimeUnit.SECONDS.toNanos(59);
+    Assert.assertEquals("1", cache.get("a"));
+    now += TimeUnit.SECONDS.toNanos(1);
+    Assert.assertNull(cache.get("a"));
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testFullCacheEvictsOldest() {
+    cache.put("a", "1");
+    now += 1;
+    cache.put("b", "2");
+    now += 1;
+    cache.put("c", "3");
+    now += 1;
+    cache.put("d", "4");
+    Assert.assertEquals(3, cache.size());
+    Assert.assertNull(cache.get("a"));
+    Assert.assertEquals("2", cache.get("b"));
+    Assert.assertEquals("4", cache.get("d"));
+  }
+
+  @Test
+  public void testReplacedEntryIsEvictedByItsNewAge() {
+    cache.put("a", "1");
+    now += 1;
+    cache.put("b", "2");
+    now += 1;
+    cache.put("a", "3");
+    now += 1;
+    cache.put("c", "4");
+    now += 1;
+    cache.put("d", "5");
+    Assert.assertNull(cache.get("b"));
+    Assert.assertEquals("3", cache.get("a"));
+  }
+
+  @Test
+  public void testExpiredEntriesAreEvictedFirst() {
+    cache.put("a", "1");
+    cache.put("b", "2");
+    now += TimeUnit.SECONDS.toNanos(30);
+    cache.put("c", "3");
+    now += TimeUnit.SECONDS.toNanos(30);
+    cache.put("d", "4");
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals("3", cache.get("c"));
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.invalidate("a");
+    Assert.assertNull(cache.get("a"));
+    Assert.assertEquals("2", cache.get("b"));
+    cache.invalidateAll();
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testDisabled() {
+    RealmCache<String> disabled = new RealmCache<>(0, TimeUnit.SECONDS, 3, () -> now);
+    disabled.put("a", "1");
+    Assert.assertNull(disabled.get("a"));
+    Assert.assertEquals(0, disabled.size());
+  }
+}
@@ -316,7 +316,8 @@ public class RESTCodes {
     DATASET_ACCESS_PERMISSION_DENIED(50, "Permission denied.", Response.Status.FORBIDDEN),
     PATH_ENCODING_NOT_SUPPORTED(51, "Unsupported encoding.", Response.Status.BAD_REQUEST),
     ATTACH_XATTR_ERROR(52, "Failed to attach Xattr.", Response.Status.INTERNAL_SERVER_ERROR),
-    TARGET_PROJECT_NOT_FOUND(53, "Target project not found.", Response.Status.INTERNAL_SERVER_ERROR);
+    TARGET_PROJECT_NOT_FOUND(53, "Target project not found.", Response.Status.INTERNAL_SERVER_ERROR),
+    FILE_PREVIEW_INVALID(54, "File preview request is not valid.", Response.Status.BAD_REQUEST);
 
 
     private Integer code;
@@ -366,7 +367,8 @@ public class RESTCodes {
         Response.Status.BAD_REQUEST),
     METADATA_ERROR(7, "Error while processing the extended metadata.",
         Response.Status.INTERNAL_SERVER_ERROR),
-    METADATA_ILLEGAL_NAME(8, "Metadata name is illegal.", Response.Status.BAD_REQUEST);
+    METADATA_ILLEGAL_NAME(8, "Metadata name is illegal.", Response.Status.BAD_REQUEST),
+    METADATA_CONFLICT(9, "Metadata was modified concurrently, try again.", Response.Status.CONFLICT);
 
     private Integer code;
     private String message;
@@ -642,7 +644,11 @@ public class RESTCodes {
     ENVIRONMENT_HISTORY_READ_ERROR(65, "Failed to read environment history record from database",
         Response.Status.INTERNAL_SERVER_ERROR),
     ENVIRONMENT_HISTORY_CUSTOM_COMMANDS_FILE_READ_ERROR(66, "Failed to read custom command file",
-        Response.Status.INTERNAL_SERVER_ERROR);
+        Response.Status.INTERNAL_SERVER_ERROR),
+    IPYTHON_CONVERT_BUSY(67, "Too many notebook conversions in progress, try again later",
+        Response.Status.SERVICE_UNAVAILABLE),
+    PROMETHEUS_QUERY_REJECTED(68, "Prometheus query exceeds the allowed cost or response size",
+        Response.Status.BAD_REQUEST);
 
     private Integer code;
     private String message;
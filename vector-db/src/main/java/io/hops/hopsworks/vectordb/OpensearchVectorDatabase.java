@@ -159,12 +159,25 @@ public class OpensearchVectorDatabase implements VectorDatabase {
    *     If there is an error while fetching indices.
    */
   public Set<Index> getAllIndices() throws VectorDatabaseException {
+    return getIndices("*"); // "*" retrieves all indices
+  }
+
+  /**
+   * Get the indices matching a pattern from OpenSearch, without listing the whole cluster.
+   *
+   * @param pattern
+   *     index name or wildcard expression.
+   * @return A set of index names.
+   * @throws VectorDatabaseException
+   *     If there is an error while fetching indices.
+   */
+  public Set<Index> getIndices(String pattern) throws VectorDatabaseException {
     Optional<Set<Index>> result = retry(() -> {
-      GetIndexRequest getIndexRequest = new GetIndexRequest("*"); // "*" retrieves all indices
+      GetIndexRequest getIndexRequest = new GetIndexRequest(pattern);
       GetIndexResponse getIndexResponse = getClient().indices().get(getIndexRequest, RequestOptions.DEFAULT);
       return new OperationResult<Set<Index>>(true,
           getIndexResponse.getMappings().keySet().stream().map(Index::new).collect(Collectors.toSet()));
-    }, "get all indices", Sets.newHashSet(RestStatus.OK));
+    }, "get indices", Sets.newHashSet(RestStatus.OK));
     return result.orElseGet(Sets::newHashSet);
   }
 
@@ -24,6 +24,7 @@ import java.util.Set;
 public interface VectorDatabase {
   Optional<Index> getIndex(String name) throws VectorDatabaseException;
   Set<Index> getAllIndices() throws VectorDatabaseException;
+  Set<Index> getIndices(String pattern) throws VectorDatabaseException;
   void createIndex(Index index, String mapping, Boolean skipIfExist) throws VectorDatabaseException;
   void deleteIndex(Index index) throws VectorDatabaseException;
   void addFields(Index index, String mapping) throws VectorDatabaseException;